@@ -131,6 +131,21 @@ public class Info implements Serializable
 
     private String compressionFormat = PackCompression.DEFAULT.toName();
 
+    /**
+     * Determines if small files are compressed together in solid blocks.
+     */
+    private boolean solidCompression = true;
+
+    /**
+     * The extensions of files stored uncompressed, or {@code null} to use the packager's defaults.
+     */
+    private Set<String> storedExtensions;
+
+    /**
+     * Determines if pack streams are written to the installer jar without compression.
+     */
+    private boolean storedPacks;
+
     private boolean requirePrivilegedExecution = false;
 
     private boolean requirePrivilegedExecutionUninstaller = false;
@@ -433,6 +448,71 @@ public class Info implements Serializable
         this.compressionFormat = compression.toName();
     }
 
+    /**
+     * Determines if consecutive small files of a pack are compressed together in solid blocks, when a compression
+     * format is set.
+     *
+     * @return {@code true} if small files are compressed in solid blocks
+     */
+    public boolean isSolidCompression()
+    {
+        return solidCompression;
+    }
+
+    /**
+     * Determines if consecutive small files of a pack are compressed together in solid blocks, when a compression
+     * format is set.
+     *
+     * @param solid if {@code true}, compress small files in solid blocks
+     */
+    public void setSolidCompression(boolean solid)
+    {
+        this.solidCompression = solid;
+    }
+
+    /**
+     * Returns the extensions of files that are stored uncompressed, when a compression format is set.
+     *
+     * @return the lower case extensions, without the leading dot, or {@code null} to use the packager's defaults
+     */
+    public Set<String> getStoredExtensions()
+    {
+        return storedExtensions;
+    }
+
+    /**
+     * Sets the extensions of files that are stored uncompressed, when a compression format is set.
+     *
+     * @param extensions the lower case extensions, without the leading dot, or {@code null} to use the packager's
+     *                   defaults
+     */
+    public void setStoredExtensions(Set<String> extensions)
+    {
+        this.storedExtensions = extensions;
+    }
+
+    /**
+     * Determines if pack streams are written to the installer jar without compression, so that the installer can
+     * copy uncompressed files directly from the jar.
+     *
+     * @return {@code true} if pack streams are stored
+     */
+    public boolean isStoredPacks()
+    {
+        return storedPacks;
+    }
+
+    /**
+     * Determines if pack streams are written to the installer jar without compression, so that the installer can
+     * copy uncompressed files directly from the jar.
+     *
+     * @param stored if {@code true}, store pack streams
+     */
+    public void setStoredPacks(boolean stored)
+    {
+        this.storedPacks = stored;
+    }
+
     /**
      * This class represents an author.
      *
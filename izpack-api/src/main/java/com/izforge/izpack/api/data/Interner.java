@@ -0,0 +1,61 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.api.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares equal instances of values, so that the many pack files of a pack with the same attributes or directories
+ * reference a single instance of each.
+ * <p/>
+ * Shared instances are also written once when the packs are serialized, so the sharing carries over to the
+ * installer. Interned values must not be modified afterwards.
+ */
+class Interner
+{
+    /**
+     * The shared instances.
+     */
+    private final Map<Object, Object> values = new HashMap<Object, Object>();
+
+
+    /**
+     * Returns the shared instance equal to a value.
+     *
+     * @param value the value. May be {@code null}
+     * @return the shared instance, or {@code null} if {@code value} is {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T intern(T value)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+        Object result = values.get(value);
+        if (result == null)
+        {
+            values.put(value, value);
+            result = value;
+        }
+        return (T) result;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.api.data;
+
+import java.util.List;
+
+/**
+ * {@link Variables} that record changes in a versioned change journal, and notify listeners of them.
+ * <p/>
+ * Callers should check for this interface, as other {@link Variables} implementations need not support it.
+ */
+public interface JournaledVariables extends Variables
+{
+    /**
+     * Sets a variable, recording the source of the change in the change journal.
+     *
+     * @param name   the variable name
+     * @param value  the variable value. May be {@code null}
+     * @param source a description of what is changing the variable. May be {@code null}
+     */
+    void set(String name, String value, String source);
+
+    /**
+     * Returns the current version of the variables.
+     * <p/>
+     * The version is incremented each time a variable changes value.
+     *
+     * @return the current version
+     */
+    long getVersion();
+
+    /**
+     * Returns the changes made since the specified version.
+     * <p/>
+     * Only a limited number of changes are retained. If changes made since the version have been discarded,
+     * {@code null} is returned, and the caller must examine all variables instead.
+     *
+     * @param version the version, as returned by {@link #getVersion()}
+     * @return the changes made since {@code version}, in the order they were made, or {@code null} if they are no
+     *         longer available
+     */
+    List<VariableChange> getChanges(long version);
+
+    /**
+     * Registers a listener to be notified of variable changes.
+     *
+     * @param listener the listener
+     */
+    void addListener(VariableListener listener);
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener the listener
+     */
+    void removeListener(VariableListener listener);
+}
@@ -22,8 +22,10 @@ package com.izforge.izpack.api.data;
 import java.io.InputStream;
 import java.text.MessageFormat;
 import java.util.Collections;
+import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -60,6 +62,11 @@ public class LocaleDatabase extends TreeMap<String, String> implements Messages
      */
     private final Locales locales;
 
+    /**
+     * The compiled message formats, keyed on message identifier. Created on demand.
+     */
+    private transient volatile Map<String, CompiledFormat> formats;
+
     /**
      * The logger.
      */
@@ -178,17 +185,16 @@ public class LocaleDatabase extends TreeMap<String, String> implements Messages
         String pattern = (id != null) ? super.get(id) : null;
         if (pattern != null)
         {
-            if (args.length > 0)
+            if (args.length > 0 && pattern.indexOf('{') >= 0)
             {
                 try
                 {
-                    // replace all ' characters because MessageFormat.format() doesn't substitute quoted place
-                    // holders '{0}'
-                    // TODO - fix quotes in langpacks to MessageFormat format
-                    pattern = pattern.replace('\'', TEMP_QUOTING_CHARACTER);
-
-                    pattern = MessageFormat.format(pattern, args);
-                    result = MessageFormat.format(pattern, args);
+                    // format twice, as arguments may themselves contain placeholders
+                    result = getFormat(id, pattern).format(args);
+                    if (result.indexOf('{') >= 0 || result.indexOf('\'') >= 0)
+                    {
+                        result = MessageFormat.format(result, args);
+                    }
 
                     // replace all ' characters back
                     result = result.replace(TEMP_QUOTING_CHARACTER, '\'');
@@ -201,6 +207,7 @@ public class LocaleDatabase extends TreeMap<String, String> implements Messages
             }
             else
             {
+                // no placeholders, so formatting would return the pattern unchanged
                 result = pattern;
             }
         }
@@ -291,15 +298,108 @@ public class LocaleDatabase extends TreeMap<String, String> implements Messages
         }
 
         String message = get(key);
-
-        // replace all ' characters because MessageFormat.format()
-        // don't substitute quoted place holders '{0}'
-        message = message.replace('\'', TEMP_QUOTING_CHARACTER);
-
-        message = MessageFormat.format(message, (Object[]) variables);
+        if (message.indexOf('{') < 0)
+        {
+            return message;
+        }
+        message = getFormat(key, message).format(variables);
 
         // replace all ' characters back
         return message.replace(TEMP_QUOTING_CHARACTER, '\'');
     }
 
+    /**
+     * Returns the compiled format for a message, compiling it on first use.
+     * <p/>
+     * All ' characters are replaced prior to compilation, because MessageFormat doesn't substitute quoted
+     * placeholders '{0}'. The result must therefore have them replaced back.
+     * <p/>
+     * A compiled format is discarded if the message or the default locale changes.
+     *
+     * @param id      the message identifier
+     * @param pattern the message
+     * @return the compiled format
+     * @throws IllegalArgumentException if the message is not a valid pattern
+     */
+    private CompiledFormat getFormat(String id, String pattern)
+    {
+        Map<String, CompiledFormat> map = formats;
+        if (map == null)
+        {
+            map = new ConcurrentHashMap<String, CompiledFormat>();
+            formats = map;
+        }
+        Locale locale = Locale.getDefault();
+        CompiledFormat result = map.get(id);
+        if (result == null || !result.matches(pattern, locale))
+        {
+            // TODO - fix quotes in langpacks to MessageFormat format
+            result = new CompiledFormat(pattern, locale);
+            map.put(id, result);
+        }
+        return result;
+    }
+
+    /**
+     * A message compiled to a {@code MessageFormat}.
+     */
+    private static class CompiledFormat
+    {
+        /**
+         * The message the format was compiled from.
+         */
+        private final String pattern;
+
+        /**
+         * The locale the format was compiled for.
+         */
+        private final Locale locale;
+
+        /**
+         * The format. Not thread safe, so access is synchronized.
+         */
+        private final MessageFormat format;
+
+        /**
+         * Constructs a {@code CompiledFormat}.
+         *
+         * @param pattern the message
+         * @param locale  the locale
+         * @throws IllegalArgumentException if the message is not a valid pattern
+         */
+        public CompiledFormat(String pattern, Locale locale)
+        {
+            this.pattern = pattern;
+            this.locale = locale;
+            this.format = new MessageFormat(pattern.replace('\'', TEMP_QUOTING_CHARACTER), locale);
+        }
+
+        /**
+         * Determines if the format was compiled from the specified message and locale.
+         *
+         * @param pattern the message
+         * @param locale  the locale
+         * @return {@code true} if the format matches
+         */
+        public boolean matches(String pattern, Locale locale)
+        {
+            return this.pattern.equals(pattern) && this.locale.equals(locale);
+        }
+
+        /**
+         * Formats arguments.
+         *
+         * @param args the arguments
+         * @return the formatted message, with ' characters still replaced
+         * @throws IllegalArgumentException if an argument cannot be formatted
+         */
+        public String format(Object[] args)
+        {
+            synchronized (format)
+            {
+                return format.format(args);
+            }
+        }
+    }
+
 }
@@ -48,20 +48,32 @@ public class PackFile implements Serializable
     private final int instanceId;
 
     /**
-     * Only available when compiling. Makes no sense when installing, use relativePath instead.
+     * Only available when compiling. Makes no sense when installing, use getRelativeSourcePath() instead.
      */
     @SuppressWarnings("TransientFieldNotInitialized")
     public transient String sourcePath = null;//should not be used anymore - may deprecate it.
     /**
-     * The Path of the file relative to the given (compiletime's) basedirectory.
+     * The directory of the path of the file relative to the given (compiletime's) basedirectory, or {@code null}
+     * if the relative path has no directory. Directories are shared between the files of a pack.
+     */
+    private String relativeDir = null;
+
+    /**
+     * The name part of the path of the file relative to the given (compiletime's) basedirectory.
      * Can be resolved while installing with either current working directory or directory of "installer.jar".
      */
-    private String relativePath = null;
+    private String relativeName = null;
+
+    /**
+     * The directory of the target file, or {@code null} if the target path has no directory. Directories are
+     * shared between the files of a pack.
+     */
+    private String targetDir = null;
 
     /**
-     * The full path name of the target file
+     * The name of the target file.
      */
-    private String targetPath = null;
+    private String targetName = null;
 
     /**
      * The target operating system constraints of this file
@@ -69,9 +81,14 @@ public class PackFile implements Serializable
     private List<OsModel> osConstraints = null;
 
     /**
-     * The packed file
+     * The packed file. Only serialized as {@link #loosePath}, for files of loose packs.
      */
-    private File packedFile;
+    private transient File packedFile;
+
+    /**
+     * The path of the packed file, if it belongs to a loose pack, otherwise {@code null}.
+     */
+    private String loosePath;
 
     /**
      * The length of the file in bytes
@@ -84,6 +101,28 @@ public class PackFile implements Serializable
      */
     private long size = 0;
 
+    /**
+     * Sets the compression format the file is stored with.
+     * <p/>
+     * At compile time, a non-null format overrides the format the packager would select for the file.
+     *
+     * @param compression the compression format, or {@code null} to use the installation's format
+     */
+    public void setCompression(PackCompression compression)
+    {
+        this.compression = compression;
+    }
+
+    /**
+     * Returns the compression format the file is stored with.
+     *
+     * @return the compression format, or {@code null} if the installation's format is used
+     */
+    public PackCompression getCompression()
+    {
+        return compression;
+    }
+
     /**
      * The last-modification time of the file.
      */
@@ -136,6 +175,31 @@ public class PackFile implements Serializable
      */
     private String condition = null;
 
+    /**
+     * The uncompressed size of each block, if the file is compressed in independent blocks.
+     */
+    private long blockSize = 0;
+
+    /**
+     * The compressed sizes of the blocks, or {@code null} if the file is compressed as a single stream.
+     */
+    private long[] blocks;
+
+    /**
+     * The solid block the file is compressed in, or {@code null} if it isn't part of a solid block.
+     */
+    private SolidBlock solidBlock;
+
+    /**
+     * The offset of the file within the decompressed solid block.
+     */
+    private long solidOffset;
+
+    /**
+     * The compression format the file is stored with, or {@code null} to use the installation's format.
+     */
+    private PackCompression compression;
+
     /**
      * Constructs and initializes from a source file.
      *
@@ -186,9 +250,18 @@ public class PackFile implements Serializable
 
         this.packedFile = src;
         this.sourcePath = src.getPath().replace(File.separatorChar, '/');
-        this.relativePath = (relativeSourcePath != null) ? relativeSourcePath.replace(File.separatorChar, '/') : null;
+        if (relativeSourcePath != null)
+        {
+            String relativePath = relativeSourcePath.replace(File.separatorChar, '/');
+            int index = relativePath.lastIndexOf('/');
+            this.relativeDir = (index != -1) ? relativePath.substring(0, index) : null;
+            this.relativeName = relativePath.substring(index + 1);
+        }
 
-        this.targetPath = target.replace(File.separatorChar, '/');
+        String targetPath = target.replace(File.separatorChar, '/');
+        int index = targetPath.lastIndexOf('/');
+        this.targetDir = (index != -1) ? targetPath.substring(0, index) : null;
+        this.targetName = targetPath.substring(index + 1);
         this.osConstraints = osList;
         this.override = override;
         this.overrideRenameTo = overrideRenameTo;
@@ -283,10 +356,16 @@ public class PackFile implements Serializable
     }
 
     /**
-     * The packed file object
+     * The packed file object.
+     * <p/>
+     * When installing, this is only available for files of loose packs.
      */
     public final File getFile()
     {
+        if (packedFile == null && loosePath != null)
+        {
+            packedFile = new File(loosePath);
+        }
         return packedFile;
     }
 
@@ -315,6 +394,72 @@ public class PackFile implements Serializable
         this.size = size;
     }
 
+    /**
+     * Sets the block index of a file compressed in independent blocks.
+     * <p/>
+     * Each block but the last holds {@code blockSize} bytes of the file. The blocks are stored in order.
+     *
+     * @param blockSize the uncompressed size of each block
+     * @param blocks    the compressed sizes of the blocks
+     */
+    public void setBlocks(long blockSize, long[] blocks)
+    {
+        this.blockSize = blockSize;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Returns the uncompressed size of each block, if the file is compressed in independent blocks.
+     *
+     * @return the block size, or {@code 0} if the file is compressed as a single stream
+     */
+    public long getBlockSize()
+    {
+        return blockSize;
+    }
+
+    /**
+     * Returns the compressed sizes of the blocks, if the file is compressed in independent blocks.
+     *
+     * @return the compressed block sizes, or {@code null} if the file is compressed as a single stream
+     */
+    public long[] getBlocks()
+    {
+        return blocks;
+    }
+
+    /**
+     * Places the file in a solid block.
+     *
+     * @param block  the solid block
+     * @param offset the offset of the file within the decompressed block
+     */
+    public void setSolidBlock(SolidBlock block, long offset)
+    {
+        this.solidBlock = block;
+        this.solidOffset = offset;
+    }
+
+    /**
+     * Returns the solid block the file is compressed in.
+     *
+     * @return the solid block, or {@code null} if the file isn't part of a solid block
+     */
+    public SolidBlock getSolidBlock()
+    {
+        return solidBlock;
+    }
+
+    /**
+     * Returns the offset of the file within the decompressed solid block.
+     *
+     * @return the offset, in bytes
+     */
+    public long getSolidOffset()
+    {
+        return solidOffset;
+    }
+
     /**
      * The last-modification time of the file.
      */
@@ -366,7 +511,7 @@ public class PackFile implements Serializable
      */
     public final String getTargetPath()
     {
-        return targetPath;
+        return (targetDir != null) ? targetDir + '/' + targetName : targetName;
     }
 
     /**
@@ -375,7 +520,7 @@ public class PackFile implements Serializable
      */
     public String getRelativeSourcePath()
     {
-        return relativePath;
+        return (relativeDir != null) ? relativeDir + '/' + relativeName : relativeName;
     }
 
     /**
@@ -427,6 +572,64 @@ public class PackFile implements Serializable
         {
             // file is part of a loose pack
             length = 0;
+            loosePath = packedFile.getPath();
         }
+        else
+        {
+            loosePath = null;
+        }
+    }
+
+    /**
+     * Replaces the packed file.
+     *
+     * @param file the packed file
+     */
+    void setFile(File file)
+    {
+        packedFile = file;
+        if (loosePath != null)
+        {
+            loosePath = (file != null) ? file.getPath() : null;
+        }
+    }
+
+    /**
+     * Records the source path of a file of a loose pack, if it hasn't been recorded when the file was added.
+     * <p/>
+     * This is required for packs made loose after their files were added.
+     */
+    void recordLoosePath()
+    {
+        if (loosePath == null && packedFile != null)
+        {
+            loosePath = packedFile.getPath();
+        }
+    }
+
+    /**
+     * Copies the loose pack source path of another file.
+     *
+     * @param file the file to copy from
+     */
+    void setLoosePath(PackFile file)
+    {
+        loosePath = file.loosePath;
+    }
+
+    /**
+     * Replaces the attributes and path directories of this file with equal instances shared with other files.
+     *
+     * @param interner the interner holding the shared instances
+     */
+    void intern(Interner interner)
+    {
+        relativeDir = interner.intern(relativeDir);
+        targetDir = interner.intern(targetDir);
+        osConstraints = interner.intern(osConstraints);
+        overrideRenameTo = interner.intern(overrideRenameTo);
+        additionals = interner.intern(additionals);
+        pack200Properties = interner.intern(pack200Properties);
+        condition = interner.intern(condition);
     }
 }
@@ -26,6 +26,7 @@ import com.izforge.izpack.api.data.binding.OsModel;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.*;
 
@@ -56,7 +57,22 @@ public class PackInfo implements Serializable
     /**
      * Files of the Pack.
      */
-    private final Map<PackFile, File> files = new LinkedHashMap<PackFile, File>();
+    private final List<PackFile> files = new ArrayList<PackFile>();
+
+    /**
+     * Shares equal attributes and directories between the files of the pack. Only used when compiling.
+     */
+    private transient Interner interner;
+
+    /**
+     * The files of the pack, as a set.
+     */
+    private transient Set<PackFile> fileSet;
+
+    /**
+     * The files of the pack, as a PackFile -> File map.
+     */
+    private transient Map<PackFile, File> fileMap;
 
     /**
      * Parsables files in this Pack.
@@ -143,11 +159,12 @@ public class PackInfo implements Serializable
      * @param osList     the target operation system(s) of this pack.
      * @param override   what to do if the file already exists when installing
      * @param condition  the condition to decide whether the file should be extracted
+     * @return the pack file describing the added file
      * @throws FileNotFoundException if the file specified does not exist.
      */
-    public void addFile(File baseDir, File file, String targetfile, List<OsModel> osList, OverrideType override,
-                        String overrideRenameTo, Blockable blockable, Map additionals, String condition,
-                        Map<String, String> pack200Properties)
+    public PackFile addFile(File baseDir, File file, String targetfile, List<OsModel> osList, OverrideType override,
+                            String overrideRenameTo, Blockable blockable, Map additionals, String condition,
+                            Map<String, String> pack200Properties)
             throws IOException
     {
         if (!file.exists())
@@ -159,33 +176,66 @@ public class PackInfo implements Serializable
                                          additionals, pack200Properties);
         packFile.setLoosePackInfo(pack.isLoose());
         packFile.setCondition(condition);
-        files.put(packFile, file);
+        if (interner == null)
+        {
+            interner = new Interner();
+        }
+        packFile.intern(interner);
+        files.add(packFile);
+        return packFile;
     }
 
     /**
      * Set of PackFile objects for this Pack.
+     * <p/>
+     * This is a view of {@link #getPackFileList()}, in the order the files were added. Files may be removed through
+     * it, but not added.
      */
     public Set<PackFile> getPackFiles()
     {
-        return files.keySet();
+        if (fileSet == null)
+        {
+            fileSet = new PackFileSet();
+        }
+        return fileSet;
+    }
+
+    /**
+     * The PackFile objects for this Pack, in the order they were added.
+     * <p/>
+     * Entries may be added, removed and replaced through the list.
+     */
+    public List<PackFile> getPackFileList()
+    {
+        return files;
     }
 
     /**
      * Provides the complete ordered map of PackFile -> File objects for being able to override entries.
+     * <p/>
+     * This is a view of {@link #getPackFileList()}. Key lookups are linear in the number of files.
+     *
      * @return the PackFile map
+     * @deprecated use {@link #getPackFileList()} and {@link #getFile(PackFile)}
      */
+    @Deprecated
     public Map<PackFile, File> getPackFilesMap()
     {
-        return files;
+        if (fileMap == null)
+        {
+            fileMap = new PackFileMap();
+        }
+        return fileMap;
     }
 
     /**
-     * The file described by the specified PackFile. Returns <tt>null</tt> if the PackFile did not
-     * come from the set returned by {@link #getPackFiles()}.
+     * The file described by the specified PackFile.
+     * <p/>
+     * When installing, this is only available for files of loose packs.
      */
     public File getFile(PackFile packFile)
     {
-        return files.get(packFile);
+        return packFile.getFile();
     }
 
     /**
@@ -309,4 +359,141 @@ public class PackInfo implements Serializable
     {
         pack.setOnDeselect(name, condition);
     }
+
+    /**
+     * Set view of the files of the pack.
+     */
+    private class PackFileSet extends AbstractSet<PackFile>
+    {
+        @Override
+        public Iterator<PackFile> iterator()
+        {
+            return files.iterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return files.size();
+        }
+
+        @Override
+        public boolean contains(Object object)
+        {
+            return files.contains(object);
+        }
+
+        @Override
+        public void clear()
+        {
+            files.clear();
+        }
+    }
+
+    /**
+     * PackFile -> File map view of the files of the pack.
+     */
+    private class PackFileMap extends AbstractMap<PackFile, File>
+    {
+        /**
+         * The entries.
+         */
+        private final Set<Entry<PackFile, File>> entries = new AbstractSet<Entry<PackFile, File>>()
+        {
+            @Override
+            public Iterator<Entry<PackFile, File>> iterator()
+            {
+                final Iterator<PackFile> iterator = files.iterator();
+                return new Iterator<Entry<PackFile, File>>()
+                {
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<PackFile, File> next()
+                    {
+                        final PackFile packFile = iterator.next();
+                        return new SimpleEntry<PackFile, File>(packFile, packFile.getFile())
+                        {
+                            @Override
+                            public File setValue(File value)
+                            {
+                                packFile.setFile(value);
+                                return super.setValue(value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        iterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return files.size();
+            }
+
+            @Override
+            public void clear()
+            {
+                files.clear();
+            }
+        };
+
+        @Override
+        public Set<Entry<PackFile, File>> entrySet()
+        {
+            return entries;
+        }
+
+        @Override
+        public File put(PackFile key, File value)
+        {
+            int index = files.indexOf(key);
+            if (index >= 0)
+            {
+                // as for a LinkedHashMap, the existing key is retained
+                PackFile existing = files.get(index);
+                File previous = existing.getFile();
+                existing.setFile(value);
+                return previous;
+            }
+            key.setFile(value);
+            files.add(key);
+            return null;
+        }
+
+        @Override
+        public void clear()
+        {
+            files.clear();
+        }
+    }
+
+    /**
+     * Records the source paths of loose pack files before serialization, as the pack may have been made loose
+     * after its files were added.
+     *
+     * @param out the stream to write to
+     * @throws IOException for any I/O error
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        if (pack.isLoose())
+        {
+            for (PackFile file : files)
+            {
+                file.recordLoosePath();
+            }
+        }
+        out.defaultWriteObject();
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.api.data;
+
+import java.io.Serializable;
+
+/**
+ * A solid block: consecutive small files of a pack, compressed together as a single stream.
+ * <p/>
+ * The compressed block is stored in the pack stream at the position of its first file, which has the compressed
+ * size of the block as its {@link PackFile#size() size}. The other files of the block have a size of {@code 0}.
+ * Each file records its offset within the decompressed block.
+ */
+public class SolidBlock implements Serializable
+{
+    private static final long serialVersionUID = 4207113452163209741L;
+
+    /**
+     * The uncompressed size of the block.
+     */
+    private long length;
+
+    /**
+     * The compressed size of the block.
+     */
+    private long size;
+
+
+    /**
+     * Returns the uncompressed size of the block.
+     *
+     * @return the uncompressed size, in bytes
+     */
+    public long length()
+    {
+        return length;
+    }
+
+    /**
+     * Returns the compressed size of the block.
+     *
+     * @return the compressed size, in bytes
+     */
+    public long size()
+    {
+        return size;
+    }
+
+    /**
+     * Sets the sizes of the block, once it has been compressed.
+     *
+     * @param length the uncompressed size, in bytes
+     * @param size   the compressed size, in bytes
+     */
+    public void setSizes(long length, long size)
+    {
+        this.length = length;
+        this.size = size;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.api.data;
+
+/**
+ * A change to a variable, as recorded in the change journal of {@link Variables}.
+ */
+public class VariableChange
+{
+    /**
+     * The version of the variables after the change.
+     */
+    private final long version;
+
+    /**
+     * The variable name.
+     */
+    private final String name;
+
+    /**
+     * The previous value. May be {@code null}.
+     */
+    private final String oldValue;
+
+    /**
+     * The new value. May be {@code null}.
+     */
+    private final String newValue;
+
+    /**
+     * The source of the change. May be {@code null}.
+     */
+    private final String source;
+
+
+    /**
+     * Constructs a {@code VariableChange}.
+     *
+     * @param version  the version of the variables after the change
+     * @param name     the variable name
+     * @param oldValue the previous value, or {@code null} if the variable wasn't set
+     * @param newValue the new value, or {@code null} if the variable was unset
+     * @param source   the source of the change. May be {@code null}
+     */
+    public VariableChange(long version, String name, String oldValue, String newValue, String source)
+    {
+        this.version = version;
+        this.name = name;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.source = source;
+    }
+
+    /**
+     * Returns the version of the variables after the change.
+     *
+     * @return the version
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Returns the variable name.
+     *
+     * @return the variable name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Returns the previous value.
+     *
+     * @return the previous value, or {@code null} if the variable wasn't set
+     */
+    public String getOldValue()
+    {
+        return oldValue;
+    }
+
+    /**
+     * Returns the new value.
+     *
+     * @return the new value, or {@code null} if the variable was unset
+     */
+    public String getNewValue()
+    {
+        return newValue;
+    }
+
+    /**
+     * Returns the source of the change.
+     *
+     * @return a description of what changed the variable. May be {@code null}
+     */
+    public String getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Returns a string representation of the change.
+     *
+     * @return a string representation of the change
+     */
+    @Override
+    public String toString()
+    {
+        return "VariableChange[" + version + ": " + name + "='" + oldValue + "'->'" + newValue + "'"
+                + ((source != null) ? " (" + source + ")" : "") + "]";
+    }
+}
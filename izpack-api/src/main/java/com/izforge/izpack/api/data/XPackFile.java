@@ -72,6 +72,7 @@ public class XPackFile extends PackFile implements Comparable<XPackFile>
               file.override(), file.overrideRenameTo(), file.blockable(), file.getAdditionals(), null);
         this.position = 0;
         this.setCondition(file.getCondition());
+        this.setLoosePath(file);
     }
 
     /**
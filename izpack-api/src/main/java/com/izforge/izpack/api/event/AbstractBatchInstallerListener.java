@@ -0,0 +1,58 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.api.event;
+
+/**
+ * Abstract implementation of {@link BatchInstallerListener}.
+ * <p/>
+ * This delivers batches of up to {@link #DEFAULT_BATCH_SIZE} files asynchronously, at least every
+ * {@link #DEFAULT_BATCH_INTERVAL} milliseconds.
+ */
+public abstract class AbstractBatchInstallerListener extends AbstractInstallerListener
+        implements BatchInstallerListener
+{
+    /**
+     * The default batch size.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * The default batch interval, in milliseconds.
+     */
+    public static final long DEFAULT_BATCH_INTERVAL = 250;
+
+    @Override
+    public int getBatchSize()
+    {
+        return DEFAULT_BATCH_SIZE;
+    }
+
+    @Override
+    public long getBatchInterval()
+    {
+        return DEFAULT_BATCH_INTERVAL;
+    }
+
+    @Override
+    public boolean isAsynchronous()
+    {
+        return true;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.api.event;
+
+import com.izforge.izpack.api.exception.IzPackException;
+
+import java.util.List;
+
+/**
+ * An {@link InstallerListener} that is notified of installed files and directories in batches, rather than
+ * one at a time via {@link #afterFile afterFile()} and {@link #afterDir afterDir()}.
+ * <p/>
+ * Files are accumulated until {@link #getBatchSize()} files have been installed, or {@link #getBatchInterval()}
+ * milliseconds have passed since the first file of the batch was installed. All outstanding files of a pack are
+ * delivered before {@link #afterPack afterPack()} is invoked.
+ * <p/>
+ * If {@link #isAsynchronous()} returns {@code true}, batches are delivered on a dispatcher thread, so that
+ * the installation doesn't wait for the listener. Batches for a listener are always delivered in installation order.
+ * Exceptions thrown by an asynchronous listener are reported on the installation thread at the next notification.
+ * <p/>
+ * {@link #afterFile afterFile()} and {@link #afterDir afterDir()} are not invoked on batch listeners.
+ * {@link #beforeFile beforeFile()} and {@link #beforeDir beforeDir()} are only invoked if {@link #isFileListener()}
+ * returns {@code true}.
+ */
+public interface BatchInstallerListener extends InstallerListener
+{
+    /**
+     * Returns the maximum number of files delivered in a single batch.
+     *
+     * @return the maximum batch size. Must be at least {@code 1}
+     */
+    int getBatchSize();
+
+    /**
+     * Returns the maximum time that a file may wait for its batch to fill before the batch is delivered.
+     *
+     * @return the batch interval, in milliseconds. If {@code 0}, batches are only delivered when full, or at the
+     *         end of each pack
+     */
+    long getBatchInterval();
+
+    /**
+     * Determines if batches are delivered on a dispatcher thread.
+     *
+     * @return {@code true} if batches are delivered asynchronously, {@code false} if they are delivered on the
+     *         installation thread
+     */
+    boolean isAsynchronous();
+
+    /**
+     * Invoked after files and directories have been installed.
+     *
+     * @param files the installed files and directories, in the order they were installed
+     * @throws IzPackException for any error
+     */
+    void afterFiles(List<InstalledFile> files);
+}
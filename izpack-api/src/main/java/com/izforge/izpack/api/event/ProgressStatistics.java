@@ -0,0 +1,125 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.api.event;
+
+/**
+ * A snapshot of installation progress, weighted by bytes.
+ */
+public class ProgressStatistics
+{
+    /**
+     * The number of bytes processed.
+     */
+    private final long bytes;
+
+    /**
+     * The total number of bytes to process, or {@code -1} if it is unknown.
+     */
+    private final long totalBytes;
+
+    /**
+     * The time elapsed since processing started, in milliseconds.
+     */
+    private final long elapsed;
+
+
+    /**
+     * Constructs a {@code ProgressStatistics}.
+     *
+     * @param bytes      the number of bytes processed
+     * @param totalBytes the total number of bytes to process, or {@code -1} if it is unknown
+     * @param elapsed    the time elapsed since processing started, in milliseconds
+     */
+    public ProgressStatistics(long bytes, long totalBytes, long elapsed)
+    {
+        this.bytes = bytes;
+        this.totalBytes = totalBytes;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Returns the number of bytes processed.
+     *
+     * @return the number of bytes processed
+     */
+    public long getBytes()
+    {
+        return bytes;
+    }
+
+    /**
+     * Returns the total number of bytes to process.
+     *
+     * @return the total number of bytes, or {@code -1} if it is unknown
+     */
+    public long getTotalBytes()
+    {
+        return totalBytes;
+    }
+
+    /**
+     * Returns the time elapsed since processing started.
+     *
+     * @return the elapsed time, in milliseconds
+     */
+    public long getElapsedTime()
+    {
+        return elapsed;
+    }
+
+    /**
+     * Returns the average throughput since processing started.
+     *
+     * @return the throughput in bytes per second, or {@code -1} if it cannot be determined yet
+     */
+    public long getBytesPerSecond()
+    {
+        return (elapsed > 0 && bytes > 0) ? bytes * 1000 / elapsed : -1;
+    }
+
+    /**
+     * Returns the estimated time remaining, based on the average throughput.
+     *
+     * @return the estimated remaining time in milliseconds, or {@code -1} if it cannot be determined yet
+     */
+    public long getRemainingTime()
+    {
+        long rate = getBytesPerSecond();
+        if (rate <= 0 || totalBytes < 0)
+        {
+            return -1;
+        }
+        return Math.max(0, totalBytes - bytes) * 1000 / rate;
+    }
+
+    /**
+     * Returns the fraction of bytes processed.
+     *
+     * @return the fraction processed, in the range {@code [0, 1]}, or {@code -1} if the total is unknown
+     */
+    public double getFraction()
+    {
+        if (totalBytes < 0)
+        {
+            return -1;
+        }
+        return (totalBytes == 0) ? 1 : Math.min(1, (double) bytes / totalBytes);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.api.event;
+
+/**
+ * A {@link ProgressListener} that is also notified of byte-weighted progress statistics, such as throughput and
+ * the estimated time remaining.
+ * <p/>
+ * Statistics are published at a limited rate, independent of the number of files processed.
+ */
+public interface ProgressStatisticsListener extends ProgressListener
+{
+
+    /**
+     * Invoked to notify progress statistics.
+     *
+     * @param statistics the progress statistics
+     */
+    void progress(ProgressStatistics statistics);
+}
@@ -0,0 +1,130 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.api.metrics;
+
+import java.util.List;
+
+/**
+ * Counters, timers and byte totals collected while installing.
+ * <p/>
+ * Metrics are identified by name. The installer records:
+ * <ul>
+ * <li>installation phases, named <em>phase.&lt;phase&gt;</em>. See the constants of this interface</li>
+ * <li>packs, named <em>pack.&lt;pack name&gt;</em>, with the time taken to unpack the pack and its size</li>
+ * <li>listener callbacks, named <em>listener.&lt;listener class&gt;.&lt;callback&gt;</em></li>
+ * </ul>
+ * The installation metrics are available to {@link com.izforge.izpack.api.event.InstallerListener}s by constructor
+ * injection, and are written as a JSON report next to the install log when installation completes.
+ */
+public interface InstallMetrics
+{
+    /**
+     * Reading the packs information.
+     */
+    String PACKS_INFO = "phase.packsInfo";
+
+    /**
+     * Opening pack streams.
+     */
+    String PACK_STREAM = "phase.packStream";
+
+    /**
+     * Reading and decompressing file content from the pack streams, per file.
+     */
+    String READ = "phase.read";
+
+    /**
+     * Writing file content to disk, per file.
+     */
+    String WRITE = "phase.write";
+
+    /**
+     * Copying file content directly from files already installed, or from pack streams stored uncompressed in the
+     * installer jar, per file.
+     */
+    String LOCAL_COPY = "phase.localCopy";
+
+    /**
+     * Synchronizing the files of a pack with the disk, per pack.
+     */
+    String SYNC = "phase.sync";
+
+    /**
+     * Parsing parsable files.
+     */
+    String PARSE_FILES = "phase.parseFiles";
+
+    /**
+     * Running executable files.
+     */
+    String EXECUTE_FILES = "phase.executeFiles";
+
+    /**
+     * Performing update checks.
+     */
+    String UPDATE_CHECKS = "phase.updateChecks";
+
+    /**
+     * Committing the file queue.
+     */
+    String FILE_QUEUE = "phase.fileQueue";
+
+    /**
+     * Writing the installation information.
+     */
+    String INSTALLATION_INFORMATION = "phase.installationInformation";
+
+    /**
+     * Writing the uninstaller.
+     */
+    String UNINSTALL_DATA = "phase.uninstallData";
+
+    /**
+     * Unpacking, from reading the packs information to notifying listeners that all packs are installed.
+     */
+    String UNPACK = "phase.unpack";
+
+    /**
+     * The prefix of pack metric names.
+     */
+    String PACK_PREFIX = "pack.";
+
+    /**
+     * The prefix of listener metric names.
+     */
+    String LISTENER_PREFIX = "listener.";
+
+    /**
+     * Returns the named metric, creating it if it doesn't exist.
+     * <p/>
+     * Frequently updated metrics should be looked up once, and the returned instance used thereafter.
+     *
+     * @param name the metric name
+     * @return the corresponding metric
+     */
+    Metric getMetric(String name);
+
+    /**
+     * Returns the metrics.
+     *
+     * @return the metrics, ordered on name
+     */
+    List<Metric> getMetrics();
+}
@@ -0,0 +1,158 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.api.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named counter that accumulates the number of times an operation was performed, the time spent performing it,
+ * and the number of bytes it processed.
+ * <p/>
+ * Metrics are thread safe. Timings use {@link System#nanoTime()}:
+ * <pre>
+ * long start = System.nanoTime();
+ * ...
+ * metric.stop(start, bytes);
+ * </pre>
+ */
+public final class Metric
+{
+    /**
+     * The metric name.
+     */
+    private final String name;
+
+    /**
+     * The number of times the operation was performed.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The time spent performing the operation, in nanoseconds.
+     */
+    private final AtomicLong time = new AtomicLong();
+
+    /**
+     * The number of bytes processed.
+     */
+    private final AtomicLong bytes = new AtomicLong();
+
+
+    /**
+     * Constructs a {@code Metric}.
+     *
+     * @param name the metric name
+     */
+    public Metric(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Returns the metric name.
+     *
+     * @return the metric name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Records an operation.
+     *
+     * @param nanos the time spent performing the operation, in nanoseconds
+     * @param bytes the number of bytes processed
+     */
+    public void add(long nanos, long bytes)
+    {
+        count.incrementAndGet();
+        if (nanos != 0)
+        {
+            time.addAndGet(nanos);
+        }
+        if (bytes != 0)
+        {
+            this.bytes.addAndGet(bytes);
+        }
+    }
+
+    /**
+     * Records an operation that started at the specified time.
+     *
+     * @param start the start time, as returned by {@link System#nanoTime()}
+     */
+    public void stop(long start)
+    {
+        add(System.nanoTime() - start, 0);
+    }
+
+    /**
+     * Records an operation that started at the specified time.
+     *
+     * @param start the start time, as returned by {@link System#nanoTime()}
+     * @param bytes the number of bytes processed
+     */
+    public void stop(long start, long bytes)
+    {
+        add(System.nanoTime() - start, bytes);
+    }
+
+    /**
+     * Returns the number of times the operation was performed.
+     *
+     * @return the number of times the operation was performed
+     */
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * Returns the time spent performing the operation.
+     *
+     * @return the time spent, in nanoseconds
+     */
+    public long getTime()
+    {
+        return time.get();
+    }
+
+    /**
+     * Returns the number of bytes processed.
+     *
+     * @return the number of bytes processed
+     */
+    public long getBytes()
+    {
+        return bytes.get();
+    }
+
+    /**
+     * Returns a string representation of the metric.
+     *
+     * @return a string representation of the metric
+     */
+    @Override
+    public String toString()
+    {
+        return name + ": count=" + getCount() + ", time=" + (getTime() / 1000000) + "ms, bytes=" + getBytes();
+    }
+}
@@ -68,4 +68,27 @@ public class LocaleDatabaseTest
                 "string.with.quoted.arguments", new String[]{"one", null}));
     }
 
+    @Test
+    public void testGetWithoutPlaceholders()
+    {
+        assertEquals("String Text", db.get("string", "one"));
+        db.put("quoted", "It's 'quoted'");
+        assertEquals("It's 'quoted'", db.get("quoted", "one"));
+    }
+
+    @Test
+    public void testFormatUpdatedWhenMessageChanges()
+    {
+        assertEquals("Argument1: one, Argument2: two", db.get("string.with.arguments", "one", "two"));
+        db.put("string.with.arguments", "{1} then {0}");
+        assertEquals("two then one", db.get("string.with.arguments", "one", "two"));
+        assertEquals("two then one", db.getString("string.with.arguments", new String[]{"one", "two"}));
+    }
+
+    @Test
+    public void testArgumentWithPlaceholder()
+    {
+        assertEquals("Argument1: two, Argument2: two", db.get("string.with.arguments", "{1}", "two"));
+    }
+
 }
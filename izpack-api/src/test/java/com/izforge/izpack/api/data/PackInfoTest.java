@@ -0,0 +1,190 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.api.data;
+
+import com.izforge.izpack.api.data.binding.OsModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link PackInfo} class.
+ */
+public class PackInfoTest
+{
+    /**
+     * Temporary folder for the pack files.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+    /**
+     * Verifies that equal attributes of the files of a pack are shared, and that paths survive serialization.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testSharedAttributes() throws Exception
+    {
+        File baseDir = temporaryFolder.getRoot();
+        File dir = temporaryFolder.newFolder("lib");
+        File a = createFile(dir, "a.txt");
+        File b = createFile(dir, "b.txt");
+        OsModel os = new OsModel(null, "unix", null, null, null);
+
+        PackInfo packInfo = new PackInfo("pack", "pack", null, true, false, null, true, 0);
+        PackFile fileA = packInfo.addFile(baseDir, a, "$INSTALL_PATH/lib/a.txt", Collections.singletonList(os),
+                                          OverrideType.OVERRIDE_TRUE, null, Blockable.BLOCKABLE_NONE, null,
+                                          "cond", null);
+        PackFile fileB = packInfo.addFile(baseDir, b, "$INSTALL_PATH/lib/b.txt", new ArrayList<OsModel>(
+                Collections.singletonList(os)), OverrideType.OVERRIDE_TRUE, null, Blockable.BLOCKABLE_NONE, null,
+                                          new String("cond"), null);
+        assertSame(fileA.osConstraints(), fileB.osConstraints());
+        assertSame(fileA.getCondition(), fileB.getCondition());
+
+        List<PackFile> files = serialize(packInfo).getPackFileList();
+        assertEquals(2, files.size());
+        assertEquals("$INSTALL_PATH/lib/a.txt", files.get(0).getTargetPath());
+        assertEquals("lib/b.txt", files.get(1).getRelativeSourcePath());
+        assertSame(files.get(0).osConstraints(), files.get(1).osConstraints());
+        assertNull(files.get(0).getFile());
+    }
+
+    /**
+     * Verifies that the source file of a loose pack file is available after serialization.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testLooseFile() throws Exception
+    {
+        File file = createFile(temporaryFolder.getRoot(), "a.txt");
+        PackInfo packInfo = new PackInfo("pack", "pack", null, true, true, null, true, 0);
+        packInfo.addFile(temporaryFolder.getRoot(), file, "a.txt", null, OverrideType.OVERRIDE_TRUE, null,
+                         Blockable.BLOCKABLE_NONE, null, null, null);
+
+        PackFile packFile = serialize(packInfo).getPackFileList().get(0);
+        assertEquals(file.getPath(), packFile.getFile().getPath());
+        assertEquals("a.txt", packFile.getTargetPath());
+    }
+
+    /**
+     * Verifies that the set and map views reflect, and update, the files of the pack.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testViews() throws Exception
+    {
+        File baseDir = temporaryFolder.getRoot();
+        File a = createFile(baseDir, "a.txt");
+        File b = createFile(baseDir, "b.txt");
+        File c = createFile(baseDir, "c.txt");
+        PackInfo packInfo = new PackInfo("pack", "pack", null, true, false, null, true, 0);
+        PackFile fileA = packInfo.addFile(baseDir, a, "a.txt", null, OverrideType.OVERRIDE_TRUE, null,
+                                          Blockable.BLOCKABLE_NONE, null, null, null);
+        PackFile fileB = packInfo.addFile(baseDir, b, "b.txt", null, OverrideType.OVERRIDE_TRUE, null,
+                                          Blockable.BLOCKABLE_NONE, null, null, null);
+
+        Set<PackFile> set = packInfo.getPackFiles();
+        assertEquals(2, set.size());
+        assertTrue(set.contains(fileB));
+        Iterator<PackFile> iterator = set.iterator();
+        assertSame(fileA, iterator.next());
+        assertSame(fileB, iterator.next());
+
+        Map<PackFile, File> map = packInfo.getPackFilesMap();
+        assertEquals(a, map.get(fileA));
+        assertEquals(a, map.put(fileA, c));
+        assertEquals(2, map.size());
+        assertEquals(c, packInfo.getFile(fileA));
+
+        // replace the entries, as the multi-volume packager used to
+        Map<PackFile, File> replacement = new LinkedHashMap<PackFile, File>();
+        replacement.put(fileB, b);
+        replacement.put(fileA, a);
+        map.clear();
+        map.putAll(replacement);
+        assertSame(fileB, packInfo.getPackFileList().get(0));
+        assertSame(fileA, packInfo.getPackFileList().get(1));
+        assertEquals(a, packInfo.getFile(fileA));
+
+        set.remove(fileB);
+        assertFalse(map.containsKey(fileB));
+        assertEquals(1, packInfo.getPackFileList().size());
+    }
+
+    /**
+     * Creates a file.
+     *
+     * @param dir  the parent directory
+     * @param name the file name
+     * @return the new file
+     * @throws IOException for any I/O error
+     */
+    private File createFile(File dir, String name) throws IOException
+    {
+        File file = new File(dir, name);
+        if (!file.createNewFile())
+        {
+            throw new IOException("Failed to create " + file);
+        }
+        return file;
+    }
+
+    /**
+     * Serializes and deserializes a pack.
+     *
+     * @param packInfo the pack
+     * @return the deserialized pack
+     * @throws Exception for any error
+     */
+    private PackInfo serialize(PackInfo packInfo) throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(packInfo);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        return (PackInfo) in.readObject();
+    }
+}
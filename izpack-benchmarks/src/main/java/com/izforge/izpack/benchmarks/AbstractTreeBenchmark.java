@@ -0,0 +1,113 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Base class for benchmarks over a {@link SyntheticTree}.
+ * <p/>
+ * The tree parameters may be overridden on the command line, e.g. {@code -p fileCount=10000 -p meanSize=1024}.
+ */
+public abstract class AbstractTreeBenchmark
+{
+    /**
+     * The number of files in the tree.
+     */
+    @Param({"1000"})
+    public int fileCount;
+
+    /**
+     * The mean file size, in bytes.
+     */
+    @Param({"16384"})
+    public int meanSize;
+
+    /**
+     * The file size distribution.
+     */
+    @Param({"LOG_NORMAL"})
+    public SyntheticTree.Distribution distribution;
+
+    /**
+     * The file content.
+     */
+    @Param({"TEXT"})
+    public SyntheticTree.Content content;
+
+    /**
+     * The working directory.
+     */
+    protected File dir;
+
+    /**
+     * The installer fixture.
+     */
+    protected InstallerFixture fixture;
+
+
+    /**
+     * Removes the working directory.
+     *
+     * @throws IOException for any I/O error
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        if (dir != null)
+        {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    /**
+     * Creates the working directory and generates the tree within it.
+     *
+     * @throws IOException for any I/O error
+     */
+    protected void createTree() throws IOException
+    {
+        dir = createTempDir();
+        fixture = new InstallerFixture(dir);
+        fixture.createFiles(new SyntheticTree(fileCount, meanSize, distribution, content));
+    }
+
+    /**
+     * Creates a temporary directory.
+     *
+     * @return a new temporary directory
+     * @throws IOException if the directory cannot be created
+     */
+    protected static File createTempDir() throws IOException
+    {
+        File result = File.createTempFile("izpack-benchmark", "");
+        if (!result.delete() || !result.mkdir())
+        {
+            throw new IOException("Failed to create directory: " + result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks, writing the results in JMH JSON format so that they can be tracked by CI.
+ * <p/>
+ * Accepts the standard JMH command line options. Unless {@code -rf} or {@code -rff} are specified, results are
+ * written to {@code izpack-benchmarks.json}.
+ */
+public class BenchmarkRunner
+{
+    /**
+     * The default results file.
+     */
+    private static final String RESULTS = "izpack-benchmarks.json";
+
+    /**
+     * Main line.
+     *
+     * @param args the JMH command line arguments
+     * @throws Exception for any error
+     */
+    public static void main(String[] args) throws Exception
+    {
+        CommandLineOptions options = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if (!options.getResultFormat().hasValue())
+        {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!options.getResult().hasValue())
+        {
+            builder.result(RESULTS);
+        }
+        if (options.shouldHelp() || options.shouldList() || options.shouldListProfilers()
+                || options.shouldListResultFormats())
+        {
+            org.openjdk.jmh.Main.main(args);
+        }
+        else
+        {
+            new Runner(builder.build()).run();
+        }
+    }
+}
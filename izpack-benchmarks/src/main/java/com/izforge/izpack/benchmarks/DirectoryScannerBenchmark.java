@@ -0,0 +1,86 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.benchmarks;
+
+import com.izforge.izpack.util.file.DirectoryScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks scanning a {@link SyntheticTree} with {@link DirectoryScanner}, as done for filesets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectoryScannerBenchmark extends AbstractTreeBenchmark
+{
+    /**
+     * The directory to scan.
+     */
+    private File files;
+
+
+    /**
+     * Generates the tree.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        createTree();
+        files = new File(dir, "files");
+    }
+
+    /**
+     * Scans the tree.
+     *
+     * @return the number of included files
+     * @throws Exception for any error
+     */
+    @Benchmark
+    public int scan() throws Exception
+    {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(files);
+        scanner.setIncludes(new String[]{"**/*.dat"});
+        scanner.setExcludes(new String[]{"**/dir1/**", "**/file*7.dat"});
+        scanner.addDefaultExcludes();
+        scanner.setCaseSensitive(true);
+        scanner.scan();
+        return scanner.getIncludedFilesCount();
+    }
+}
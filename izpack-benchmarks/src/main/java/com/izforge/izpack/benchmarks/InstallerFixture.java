@@ -0,0 +1,184 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.benchmarks;
+
+import com.izforge.izpack.api.data.PackCompression;
+import com.izforge.izpack.compiler.CompilerConfig;
+import com.izforge.izpack.compiler.container.CompilerContainer;
+import com.izforge.izpack.compiler.data.CompilerData;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+
+/**
+ * Compiles installers for a {@link SyntheticTree}, and performs automated installations with them.
+ * <p/>
+ * The installer has a single pack containing the tree, and a target and install panel. Installations are performed
+ * in a separate JVM, as the installer exits the JVM when it completes.
+ */
+public class InstallerFixture
+{
+    /**
+     * The working directory.
+     */
+    private final File dir;
+
+    /**
+     * The application name, used by the installer for its lock file.
+     */
+    private static final String APPNAME = "IzPack Benchmark";
+
+    /**
+     * The install file template. The pack contains the "files" directory.
+     */
+    private static final String INSTALL_XML
+            = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<izpack:installation version=\"5.0\" xmlns:izpack=\"http://izpack.org/schema/installation\">\n"
+            + "  <info>\n"
+            + "    <appname>" + APPNAME + "</appname>\n"
+            + "    <appversion>1.0</appversion>\n"
+            + "    <uninstaller write=\"no\"/>\n"
+            + "  </info>\n"
+            + "  <locale><langpack iso3=\"eng\"/></locale>\n"
+            + "  <panels>\n"
+            + "    <panel classname=\"TargetPanel\" id=\"target\"/>\n"
+            + "    <panel classname=\"InstallPanel\" id=\"install\"/>\n"
+            + "  </panels>\n"
+            + "  <packs>\n"
+            + "    <pack name=\"Files\" required=\"yes\">\n"
+            + "      <description>Synthetic files</description>\n"
+            + "      <fileset dir=\"files\" targetdir=\"$INSTALL_PATH\"/>\n"
+            + "    </pack>\n"
+            + "  </packs>\n"
+            + "</izpack:installation>\n";
+
+    /**
+     * The automated installation record template. The {0} is replaced with the installation path.
+     */
+    private static final String AUTO_XML
+            = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<AutomatedInstallation langpack=\"eng\">\n"
+            + "  <com.izforge.izpack.panels.target.TargetPanel id=\"target\">\n"
+            + "    <installpath>{0}</installpath>\n"
+            + "  </com.izforge.izpack.panels.target.TargetPanel>\n"
+            + "  <com.izforge.izpack.panels.install.InstallPanel id=\"install\"/>\n"
+            + "</AutomatedInstallation>\n";
+
+
+    /**
+     * Constructs an {@code InstallerFixture}.
+     *
+     * @param dir the working directory
+     */
+    public InstallerFixture(File dir)
+    {
+        this.dir = dir;
+    }
+
+    /**
+     * Generates the files to package.
+     *
+     * @param tree the tree to generate
+     * @return the total size of the generated files, in bytes
+     * @throws IOException for any I/O error
+     */
+    public long createFiles(SyntheticTree tree) throws IOException
+    {
+        File files = new File(dir, "files");
+        FileUtils.deleteDirectory(files);
+        return tree.create(files);
+    }
+
+    /**
+     * Compiles an installer for the generated files.
+     *
+     * @param compression the pack compression format
+     * @return the installer jar
+     * @throws Exception if compilation fails
+     */
+    public File compile(PackCompression compression) throws Exception
+    {
+        File installFile = new File(dir, "install.xml");
+        FileUtils.writeStringToFile(installFile, INSTALL_XML, "UTF-8");
+        File out = new File(dir, "installer-" + compression.toName() + ".jar");
+        FileUtils.deleteQuietly(out);
+
+        CompilerContainer container = new CompilerContainer();
+        try
+        {
+            Handler handler = new ConsoleHandler();
+            handler.setLevel(Level.WARNING);
+            container.addConfig("installFile", installFile.getAbsolutePath());
+            container.addComponent(CompilerData.class, new CompilerData(
+                    compression.toName(), installFile.getAbsolutePath(), dir.getAbsolutePath(), out.getAbsolutePath(),
+                    false));
+            container.addComponent(Handler.class, handler);
+            container.getComponent(CompilerConfig.class).executeCompiler();
+        }
+        finally
+        {
+            container.dispose();
+        }
+        return out;
+    }
+
+    /**
+     * Performs an automated installation in a separate JVM.
+     *
+     * @param installer  the installer jar
+     * @param installDir the installation directory. Any existing directory is removed first
+     * @throws IOException          for any I/O error, or if the installation fails
+     * @throws InterruptedException if interrupted waiting for the installer
+     */
+    public void install(File installer, File installDir) throws IOException, InterruptedException
+    {
+        FileUtils.deleteDirectory(installDir);
+        FileUtils.deleteQuietly(new File(System.getProperty("java.io.tmpdir"), "iz-" + APPNAME + ".tmp"));
+        File record = new File(dir, "auto.xml");
+        FileUtils.writeStringToFile(record, AUTO_XML.replace("{0}", installDir.getAbsolutePath()), "UTF-8");
+
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+        ProcessBuilder builder = new ProcessBuilder(java, "-jar", installer.getAbsolutePath(),
+                                                    record.getAbsolutePath());
+        builder.redirectErrorStream(true);
+        Process process = builder.start();
+        InputStream output = process.getInputStream();
+        String log;
+        try
+        {
+            log = IOUtils.toString(output, "UTF-8");
+        }
+        finally
+        {
+            IOUtils.closeQuietly(output);
+        }
+        int status = process.waitFor();
+        if (status != 0)
+        {
+            throw new IOException("Installation failed with exit status " + status + ":\n" + log);
+        }
+    }
+}
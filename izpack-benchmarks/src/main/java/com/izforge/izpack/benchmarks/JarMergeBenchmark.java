@@ -0,0 +1,135 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.benchmarks;
+
+import com.izforge.izpack.merge.jar.JarMerge;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Benchmarks merging a jar into an installer with {@link JarMerge}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JarMergeBenchmark
+{
+    /**
+     * The number of entries in the jar.
+     */
+    @Param({"2000"})
+    public int entryCount;
+
+    /**
+     * The size of each entry, in bytes.
+     */
+    @Param({"2048"})
+    public int entrySize;
+
+    /**
+     * The jar to merge.
+     */
+    private File jar;
+
+
+    /**
+     * Creates the jar to merge.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        jar = File.createTempFile("izpack-benchmark", ".jar");
+        Random random = new Random(0);
+        byte[] content = new byte[entrySize];
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+        try
+        {
+            for (int i = 0; i < entryCount; ++i)
+            {
+                out.putNextEntry(new ZipEntry("com/example/package" + (i / 100) + "/Class" + i + ".class"));
+                random.nextBytes(content);
+                out.write(content);
+                out.closeEntry();
+            }
+        }
+        finally
+        {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Deletes the jar.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        FileUtils.deleteQuietly(jar);
+    }
+
+    /**
+     * Merges the jar.
+     *
+     * @return the number of bytes written
+     * @throws IOException for any I/O error
+     */
+    @Benchmark
+    public long merge() throws IOException
+    {
+        CountingOutputStream counter = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+        ZipOutputStream out = new ZipOutputStream(counter);
+        JarMerge merge = new JarMerge(jar.getAbsolutePath(), "com/example", "com/example",
+                                      new HashMap<OutputStream, List<String>>());
+        merge.merge(out);
+        out.close();
+        return counter.getByteCount();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.benchmarks;
+
+import com.izforge.izpack.api.data.LocaleDatabase;
+import com.izforge.izpack.api.resource.Locales;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks message lookup and formatting in {@link LocaleDatabase}, using the english installer langpack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocaleDatabaseBenchmark
+{
+    /**
+     * The messages.
+     */
+    private LocaleDatabase messages;
+
+    /**
+     * The langpack resource.
+     */
+    private static final String LANGPACK = "/com/izforge/izpack/bin/langpacks/installer/eng.xml";
+
+
+    /**
+     * Loads the messages.
+     */
+    @Setup
+    public void setUp()
+    {
+        InputStream in = getClass().getResourceAsStream(LANGPACK);
+        try
+        {
+            messages = new LocaleDatabase(in, (Locales) null);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Returns a message without arguments.
+     *
+     * @return the message
+     */
+    @Benchmark
+    public String get()
+    {
+        return messages.get("installer.quit.message");
+    }
+
+    /**
+     * Returns a message formatted with an argument.
+     *
+     * @return the message
+     */
+    @Benchmark
+    public String getWithArguments()
+    {
+        return messages.get("installer.platform", "Linux");
+    }
+}
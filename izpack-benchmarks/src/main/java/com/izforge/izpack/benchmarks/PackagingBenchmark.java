@@ -0,0 +1,82 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.benchmarks;
+
+import com.izforge.izpack.api.data.PackCompression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks compiling an installer for each pack compression format.
+ * <p/>
+ * For large trees, this is dominated by {@code Packager.writePacks()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PackagingBenchmark extends AbstractTreeBenchmark
+{
+    /**
+     * The pack compression format.
+     */
+    @Param({"default", "deflate", "gz", "bzip2", "xz", "lzma", "lz4"})
+    public String compression;
+
+
+    /**
+     * Generates the tree.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        createTree();
+    }
+
+    /**
+     * Compiles the installer.
+     *
+     * @return the installer jar
+     * @throws Exception if compilation fails
+     */
+    @Benchmark
+    public File compile() throws Exception
+    {
+        return fixture.compile(PackCompression.byName(compression));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.benchmarks;
+
+import com.izforge.izpack.api.data.AutomatedInstallData;
+import com.izforge.izpack.api.rules.Condition;
+import com.izforge.izpack.core.container.DefaultContainer;
+import com.izforge.izpack.core.data.DefaultVariables;
+import com.izforge.izpack.core.rules.ConditionContainer;
+import com.izforge.izpack.core.rules.RulesEngineImpl;
+import com.izforge.izpack.core.rules.process.VariableCondition;
+import com.izforge.izpack.util.Platforms;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks condition lookup and evaluation in {@link RulesEngineImpl}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesEngineBenchmark
+{
+    /**
+     * The number of conditions.
+     */
+    @Param({"1000"})
+    public int conditionCount;
+
+    /**
+     * The rules.
+     */
+    private RulesEngineImpl rules;
+
+    /**
+     * A condition identifier.
+     */
+    private String id;
+
+    /**
+     * A condition expression, combining several conditions.
+     */
+    private String expression;
+
+
+    /**
+     * Creates the rules.
+     */
+    @Setup
+    public void setUp()
+    {
+        DefaultVariables variables = new DefaultVariables();
+        AutomatedInstallData installData = new AutomatedInstallData(variables, Platforms.LINUX);
+        rules = new RulesEngineImpl(installData, new ConditionContainer(new DefaultContainer()),
+                                    installData.getPlatform());
+        Map<String, Condition> conditions = new HashMap<String, Condition>();
+        for (int i = 0; i < conditionCount; ++i)
+        {
+            String name = "cond" + i;
+            VariableCondition condition = new VariableCondition("var" + i, "true");
+            condition.setId(name);
+            conditions.put(name, condition);
+            variables.set("var" + i, Boolean.toString(i % 2 == 0));
+        }
+        rules.readConditionMap(conditions);
+        variables.setRules(rules);
+        id = "cond" + (conditionCount / 2);
+        expression = "cond0+cond2|!cond1+" + id;
+    }
+
+    /**
+     * Looks up a condition by identifier.
+     *
+     * @return the condition
+     */
+    @Benchmark
+    public Condition getCondition()
+    {
+        return rules.getCondition(id);
+    }
+
+    /**
+     * Evaluates a condition by identifier.
+     *
+     * @return the condition result
+     */
+    @Benchmark
+    public boolean isConditionTrue()
+    {
+        return rules.isConditionTrue(id);
+    }
+
+    /**
+     * Evaluates a condition expression.
+     *
+     * @return the expression result
+     */
+    @Benchmark
+    public boolean isExpressionTrue()
+    {
+        return rules.isConditionTrue(expression);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.benchmarks;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Generates a synthetic install tree of files with a configurable count, size distribution and content.
+ * <p/>
+ * The tree is generated from a fixed seed, so that the same parameters always produce the same tree.
+ */
+public class SyntheticTree
+{
+    /**
+     * The distribution of file sizes.
+     */
+    public enum Distribution
+    {
+        /**
+         * All files have the mean size.
+         */
+        FIXED,
+
+        /**
+         * Sizes are uniformly distributed between 0 and twice the mean size.
+         */
+        UNIFORM,
+
+        /**
+         * Sizes follow a log-normal distribution, i.e. many small files and a few large ones, as is typical of
+         * real applications.
+         */
+        LOG_NORMAL
+    }
+
+    /**
+     * The content of the generated files.
+     */
+    public enum Content
+    {
+        /**
+         * Text, which compresses well.
+         */
+        TEXT,
+
+        /**
+         * Random bytes, which don't compress.
+         */
+        BINARY
+    }
+
+    /**
+     * The number of files.
+     */
+    private final int fileCount;
+
+    /**
+     * The mean file size, in bytes.
+     */
+    private final int meanSize;
+
+    /**
+     * The size distribution.
+     */
+    private final Distribution distribution;
+
+    /**
+     * The file content.
+     */
+    private final Content content;
+
+    /**
+     * The maximum number of files per directory.
+     */
+    private static final int FILES_PER_DIR = 100;
+
+    /**
+     * The standard deviation of the logarithm of the size, for {@link Distribution#LOG_NORMAL}.
+     */
+    private static final double SIGMA = 1.5;
+
+    /**
+     * The words used to generate text content.
+     */
+    private static final String[] WORDS = {"install", "pack", "variable", "condition", "panel", "the", "of", "and",
+                                           "izpack", "file", "directory", "compress", "unpack", "listener", "jar",
+                                           "public", "class", "return", "null", "void", "String", "import"};
+
+    /**
+     * The random number seed.
+     */
+    private static final long SEED = 0x1290ACL;
+
+
+    /**
+     * Constructs a {@code SyntheticTree}.
+     *
+     * @param fileCount    the number of files
+     * @param meanSize     the mean file size, in bytes
+     * @param distribution the size distribution
+     * @param content      the file content
+     */
+    public SyntheticTree(int fileCount, int meanSize, Distribution distribution, Content content)
+    {
+        this.fileCount = fileCount;
+        this.meanSize = meanSize;
+        this.distribution = distribution;
+        this.content = content;
+    }
+
+    /**
+     * Generates the tree.
+     *
+     * @param dir the directory to generate the tree in
+     * @return the total size of the generated files, in bytes
+     * @throws IOException for any I/O error
+     */
+    public long create(File dir) throws IOException
+    {
+        Random random = new Random(SEED);
+        byte[] block = createBlock(random);
+        long total = 0;
+        for (int i = 0; i < fileCount; ++i)
+        {
+            File parent = new File(dir, "dir" + (i / FILES_PER_DIR));
+            if (!parent.isDirectory() && !parent.mkdirs())
+            {
+                throw new IOException("Failed to create directory: " + parent);
+            }
+            long size = nextSize(random);
+            write(new File(parent, "file" + i + ".dat"), size, block, random);
+            total += size;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the next file size.
+     *
+     * @param random the random number generator
+     * @return the file size
+     */
+    private long nextSize(Random random)
+    {
+        switch (distribution)
+        {
+            case UNIFORM:
+                return (long) (random.nextDouble() * 2 * meanSize);
+            case LOG_NORMAL:
+                // the mean of a log-normal distribution is exp(mu + sigma^2 / 2)
+                double size = meanSize * Math.exp(SIGMA * random.nextGaussian() - SIGMA * SIGMA / 2);
+                return Math.min((long) size, 64L * meanSize);
+            default:
+                return meanSize;
+        }
+    }
+
+    /**
+     * Creates a block of content, from which files are generated.
+     *
+     * @param random the random number generator
+     * @return the block
+     */
+    private byte[] createBlock(Random random)
+    {
+        byte[] block = new byte[64 * 1024];
+        if (content == Content.BINARY)
+        {
+            random.nextBytes(block);
+        }
+        else
+        {
+            StringBuilder text = new StringBuilder(block.length + 16);
+            while (text.length() < block.length)
+            {
+                text.append(WORDS[random.nextInt(WORDS.length)]);
+                text.append(random.nextInt(10) == 0 ? '\n' : ' ');
+            }
+            for (int i = 0; i < block.length; ++i)
+            {
+                block[i] = (byte) text.charAt(i);
+            }
+        }
+        return block;
+    }
+
+    /**
+     * Writes a file, starting from a random offset of the content block.
+     *
+     * @param file   the file to write
+     * @param size   the file size
+     * @param block  the content block
+     * @param random the random number generator
+     * @throws IOException for any I/O error
+     */
+    private void write(File file, long size, byte[] block, Random random) throws IOException
+    {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try
+        {
+            int offset = random.nextInt(block.length);
+            while (size > 0)
+            {
+                if (content == Content.BINARY)
+                {
+                    // don't repeat content, else it compresses
+                    random.nextBytes(block);
+                }
+                int length = (int) Math.min(size, block.length - offset);
+                out.write(block, offset, length);
+                size -= length;
+                offset = 0;
+            }
+        }
+        finally
+        {
+            IOUtils.closeQuietly(out);
+        }
+    }
+}
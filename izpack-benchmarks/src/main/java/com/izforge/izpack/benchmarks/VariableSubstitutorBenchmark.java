@@ -0,0 +1,140 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.benchmarks;
+
+import com.izforge.izpack.api.substitutor.SubstitutionType;
+import com.izforge.izpack.core.data.DefaultVariables;
+import com.izforge.izpack.core.substitutor.VariableSubstitutorReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks variable substitution of a parsable file with {@link VariableSubstitutorReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableSubstitutorBenchmark
+{
+    /**
+     * The size of the text to substitute, in characters.
+     */
+    @Param({"65536"})
+    public int length;
+
+    /**
+     * The average number of characters between variable references.
+     */
+    @Param({"64"})
+    public int spacing;
+
+    /**
+     * The substitution type.
+     */
+    @Param({"TYPE_PLAIN", "TYPE_SHELL", "TYPE_XML"})
+    public SubstitutionType type;
+
+    /**
+     * The variables.
+     */
+    private DefaultVariables variables;
+
+    /**
+     * The text to substitute.
+     */
+    private String text;
+
+    /**
+     * The number of distinct variables.
+     */
+    private static final int VARIABLES = 100;
+
+
+    /**
+     * Creates the variables and text.
+     */
+    @Setup
+    public void setUp()
+    {
+        variables = new DefaultVariables();
+        for (int i = 0; i < VARIABLES; ++i)
+        {
+            variables.set("var" + i, "value of variable " + i);
+        }
+        Random random = new Random(0);
+        StringBuilder builder = new StringBuilder(length + 32);
+        while (builder.length() < length)
+        {
+            int gap = random.nextInt(2 * spacing);
+            for (int i = 0; i < gap; ++i)
+            {
+                builder.append((char) ('a' + random.nextInt(26)));
+            }
+            if (random.nextBoolean())
+            {
+                builder.append("${var").append(random.nextInt(VARIABLES)).append('}');
+            }
+            else
+            {
+                builder.append("$var").append(random.nextInt(VARIABLES)).append(' ');
+            }
+        }
+        text = builder.toString();
+    }
+
+    /**
+     * Substitutes variables in the text.
+     *
+     * @return the number of characters read
+     * @throws IOException for any I/O error
+     */
+    @Benchmark
+    public long substitute() throws IOException
+    {
+        Reader reader = new VariableSubstitutorReader(new StringReader(text), variables, type);
+        char[] buffer = new char[8192];
+        long count = 0;
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) != -1)
+        {
+            count += read;
+        }
+        reader.close();
+        return count;
+    }
+}
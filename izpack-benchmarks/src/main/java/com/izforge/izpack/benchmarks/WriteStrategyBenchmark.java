@@ -0,0 +1,206 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.benchmarks;
+
+import com.izforge.izpack.api.data.Blockable;
+import com.izforge.izpack.api.data.OverrideType;
+import com.izforge.izpack.api.data.PackFile;
+import com.izforge.izpack.installer.unpacker.Cancellable;
+import com.izforge.izpack.installer.unpacker.DefaultFileUnpacker;
+import com.izforge.izpack.installer.unpacker.FileUnpacker;
+import com.izforge.izpack.installer.unpacker.WriteStrategy;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks writing extracted files with each {@link WriteStrategy}.
+ * <p/>
+ * The files are unpacked from memory, so that only the cost of writing them is measured. The <em>pack</em>
+ * strategy includes synchronizing all files at the end, as the unpacker does after each pack.
+ * <p/>
+ * The strategies are:
+ * <ul>
+ * <li><em>legacy</em> - unbuffered streams, as used when no strategy is configured</li>
+ * <li><em>buffered</em> - buffered channel writes</li>
+ * <li><em>preallocate</em> - buffered channel writes to preallocated files</li>
+ * <li><em>pack</em> - buffered channel writes, synchronized once all files are written</li>
+ * <li><em>file</em> - buffered channel writes, synchronizing each file as it is closed</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WriteStrategyBenchmark extends AbstractTreeBenchmark
+{
+    /**
+     * The write strategy.
+     */
+    @Param({"legacy", "buffered", "preallocate", "pack", "file"})
+    public String strategy;
+
+    /**
+     * The write buffer size, in bytes.
+     */
+    @Param({"65536"})
+    public int bufferSize;
+
+    /**
+     * The pack files to unpack.
+     */
+    private final List<PackFile> files = new ArrayList<PackFile>();
+
+    /**
+     * The content of the pack files.
+     */
+    private final List<byte[]> contents = new ArrayList<byte[]>();
+
+    /**
+     * The write strategy.
+     */
+    private WriteStrategy writeStrategy;
+
+    /**
+     * The installation directory.
+     */
+    private File installDir;
+
+    /**
+     * Never cancels unpacking.
+     */
+    private final Cancellable cancellable = new Cancellable()
+    {
+        @Override
+        public boolean isCancelled()
+        {
+            return false;
+        }
+    };
+
+
+    /**
+     * Generates the tree and loads it into memory.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        createTree();
+        File base = new File(dir, "files");
+        for (File file : FileUtils.listFiles(base, null, true))
+        {
+            String path = file.getPath().substring(base.getPath().length() + 1);
+            files.add(new PackFile(base, file, path, null, OverrideType.OVERRIDE_TRUE, null,
+                                   Blockable.BLOCKABLE_NONE, null));
+            contents.add(FileUtils.readFileToByteArray(file));
+        }
+        writeStrategy = createStrategy();
+        installDir = new File(dir, "install");
+    }
+
+    /**
+     * Removes the files written by the previous iteration.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Setup(Level.Iteration)
+    public void clean() throws IOException
+    {
+        FileUtils.deleteDirectory(installDir);
+    }
+
+    /**
+     * Unpacks the files.
+     *
+     * @throws Exception for any error
+     */
+    @Benchmark
+    public void unpack() throws Exception
+    {
+        List<File> written = new ArrayList<File>();
+        for (int i = 0; i < files.size(); ++i)
+        {
+            PackFile file = files.get(i);
+            File target = new File(installDir, file.getTargetPath());
+            FileUnpacker unpacker = new DefaultFileUnpacker(cancellable, null);
+            unpacker.setWriteStrategy(writeStrategy);
+            unpacker.unpack(file, new ByteArrayInputStream(contents.get(i)), target);
+            written.add(target);
+        }
+        if (writeStrategy.getSync() == WriteStrategy.Sync.PACK)
+        {
+            for (File file : written)
+            {
+                WriteStrategy.sync(file);
+            }
+        }
+    }
+
+    /**
+     * Creates the write strategy.
+     *
+     * @return the write strategy
+     */
+    private WriteStrategy createStrategy()
+    {
+        if ("legacy".equals(strategy))
+        {
+            return WriteStrategy.DEFAULT;
+        }
+        else if ("buffered".equals(strategy))
+        {
+            return new WriteStrategy(WriteStrategy.Sync.NONE, false, bufferSize);
+        }
+        else if ("preallocate".equals(strategy))
+        {
+            return new WriteStrategy(WriteStrategy.Sync.NONE, true, bufferSize);
+        }
+        else if ("pack".equals(strategy))
+        {
+            return new WriteStrategy(WriteStrategy.Sync.PACK, false, bufferSize);
+        }
+        else if ("file".equals(strategy))
+        {
+            return new WriteStrategy(WriteStrategy.Sync.FILE, false, bufferSize);
+        }
+        throw new IllegalArgumentException("Invalid strategy: " + strategy);
+    }
+}
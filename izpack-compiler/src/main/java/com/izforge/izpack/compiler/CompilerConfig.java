@@ -1057,9 +1057,11 @@ public class CompilerConfig extends Thread
                         }
                         
                         logAddingFile(file.toString(), target);
-                        pack.addFile(baseDir, file, target, osList,
-                                     fs.getOverride(), fs.getOverrideRenameTo(),
-                                     fs.getBlockable(), fs.getAdditionals(), fs.getCondition(), fs.getPack200Properties());
+                        PackFile packFile = pack.addFile(baseDir, file, target, osList,
+                                                         fs.getOverride(), fs.getOverrideRenameTo(),
+                                                         fs.getBlockable(), fs.getAdditionals(), fs.getCondition(),
+                                                         fs.getPack200Properties());
+                        packFile.setCompression(fs.getCompression());
                     }
                 }
             }
@@ -1109,6 +1111,7 @@ public class CompilerConfig extends Thread
             Blockable blockable = getBlockableValue(singleFileNode, osList);
             Map<String, ?> additionals = getAdditionals(singleFileNode);
             String conditionId = parseConditionAttribute(singleFileNode);
+            PackCompression compression = getCompressionValue(singleFileNode);
            
             File file = new File(src);
             if (!file.isAbsolute())
@@ -1125,8 +1128,10 @@ public class CompilerConfig extends Thread
             try
             {
                 logAddingFile(file.toString(), target);
-                pack.addFile(baseDir, file, target, osList, override, overrideRenameTo, blockable,
-                             additionals, conditionId, readPack200Properties(singleFileNode));
+                PackFile packFile = pack.addFile(baseDir, file, target, osList, override, overrideRenameTo,
+                                                 blockable, additionals, conditionId,
+                                                 readPack200Properties(singleFileNode));
+                packFile.setCompression(compression);
             }
             catch (IOException x)
             {
@@ -1169,6 +1174,7 @@ public class CompilerConfig extends Thread
                 fs.setBlockable(getBlockableValue(fileNode, osList));
                 fs.setAdditionals(getAdditionals(fileNode));
                 fs.setCondition(parseConditionAttribute(fileNode));
+                fs.setCompression(getCompressionValue(fileNode));
 
                 String boolval = fileNode.getAttribute("casesensitive");
                 if (boolval != null)
@@ -1210,9 +1216,11 @@ public class CompilerConfig extends Thread
                         {
                             String target = fs.getTargetDir() + "/" + filePath;
                             logAddingFile(abssrcfile.toString(), target);
-                            pack.addFile(baseDir, abssrcfile, target, fs.getOsList(),
-                                         fs.getOverride(), fs.getOverrideRenameTo(), fs.getBlockable(),
-                                         fs.getAdditionals(), fs.getCondition(), pack200Properties);
+                            PackFile packFile = pack.addFile(baseDir, abssrcfile, target, fs.getOsList(),
+                                                             fs.getOverride(), fs.getOverrideRenameTo(),
+                                                             fs.getBlockable(), fs.getAdditionals(),
+                                                             fs.getCondition(), pack200Properties);
+                            packFile.setCompression(fs.getCompression());
                         }
                     }
                 }
@@ -1618,6 +1626,7 @@ public class CompilerConfig extends Thread
                                    String condition, Map<String, String> pack200Properties) throws Exception
     {
         String archiveName = archive.getName();
+        PackCompression compression = getCompressionValue(fileNode);
 
         InputStream originalInputStream = IOUtils.buffer(FileUtils.openInputStream(archive));
 
@@ -1679,7 +1688,10 @@ public class CompilerConfig extends Thread
                         {
                             String target = targetDir + "/" + entryName;
                             logAddingFile(entryName + " (" + archiveName + ")", target);
-                            pack.addFile(baseTempDir, tempFile, target, osList, override, overrideRenameTo, blockable, additionals, condition, pack200Properties);
+                            PackFile packFile = pack.addFile(baseTempDir, tempFile, target, osList, override,
+                                                             overrideRenameTo, blockable, additionals, condition,
+                                                             pack200Properties);
+                            packFile.setCompression(compression);
                         }
                     }
                     finally
@@ -1722,7 +1734,9 @@ public class CompilerConfig extends Thread
             String uncompressedArchiveName = FilenameUtils.getBaseName(archiveName);
             String target = targetDir + "/" + uncompressedArchiveName;
             logAddingFile(uncompressedArchiveName + " (" + archiveName + ")", target);
-            pack.addFile(baseDir, temp, target, osList, override, overrideRenameTo, blockable, additionals, condition, pack200Properties);
+            PackFile packFile = pack.addFile(baseDir, temp, target, osList, override, overrideRenameTo, blockable,
+                                             additionals, condition, pack200Properties);
+            packFile.setCompression(compression);
         }
         finally
         {
@@ -2539,6 +2553,26 @@ public class CompilerConfig extends Thread
         if (compressionElement != null)
         {
             compressionName = xmlCompilerHelper.requireContent(compressionElement);
+            info.setSolidCompression(xmlCompilerHelper.validateYesNoAttribute(compressionElement, "solid", YES));
+            info.setStoredPacks(xmlCompilerHelper.validateYesNoAttribute(compressionElement, "storepacks", NO));
+            String store = compressionElement.getAttribute("store");
+            if (store != null)
+            {
+                Set<String> extensions = new HashSet<String>();
+                for (String extension : store.split(","))
+                {
+                    extension = extension.trim();
+                    if (extension.startsWith("."))
+                    {
+                        extension = extension.substring(1);
+                    }
+                    if (!extension.isEmpty())
+                    {
+                        extensions.add(extension.toLowerCase());
+                    }
+                }
+                info.setStoredExtensions(extensions);
+            }
         }
         if (compressionName != null)
         {
@@ -3399,6 +3433,28 @@ public class CompilerConfig extends Thread
         return blockable;
     }
 
+    /**
+     * Parses the compression attribute of a file element.
+     *
+     * @param element the file, singlefile, fileset or archivefileset element
+     * @return the compression format to store the files with, or {@code null} to let the packager select it
+     * @throws CompilerException if the compression format is unknown
+     */
+    private PackCompression getCompressionValue(IXMLElement element) throws CompilerException
+    {
+        String name = element.getAttribute("compression");
+        if (name == null)
+        {
+            return null;
+        }
+        PackCompression compression = PackCompression.byName(name);
+        if (compression == null)
+        {
+            assertionHelper.parseError(element, "Unknown compression format: " + name);
+        }
+        return compression;
+    }
+
     private boolean validateYesNo(String value)
     {
         boolean result;
@@ -3755,6 +3811,7 @@ public class CompilerConfig extends Thread
         fs.setOverrideRenameTo(getOverrideRenameToValue(fileSetNode));
         fs.setBlockable(getBlockableValue(fileSetNode, osList));
         fs.setAdditionals(getAdditionals(fileSetNode));
+        fs.setCompression(getCompressionValue(fileSetNode));
         String conditionId = parseConditionAttribute(fileSetNode);
         if (conditionId != null)
         {
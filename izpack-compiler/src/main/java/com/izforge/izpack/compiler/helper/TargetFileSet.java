@@ -24,6 +24,7 @@ import java.util.Map;
 
 import com.izforge.izpack.api.data.Blockable;
 import com.izforge.izpack.api.data.OverrideType;
+import com.izforge.izpack.api.data.PackCompression;
 import com.izforge.izpack.api.data.binding.OsModel;
 import com.izforge.izpack.util.file.types.FileSet;
 
@@ -38,6 +39,7 @@ public class TargetFileSet extends FileSet
     private Map<String, ?> additionals;
     private String condition;
     private Map<String, String> pack200Properties;
+    private PackCompression compression;
 
     public String getTargetDir()
     {
@@ -118,4 +120,14 @@ public class TargetFileSet extends FileSet
     {
         return pack200Properties;
     }
+
+    public PackCompression getCompression()
+    {
+        return compression;
+    }
+
+    public void setCompression(PackCompression compression)
+    {
+        this.compression = compression;
+    }
 }
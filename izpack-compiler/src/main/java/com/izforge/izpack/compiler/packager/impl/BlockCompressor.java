@@ -0,0 +1,223 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.compiler.packager.impl;
+
+import com.izforge.izpack.api.data.PackCompression;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.ByteArrayOutputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Compresses a file as a sequence of independently compressed blocks, in parallel.
+ * <p/>
+ * Each block holds {@link #BLOCK_SIZE} bytes of the file, apart from the last. Blocks are compressed on a pool of
+ * threads and written in order, with at most one more block in memory than there are threads. The compressed sizes
+ * of the blocks form the block index, which allows the installer to decompress the blocks in parallel.
+ */
+class BlockCompressor
+{
+    /**
+     * The uncompressed size of a block. Files larger than this are compressed in blocks.
+     */
+    static final int BLOCK_SIZE = 8 << 20;
+
+    /**
+     * The memory to allow for each compressing thread. An XZ encoder at the default preset needs around 100MB.
+     */
+    private static final long MEMORY_PER_THREAD = 160L << 20;
+
+    /**
+     * The compression format.
+     */
+    private final PackCompression compression;
+
+    /**
+     * The number of compressing threads.
+     */
+    private final int threads;
+
+
+    /**
+     * Constructs a {@code BlockCompressor}, using a thread per processor, as memory permits.
+     *
+     * @param compression the compression format
+     */
+    public BlockCompressor(PackCompression compression)
+    {
+        this(compression, (int) Math.min(Runtime.getRuntime().availableProcessors(),
+                                         Runtime.getRuntime().maxMemory() / MEMORY_PER_THREAD));
+    }
+
+    /**
+     * Constructs a {@code BlockCompressor}.
+     *
+     * @param compression the compression format
+     * @param threads     the number of compressing threads
+     */
+    public BlockCompressor(PackCompression compression, int threads)
+    {
+        this.compression = compression;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Compresses a file.
+     *
+     * @param file   the file to compress
+     * @param length the expected length of the file
+     * @param out    the stream to write the compressed blocks to
+     * @return the compressed sizes of the blocks
+     * @throws IOException if the file cannot be read or compressed, or its length differs from that expected
+     */
+    public long[] compress(File file, long length, OutputStream out) throws IOException
+    {
+        int count = (int) ((length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        long[] result = new long[count];
+        Deque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "IzPack block compressor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        InputStream in = FileUtils.openInputStream(file);
+        try
+        {
+            int written = 0;
+            for (int i = 0; i < count; ++i)
+            {
+                byte[] block = new byte[(int) Math.min(BLOCK_SIZE, length - (long) i * BLOCK_SIZE)];
+                IOUtils.readFully(in, block);
+                pending.add(executor.submit(new Compress(block)));
+                if (pending.size() > threads)
+                {
+                    result[written++] = write(pending.remove(), out);
+                }
+            }
+            if (in.read() != -1)
+            {
+                throw new IOException("File size mismatch when reading " + file);
+            }
+            while (!pending.isEmpty())
+            {
+                result[written++] = write(pending.remove(), out);
+            }
+        }
+        finally
+        {
+            IOUtils.closeQuietly(in);
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * Waits for a block to be compressed, and writes it.
+     *
+     * @param future the compressed block
+     * @param out    the stream to write to
+     * @return the compressed size of the block
+     * @throws IOException if the block cannot be compressed or written
+     */
+    private long write(Future<byte[]> future, OutputStream out) throws IOException
+    {
+        byte[] compressed;
+        try
+        {
+            compressed = future.get();
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing", exception);
+        }
+        catch (ExecutionException exception)
+        {
+            Throwable cause = exception.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+        out.write(compressed);
+        return compressed.length;
+    }
+
+    /**
+     * Compresses a single block.
+     */
+    private class Compress implements Callable<byte[]>
+    {
+        /**
+         * The uncompressed block.
+         */
+        private final byte[] block;
+
+        /**
+         * Constructs a {@code Compress}.
+         *
+         * @param block the uncompressed block
+         */
+        public Compress(byte[] block)
+        {
+            this.block = block;
+        }
+
+        /**
+         * Compresses the block.
+         *
+         * @return the compressed block
+         * @throws IOException if the block cannot be compressed
+         */
+        @Override
+        public byte[] call() throws IOException
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(block.length / 2);
+            OutputStream stream = Packager.createCompressorOutputStream(compression, bytes);
+            try
+            {
+                stream.write(block);
+            }
+            finally
+            {
+                stream.close();
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
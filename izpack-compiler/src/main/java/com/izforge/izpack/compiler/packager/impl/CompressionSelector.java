@@ -0,0 +1,164 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.compiler.packager.impl;
+
+import com.izforge.izpack.api.data.PackCompression;
+import com.izforge.izpack.api.data.PackFile;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * Selects the compression format of each file of a pack.
+ * <p/>
+ * A format set on the pack file by its fileset takes precedence. Otherwise files with the extension of an already
+ * compressed format are stored uncompressed, as are files whose leading {@link #SAMPLE_SIZE} bytes don't shrink by
+ * more than 5% under a fast trial compression. All other files use the installation's format.
+ */
+class CompressionSelector
+{
+    /**
+     * The extensions of files stored uncompressed by default.
+     */
+    static final Set<String> DEFAULT_STORED_EXTENSIONS = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("7z", "bz2", "cab", "ear", "gif", "gz", "jar", "jpeg", "jpg", "lz4", "lzma", "mp3", "mp4",
+                          "ogg", "png", "rar", "tgz", "txz", "war", "webp", "woff2", "xz", "zip", "zst")));
+
+    /**
+     * The number of leading bytes of a file that are trial compressed.
+     */
+    static final int SAMPLE_SIZE = 64 << 10;
+
+    /**
+     * The minimum length of a file to trial compress. Smaller files use the installation's format.
+     */
+    static final long MIN_SAMPLE_LENGTH = 4 << 10;
+
+    /**
+     * The maximum compressed to uncompressed ratio of the sample for a file to be compressed.
+     */
+    private static final double MAX_RATIO = 0.95;
+
+    /**
+     * The installation's compression format.
+     */
+    private final PackCompression compression;
+
+    /**
+     * The extensions of files stored uncompressed.
+     */
+    private final Set<String> storedExtensions;
+
+
+    /**
+     * Constructs a {@code CompressionSelector}.
+     *
+     * @param compression      the installation's compression format
+     * @param storedExtensions the lower case extensions of files stored uncompressed, or {@code null} to use
+     *                         {@link #DEFAULT_STORED_EXTENSIONS}
+     */
+    public CompressionSelector(PackCompression compression, Set<String> storedExtensions)
+    {
+        this.compression = compression;
+        this.storedExtensions = (storedExtensions != null) ? storedExtensions : DEFAULT_STORED_EXTENSIONS;
+    }
+
+    /**
+     * Selects the compression format of a file.
+     *
+     * @param packFile the pack file
+     * @param file     the file
+     * @return the compression format. {@link PackCompression#DEFAULT} indicates to store the file uncompressed
+     * @throws IOException if the file cannot be read
+     */
+    public PackCompression select(PackFile packFile, File file) throws IOException
+    {
+        PackCompression result = packFile.getCompression();
+        if (result == null)
+        {
+            if (compression == PackCompression.DEFAULT)
+            {
+                result = compression;
+            }
+            else if (storedExtensions.contains(FilenameUtils.getExtension(packFile.getTargetPath()).toLowerCase()))
+            {
+                result = PackCompression.DEFAULT;
+            }
+            else if (packFile.length() >= MIN_SAMPLE_LENGTH && !isCompressible(file))
+            {
+                result = PackCompression.DEFAULT;
+            }
+            else
+            {
+                result = compression;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determines if a file is worth compressing, by trial compressing its leading bytes.
+     *
+     * @param file the file
+     * @return {@code true} if the sample compresses by more than 5%
+     * @throws IOException if the file cannot be read
+     */
+    boolean isCompressible(File file) throws IOException
+    {
+        byte[] sample = new byte[SAMPLE_SIZE];
+        int length;
+        InputStream in = new FileInputStream(file);
+        try
+        {
+            length = IOUtils.read(in, sample);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(in);
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try
+        {
+            deflater.setInput(sample, 0, length);
+            deflater.finish();
+            byte[] buffer = new byte[8192];
+            long compressed = 0;
+            while (!deflater.finished())
+            {
+                compressed += deflater.deflate(buffer);
+            }
+            return compressed < length * MAX_RATIO;
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+}
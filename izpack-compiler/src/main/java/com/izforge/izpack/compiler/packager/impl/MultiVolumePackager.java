@@ -279,8 +279,8 @@ public class MultiVolumePackager extends PackagerBase
     private void writePackFiles(PackInfo packInfo, FileSpanningOutputStream volumes, Pack pack,
                                 ObjectOutputStream packStream, File targetDir) throws IOException
     {
-        Set<PackFile> files = packInfo.getPackFiles();
-        Map<PackFile, File> xFiles = new LinkedHashMap<PackFile, File>();
+        List<PackFile> files = packInfo.getPackFileList();
+        List<PackFile> xFiles = new ArrayList<PackFile>();
 
         for (PackFile packfile : files)
         {
@@ -301,16 +301,15 @@ public class MultiVolumePackager extends PackagerBase
                 }
             }
 
-            xFiles.put(pf, file);
+            xFiles.add(pf);
 
             // even if not written, it counts towards pack size
             pack.addFileSize(pf.length());
         }
 
         // Replace the PackFile objects by the corresponding XPackFile objects to be written to the packs.info resource
-        Map<PackFile, File> packFilesMap = packInfo.getPackFilesMap();
-        packFilesMap.clear();
-        packFilesMap.putAll(xFiles);
+        files.clear();
+        files.addAll(xFiles);
 
         if (pack.getFileSize() > pack.getSize())
         {
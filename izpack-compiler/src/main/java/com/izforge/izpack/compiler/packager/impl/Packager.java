@@ -33,6 +33,7 @@ import com.izforge.izpack.compiler.merge.CompilerPathResolver;
 import com.izforge.izpack.merge.MergeManager;
 import com.izforge.izpack.merge.resolve.MergeableResolver;
 import com.izforge.izpack.util.NoCloseOutputStream;
+import com.izforge.izpack.util.compress.LZ4FrameOutputStream;
 import org.apache.commons.compress.compressors.CompressorException;
 import org.apache.commons.compress.compressors.CompressorStreamFactory;
 import org.apache.commons.compress.compressors.deflate.DeflateCompressorOutputStream;
@@ -40,6 +41,7 @@ import org.apache.commons.compress.compressors.deflate.DeflateParameters;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.tukaani.xz.LZMA2Options;
 import org.tukaani.xz.LZMAOutputStream;
 
@@ -58,6 +60,8 @@ import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Pack200;
 import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 
@@ -161,11 +165,30 @@ public class Packager extends PackagerBase
                 entry = new ZipEntry(RESOURCES_PATH + streamResourceName);
             }
 
-            packJar.putNextEntry(entry);
-            packJar.flush(); // flush before we start counting
+            // stored entries need their size and checksum up front, so the pack stream is written to a file first
+            File storedPack = null;
+            OutputStream packTarget;
+            if (getInfo().isStoredPacks())
+            {
+                storedPack = File.createTempFile("izpack-pack", null, FileUtils.getTempDirectory());
+                packTarget = FileUtils.openOutputStream(storedPack);
+            }
+            else
+            {
+                packJar.putNextEntry(entry);
+                packJar.flush(); // flush before we start counting
+                packTarget = new NoCloseOutputStream(packJar);
+            }
 
-            CountingOutputStream packOutputStream = new CountingOutputStream(new NoCloseOutputStream(
-                    new BufferedOutputStream(packJar)));
+            CountingOutputStream packOutputStream = new CountingOutputStream(new BufferedOutputStream(packTarget));
+
+            PackCompression comprFormat = getInfo().getCompressionFormat();
+            CompressionSelector selector = new CompressionSelector(comprFormat, getInfo().getStoredExtensions());
+            SolidBlockWriter solidWriter = null;
+            if (comprFormat != PackCompression.DEFAULT && getInfo().isSolidCompression())
+            {
+                solidWriter = new SolidBlockWriter(comprFormat, packOutputStream);
+            }
 
             try
             {
@@ -184,6 +207,7 @@ public class Packager extends PackagerBase
                         // Save backreference link
                         logger.fine("File " + packFile.getTargetPath() + " is a backreference, linked to " + linkedPackFile.getTargetPath());
                         packFile.setLinkedPackFile(linkedPackFile);
+                        packFile.setCompression(linkedPackFile.getCompression());
                         addFile = false;
                     }
 
@@ -204,11 +228,34 @@ public class Packager extends PackagerBase
                             pack200Files.add(packFile);
                         } else
                         {
+                            PackCompression format = selector.select(packFile, file);
+                            packFile.setCompression(format);
+                            boolean solid = solidWriter != null && format == comprFormat
+                                    && solidWriter.accepts(packFile);
+                            if (solidWriter != null && !solid)
+                            {
+                                solidWriter.finish();
+                            }
                             packFile.setStreamResourceName(streamResourceName);
                             packFile.setStreamOffset(packOutputStream.getByteCount()); // get the position
 
-                            PackCompression comprFormat = getInfo().getCompressionFormat();
-                            if (comprFormat != PackCompression.DEFAULT)
+                            if (solid)
+                            {
+                                solidWriter.add(packFile, file);
+                                logger.fine("File " + packFile.getTargetPath() + " added to solid block as "
+                                        + comprFormat.toName() + " (" + packFile.length() + " bytes)");
+                            } else if (format != PackCompression.DEFAULT
+                                    && packFile.length() > BlockCompressor.BLOCK_SIZE)
+                            {
+                                long offset = packOutputStream.getByteCount();
+                                long[] blocks = new BlockCompressor(format).compress(file, packFile.length(),
+                                                                                      packOutputStream);
+                                packFile.setBlocks(BlockCompressor.BLOCK_SIZE, blocks);
+                                packFile.setSize(packOutputStream.getByteCount() - offset);
+                                logger.fine("File " + packFile.getTargetPath() + " added compressed as "
+                                        + format.toName() + " in " + blocks.length + " blocks ("
+                                        + packFile.length() + " -> " + packFile.size() + " bytes)");
+                            } else if (format != PackCompression.DEFAULT)
                             {
                                 File tmpfile = null;
                                 OutputStream finalStream = null;
@@ -218,30 +265,7 @@ public class Packager extends PackagerBase
                                     tmpfile = File.createTempFile("izpack-compress", null, FileUtils.getTempDirectory());
                                     CountingOutputStream proxyOutputStream = new CountingOutputStream(FileUtils.openOutputStream(tmpfile));
                                     OutputStream bufferedStream = IOUtils.buffer(proxyOutputStream);
-
-                                    switch (comprFormat)
-                                    {
-                                        case LZMA:
-                                            // LZMA as output stream supported from commons-compress 1.13 (requires JDK 1.7)
-                                            // for now create it from the Tukaani Project (tukaani.org)
-                                            finalStream = new LZMAOutputStream(bufferedStream, new LZMA2Options(), -1);
-                                            break;
-                                        case DEFLATE:
-                                            DeflateParameters deflateParameters = new DeflateParameters();
-                                            deflateParameters.setCompressionLevel(Deflater.BEST_COMPRESSION);
-                                            new DeflateCompressorOutputStream(bufferedStream, deflateParameters);
-                                        default:
-                                            try
-                                            {
-                                                finalStream = new CompressorStreamFactory().createCompressorOutputStream(
-                                                        comprFormat.toName(),
-                                                        bufferedStream);
-                                            }
-                                            catch (CompressorException e)
-                                            {
-                                                throw new IOException(e);
-                                            }
-                                    }
+                                    finalStream = createCompressorOutputStream(format, bufferedStream);
 
                                     long bytesWritten = FileUtils.copyFile(file, finalStream);
                                     try
@@ -265,7 +289,7 @@ public class Packager extends PackagerBase
                                     }
 
                                     logger.fine("File " + packFile.getTargetPath() + " added compressed as "
-                                            + comprFormat.toName()
+                                            + format.toName()
                                             + " (" + packFile.length() + " -> " + packFile.size() + " bytes)");
                                 }
                                 finally
@@ -291,6 +315,11 @@ public class Packager extends PackagerBase
                     pack.addFileSize(packFile.length());
                 }
 
+                if (solidWriter != null)
+                {
+                    solidWriter.finish();
+                }
+
                 if (pack.getFileSize() > pack.getSize())
                 {
                     pack.setSize(pack.getFileSize());
@@ -299,11 +328,16 @@ public class Packager extends PackagerBase
                 // Cleanup
                 packOutputStream.flush();
                 packOutputStream.close();
+                if (storedPack != null)
+                {
+                    writeStored(entry, storedPack, packJar);
+                }
                 packJar.closeEntry();
             }
             finally
             {
                 IOUtils.closeQuietly(packOutputStream);
+                FileUtils.deleteQuietly(storedPack);
                 packJar.flush();
                 // close pack specific jar if required
                 if (packSeparateJars())
@@ -370,6 +404,75 @@ public class Packager extends PackagerBase
         }
     }
 
+    /**
+     * Writes a pack stream to a jar as a stored entry.
+     *
+     * @param entry the entry
+     * @param file  the file holding the pack stream
+     * @param jar   the jar to write to
+     * @throws IOException for any I/O error
+     */
+    private void writeStored(ZipEntry entry, File file, JarOutputStream jar) throws IOException
+    {
+        CRC32 crc = new CRC32();
+        CheckedInputStream in = new CheckedInputStream(FileUtils.openInputStream(file), crc);
+        try
+        {
+            IOUtils.copyLarge(in, new NullOutputStream());
+        }
+        finally
+        {
+            IOUtils.closeQuietly(in);
+        }
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(file.length());
+        entry.setCompressedSize(file.length());
+        entry.setCrc(crc.getValue());
+        jar.putNextEntry(entry);
+        FileUtils.copyFile(file, jar);
+        logger.fine("Pack stream " + entry.getName() + " stored (" + file.length() + " bytes)");
+    }
+
+    /**
+     * Creates a stream that compresses to another stream.
+     *
+     * @param compression the compression format
+     * @param out         the stream to write compressed data to
+     * @return the compressing stream
+     * @throws IOException if the stream cannot be created
+     */
+    static OutputStream createCompressorOutputStream(PackCompression compression, OutputStream out)
+            throws IOException
+    {
+        OutputStream result;
+        switch (compression)
+        {
+            case LZMA:
+                // LZMA as output stream supported from commons-compress 1.13 (requires JDK 1.7)
+                // for now create it from the Tukaani Project (tukaani.org)
+                result = new LZMAOutputStream(out, new LZMA2Options(), -1);
+                break;
+            case LZ4:
+                result = new LZ4FrameOutputStream(out);
+                break;
+            case DEFLATE:
+                DeflateParameters deflateParameters = new DeflateParameters();
+                deflateParameters.setCompressionLevel(Deflater.BEST_COMPRESSION);
+                result = new DeflateCompressorOutputStream(out, deflateParameters);
+                break;
+            default:
+                try
+                {
+                    result = new CompressorStreamFactory().createCompressorOutputStream(compression.toName(), out);
+                }
+                catch (CompressorException e)
+                {
+                    throw new IOException(e);
+                }
+        }
+        return result;
+    }
+
     private Pack200.Packer createPack200Packer(PackFile packFile)
     {
         Pack200.Packer packer = Pack200.newPacker();
@@ -468,15 +468,13 @@ public abstract class PackagerBase implements IPackager
         mergeManager.addResourceToMerge("org/apache/commons/io/");
         mergeManager.addResourceToMerge("jline/");
         mergeManager.addResourceToMerge("org/fusesource/");
-        PackCompression comprFormat = info.getCompressionFormat();
-        switch (comprFormat)
+        Set<PackCompression> comprFormats = getCompressionFormats();
+        comprFormats.remove(PackCompression.DEFAULT);
+        if (!comprFormats.isEmpty())
         {
-            case DEFAULT:
-                break;
-            default:
-                mergeManager.addResourceToMerge("org/apache/commons/compress");
+            mergeManager.addResourceToMerge("org/apache/commons/compress");
         }
-        if (comprFormat == PackCompression.XZ || comprFormat == PackCompression.LZMA)
+        if (comprFormats.contains(PackCompression.XZ) || comprFormats.contains(PackCompression.LZMA))
         {
             mergeManager.addResourceToMerge("org/tukaani/xz");
         }
@@ -484,6 +482,29 @@ public abstract class PackagerBase implements IPackager
         mergeManager.merge(installerJar);
     }
 
+    /**
+     * Returns the compression formats the packs may be stored with.
+     * <p/>
+     * These are the installation's format, and the formats set on individual files.
+     *
+     * @return the compression formats
+     */
+    private Set<PackCompression> getCompressionFormats()
+    {
+        Set<PackCompression> result = EnumSet.of(info.getCompressionFormat());
+        for (PackInfo packInfo : packsList)
+        {
+            for (PackFile packFile : packInfo.getPackFiles())
+            {
+                if (packFile.getCompression() != null)
+                {
+                    result.add(packFile.getCompression());
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Write an arbitrary object to installer jar.
      *
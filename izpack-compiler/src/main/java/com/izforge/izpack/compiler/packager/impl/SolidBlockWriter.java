@@ -0,0 +1,157 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.compiler.packager.impl;
+
+import com.izforge.izpack.api.data.PackCompression;
+import com.izforge.izpack.api.data.PackFile;
+import com.izforge.izpack.api.data.SolidBlock;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes consecutive small files of a pack to the pack stream as solid blocks, each compressed as a single stream.
+ * <p/>
+ * A block is started by the first file added, and finished when it reaches {@link BlockCompressor#BLOCK_SIZE}
+ * bytes, or when {@link #finish()} is invoked. Nothing else may be written to the pack stream while a block is
+ * open. All files of a block have the stream offset of the block; the first has the compressed size of the block as
+ * its size, the others a size of {@code 0}.
+ */
+class SolidBlockWriter
+{
+    /**
+     * The maximum length of a file placed in a solid block.
+     */
+    static final long MAX_FILE_SIZE = 1 << 20;
+
+    /**
+     * The compression format.
+     */
+    private final PackCompression compression;
+
+    /**
+     * The pack stream.
+     */
+    private final CountingOutputStream packStream;
+
+    /**
+     * The current block, or {@code null} if no block is open.
+     */
+    private SolidBlock block;
+
+    /**
+     * The first file of the current block.
+     */
+    private PackFile first;
+
+    /**
+     * The compressing stream of the current block.
+     */
+    private OutputStream compressor;
+
+    /**
+     * The offset of the current block in the pack stream.
+     */
+    private long offset;
+
+    /**
+     * The uncompressed length of the current block.
+     */
+    private long length;
+
+
+    /**
+     * Constructs a {@code SolidBlockWriter}.
+     *
+     * @param compression the compression format
+     * @param packStream  the pack stream
+     */
+    public SolidBlockWriter(PackCompression compression, CountingOutputStream packStream)
+    {
+        this.compression = compression;
+        this.packStream = packStream;
+    }
+
+    /**
+     * Determines if a file should be placed in a solid block.
+     *
+     * @param packFile the pack file
+     * @return {@code true} if the file is small enough to be placed in a solid block
+     */
+    public boolean accepts(PackFile packFile)
+    {
+        return packFile.length() <= MAX_FILE_SIZE;
+    }
+
+    /**
+     * Adds a file to the current block, starting a new block if required.
+     *
+     * @param packFile the pack file
+     * @param file     the file to add
+     * @throws IOException for any I/O error
+     */
+    public void add(PackFile packFile, File file) throws IOException
+    {
+        if (block == null)
+        {
+            block = new SolidBlock();
+            first = packFile;
+            offset = packStream.getByteCount();
+            compressor = Packager.createCompressorOutputStream(compression, new CloseShieldOutputStream(packStream));
+            length = 0;
+        }
+        packFile.setStreamOffset(offset);
+        packFile.setSolidBlock(block, length);
+        packFile.setSize(0);
+        long bytesWritten = FileUtils.copyFile(file, compressor);
+        if (bytesWritten != packFile.length())
+        {
+            throw new IOException("File size mismatch when reading " + file);
+        }
+        length += bytesWritten;
+        if (length >= BlockCompressor.BLOCK_SIZE)
+        {
+            finish();
+        }
+    }
+
+    /**
+     * Finishes the current block, if any.
+     *
+     * @throws IOException for any I/O error
+     */
+    public void finish() throws IOException
+    {
+        if (block != null)
+        {
+            compressor.close();
+            long size = packStream.getByteCount() - offset;
+            block.setSizes(length, size);
+            first.setSize(size);
+            block = null;
+            first = null;
+            compressor = null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.compiler.packager.impl;
+
+import com.izforge.izpack.api.data.PackCompression;
+import org.apache.commons.compress.compressors.deflate.DeflateCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link BlockCompressor} class.
+ */
+public class BlockCompressorTest
+{
+    /**
+     * Temporary folder for the file to compress.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+    /**
+     * Verifies that a file is compressed as independently decompressible blocks, written in order.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testCompress() throws IOException
+    {
+        byte[] data = createData(2 * BlockCompressor.BLOCK_SIZE + 1000);
+        File file = temporaryFolder.newFile("data.bin");
+        FileUtils.writeByteArrayToFile(file, data);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long[] blocks = new BlockCompressor(PackCompression.GZIP, 3).compress(file, data.length, out);
+        assertEquals(3, blocks.length);
+
+        byte[] compressed = out.toByteArray();
+        ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+        int offset = 0;
+        for (long block : blocks)
+        {
+            GzipCompressorInputStream in = new GzipCompressorInputStream(
+                    new ByteArrayInputStream(compressed, offset, (int) block));
+            IOUtils.copy(in, uncompressed);
+            offset += block;
+        }
+        assertEquals(compressed.length, offset);
+        assertArrayEquals(data, uncompressed.toByteArray());
+    }
+
+    /**
+     * Verifies that each block compressed with {@link PackCompression#DEFLATE} is a zlib stream compressed at the
+     * maximum level.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testDeflate() throws IOException
+    {
+        byte[] data = createData(BlockCompressor.BLOCK_SIZE + 1000);
+        File file = temporaryFolder.newFile("data.bin");
+        FileUtils.writeByteArrayToFile(file, data);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long[] blocks = new BlockCompressor(PackCompression.DEFLATE, 2).compress(file, data.length, out);
+        assertEquals(2, blocks.length);
+
+        byte[] compressed = out.toByteArray();
+        ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+        int offset = 0;
+        for (long block : blocks)
+        {
+            // FLEVEL, the top two bits of the second zlib header byte, is 3 for the maximum compression level
+            assertEquals(3, (compressed[offset + 1] >> 6) & 3);
+            DeflateCompressorInputStream in = new DeflateCompressorInputStream(
+                    new ByteArrayInputStream(compressed, offset, (int) block));
+            IOUtils.copy(in, uncompressed);
+            offset += block;
+        }
+        assertEquals(compressed.length, offset);
+        assertArrayEquals(data, uncompressed.toByteArray());
+    }
+
+    /**
+     * Verifies that compression fails if the file length differs from that expected.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testSizeMismatch() throws IOException
+    {
+        byte[] data = createData(BlockCompressor.BLOCK_SIZE + 1);
+        File file = temporaryFolder.newFile("data.bin");
+        FileUtils.writeByteArrayToFile(file, data);
+        try
+        {
+            new BlockCompressor(PackCompression.GZIP, 2).compress(file, data.length - 1,
+                                                                   new ByteArrayOutputStream());
+            fail("Expected the size mismatch to be detected");
+        }
+        catch (IOException expected)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * Creates compressible test data.
+     *
+     * @param length the data length
+     * @return the data
+     */
+    private byte[] createData(int length)
+    {
+        byte[] result = new byte[length];
+        Random random = new Random(42);
+        byte[] words = new byte[64];
+        random.nextBytes(words);
+        for (int i = 0; i < length; i += words.length)
+        {
+            if (random.nextInt(4) == 0)
+            {
+                random.nextBytes(words);
+            }
+            System.arraycopy(words, 0, result, i, Math.min(words.length, length - i));
+        }
+        return result;
+    }
+}
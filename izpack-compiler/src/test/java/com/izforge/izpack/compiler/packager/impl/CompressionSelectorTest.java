@@ -0,0 +1,156 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.compiler.packager.impl;
+
+import com.izforge.izpack.api.data.Blockable;
+import com.izforge.izpack.api.data.OverrideType;
+import com.izforge.izpack.api.data.PackCompression;
+import com.izforge.izpack.api.data.PackFile;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link CompressionSelector} class.
+ */
+public class CompressionSelectorTest
+{
+    /**
+     * Temporary folder for the files to select formats for.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+    /**
+     * Verifies that compressible files use the installation's format, and incompressible files are stored.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testSampling() throws IOException
+    {
+        CompressionSelector selector = new CompressionSelector(PackCompression.XZ, null);
+
+        PackFile text = createPackFile("text.txt", repeat("compressible text\n", 10000));
+        assertEquals(PackCompression.XZ, selector.select(text, text.getFile()));
+
+        PackFile random = createPackFile("random.bin", random(100000));
+        assertEquals(PackCompression.DEFAULT, selector.select(random, random.getFile()));
+
+        // files too small to sample use the installation's format
+        PackFile small = createPackFile("small.bin", random(100));
+        assertEquals(PackCompression.XZ, selector.select(small, small.getFile()));
+    }
+
+    /**
+     * Verifies that files are stored based on their extension.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testExtensions() throws IOException
+    {
+        PackFile jar = createPackFile("lib.JAR", repeat("compressible text\n", 10000));
+        PackFile text = createPackFile("text.txt", repeat("compressible text\n", 10000));
+
+        CompressionSelector selector = new CompressionSelector(PackCompression.XZ, null);
+        assertEquals(PackCompression.DEFAULT, selector.select(jar, jar.getFile()));
+        assertEquals(PackCompression.XZ, selector.select(text, text.getFile()));
+
+        selector = new CompressionSelector(PackCompression.XZ, Collections.singleton("txt"));
+        assertEquals(PackCompression.XZ, selector.select(jar, jar.getFile()));
+        assertEquals(PackCompression.DEFAULT, selector.select(text, text.getFile()));
+    }
+
+    /**
+     * Verifies that a format set on the pack file takes precedence, and that nothing is compressed if the
+     * installation has no format.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testExplicitFormat() throws IOException
+    {
+        PackFile random = createPackFile("random.zip", random(100000));
+        random.setCompression(PackCompression.GZIP);
+        assertEquals(PackCompression.GZIP, new CompressionSelector(PackCompression.XZ, null).select(
+                random, random.getFile()));
+
+        PackFile text = createPackFile("text.txt", repeat("compressible text\n", 10000));
+        assertEquals(PackCompression.DEFAULT, new CompressionSelector(PackCompression.DEFAULT, null).select(
+                text, text.getFile()));
+    }
+
+    /**
+     * Creates a pack file.
+     *
+     * @param name    the file name
+     * @param content the file content
+     * @return a new pack file
+     * @throws IOException for any I/O error
+     */
+    private PackFile createPackFile(String name, byte[] content) throws IOException
+    {
+        File file = temporaryFolder.newFile(name);
+        FileUtils.writeByteArrayToFile(file, content);
+        return new PackFile(temporaryFolder.getRoot(), file, name, null, OverrideType.OVERRIDE_TRUE, null,
+                            Blockable.BLOCKABLE_NONE, null);
+    }
+
+    /**
+     * Returns a string repeated a number of times, as bytes.
+     *
+     * @param value the string
+     * @param count the number of repetitions
+     * @return the repeated string
+     * @throws IOException if UTF-8 isn't supported
+     */
+    private static byte[] repeat(String value, int count) throws IOException
+    {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < count; ++i)
+        {
+            result.append(value);
+        }
+        return result.toString().getBytes("UTF-8");
+    }
+
+    /**
+     * Returns random bytes.
+     *
+     * @param length the number of bytes
+     * @return the random bytes
+     */
+    private static byte[] random(int length)
+    {
+        byte[] result = new byte[length];
+        new Random(42).nextBytes(result);
+        return result;
+    }
+}
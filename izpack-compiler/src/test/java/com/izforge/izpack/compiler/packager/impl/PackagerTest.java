@@ -22,14 +22,17 @@ package com.izforge.izpack.compiler.packager.impl;
 import com.izforge.izpack.api.data.Blockable;
 import com.izforge.izpack.api.data.Info;
 import com.izforge.izpack.api.data.OverrideType;
+import com.izforge.izpack.api.data.PackFile;
 import com.izforge.izpack.api.data.PackInfo;
 import com.izforge.izpack.api.rules.RulesEngine;
 import com.izforge.izpack.compiler.data.CompilerData;
 import com.izforge.izpack.compiler.merge.CompilerPathResolver;
 import com.izforge.izpack.compiler.packager.IPackager;
+import com.izforge.izpack.core.resource.InstallerArchive;
 import com.izforge.izpack.merge.MergeManager;
 import com.izforge.izpack.merge.resolve.MergeableResolver;
 import com.izforge.izpack.test.util.TestHelper;
+import org.apache.commons.io.FileUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -37,10 +40,16 @@ import org.junit.rules.TemporaryFolder;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.Collections;
 import java.util.Properties;
 import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -101,6 +110,56 @@ public class PackagerTest extends AbstractPackagerTest
         System.out.println("Writing pack of " + packSize + " KiB took " + timeDiff + "ms");
     }
 
+    /**
+     * Verifies that pack streams are written as stored entries when requested, and that their content can be read
+     * directly from the installer jar.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testStoredPacks() throws Exception
+    {
+        File installerJar = temporaryFolder.newFile("installer.jar");
+        File file1 = TestHelper.createFile(temporaryFolder.getRoot(), "f1.dat", 1024 * 10);
+        File file2 = TestHelper.createFile(temporaryFolder.getRoot(), "f2.dat", 1024 * 20);
+        PackInfo packInfo = createPackInfo("Core", file1, file2);
+
+        JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(installerJar));
+        PackagerBase packager = createPackager(jarOutputStream, mock(MergeManager.class));
+        packager.getInfo().setStoredPacks(true);
+        packager.addPack(packInfo);
+        packager.createInstaller();
+
+        ZipFile zip = new ZipFile(installerJar);
+        try
+        {
+            ZipEntry entry = zip.getEntry("resources/packs/pack-Core");
+            assertNotNull(entry);
+            assertEquals(ZipEntry.STORED, entry.getMethod());
+            assertEquals(file1.length() + file2.length(), entry.getSize());
+        }
+        finally
+        {
+            zip.close();
+        }
+
+        InstallerArchive archive = new InstallerArchive(installerJar);
+        long offset = archive.getDataOffset(archive.getEntry("resources/packs/pack-Core"));
+        PackFile packFile = packInfo.getPackFileList().get(1);
+        byte[] content = new byte[(int) packFile.length()];
+        RandomAccessFile in = new RandomAccessFile(installerJar, "r");
+        try
+        {
+            in.seek(offset + packFile.getStreamOffset());
+            in.readFully(content);
+        }
+        finally
+        {
+            in.close();
+        }
+        assertArrayEquals(FileUtils.readFileToByteArray(file2), content);
+    }
+
     private PackInfo createPackInfo(String name, File... files) throws IOException {
 
         PackInfo packInfo = new PackInfo(name, null, "", true, false, null, true, calculateTotalSize(files));
@@ -0,0 +1,144 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.compiler.packager.impl;
+
+import com.izforge.izpack.api.data.Blockable;
+import com.izforge.izpack.api.data.OverrideType;
+import com.izforge.izpack.api.data.PackCompression;
+import com.izforge.izpack.api.data.PackFile;
+import org.apache.commons.compress.compressors.deflate.DeflateCompressorInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the {@link SolidBlockWriter} class.
+ */
+public class SolidBlockWriterTest
+{
+    /**
+     * Temporary folder for the files to compress.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+    /**
+     * Verifies that consecutive files are compressed as a single block, holding the concatenated file contents.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testBlock() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CountingOutputStream out = new CountingOutputStream(bytes);
+        out.write(new byte[10]); // data preceding the block
+        SolidBlockWriter writer = new SolidBlockWriter(PackCompression.XZ, out);
+
+        PackFile file1 = createPackFile("a.txt", "first file\n");
+        PackFile file2 = createPackFile("b.txt", "second file\n");
+        PackFile file3 = createPackFile("c.txt", "");
+        writer.add(file1, file1.getFile());
+        writer.add(file2, file2.getFile());
+        writer.add(file3, file3.getFile());
+        writer.finish();
+
+        assertSame(file1.getSolidBlock(), file2.getSolidBlock());
+        assertSame(file1.getSolidBlock(), file3.getSolidBlock());
+        assertEquals(10, file1.getStreamOffset());
+        assertEquals(10, file2.getStreamOffset());
+        assertEquals(0, file1.getSolidOffset());
+        assertEquals(11, file2.getSolidOffset());
+        assertEquals(23, file3.getSolidOffset());
+        assertEquals(23, file1.getSolidBlock().length());
+        assertEquals(out.getByteCount() - 10, file1.size());
+        assertEquals(file1.size(), file1.getSolidBlock().size());
+        assertEquals(0, file2.size());
+
+        byte[] compressed = bytes.toByteArray();
+        byte[] block = IOUtils.toByteArray(new XZCompressorInputStream(
+                new ByteArrayInputStream(compressed, 10, (int) file1.size())));
+        assertArrayEquals("first file\nsecond file\n".getBytes("UTF-8"), block);
+
+        // a new block is started after finishing
+        PackFile file4 = createPackFile("d.txt", "fourth file\n");
+        writer.add(file4, file4.getFile());
+        writer.finish();
+        assertNotSame(file1.getSolidBlock(), file4.getSolidBlock());
+        assertEquals(0, file4.getSolidOffset());
+    }
+
+    /**
+     * Verifies that a block compressed with {@link PackCompression#DEFLATE} is a zlib stream compressed at the
+     * maximum level.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testDeflate() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SolidBlockWriter writer = new SolidBlockWriter(PackCompression.DEFLATE, new CountingOutputStream(bytes));
+
+        PackFile file1 = createPackFile("a.txt", "first file\n");
+        PackFile file2 = createPackFile("b.txt", "second file\n");
+        writer.add(file1, file1.getFile());
+        writer.add(file2, file2.getFile());
+        writer.finish();
+
+        byte[] compressed = bytes.toByteArray();
+        assertEquals(compressed.length, file1.size());
+        // FLEVEL, the top two bits of the second zlib header byte, is 3 for the maximum compression level
+        assertEquals(3, (compressed[1] >> 6) & 3);
+        byte[] block = IOUtils.toByteArray(new DeflateCompressorInputStream(new ByteArrayInputStream(compressed)));
+        assertArrayEquals("first file\nsecond file\n".getBytes("UTF-8"), block);
+    }
+
+    /**
+     * Creates a pack file.
+     *
+     * @param name    the file name
+     * @param content the file content
+     * @return a new pack file
+     * @throws IOException for any I/O error
+     */
+    private PackFile createPackFile(String name, String content) throws IOException
+    {
+        File file = temporaryFolder.newFile(name);
+        FileUtils.writeStringToFile(file, content, "UTF-8");
+        return new PackFile(temporaryFolder.getRoot(), file, name, null, OverrideType.OVERRIDE_TRUE, null,
+                            Blockable.BLOCKABLE_NONE, null);
+    }
+}
@@ -22,16 +22,31 @@
 package com.izforge.izpack.core.data;
 
 import com.izforge.izpack.api.data.DynamicVariable;
+import com.izforge.izpack.api.data.JournaledVariables;
 import com.izforge.izpack.api.data.Overrides;
+import com.izforge.izpack.api.data.Value;
+import com.izforge.izpack.api.data.VariableChange;
+import com.izforge.izpack.api.data.VariableListener;
 import com.izforge.izpack.api.data.Variables;
 import com.izforge.izpack.api.exception.InstallerException;
 import com.izforge.izpack.api.exception.IzPackException;
+import com.izforge.izpack.api.rules.Condition;
 import com.izforge.izpack.api.rules.RulesEngine;
 import com.izforge.izpack.api.substitutor.VariableSubstitutor;
 import com.izforge.izpack.core.substitutor.VariableSubstitutorImpl;
+import com.izforge.izpack.core.variable.ConfigFileCache;
+import com.izforge.izpack.core.variable.ConfigFileValue;
+import com.izforge.izpack.core.variable.ExecValue;
+import com.izforge.izpack.core.variable.RegistryValue;
 import com.izforge.izpack.core.variable.utils.ValueUtils;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,7 +56,7 @@ import java.util.logging.Logger;
  *
  * @author Tim Anderson
  */
-public class DefaultVariables implements Variables
+public class DefaultVariables implements JournaledVariables
 {
 
     /**
@@ -74,6 +89,55 @@ public class DefaultVariables implements Variables
      */
     private transient Map<String, Deque<Object>> blockedVariableNameStacks = new HashMap<String, Deque<Object>>();
 
+    /**
+     * The change journal, oldest change first.
+     */
+    private final Deque<VariableChange> changes = new ArrayDeque<VariableChange>();
+
+    /**
+     * The current version. Guarded by {@link #changes}.
+     */
+    private long version;
+
+    /**
+     * The listeners to notify of changes.
+     */
+    private final List<VariableListener> listeners = new CopyOnWriteArrayList<VariableListener>();
+
+    /**
+     * The parsed configuration files, shared by the configuration file values of the dynamic variables.
+     */
+    private final ConfigFileCache configFileCache = new ConfigFileCache();
+
+    /**
+     * The maximum number of dynamic variable values resolved concurrently.
+     */
+    private int evaluationThreads = DEFAULT_EVALUATION_THREADS;
+
+    /**
+     * The time to wait for a dynamic variable value resolved concurrently, in milliseconds.
+     */
+    private long evaluationTimeout = DEFAULT_EVALUATION_TIMEOUT;
+
+    /**
+     * The source recorded for changes made by dynamic variables.
+     */
+    static final String DYNAMIC_VARIABLE = "dynamic variable";
+
+    /**
+     * The maximum number of changes retained in the journal.
+     */
+    private static final int MAX_CHANGES = 10000;
+
+    /**
+     * The default maximum number of dynamic variable values resolved concurrently.
+     */
+    public static final int DEFAULT_EVALUATION_THREADS = 4;
+
+    /**
+     * The default time to wait for a dynamic variable value resolved concurrently, in milliseconds.
+     */
+    public static final long DEFAULT_EVALUATION_TIMEOUT = 60000;
 
     /**
      * The logger.
@@ -118,6 +182,20 @@ public class DefaultVariables implements Variables
      */
     @Override
     public void set(String name, String value)
+    {
+        set(name, value, null);
+    }
+
+    /**
+     * Sets a variable explicitly, recording the source of the change in the change journal.
+     * This is considered a permanent user change and overrides on the according name are removed.
+     *
+     * @param name   the variable name
+     * @param value  the variable value. May be {@code null}
+     * @param source a description of what is changing the variable. May be {@code null}
+     */
+    @Override
+    public void set(String name, String value, String source)
     {
         // Prevent from re-applying when pressing Previous button in panel
         // but preserve user values made at the panel where Previous has been pressed
@@ -126,15 +204,36 @@ public class DefaultVariables implements Variables
             overrides.remove(name);
         }
 
-        if (value != null)
+        VariableChange change = null;
+        synchronized (changes)
         {
-            properties.setProperty(name, value);
-            logger.fine("Dynamic variable '" + name + "' set to '" + value + "'");
+            String oldValue = properties.getProperty(name);
+            if (value != null)
+            {
+                properties.setProperty(name, value);
+                logger.fine("Dynamic variable '" + name + "' set to '" + value + "'");
+            }
+            else
+            {
+                properties.remove(name);
+                logger.fine("Dynamic variable '" + name + "' unset");
+            }
+            if (value == null ? oldValue != null : !value.equals(oldValue))
+            {
+                change = new VariableChange(++version, name, oldValue, value, source);
+                if (changes.size() == MAX_CHANGES)
+                {
+                    changes.removeFirst();
+                }
+                changes.addLast(change);
+            }
         }
-        else
+        if (change != null)
         {
-            properties.remove(name);
-            logger.fine("Dynamic variable '" + name + "' unset");
+            for (VariableListener listener : listeners)
+            {
+                listener.variableChanged(change);
+            }
         }
     }
 
@@ -300,11 +399,46 @@ public class DefaultVariables implements Variables
     @Override
     public synchronized void add(DynamicVariable variable)
     {
+        if (variable.getValue() instanceof ConfigFileValue)
+        {
+            ((ConfigFileValue) variable.getValue()).setCache(configFileCache);
+        }
         dynamicVariables.add(variable);
     }
 
+    /**
+     * Sets the maximum number of dynamic variable values resolved concurrently.
+     *
+     * @param threads the maximum number of threads. Values less than {@code 2} disable concurrent resolution
+     */
+    public void setEvaluationThreads(int threads)
+    {
+        evaluationThreads = threads;
+    }
+
+    /**
+     * Sets the time to wait for a dynamic variable value resolved concurrently.
+     * <p/>
+     * A value that isn't resolved in time is cancelled, and treated as a value that failed to resolve.
+     *
+     * @param timeout the timeout, in milliseconds
+     */
+    public void setEvaluationTimeout(long timeout)
+    {
+        evaluationTimeout = timeout;
+    }
+
     /**
      * Refreshes dynamic variables.
+     * <p/>
+     * The values of independent, I/O bound dynamic variables are resolved concurrently in advance. The variables are
+     * then evaluated and applied in declaration order, so the resulting variables are the same as if all values
+     * had been resolved one after another.
+     * <p/>
+     * A value is only resolved in advance if neither it nor the condition of its variable refers to a dynamic
+     * variable. Otherwise, a variable applied earlier in the refresh could make the condition false, and a value
+     * with side effects, such as a process run by an exec value, would already have been resolved. Such values are
+     * resolved serially, once their condition has been evaluated.
      *
      * @throws InstallerException if variables cannot be refreshed
      */
@@ -312,6 +446,132 @@ public class DefaultVariables implements Variables
     public synchronized void refresh() throws InstallerException
     {
         logger.fine("Refreshing dynamic variables");
+        List<DynamicVariable> independent = getIndependentVariables();
+        if (independent.size() < 2)
+        {
+            refresh(Collections.<DynamicVariable, Future<String>>emptyMap());
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(evaluationThreads, independent.size()),
+                                                                new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "IzPack dynamic variable evaluator");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try
+        {
+            Map<DynamicVariable, Future<String>> resolved = new IdentityHashMap<DynamicVariable, Future<String>>();
+            for (DynamicVariable variable : independent)
+            {
+                final Value value = variable.getValue();
+                resolved.put(variable, executor.submit(new Callable<String>()
+                {
+                    @Override
+                    public String call() throws Exception
+                    {
+                        return value.resolve(replacer);
+                    }
+                }));
+            }
+            refresh(resolved);
+        }
+        finally
+        {
+            // cancels values that were resolved but not used, e.g. because their condition changed
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the dynamic variables whose values can be resolved concurrently, ahead of the refresh.
+     * <p/>
+     * These are the variables that would be evaluated by a refresh, with I/O bound values that don't refer to any
+     * dynamic variable, so that the variables evaluated before them cannot change their result. Their condition, if
+     * any, must be true and mustn't refer to any dynamic variable either, so that it still holds when the variable
+     * is evaluated.
+     *
+     * @return the independent variables
+     */
+    private List<DynamicVariable> getIndependentVariables()
+    {
+        List<DynamicVariable> result = new ArrayList<DynamicVariable>();
+        if (evaluationThreads < 2)
+        {
+            return result;
+        }
+        Set<String> names = new HashSet<String>();
+        for (DynamicVariable variable : dynamicVariables)
+        {
+            names.add(variable.getName());
+        }
+        for (DynamicVariable variable : dynamicVariables)
+        {
+            Value value = variable.getValue();
+            String name = variable.getName();
+            String conditionId = variable.getConditionid();
+            if (variable instanceof DynamicVariableImpl && isIOBound(value)
+                    && !(variable.isCheckonce() && variable.isChecked())
+                    && !isBlockedVariableName(name) && !containsOverride(name)
+                    && isIndependent(conditionId, names)
+                    && (conditionId == null || rules.isConditionTrue(conditionId)))
+            {
+                Set<String> refs = value.getVarRefs();
+                if (refs == null || Collections.disjoint(refs, names))
+                {
+                    result.add(variable);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determines if a dynamic variable condition is independent of the dynamic variables.
+     *
+     * @param conditionId the condition identifier. May be {@code null}
+     * @param names       the dynamic variable names
+     * @return {@code true} if there is no condition, or it doesn't refer to any of the variables
+     */
+    private boolean isIndependent(String conditionId, Set<String> names)
+    {
+        if (conditionId == null)
+        {
+            return true;
+        }
+        Condition condition = rules.getCondition(conditionId);
+        if (condition == null)
+        {
+            return false;
+        }
+        Set<String> refs = condition.getVarRefs();
+        return refs == null || Collections.disjoint(refs, names);
+    }
+
+    /**
+     * Determines if resolving a value is worth doing concurrently.
+     *
+     * @param value the value. May be {@code null}
+     * @return {@code true} if the value runs a process, reads the registry or reads a file
+     */
+    private static boolean isIOBound(Value value)
+    {
+        return value instanceof ExecValue || value instanceof RegistryValue || value instanceof ConfigFileValue;
+    }
+
+    /**
+     * Refreshes dynamic variables.
+     *
+     * @param resolved the values resolved in advance, keyed on variable
+     * @throws InstallerException if variables cannot be refreshed
+     */
+    private void refresh(Map<DynamicVariable, Future<String>> resolved) throws InstallerException
+    {
         Set<DynamicVariable> checkedVariables = new HashSet<DynamicVariable>();
         Set<String> unsetVariables = new HashSet<String>();
         Set<String> setVariables = new HashSet<String>();
@@ -329,7 +589,10 @@ public class DefaultVariables implements Variables
                         String newValue;
                         try
                         {
-                            newValue = variable.evaluate(replacer);
+                            Future<String> value = resolved.get(variable);
+                            newValue = (value != null)
+                                    ? ((DynamicVariableImpl) variable).evaluate(value, evaluationTimeout, replacer)
+                                    : variable.evaluate(replacer);
                         }
                         catch (IzPackException exception)
                         {
@@ -349,7 +612,7 @@ public class DefaultVariables implements Variables
                         }
                         else
                         {
-                            set(name, newValue); // Set here for properly set conditions
+                            set(name, newValue, DYNAMIC_VARIABLE); // Set here for properly set conditions
                             setVariables.add(name);
                         }
                         // FIXME: Possible problem if regular value contains dollar sign (for example password)
@@ -392,7 +655,7 @@ public class DefaultVariables implements Variables
             {
                 if (get(key)!=null)
                 {
-                    set(key, null);
+                    set(key, null, DYNAMIC_VARIABLE);
                 }
             }
         }
@@ -414,6 +677,75 @@ public class DefaultVariables implements Variables
         return properties;
     }
 
+    /**
+     * Returns the current version of the variables.
+     * <p/>
+     * The version is incremented each time a variable changes value.
+     *
+     * @return the current version
+     */
+    @Override
+    public long getVersion()
+    {
+        synchronized (changes)
+        {
+            return version;
+        }
+    }
+
+    /**
+     * Returns the changes made since the specified version.
+     *
+     * @param version the version, as returned by {@link #getVersion()}
+     * @return the changes made since {@code version}, in the order they were made, or {@code null} if they are no
+     *         longer available
+     */
+    @Override
+    public List<VariableChange> getChanges(long version)
+    {
+        synchronized (changes)
+        {
+            long count = this.version - version;
+            if (count <= 0)
+            {
+                return Collections.emptyList();
+            }
+            if (count > changes.size())
+            {
+                return null;
+            }
+            VariableChange[] result = new VariableChange[(int) count];
+            Iterator<VariableChange> iterator = changes.descendingIterator();
+            for (int i = result.length - 1; i >= 0; --i)
+            {
+                result[i] = iterator.next();
+            }
+            return Arrays.asList(result);
+        }
+    }
+
+    /**
+     * Registers a listener to be notified of variable changes.
+     *
+     * @param listener the listener
+     */
+    @Override
+    public void addListener(VariableListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener the listener
+     */
+    @Override
+    public void removeListener(VariableListener listener)
+    {
+        listeners.remove(listener);
+    }
+
     @Override
     public boolean containsOverride(String name)
     {
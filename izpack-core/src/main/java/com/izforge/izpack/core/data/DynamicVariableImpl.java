@@ -26,6 +26,10 @@ package com.izforge.izpack.core.data;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -127,6 +131,20 @@ public class DynamicVariableImpl implements DynamicVariable
 
     @Override
     public String evaluate(VariableSubstitutor... substitutors) throws Exception
+    {
+        return evaluate(null, 0, substitutors);
+    }
+
+    /**
+     * Evaluates the variable, using a value that may have been resolved in advance.
+     *
+     * @param resolved     the value resolved in advance, or {@code null} to resolve it now
+     * @param timeout      the time to wait for the value resolved in advance, in milliseconds
+     * @param substitutors the substitutors
+     * @return the new value of the variable. May be {@code null}
+     * @throws Exception if the variable cannot be evaluated and failures aren't ignored
+     */
+    String evaluate(Future<String> resolved, long timeout, VariableSubstitutor... substitutors) throws Exception
     {
         String newValue = currentValue;
 
@@ -142,7 +160,7 @@ public class DynamicVariableImpl implements DynamicVariable
 
         try
         {
-            newValue = value.resolve(substitutors);
+            newValue = (resolved != null) ? getResolved(resolved, timeout) : value.resolve(substitutors);
 
             if (checkonce)
             {
@@ -167,6 +185,42 @@ public class DynamicVariableImpl implements DynamicVariable
         return newValue;
     }
 
+    /**
+     * Waits for a value resolved in advance.
+     * <p/>
+     * If the value isn't resolved in time, its resolution is cancelled.
+     *
+     * @param resolved the value resolved in advance
+     * @param timeout  the time to wait, in milliseconds
+     * @return the resolved value
+     * @throws Exception if the value couldn't be resolved, or the wait timed out
+     */
+    private String getResolved(Future<String> resolved, long timeout) throws Exception
+    {
+        try
+        {
+            return resolved.get(timeout, TimeUnit.MILLISECONDS);
+        }
+        catch (ExecutionException exception)
+        {
+            Throwable cause = exception.getCause();
+            if (cause instanceof Exception)
+            {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw exception;
+        }
+        catch (TimeoutException exception)
+        {
+            resolved.cancel(true);
+            throw new TimeoutException("Timed out after " + timeout + "ms evaluating dynamic variable " + name);
+        }
+    }
+
     /**
      * @return the name
      */
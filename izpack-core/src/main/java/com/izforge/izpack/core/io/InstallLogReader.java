@@ -0,0 +1,577 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.core.io;
+
+import com.izforge.izpack.api.exception.IzPackException;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads an install log written by {@link InstallLogWriter}.
+ * <p/>
+ * The compressed log is held in memory, and blocks are only decompressed on demand, so paths can be read back
+ * without materialising the whole log. Each block holds its paths in {@link InstallLogWriter#LEAF_FIRST leaf first}
+ * order, and can be {@link #openBlock(int) streamed}.
+ */
+public class InstallLogReader
+{
+    /**
+     * The compressed log.
+     */
+    private final byte[] data;
+
+    /**
+     * The block index.
+     */
+    private final Index index;
+
+
+    /**
+     * Constructs an {@code InstallLogReader}.
+     *
+     * @param data the log content
+     * @throws IOException if the content is not an install log
+     */
+    public InstallLogReader(byte[] data) throws IOException
+    {
+        this.data = data;
+        index = Index.read(new ByteArraySource(data));
+        if (index == null)
+        {
+            throw new IOException("Invalid install log");
+        }
+    }
+
+    /**
+     * Constructs an {@code InstallLogReader}.
+     *
+     * @param in the stream to read the log from. The stream is not closed
+     * @throws IOException if the content is not an install log, or for any I/O error
+     */
+    public InstallLogReader(InputStream in) throws IOException
+    {
+        this(IOUtils.toByteArray(in));
+    }
+
+    /**
+     * Constructs an {@code InstallLogReader}.
+     *
+     * @param file the file to read the log from
+     * @throws IOException if the content is not an install log, or for any I/O error
+     */
+    public InstallLogReader(File file) throws IOException
+    {
+        this(readFile(file));
+    }
+
+    /**
+     * Determines if content starts with the install log header.
+     *
+     * @param data the content
+     * @return {@code true} if the content is an install log
+     */
+    public static boolean isInstallLog(byte[] data)
+    {
+        byte[] header = InstallLogWriter.HEADER;
+        return data.length >= header.length
+                && Arrays.equals(header, Arrays.copyOf(data, header.length));
+    }
+
+    /**
+     * Returns the number of paths in the log.
+     *
+     * @return the number of paths
+     */
+    public int size()
+    {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of blocks in the log.
+     *
+     * @return the number of blocks
+     */
+    public int getBlocks()
+    {
+        return index.offsets.length;
+    }
+
+    /**
+     * Returns the number of paths preceding a block.
+     *
+     * @param block the block index
+     * @return the number of paths in the preceding blocks
+     */
+    public int getBlockStart(int block)
+    {
+        return index.starts[block];
+    }
+
+    /**
+     * Decompresses a block.
+     *
+     * @param block the block index
+     * @return the paths of the block, in leaf first order
+     * @throws IOException if the block is corrupt
+     */
+    public List<String> getBlock(int block) throws IOException
+    {
+        List<String> result = new ArrayList<String>(index.counts[block]);
+        BlockStream stream = openBlock(block);
+        try
+        {
+            String path;
+            while ((path = stream.next()) != null)
+            {
+                result.add(path);
+            }
+        }
+        finally
+        {
+            stream.close();
+        }
+        return result;
+    }
+
+    /**
+     * Opens a block for streaming.
+     * <p/>
+     * Paths are decompressed as they are read, so only the current path is held in memory.
+     *
+     * @param block the block index
+     * @return the block stream. This must be closed to release the decompressor
+     */
+    public BlockStream openBlock(int block)
+    {
+        int offset = (int) index.offsets[block] + InstallLogWriter.BLOCK_HEADER_SIZE;
+        return new BlockStream(new ByteArrayInputStream(data, offset, index.lengths[block]), index.counts[block]);
+    }
+
+    /**
+     * Returns all paths, block by block.
+     *
+     * @return the paths
+     * @throws IOException if the log is corrupt
+     */
+    public List<String> getPaths() throws IOException
+    {
+        List<String> result = new ArrayList<String>(size());
+        for (int i = 0; i < getBlocks(); ++i)
+        {
+            result.addAll(getBlock(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a read-only view of the paths, block by block.
+     * <p/>
+     * Only the most recently accessed block is held decompressed.
+     *
+     * @return the paths
+     */
+    public List<String> asList()
+    {
+        return new PathList();
+    }
+
+    /**
+     * Reads a variable length integer.
+     *
+     * @param in the stream to read from
+     * @return the value
+     * @throws IOException for any I/O error
+     */
+    private static int readVarInt(InputStream in) throws IOException
+    {
+        int result = 0;
+        int shift = 0;
+        int b;
+        do
+        {
+            b = in.read();
+            if (b < 0)
+            {
+                throw new EOFException("Truncated install log block");
+            }
+            result |= (b & 0x7f) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+        return result;
+    }
+
+    /**
+     * Reads a file into memory.
+     *
+     * @param file the file
+     * @return the file content
+     * @throws IOException for any I/O error
+     */
+    private static byte[] readFile(File file) throws IOException
+    {
+        InputStream in = new FileInputStream(file);
+        try
+        {
+            return IOUtils.toByteArray(in);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Streams the paths of a block.
+     */
+    public static class BlockStream implements Closeable
+    {
+        /**
+         * The decompressor.
+         */
+        private final Inflater inflater = new Inflater();
+
+        /**
+         * The decompressed stream.
+         */
+        private final InputStream in;
+
+        /**
+         * The number of paths remaining.
+         */
+        private int remaining;
+
+        /**
+         * The previous path.
+         */
+        private String previous = "";
+
+        /**
+         * Constructs a {@code BlockStream}.
+         *
+         * @param in    the compressed block
+         * @param count the number of paths in the block
+         */
+        private BlockStream(InputStream in, int count)
+        {
+            this.in = new InflaterInputStream(in, inflater);
+            this.remaining = count;
+        }
+
+        /**
+         * Returns the next path.
+         *
+         * @return the next path, or {@code null} if there are no more paths
+         * @throws IOException if the block is corrupt
+         */
+        public String next() throws IOException
+        {
+            if (remaining == 0)
+            {
+                return null;
+            }
+            int prefix = readVarInt(in);
+            byte[] suffix = new byte[readVarInt(in)];
+            IOUtils.readFully(in, suffix);
+            previous = previous.substring(0, prefix) + new String(suffix, InstallLogWriter.UTF8);
+            --remaining;
+            return previous;
+        }
+
+        /**
+         * Releases the decompressor.
+         */
+        @Override
+        public void close()
+        {
+            remaining = 0;
+            inflater.end();
+        }
+    }
+
+    /**
+     * A read-only list of the paths, that holds at most one block decompressed.
+     */
+    private class PathList extends AbstractList<String>
+    {
+        /**
+         * Index of the decompressed block, or {@code -1} if none has been decompressed.
+         */
+        private int block = -1;
+
+        /**
+         * The paths of the decompressed block.
+         */
+        private List<String> paths;
+
+        @Override
+        public synchronized String get(int index)
+        {
+            if (index < 0 || index >= size())
+            {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            int found = Arrays.binarySearch(InstallLogReader.this.index.starts, index);
+            if (found < 0)
+            {
+                found = -found - 2;
+            }
+            else
+            {
+                // skip empty blocks
+                while (found + 1 < getBlocks() && getBlockStart(found + 1) == index)
+                {
+                    ++found;
+                }
+            }
+            if (found != block)
+            {
+                try
+                {
+                    paths = getBlock(found);
+                }
+                catch (IOException exception)
+                {
+                    throw new IzPackException(exception);
+                }
+                block = found;
+            }
+            return paths.get(index - getBlockStart(found));
+        }
+
+        @Override
+        public int size()
+        {
+            return InstallLogReader.this.size();
+        }
+    }
+
+    /**
+     * Random access to install log content.
+     */
+    interface Source
+    {
+        /**
+         * Returns the content length.
+         *
+         * @return the length
+         * @throws IOException for any I/O error
+         */
+        long length() throws IOException;
+
+        /**
+         * Reads content.
+         *
+         * @param position the position to read from
+         * @param buffer   the buffer to read into
+         * @throws IOException for any I/O error, or if there is insufficient content
+         */
+        void read(long position, byte[] buffer) throws IOException;
+    }
+
+    /**
+     * A source backed by a byte array.
+     */
+    private static class ByteArraySource implements Source
+    {
+        private final byte[] data;
+
+        public ByteArraySource(byte[] data)
+        {
+            this.data = data;
+        }
+
+        @Override
+        public long length()
+        {
+            return data.length;
+        }
+
+        @Override
+        public void read(long position, byte[] buffer) throws IOException
+        {
+            if (position + buffer.length > data.length)
+            {
+                throw new EOFException();
+            }
+            System.arraycopy(data, (int) position, buffer, 0, buffer.length);
+        }
+    }
+
+    /**
+     * A source backed by a random access file.
+     */
+    private static class FileSource implements Source
+    {
+        private final RandomAccessFile file;
+
+        public FileSource(RandomAccessFile file)
+        {
+            this.file = file;
+        }
+
+        @Override
+        public long length() throws IOException
+        {
+            return file.length();
+        }
+
+        @Override
+        public void read(long position, byte[] buffer) throws IOException
+        {
+            file.seek(position);
+            file.readFully(buffer);
+        }
+    }
+
+    /**
+     * The index of the complete blocks of an install log.
+     */
+    static class Index
+    {
+        private final long[] offsets;
+        private final int[] counts;
+        private final int[] lengths;
+        private final int[] starts;
+        private final long length;
+        private final int size;
+
+        private Index(List<long[]> blocks, long length)
+        {
+            int count = blocks.size();
+            offsets = new long[count];
+            counts = new int[count];
+            lengths = new int[count];
+            starts = new int[count];
+            int total = 0;
+            for (int i = 0; i < count; ++i)
+            {
+                long[] block = blocks.get(i);
+                offsets[i] = block[0];
+                counts[i] = (int) block[1];
+                lengths[i] = (int) block[2];
+                starts[i] = total;
+                total += counts[i];
+            }
+            this.length = length;
+            this.size = total;
+        }
+
+        /**
+         * Returns the length of the complete blocks, including the header.
+         *
+         * @return the length
+         */
+        public long getLength()
+        {
+            return length;
+        }
+
+        /**
+         * Returns the number of paths in the complete blocks.
+         *
+         * @return the number of paths
+         */
+        public int size()
+        {
+            return size;
+        }
+
+        /**
+         * Indexes an install log file.
+         *
+         * @param file the file
+         * @return the index, or {@code null} if the file is not an install log
+         * @throws IOException for any I/O error
+         */
+        static Index read(RandomAccessFile file) throws IOException
+        {
+            return read(new FileSource(file));
+        }
+
+        /**
+         * Indexes an install log, stopping at the first incomplete or corrupt block.
+         *
+         * @param source the log source
+         * @return the index, or {@code null} if the source is not an install log
+         * @throws IOException for any I/O error
+         */
+        static Index read(Source source) throws IOException
+        {
+            byte[] header = new byte[InstallLogWriter.HEADER.length];
+            long end = source.length();
+            if (end < header.length)
+            {
+                return null;
+            }
+            source.read(0, header);
+            if (!Arrays.equals(InstallLogWriter.HEADER, header))
+            {
+                return null;
+            }
+            List<long[]> blocks = new ArrayList<long[]>();
+            long position = header.length;
+            byte[] blockHeader = new byte[InstallLogWriter.BLOCK_HEADER_SIZE];
+            while (position + blockHeader.length <= end)
+            {
+                source.read(position, blockHeader);
+                DataInput input = new DataInputStream(new ByteArrayInputStream(blockHeader));
+                int magic = input.readInt();
+                int count = input.readInt();
+                int length = input.readInt();
+                int checksum = input.readInt();
+                long next = position + blockHeader.length + length;
+                if (magic != InstallLogWriter.BLOCK_MAGIC || count < 0 || length < 0 || next > end)
+                {
+                    break;
+                }
+                byte[] content = new byte[length];
+                source.read(position + blockHeader.length, content);
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                if ((int) crc.getValue() != checksum)
+                {
+                    break;
+                }
+                blocks.add(new long[]{position, count, length});
+                position = next;
+            }
+            return new Index(blocks, position);
+        }
+    }
+}
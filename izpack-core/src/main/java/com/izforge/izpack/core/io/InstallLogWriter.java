@@ -0,0 +1,283 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.core.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Appends installed file paths to a compressed install log.
+ * <p/>
+ * Paths are buffered and written in blocks, either when {@link #MAX_BLOCK_ENTRIES} paths have accumulated, or when
+ * {@link #flush()} is invoked. Within a block, paths are sorted in {@link #LEAF_FIRST leaf first} order, and each
+ * path is stored as the length of the prefix it shares with the previous path, followed by the remaining characters.
+ * The block is then deflated. Sorted blocks allow a reader to merge the log into a single leaf first sequence while
+ * decompressing each block as a stream.
+ * <p/>
+ * The log consists of a header followed by blocks, each of which is:
+ * <ul>
+ * <li>the block magic number</li>
+ * <li>the number of paths in the block</li>
+ * <li>the length of the compressed data</li>
+ * <li>the CRC32 checksum of the compressed data</li>
+ * <li>the compressed data</li>
+ * </ul>
+ * Blocks are only appended, so a log that was interrupted while being written contains all blocks flushed before
+ * the interruption. A torn trailing block is discarded when the log is read, or reopened for appending.
+ *
+ * @see InstallLogReader
+ */
+public class InstallLogWriter implements Closeable
+{
+    /**
+     * The log header.
+     */
+    static final byte[] HEADER = {'I', 'Z', 'L', 'G', 1};
+
+    /**
+     * The block magic number.
+     */
+    static final int BLOCK_MAGIC = 0x495a424b;
+
+    /**
+     * The size of a block header, in bytes.
+     */
+    static final int BLOCK_HEADER_SIZE = 16;
+
+    /**
+     * The maximum number of paths in a block.
+     */
+    public static final int MAX_BLOCK_ENTRIES = 4096;
+
+    /**
+     * The path character set.
+     */
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Orders paths so that files precede their parent directories, i.e. the reverse of {@link File#compareTo}.
+     */
+    public static final Comparator<String> LEAF_FIRST = new Comparator<String>()
+    {
+        @Override
+        public int compare(String path1, String path2)
+        {
+            return new File(path2).compareTo(new File(path1));
+        }
+    };
+
+    /**
+     * The log file.
+     */
+    private final RandomAccessFile file;
+
+    /**
+     * The paths of the current block.
+     */
+    private final List<String> paths = new ArrayList<String>();
+
+    /**
+     * The uncompressed content of the current block.
+     */
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+
+    /**
+     * The compressed content of the current block.
+     */
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+    /**
+     * The compressor, reused for each block.
+     */
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    /**
+     * The total number of paths in the log.
+     */
+    private int size;
+
+
+    /**
+     * Constructs an {@code InstallLogWriter}.
+     * <p/>
+     * If the file is an existing install log, paths are appended to it. Any other content is replaced.
+     *
+     * @param file the file to write to
+     * @throws IOException for any I/O error
+     */
+    public InstallLogWriter(File file) throws IOException
+    {
+        this.file = new RandomAccessFile(file, "rw");
+        try
+        {
+            InstallLogReader.Index index = InstallLogReader.Index.read(this.file);
+            if (index == null)
+            {
+                this.file.setLength(0);
+                this.file.write(HEADER);
+            }
+            else
+            {
+                // discard any torn trailing block
+                this.file.setLength(index.getLength());
+                this.file.seek(index.getLength());
+                size = index.size();
+            }
+        }
+        catch (IOException exception)
+        {
+            this.file.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Adds a path to the log.
+     *
+     * @param path the path
+     * @throws IOException for any I/O error
+     */
+    public synchronized void add(String path) throws IOException
+    {
+        paths.add(path);
+        ++size;
+        if (paths.size() >= MAX_BLOCK_ENTRIES)
+        {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Returns the number of paths in the log.
+     *
+     * @return the number of paths
+     */
+    public synchronized int size()
+    {
+        return size;
+    }
+
+    /**
+     * Writes buffered paths to the log.
+     *
+     * @throws IOException for any I/O error
+     */
+    public synchronized void flush() throws IOException
+    {
+        if (!paths.isEmpty())
+        {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Flushes and closes the log.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            deflater.end();
+            file.close();
+        }
+    }
+
+    /**
+     * Writes the current block.
+     *
+     * @throws IOException for any I/O error
+     */
+    private void writeBlock() throws IOException
+    {
+        Collections.sort(paths, LEAF_FIRST);
+        String previous = "";
+        for (String path : paths)
+        {
+            int prefix = 0;
+            int max = Math.min(path.length(), previous.length());
+            while (prefix < max && path.charAt(prefix) == previous.charAt(prefix))
+            {
+                ++prefix;
+            }
+            byte[] suffix = path.substring(prefix).getBytes(UTF8);
+            writeVarInt(block, prefix);
+            writeVarInt(block, suffix.length);
+            block.write(suffix);
+            previous = path;
+        }
+
+        compressed.reset();
+        deflater.reset();
+        DeflaterOutputStream out = new DeflaterOutputStream(compressed, deflater);
+        block.writeTo(out);
+        out.finish();
+
+        CRC32 crc = new CRC32();
+        byte[] data = compressed.toByteArray();
+        crc.update(data);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(BLOCK_HEADER_SIZE + data.length);
+        DataOutputStream header = new DataOutputStream(buffer);
+        header.writeInt(BLOCK_MAGIC);
+        header.writeInt(paths.size());
+        header.writeInt(data.length);
+        header.writeInt((int) crc.getValue());
+        header.write(data);
+        file.write(buffer.toByteArray());
+
+        block.reset();
+        paths.clear();
+    }
+
+    /**
+     * Writes a variable length integer.
+     *
+     * @param out   the stream to write to
+     * @param value the non-negative value to write
+     */
+    private static void writeVarInt(ByteArrayOutputStream out, int value)
+    {
+        while ((value & ~0x7f) != 0)
+        {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -27,6 +27,8 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
@@ -52,6 +54,11 @@ public abstract class AbstractResources implements Resources
      */
     private final ClassLoader loader;
 
+    /**
+     * The preloader, or {@code null} if resources aren't loaded in advance.
+     */
+    private volatile ResourcePreloader preloader;
+
 
     /**
      * Constructs an {@code AbstractResources} using the default class loader.
@@ -175,6 +182,93 @@ public abstract class AbstractResources implements Resources
      */
     @Override
     public Object getObject(String name) throws ResourceException, ResourceNotFoundException
+    {
+        Future<?> preloaded = takePreloaded(name);
+        if (preloaded != null)
+        {
+            return ResourcePreloader.getResult(name, preloaded);
+        }
+        return readObject(name);
+    }
+
+    /**
+     * Registers a preloader, to load resources in advance of their use.
+     *
+     * @param preloader the preloader. May be {@code null}
+     */
+    public void setPreloader(ResourcePreloader preloader)
+    {
+        this.preloader = preloader;
+    }
+
+    /**
+     * Returns the preloader.
+     *
+     * @return the preloader, or {@code null} if none is registered
+     */
+    public ResourcePreloader getPreloader()
+    {
+        return preloader;
+    }
+
+    /**
+     * Schedules a serialized object resource to be loaded in advance, if a preloader is registered.
+     * <p/>
+     * The next {@link #getObject(String)} call for the resource returns the preloaded object.
+     *
+     * @param name         the resource name
+     * @param dependencies the names of the loads that must complete first
+     */
+    public void preloadObject(final String name, String... dependencies)
+    {
+        ResourcePreloader current = preloader;
+        if (current != null)
+        {
+            current.schedule(name, new Callable<Object>()
+            {
+                @Override
+                public Object call()
+                {
+                    return readObject(name);
+                }
+            }, dependencies);
+        }
+    }
+
+    /**
+     * Schedules an {@code ImageIcon} resource to be loaded in advance, if a preloader is registered.
+     * <p/>
+     * The next {@link #getImageIcon(String, String...)} call for the resource without alternatives returns the
+     * preloaded icon.
+     *
+     * @param name         the resource name
+     * @param dependencies the names of the loads that must complete first
+     */
+    public void preloadImageIcon(final String name, String... dependencies)
+    {
+        ResourcePreloader current = preloader;
+        if (current != null)
+        {
+            current.schedule(name, new Callable<ImageIcon>()
+            {
+                @Override
+                public ImageIcon call()
+                {
+                    return readImageIcon(name);
+                }
+            }, dependencies);
+        }
+    }
+
+    /**
+     * Deserializes an object resource.
+     *
+     * @param name the resource name
+     * @return the deserialized object
+     * @throws ResourceNotFoundException if the resource cannot be found
+     * @throws ResourceException         if the resource cannot be deserialized
+     */
+    protected Object readObject(String name)
     {
         Object result;
         InputStream in = getInputStream(name);
@@ -206,6 +300,27 @@ public abstract class AbstractResources implements Resources
      */
     @Override
     public ImageIcon getImageIcon(String name, String... alternatives)
+    {
+        if (alternatives.length == 0)
+        {
+            Future<?> preloaded = takePreloaded(name);
+            if (preloaded != null)
+            {
+                return (ImageIcon) ResourcePreloader.getResult(name, preloaded);
+            }
+        }
+        return readImageIcon(name, alternatives);
+    }
+
+    /**
+     * Reads an {@code ImageIcon} resource.
+     *
+     * @param name         the resource name
+     * @param alternatives alternative resource names, if {@code name} is not found
+     * @return the corresponding {@code ImageIcon}
+     * @throws ResourceNotFoundException if the resource cannot be found
+     */
+    protected ImageIcon readImageIcon(String name, String... alternatives)
     {
         URL result = getResource(name);
         if (result == null)
@@ -243,6 +358,18 @@ public abstract class AbstractResources implements Resources
         }
     }
 
+    /**
+     * Takes the result of a load scheduled with the preloader.
+     *
+     * @param name the resource name
+     * @return the pending result, or {@code null} if the resource isn't being preloaded
+     */
+    private Future<?> takePreloaded(String name)
+    {
+        ResourcePreloader current = preloader;
+        return (current != null) ? current.take(name) : null;
+    }
+
     /**
      * Returns a resource URL.
      *
@@ -0,0 +1,677 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.core.resource;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+
+/**
+ * An index of the entries of an installer jar, read from its central directory.
+ * <p/>
+ * This locates the data of each entry within the jar, so that the content of entries can be read directly from the
+ * file, without going through class loader lookups and jar URL connections. The archive is only kept open by the
+ * entry streams: each stream opens the archive when it is first read, and releases it when closed. Any number of
+ * streams may be open at once, and stored entries can be skipped without reading. ZIP64 archives are not supported.
+ */
+public class InstallerArchive
+{
+    /**
+     * The entry compression method for stored entries.
+     */
+    public static final int STORED = 0;
+
+    /**
+     * The entry compression method for deflated entries.
+     */
+    public static final int DEFLATED = 8;
+
+    /**
+     * End of central directory record signature.
+     */
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    /**
+     * Central directory file header signature.
+     */
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+
+    /**
+     * Local file header signature.
+     */
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+
+    /**
+     * The size of the end of central directory record, excluding the comment.
+     */
+    private static final int END_SIZE = 22;
+
+    /**
+     * The size of a central directory file header, excluding the variable length fields.
+     */
+    private static final int CENTRAL_SIZE = 46;
+
+    /**
+     * The size of a local file header, excluding the variable length fields.
+     */
+    private static final int LOCAL_SIZE = 30;
+
+    /**
+     * The archives returned by {@link #getArchive(File)}, keyed on absolute file.
+     */
+    private static final Map<File, InstallerArchive> archives = new HashMap<File, InstallerArchive>();
+
+    /**
+     * The archive file.
+     */
+    private final File file;
+
+    /**
+     * The archive length when it was indexed.
+     */
+    private final long length;
+
+    /**
+     * The archive modification time when it was indexed.
+     */
+    private final long lastModified;
+
+    /**
+     * The entries, keyed on name.
+     */
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+
+    /**
+     * Constructs an <tt>InstallerArchive</tt>, reading the central directory of the archive.
+     *
+     * @param file the archive file
+     * @throws IOException if the archive cannot be read or is not supported
+     */
+    public InstallerArchive(File file) throws IOException
+    {
+        this.file = file;
+        this.lastModified = file.lastModified();
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try
+        {
+            length = input.length();
+            readCentralDirectory(input);
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    /**
+     * Returns the shared index of an archive.
+     * <p/>
+     * The archive is indexed once, and the index shared by all callers until the archive changes.
+     *
+     * @param file the archive file
+     * @return the archive index
+     * @throws IOException if the archive cannot be read or is not supported
+     */
+    public static InstallerArchive getArchive(File file) throws IOException
+    {
+        File key = file.getAbsoluteFile();
+        synchronized (archives)
+        {
+            InstallerArchive result = archives.get(key);
+            if (result != null && (result.length != key.length() || result.lastModified != key.lastModified()))
+            {
+                result = null;
+            }
+            if (result == null)
+            {
+                result = new InstallerArchive(key);
+                archives.put(key, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns the archive file.
+     *
+     * @return the archive file
+     */
+    public File getFile()
+    {
+        return file;
+    }
+
+    /**
+     * Returns an entry.
+     *
+     * @param name the entry name
+     * @return the entry, or {@code null} if it doesn't exist
+     */
+    public Entry getEntry(String name)
+    {
+        return entries.get(name);
+    }
+
+    /**
+     * Returns the offset of the data of an entry within the archive.
+     *
+     * @param entry the entry
+     * @return the offset of the entry data
+     * @throws IOException if the local header of the entry cannot be read
+     */
+    public long getDataOffset(Entry entry) throws IOException
+    {
+        long result = entry.dataOffset;
+        if (result < 0)
+        {
+            byte[] header = new byte[LOCAL_SIZE];
+            RandomAccessFile input = new RandomAccessFile(file, "r");
+            try
+            {
+                input.seek(entry.headerOffset);
+                input.readFully(header);
+            }
+            finally
+            {
+                input.close();
+            }
+            if (getInt(header, 0) != LOCAL_SIGNATURE)
+            {
+                throw new IOException("Invalid local header for " + entry.getName() + " in " + file);
+            }
+            result = entry.headerOffset + LOCAL_SIZE + getShort(header, 26) + getShort(header, 28);
+            entry.dataOffset = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a stream to the content of an entry.
+     * <p/>
+     * Stored entries are read directly from the archive, and deflated entries are inflated as they are read. The
+     * stream holds the archive open until it is closed.
+     *
+     * @param entry the entry
+     * @return a stream to the entry content
+     * @throws IOException if the entry cannot be read or its compression method is not supported
+     */
+    public InputStream getInputStream(Entry entry) throws IOException
+    {
+        InputStream result = new EntryInputStream(getDataOffset(entry), entry.getCompressedSize());
+        if (entry.getMethod() == DEFLATED)
+        {
+            int size = (int) Math.max(64, Math.min(entry.getCompressedSize(), 8192));
+            result = new EntryInflaterInputStream(result, size);
+        }
+        else if (entry.getMethod() != STORED)
+        {
+            throw new IOException("Unsupported compression method " + entry.getMethod() + " for " + entry.getName()
+                                          + " in " + file);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the archive file of a resource URL.
+     *
+     * @param url the resource URL
+     * @return the archive file, or {@code null} if the URL doesn't refer to an entry of a local archive
+     */
+    public static File getArchiveFile(URL url)
+    {
+        if (!"jar".equals(url.getProtocol()))
+        {
+            return null;
+        }
+        String spec = url.getFile();
+        int index = spec.indexOf("!/");
+        if (index == -1)
+        {
+            return null;
+        }
+        try
+        {
+            URL archive = new URL(spec.substring(0, index));
+            if (!"file".equals(archive.getProtocol()))
+            {
+                return null;
+            }
+            return new File(archive.toURI());
+        }
+        catch (MalformedURLException exception)
+        {
+            return null;
+        }
+        catch (URISyntaxException exception)
+        {
+            return null;
+        }
+        catch (IllegalArgumentException exception)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the central directory.
+     *
+     * @param input the archive
+     * @throws IOException if the central directory cannot be read
+     */
+    private void readCentralDirectory(RandomAccessFile input) throws IOException
+    {
+        int tail = (int) Math.min(length, END_SIZE + 0xFFFF);
+        byte[] buffer = new byte[tail];
+        input.seek(length - tail);
+        input.readFully(buffer);
+        int end = -1;
+        for (int i = tail - END_SIZE; i >= 0; --i)
+        {
+            if (getInt(buffer, i) == END_SIGNATURE)
+            {
+                end = i;
+                break;
+            }
+        }
+        if (end == -1)
+        {
+            throw new IOException("No central directory found in " + file);
+        }
+        int count = getShort(buffer, end + 10);
+        long size = getUnsignedInt(buffer, end + 12);
+        long offset = getUnsignedInt(buffer, end + 16);
+        if (count == 0xFFFF || size == 0xFFFFFFFFL || offset == 0xFFFFFFFFL)
+        {
+            throw new IOException("ZIP64 archives are not supported: " + file);
+        }
+
+        byte[] directory = new byte[(int) size];
+        input.seek(offset);
+        input.readFully(directory);
+        int pos = 0;
+        for (int i = 0; i < count; ++i)
+        {
+            if (pos + CENTRAL_SIZE > directory.length || getInt(directory, pos) != CENTRAL_SIGNATURE)
+            {
+                throw new IOException("Invalid central directory in " + file);
+            }
+            int nameLength = getShort(directory, pos + 28);
+            int extraLength = getShort(directory, pos + 30);
+            int commentLength = getShort(directory, pos + 32);
+            String name = decode(directory, pos + CENTRAL_SIZE, nameLength);
+            Entry entry = new Entry(name, getShort(directory, pos + 10), getUnsignedInt(directory, pos + 24),
+                                    getUnsignedInt(directory, pos + 20), getUnsignedInt(directory, pos + 42));
+            entries.put(name, entry);
+            pos += CENTRAL_SIZE + nameLength + extraLength + commentLength;
+        }
+    }
+
+    /**
+     * Decodes an entry name.
+     *
+     * @param buffer the buffer
+     * @param offset the offset of the name
+     * @param length the length of the name
+     * @return the name
+     */
+    private static String decode(byte[] buffer, int offset, int length)
+    {
+        try
+        {
+            return new String(buffer, offset, length, "UTF-8");
+        }
+        catch (UnsupportedEncodingException exception)
+        {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Reads a little-endian unsigned short.
+     *
+     * @param buffer the buffer
+     * @param offset the offset
+     * @return the value
+     */
+    private static int getShort(byte[] buffer, int offset)
+    {
+        return (buffer[offset] & 0xFF) | ((buffer[offset + 1] & 0xFF) << 8);
+    }
+
+    /**
+     * Reads a little-endian int.
+     *
+     * @param buffer the buffer
+     * @param offset the offset
+     * @return the value
+     */
+    private static int getInt(byte[] buffer, int offset)
+    {
+        return getShort(buffer, offset) | (getShort(buffer, offset + 2) << 16);
+    }
+
+    /**
+     * Reads a little-endian unsigned int.
+     *
+     * @param buffer the buffer
+     * @param offset the offset
+     * @return the value
+     */
+    private static long getUnsignedInt(byte[] buffer, int offset)
+    {
+        return getInt(buffer, offset) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * A stream that reads a region of the archive.
+     */
+    private class EntryInputStream extends InputStream
+    {
+        /**
+         * The archive, or {@code null} if it hasn't been opened yet.
+         */
+        private RandomAccessFile input;
+
+        /**
+         * Determines if the stream is closed.
+         */
+        private boolean closed;
+
+        /**
+         * The position of the next byte to read.
+         */
+        private long position;
+
+        /**
+         * The number of bytes remaining.
+         */
+        private long remaining;
+
+        /**
+         * Buffer for single byte reads.
+         */
+        private final byte[] single = new byte[1];
+
+        /**
+         * Constructs an <tt>EntryInputStream</tt>.
+         *
+         * @param position the position of the region
+         * @param length   the length of the region
+         */
+        public EntryInputStream(long position, long length)
+        {
+            this.position = position;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            return (read(single, 0, 1) == -1) ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException
+        {
+            if (count == 0)
+            {
+                return 0;
+            }
+            if (remaining <= 0)
+            {
+                return -1;
+            }
+            if (input == null)
+            {
+                if (closed)
+                {
+                    throw new IOException("Stream closed");
+                }
+                input = new RandomAccessFile(file, "r");
+            }
+            input.seek(position);
+            int result = input.read(buffer, offset, (int) Math.min(count, remaining));
+            if (result == -1)
+            {
+                throw new EOFException("Unexpected end of " + file);
+            }
+            position += result;
+            remaining -= result;
+            return result;
+        }
+
+        /**
+         * Skips bytes without reading them.
+         *
+         * @param count the number of bytes to skip
+         * @return the number of bytes skipped
+         */
+        @Override
+        public long skip(long count)
+        {
+            long result = Math.max(0, Math.min(count, remaining));
+            position += result;
+            remaining -= result;
+            return result;
+        }
+
+        @Override
+        public int available()
+        {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Closes the stream, releasing the archive.
+         *
+         * @throws IOException if the archive cannot be closed
+         */
+        @Override
+        public void close() throws IOException
+        {
+            closed = true;
+            if (input != null)
+            {
+                try
+                {
+                    input.close();
+                }
+                finally
+                {
+                    input = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * A stream that inflates a deflated entry.
+     * <p/>
+     * As entries are deflated without a zlib header, the inflater needs an extra byte of input at the end of the
+     * data, and must be released when the stream is closed.
+     */
+    private static class EntryInflaterInputStream extends InflaterInputStream
+    {
+        /**
+         * Determines if the end of the compressed data has been reached.
+         */
+        private boolean eof;
+
+        /**
+         * Determines if the stream is closed.
+         */
+        private boolean closed;
+
+        /**
+         * Constructs an <tt>EntryInflaterInputStream</tt>.
+         *
+         * @param in   the deflated data
+         * @param size the buffer size
+         */
+        public EntryInflaterInputStream(InputStream in, int size)
+        {
+            super(in, new Inflater(true), size);
+        }
+
+        @Override
+        protected void fill() throws IOException
+        {
+            if (eof)
+            {
+                throw new EOFException("Unexpected end of deflated data");
+            }
+            len = in.read(buf, 0, buf.length);
+            if (len == -1)
+            {
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (!closed)
+            {
+                closed = true;
+                inf.end();
+                super.close();
+            }
+        }
+    }
+
+    /**
+     * An archive entry.
+     */
+    public static class Entry
+    {
+        /**
+         * The entry name.
+         */
+        private final String name;
+
+        /**
+         * The compression method.
+         */
+        private final int method;
+
+        /**
+         * The uncompressed size.
+         */
+        private final long size;
+
+        /**
+         * The compressed size.
+         */
+        private final long compressedSize;
+
+        /**
+         * The offset of the local file header.
+         */
+        private final long headerOffset;
+
+        /**
+         * The offset of the entry data, or {@code -1} if it hasn't been read yet.
+         */
+        private volatile long dataOffset = -1;
+
+        /**
+         * Constructs an <tt>Entry</tt>.
+         *
+         * @param name           the entry name
+         * @param method         the compression method
+         * @param size           the uncompressed size
+         * @param compressedSize the compressed size
+         * @param headerOffset   the offset of the local file header
+         */
+        Entry(String name, int method, long size, long compressedSize, long headerOffset)
+        {
+            this.name = name;
+            this.method = method;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.headerOffset = headerOffset;
+        }
+
+        /**
+         * Returns the entry name.
+         *
+         * @return the entry name
+         */
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * Returns the compression method.
+         *
+         * @return the compression method, e.g. {@link #STORED} or {@link #DEFLATED}
+         */
+        public int getMethod()
+        {
+            return method;
+        }
+
+        /**
+         * Determines if the entry is stored uncompressed.
+         *
+         * @return {@code true} if the entry is stored
+         */
+        public boolean isStored()
+        {
+            return method == STORED;
+        }
+
+        /**
+         * Returns the uncompressed size.
+         *
+         * @return the uncompressed size, in bytes
+         */
+        public long getSize()
+        {
+            return size;
+        }
+
+        /**
+         * Returns the compressed size.
+         *
+         * @return the compressed size, in bytes
+         */
+        public long getCompressedSize()
+        {
+            return compressedSize;
+        }
+    }
+}
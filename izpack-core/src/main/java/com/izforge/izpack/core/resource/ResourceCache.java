@@ -0,0 +1,37 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.core.resource;
+
+/**
+ * Implemented by class loaders that serve some installer resources from a cache of their own.
+ * <p/>
+ * {@link ResourceManager} loads cached resources through the class loader, rather than reading them from the
+ * installer jar.
+ */
+public interface ResourceCache
+{
+    /**
+     * Determines if a resource is served from the cache.
+     *
+     * @param name the resource name, relative to the class path root
+     * @return {@code true} if the resource is cached
+     */
+    boolean isCached(String name);
+}
@@ -26,10 +26,14 @@ import com.izforge.izpack.api.exception.ResourceException;
 import com.izforge.izpack.api.exception.ResourceNotFoundException;
 import com.izforge.izpack.api.resource.Locales;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.List;
 import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * With this ResourceManager you are able to get resources from the jar file.
@@ -42,6 +46,9 @@ import java.util.Locale;
  * <li>InfoPanel.info_deu - for german value</li>
  * <li>InfoPanel.info_eng - for english value</li> <br>
  * <p/>
+ * When the installer resources are packaged in a local jar, resources under {@link #RESOURCE_BASEPATH_DEFAULT} are
+ * read directly from the jar using an {@link InstallerArchive} index. Resources not in the jar, on an exploded
+ * class path, or cached by a class loader implementing {@link ResourceCache}, are loaded using the class loader.
  *
  * @author Marcus Stursberg
  * @author Tim Anderson
@@ -63,6 +70,26 @@ public class ResourceManager extends AbstractResources
      */
     private String resourceBasePath = "/resources/";
 
+    /**
+     * The path of the installer resources within the installer jar.
+     */
+    private static final String ARCHIVE_PATH = RESOURCE_BASEPATH_DEFAULT.substring(1);
+
+    /**
+     * The installer jar index, or {@code null} if the installer resources aren't in a local jar.
+     */
+    private InstallerArchive archive;
+
+    /**
+     * Determines if the installer jar has been located.
+     */
+    private boolean archiveLocated;
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(ResourceManager.class.getName());
+
 
     /**
      * Constructs a <tt>ResourceManager</tt>.
@@ -110,6 +137,19 @@ public class ResourceManager extends AbstractResources
     public InputStream getInputStream(String resource)
     {
         resource = getLanguageResourceString(resource);
+        InstallerArchive.Entry entry = getArchiveEntry(resource);
+        if (entry != null)
+        {
+            try
+            {
+                return archive.getInputStream(entry);
+            }
+            catch (IOException exception)
+            {
+                logger.log(Level.WARNING, "Failed to read " + entry.getName() + " from " + archive.getFile()
+                        + ": " + exception.getMessage(), exception);
+            }
+        }
         return super.getInputStream(resource);
     }
 
@@ -181,6 +221,74 @@ public class ResourceManager extends AbstractResources
         return super.resolveName(name);
     }
 
+    /**
+     * Determines if a resource exists.
+     *
+     * @param name the resource name
+     * @return {@code true} if the resource exists
+     */
+    private boolean exists(String name)
+    {
+        return getArchiveEntry(name) != null || getResource(name) != null;
+    }
+
+    /**
+     * Returns the installer jar entry of a resource.
+     *
+     * @param name the resource name
+     * @return the entry, or {@code null} if the resource isn't an installer resource in a local installer jar, or is
+     *         cached by the class loader
+     */
+    private InstallerArchive.Entry getArchiveEntry(String name)
+    {
+        name = resolveName(name);
+        if (!name.startsWith(ARCHIVE_PATH))
+        {
+            return null;
+        }
+        ClassLoader loader = getLoader();
+        if (loader instanceof ResourceCache && ((ResourceCache) loader).isCached(name))
+        {
+            return null;
+        }
+        InstallerArchive result = getArchive(name);
+        return (result != null) ? result.getEntry(name) : null;
+    }
+
+    /**
+     * Returns the installer jar index.
+     * <p/>
+     * The installer jar is located from the URL of the first installer resource found by the class loader.
+     *
+     * @param name the resolved name of an installer resource
+     * @return the installer jar index, or {@code null} if the installer resources aren't in a local jar, or they
+     *         haven't been located yet
+     */
+    private synchronized InstallerArchive getArchive(String name)
+    {
+        if (!archiveLocated)
+        {
+            URL url = getLoader().getResource(name);
+            if (url != null)
+            {
+                archiveLocated = true;
+                File file = InstallerArchive.getArchiveFile(url);
+                if (file != null)
+                {
+                    try
+                    {
+                        archive = InstallerArchive.getArchive(file);
+                    }
+                    catch (IOException exception)
+                    {
+                        logger.warning("Failed to index " + file + ": " + exception.getMessage());
+                    }
+                }
+            }
+        }
+        return archive;
+    }
+
     /**
      * This method is used to get the language dependent path of the given resource. If there is a
      * resource for the current language the path of the language dependent resource is returned. If
@@ -203,16 +311,16 @@ public class ResourceManager extends AbstractResources
 
         // use lowercase country code for backwards compatibility
         String resourcePath = (country != null) ? resource + "_" + country.toLowerCase() : null;
-        if (resourcePath != null && getResource(resourcePath) != null)
+        if (resourcePath != null && exists(resourcePath))
         {
             return resourcePath;
         }
         resourcePath = (language != null) ? resource + "_" + language : null;
-        if (resourcePath != null && getResource(resourcePath) != null)
+        if (resourcePath != null && exists(resourcePath))
         {
             return resourcePath;
         }
-        if (getResource(resource) != null)
+        if (exists(resource))
         {
             return resource;
         }
@@ -0,0 +1,278 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.core.resource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.izforge.izpack.api.exception.ResourceException;
+
+
+/**
+ * Loads resources concurrently, in advance of their use.
+ * <p/>
+ * Each load is identified by a name, usually that of the resource it loads, and may depend on loads scheduled before
+ * it. A load starts once the loads it depends on have completed, whether or not they succeeded.
+ * <p/>
+ * The result of a load is handed out once, by {@link #take(String)}. Loads that depend on it can read it any
+ * number of times with {@link #get(String)}.
+ * <p/>
+ * Loads run on daemon threads that terminate when idle, so the preloader needs no shutdown.
+ */
+public class ResourcePreloader
+{
+    /**
+     * The executor to run loads.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The scheduled loads, keyed on name. Guarded by this.
+     */
+    private final Map<String, Load> loads = new HashMap<String, Load>();
+
+
+    /**
+     * Constructs a {@code ResourcePreloader} using a thread per available processor.
+     */
+    public ResourcePreloader()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a {@code ResourcePreloader}.
+     *
+     * @param threads the maximum no. of resources to load concurrently
+     */
+    public ResourcePreloader(int threads)
+    {
+        threads = Math.max(1, threads);
+        executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                                          new PreloadThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Schedules a load.
+     *
+     * @param name         the load name
+     * @param task         the task that performs the load
+     * @param dependencies the names of previously scheduled loads that must complete first. Names that haven't been
+     *                     scheduled are ignored
+     * @return {@code true} if the load was scheduled, {@code false} if a load with the same name already exists
+     */
+    public synchronized boolean schedule(String name, Callable<?> task, String... dependencies)
+    {
+        if (loads.containsKey(name))
+        {
+            return false;
+        }
+        Load load = new Load(task);
+        for (String dependency : dependencies)
+        {
+            Load other = loads.get(dependency);
+            if (other != null && !other.completed)
+            {
+                other.dependents.add(load);
+                ++load.waiting;
+            }
+        }
+        loads.put(name, load);
+        if (load.waiting == 0)
+        {
+            executor.execute(load);
+        }
+        return true;
+    }
+
+    /**
+     * Determines if a load has been scheduled.
+     *
+     * @param name the load name
+     * @return {@code true} if the load has been scheduled
+     */
+    public synchronized boolean isScheduled(String name)
+    {
+        return loads.containsKey(name);
+    }
+
+    /**
+     * Takes the result of a load.
+     * <p/>
+     * The result is only handed out once.
+     *
+     * @param name the load name
+     * @return the pending result, or {@code null} if the load hasn't been scheduled or its result has been taken
+     */
+    public synchronized Future<?> take(String name)
+    {
+        Load load = loads.get(name);
+        if (load == null || load.taken)
+        {
+            return null;
+        }
+        load.taken = true;
+        return load;
+    }
+
+    /**
+     * Returns the result of a load, waiting for it to complete if required.
+     * <p/>
+     * This does not take the result.
+     *
+     * @param name the load name
+     * @return the result, or {@code null} if the load hasn't been scheduled
+     * @throws ResourceException if the load failed or the wait was interrupted
+     */
+    public Object get(String name)
+    {
+        Future<?> load;
+        synchronized (this)
+        {
+            load = loads.get(name);
+        }
+        return (load != null) ? getResult(name, load) : null;
+    }
+
+    /**
+     * Returns the result of a load, waiting for it to complete if required.
+     *
+     * @param name the load name
+     * @param load the load
+     * @return the result of the load
+     * @throws ResourceException if the load failed or the wait was interrupted
+     */
+    public static Object getResult(String name, Future<?> load)
+    {
+        try
+        {
+            return load.get();
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new ResourceException("Interrupted while loading resource: " + name, exception);
+        }
+        catch (ExecutionException exception)
+        {
+            Throwable cause = exception.getCause();
+            if (cause instanceof ResourceException)
+            {
+                throw (ResourceException) cause;
+            }
+            throw new ResourceException("Failed to load resource: " + name, cause);
+        }
+    }
+
+    /**
+     * Invoked when a load completes, to start the loads waiting for it.
+     *
+     * @param load the completed load
+     */
+    private synchronized void completed(Load load)
+    {
+        load.completed = true;
+        for (Load dependent : load.dependents)
+        {
+            if (--dependent.waiting == 0)
+            {
+                executor.execute(dependent);
+            }
+        }
+        load.dependents.clear();
+    }
+
+    /**
+     * A scheduled load.
+     */
+    private class Load extends FutureTask<Object>
+    {
+        /**
+         * The loads that depend on this one. Guarded by the preloader.
+         */
+        private final List<Load> dependents = new ArrayList<Load>();
+
+        /**
+         * The no. of loads this one waits for. Guarded by the preloader.
+         */
+        private int waiting;
+
+        /**
+         * Determines if the load has completed. Guarded by the preloader.
+         */
+        private boolean completed;
+
+        /**
+         * Determines if the result has been taken. Guarded by the preloader.
+         */
+        private boolean taken;
+
+        /**
+         * Constructs a {@code Load}.
+         *
+         * @param task the task that performs the load
+         */
+        @SuppressWarnings("unchecked")
+        public Load(Callable<?> task)
+        {
+            super((Callable<Object>) task);
+        }
+
+        /**
+         * Starts the loads waiting for this one.
+         */
+        @Override
+        protected void done()
+        {
+            completed(this);
+        }
+    }
+
+    /**
+     * Creates daemon threads to load resources on.
+     */
+    private static class PreloadThreadFactory implements ThreadFactory
+    {
+        /**
+         * The no. of threads created.
+         */
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "resource preload " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
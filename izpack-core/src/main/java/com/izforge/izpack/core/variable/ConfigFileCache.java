@@ -0,0 +1,138 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.core.variable;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches parsed configuration files, so that the many {@link ConfigFileValue}s reading keys from the same file don't
+ * parse it each time they are resolved.
+ * <p/>
+ * Entries are keyed on the file path, the entry name for zip and jar files, and the way the file is parsed. A cached
+ * entry is discarded as soon as the size or modification time of its file changes.
+ * <p/>
+ * Cached configurations must not be modified by callers.
+ */
+public class ConfigFileCache
+{
+    /**
+     * Loads and parses a configuration file.
+     */
+    public interface Loader
+    {
+        /**
+         * Loads and parses the configuration file.
+         *
+         * @return the parsed configuration
+         * @throws Exception if the file cannot be read or parsed
+         */
+        Object load() throws Exception;
+    }
+
+    /**
+     * The cached configurations, keyed on file, entry and format.
+     */
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+
+    /**
+     * Returns the parsed configuration for a file, loading it if it isn't cached or its file has changed.
+     * <p/>
+     * Failures to load are not cached.
+     *
+     * @param file      the configuration file, or the zip file containing it
+     * @param entryName the zip entry name. May be {@code null}
+     * @param format    identifies how the file is parsed
+     * @param loader    the loader to use if the configuration isn't cached
+     * @return the parsed configuration
+     * @throws Exception if the configuration cannot be loaded
+     */
+    public Object get(File file, String entryName, String format, Loader loader) throws Exception
+    {
+        String key = file.getAbsolutePath() + '\0' + ((entryName != null) ? entryName : "") + '\0' + format;
+        long length = file.length();
+        long lastModified = file.lastModified();
+        synchronized (entries)
+        {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.length == length && entry.lastModified == lastModified)
+            {
+                return entry.config;
+            }
+        }
+        Object config = loader.load();
+        if (lastModified != 0)
+        {
+            synchronized (entries)
+            {
+                entries.put(key, new Entry(length, lastModified, config));
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Discards all cached configurations.
+     */
+    public void clear()
+    {
+        synchronized (entries)
+        {
+            entries.clear();
+        }
+    }
+
+    /**
+     * A cached configuration.
+     */
+    private static class Entry
+    {
+        /**
+         * The file size when the configuration was loaded.
+         */
+        private final long length;
+
+        /**
+         * The file modification time when the configuration was loaded.
+         */
+        private final long lastModified;
+
+        /**
+         * The parsed configuration.
+         */
+        private final Object config;
+
+        /**
+         * Constructs an <tt>Entry</tt>.
+         *
+         * @param length       the file size
+         * @param lastModified the file modification time
+         * @param config       the parsed configuration
+         */
+        public Entry(long length, long lastModified, Object config)
+        {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.config = config;
+        }
+    }
+}
@@ -21,14 +21,14 @@
 
 package com.izforge.izpack.core.variable;
 
-import java.io.IOException;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.util.Set;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
@@ -37,7 +37,8 @@ import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+
+import org.apache.commons.io.IOUtils;
 
 import com.izforge.izpack.api.substitutor.VariableSubstitutor;
 import com.izforge.izpack.api.config.Config;
@@ -61,6 +62,11 @@ public abstract class ConfigFileValue extends ValueImpl implements Serializable
 
     public boolean escape = true; // optional
 
+    /**
+     * The cache of parsed configuration files. May be {@code null}.
+     */
+    private transient ConfigFileCache cache;
+
     public ConfigFileValue(int type, String section, String key, boolean escape)
     {
         super();
@@ -123,7 +129,92 @@ public abstract class ConfigFileValue extends ValueImpl implements Serializable
         }
     }
 
+    /**
+     * Sets the cache of parsed configuration files.
+     *
+     * @param cache the cache. May be {@code null}, in which case the configuration file is parsed on each resolution
+     */
+    public void setCache(ConfigFileCache cache)
+    {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the cache of parsed configuration files.
+     *
+     * @return the cache. May be {@code null}
+     */
+    public ConfigFileCache getCache()
+    {
+        return cache;
+    }
+
     protected String resolve(InputStream in) throws Exception
+    {
+        return get(parse(in), section, key);
+    }
+
+    protected String resolve(InputStream in, VariableSubstitutor... substitutors)
+            throws Exception
+    {
+        return get(parse(in), substitute(section, substitutors), substitute(key, substitutors));
+    }
+
+    /**
+     * Resolves the value from a configuration file, using the cache if one is set.
+     *
+     * @param file          the configuration file, or the zip file containing it
+     * @param entryName     the zip entry name, or {@code null} if the configuration file is read directly
+     * @param substitutors  the substitutors for the section and key
+     * @return the value. May be {@code null}
+     * @throws Exception if the configuration file cannot be read or parsed
+     */
+    protected String resolve(final File file, final String entryName, VariableSubstitutor... substitutors)
+            throws Exception
+    {
+        ConfigFileCache.Loader loader = new ConfigFileCache.Loader()
+        {
+            @Override
+            public Object load() throws Exception
+            {
+                return ConfigFileValue.this.load(file, entryName);
+            }
+        };
+        Object config = (cache != null) ? cache.get(file, entryName, type + ":" + escape, loader) : loader.load();
+        return get(config, substitute(section, substitutors), substitute(key, substitutors));
+    }
+
+    /**
+     * Loads and parses a configuration file.
+     * <p/>
+     * This implementation reads the file directly. Subclasses reading zip entries override it.
+     *
+     * @param file      the configuration file
+     * @param entryName the zip entry name. Ignored by this implementation
+     * @return the parsed configuration
+     * @throws Exception if the configuration file cannot be read or parsed
+     */
+    protected Object load(File file, String entryName) throws Exception
+    {
+        InputStream in = new FileInputStream(file);
+        try
+        {
+            return parse(in);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Parses a configuration file.
+     *
+     * @param in the stream to read
+     * @return the parsed configuration. An {@link Options}, {@link Ini} or {@link Document}, depending on the type
+     * @throws Exception if the configuration cannot be parsed
+     */
+    protected Object parse(InputStream in) throws Exception
     {
         Config config;
         switch (type)
@@ -131,66 +222,74 @@ public abstract class ConfigFileValue extends ValueImpl implements Serializable
             case CONFIGFILE_TYPE_OPTIONS:
                 config = Config.getGlobal().clone();
                 config.setEscape(isEscape());
-                Options opts = new Options(config);
-                opts.load(in);
-                return opts.get(key);
+                return new Options(in, config);
             case CONFIGFILE_TYPE_INI:
                 config = Config.getGlobal().clone();
                 config.setEscape(isEscape());
-                Ini ini = new Ini(config);
-                ini.load(in);
-                return ini.get(section, key);
+                return new Ini(in, config);
             case CONFIGFILE_TYPE_XML:
-                return parseXPath(in, key, System.getProperty("line.separator"));
+                DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+                domFactory.setNamespaceAware(true);
+                DocumentBuilder builder = domFactory.newDocumentBuilder();
+                return builder.parse(in);
             default:
-                throw new Exception("Invalid configuration file type " + type);
+                throw new Exception("Invalid configuration file type '" + type + "'");
         }
     }
 
-    protected String resolve(InputStream in, VariableSubstitutor... substitutors)
-            throws Exception
+    /**
+     * Returns a value from a parsed configuration.
+     *
+     * @param config  the parsed configuration, as returned by {@link #parse(InputStream)}
+     * @param section the INI section. Only used for INI files
+     * @param key     the key, or the XPath expression for XML files
+     * @return the value. May be {@code null}
+     * @throws Exception if the value cannot be determined
+     */
+    protected String get(Object config, String section, String key) throws Exception
     {
-        Config config;
-        String _key_ = key;
-        for (VariableSubstitutor substitutor : substitutors)
-        {
-            _key_ = substitutor.substitute(_key_);
-        }
-
         switch (type)
         {
             case CONFIGFILE_TYPE_OPTIONS:
-                config = Config.getGlobal().clone();
-                config.setEscape(isEscape());
-                Options opts;
-                opts = new Options(in, config);
-                return opts.get(_key_);
+                return ((Options) config).get(key);
             case CONFIGFILE_TYPE_INI:
-                config = Config.getGlobal().clone();
-                config.setEscape(isEscape());
-                Ini ini;
-                String _section_ = section;
-                for (VariableSubstitutor substitutor : substitutors)
+                return ((Ini) config).get(section, key);
+            case CONFIGFILE_TYPE_XML:
+                Document doc = (Document) config;
+                // DOM implementations aren't thread safe, even for reading
+                synchronized (doc)
                 {
-                    _section_ = substitutor.substitute(_section_);
+                    return evaluateXPath(doc, key, System.getProperty("line.separator"));
                 }
-                ini = new Ini(in, config);
-                return ini.get(_section_, _key_);
-            case CONFIGFILE_TYPE_XML:
-                return parseXPath(in, _key_, System.getProperty("line.separator"));
             default:
                 throw new Exception("Invalid configuration file type '" + type + "'");
         }
     }
 
-    private static String parseXPath(InputStream in, String expression, String separator)
-            throws ParserConfigurationException, SAXException, IOException, XPathExpressionException
+    /**
+     * Substitutes variables in a string.
+     *
+     * @param value        the string. May be {@code null}
+     * @param substitutors the substitutors
+     * @return the substituted string
+     * @throws Exception if substitution fails
+     */
+    protected static String substitute(String value, VariableSubstitutor... substitutors) throws Exception
+    {
+        String result = value;
+        if (result != null)
+        {
+            for (VariableSubstitutor substitutor : substitutors)
+            {
+                result = substitutor.substitute(result);
+            }
+        }
+        return result;
+    }
+
+    private static String evaluateXPath(Document doc, String expression, String separator)
+            throws XPathExpressionException
     {
-        DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-        domFactory.setNamespaceAware(true);
-        DocumentBuilder builder;
-        builder = domFactory.newDocumentBuilder();
-        Document doc = builder.parse(in);
         XPath xpath = XPathFactory.newInstance().newXPath();
         // XPath Query for showing all nodes value
         XPathExpression expr = xpath.compile(expression);
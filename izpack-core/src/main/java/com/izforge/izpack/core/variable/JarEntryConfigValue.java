@@ -19,13 +19,11 @@
 
 package com.izforge.izpack.core.variable;
 
-import com.izforge.izpack.api.substitutor.VariableSubstitutor;
-
-import java.io.InputStream;
+import java.io.File;
+import java.io.IOException;
 import java.util.Set;
-import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
-import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 
 
 public class JarEntryConfigValue extends ZipEntryConfigFileValue
@@ -37,45 +35,17 @@ public class JarEntryConfigValue extends ZipEntryConfigFileValue
         super(filename, entryname, type, section, key, escape);
     }
 
+    /**
+     * Opens the jar file.
+     *
+     * @param file the jar file
+     * @return the opened jar file
+     * @throws IOException if the file cannot be opened
+     */
     @Override
-    public String resolve() throws Exception
-    {
-        return super.resolve(getJarEntryInputStream(getFilename(), getEntryname()));
-    }
-
-    @Override
-    public String resolve(VariableSubstitutor... substitutors)
-            throws Exception
-    {
-        String _filename_ = getFilename(), _entryname_ = getEntryname();
-        for (VariableSubstitutor substitutor : substitutors)
-        {
-            _filename_ = substitutor.substitute(_filename_);
-        }
-        for (VariableSubstitutor substitutor : substitutors)
-        {
-            _entryname_ = substitutor.substitute(_entryname_);
-        }
-        return super.resolve(getJarEntryInputStream(_filename_, _entryname_), substitutors);
-    }
-
-    private InputStream getJarEntryInputStream(String filename, String entryname) throws Exception
+    protected ZipFile openZipFile(File file) throws IOException
     {
-        JarFile jarfile;
-        try
-        {
-            jarfile = new JarFile(filename);
-            JarEntry entry = jarfile.getJarEntry(entryname);
-            if (entry == null)
-            {
-                throw new Exception("Jar file entry " + entryname + " not found in " + jarfile.getName());
-            }
-            return jarfile.getInputStream(entry);
-        }
-        catch (ZipException ze)
-        {
-            throw new Exception("Error opening jar file " + filename, ze);
-        }
+        return new JarFile(file);
     }
 
     @Override
@@ -19,12 +19,16 @@
 
 package com.izforge.izpack.core.variable;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 
+import org.apache.commons.io.IOUtils;
+
 import com.izforge.izpack.api.substitutor.VariableSubstitutor;
 
 
@@ -79,44 +83,72 @@ public class ZipEntryConfigFileValue extends ConfigFileValue
     @Override
     public String resolve() throws Exception
     {
-        return super.resolve(getZipEntryInputStream(getFilename(), getEntryname()));
+        return resolve(new File(getFilename()), getEntryname());
     }
 
     @Override
     public String resolve(VariableSubstitutor... substitutors)
             throws Exception
     {
-        String _filename_ = this.filename, _entryname_ = this.entryname;
-        for (VariableSubstitutor substitutor : substitutors)
-        {
-            _filename_ = substitutor.substitute(_filename_);
-        }
-        for (VariableSubstitutor substitutor : substitutors)
-        {
-            _entryname_ = substitutor.substitute(_entryname_);
-        }
-        return super.resolve(getZipEntryInputStream(_filename_, _entryname_), substitutors);
+        return resolve(new File(substitute(filename, substitutors)), substitute(entryname, substitutors),
+                       substitutors);
     }
 
-    private InputStream getZipEntryInputStream(String filename, String entryname) throws Exception
+    /**
+     * Loads and parses a configuration file from a zip entry.
+     *
+     * @param file      the zip file
+     * @param entryName the zip entry name
+     * @return the parsed configuration
+     * @throws Exception if the zip file or entry cannot be read or parsed
+     */
+    @Override
+    protected Object load(File file, String entryName) throws Exception
     {
         ZipFile zipfile;
         try
         {
-            zipfile = new ZipFile(filename);
-            ZipEntry entry = zipfile.getEntry(entryname);
+            zipfile = openZipFile(file);
+        }
+        catch (ZipException ze)
+        {
+            throw new Exception("Error opening zip file " + file, ze);
+        }
+        try
+        {
+            ZipEntry entry = zipfile.getEntry(entryName);
             if (entry == null)
             {
-                throw new Exception("Zip file entry " + entryname + " not found in " + zipfile.getName());
+                throw new Exception("Zip file entry " + entryName + " not found in " + zipfile.getName());
+            }
+            InputStream in = zipfile.getInputStream(entry);
+            try
+            {
+                return parse(in);
+            }
+            finally
+            {
+                IOUtils.closeQuietly(in);
             }
-            return zipfile.getInputStream(entry);
         }
-        catch (ZipException ze)
+        finally
         {
-            throw new Exception("Error opening zip file " + filename, ze);
+            zipfile.close();
         }
     }
 
+    /**
+     * Opens the zip file.
+     *
+     * @param file the zip file
+     * @return the opened zip file
+     * @throws IOException if the file cannot be opened
+     */
+    protected ZipFile openZipFile(File file) throws IOException
+    {
+        return new ZipFile(file);
+    }
+
     @Override
     public Set<String> getVarRefs()
     {
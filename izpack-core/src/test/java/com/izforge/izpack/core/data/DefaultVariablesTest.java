@@ -24,6 +24,7 @@ package com.izforge.izpack.core.data;
 import com.izforge.izpack.api.data.*;
 import com.izforge.izpack.api.exception.InstallerException;
 import com.izforge.izpack.api.rules.Condition;
+import com.izforge.izpack.api.substitutor.VariableSubstitutor;
 import com.izforge.izpack.core.container.DefaultContainer;
 import com.izforge.izpack.core.rules.ConditionContainer;
 import com.izforge.izpack.core.rules.RulesEngineImpl;
@@ -40,10 +41,13 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 
@@ -593,6 +597,90 @@ public class DefaultVariablesTest
         assertEquals("empty value with spaces in ini", "", variables.get("var5"));
     }
 
+    /**
+     * Verifies that dynamic variables resolved concurrently are applied in declaration order, and that variables
+     * referring to them see the values of the preceding definitions.
+     */
+    @Test
+    public void testConcurrentDynamicVariables()
+    {
+        String ini = "src/test/resources/com/izforge/izpack/core/variable/test.ini";
+        variables.add(createDynamicFromIni("var", ini, "test", "var1", true));
+        variables.add(createDynamicFromIni("ref", ini, "test", "${var}", true));
+        variables.add(createDynamicFromIni("var", ini, "test", "var2", true));
+        variables.add(createDynamicFromIni("found", ini, "test", "found", true));
+        variables.add(createDynamic("combined", "${var}-${found}"));
+
+        variables.refresh();
+        assertEquals("ini2", variables.get("var"));
+        assertNull(variables.get("ref"));
+        assertEquals("ini2-true", variables.get("combined"));
+    }
+
+    /**
+     * Verifies that a dynamic variable value that isn't resolved in time is treated as a failure.
+     */
+    @Test
+    public void testConcurrentDynamicVariableTimeout()
+    {
+        String ini = "src/test/resources/com/izforge/izpack/core/variable/test.ini";
+        DynamicVariableImpl slow = new DynamicVariableImpl();
+        slow.setName("slow");
+        slow.setValue(new PlainConfigFileValue(ini, ConfigFileValue.CONFIGFILE_TYPE_INI, "test", "var1", true)
+        {
+            @Override
+            public String resolve(VariableSubstitutor... substitutors) throws Exception
+            {
+                Thread.sleep(10000);
+                return super.resolve(substitutors);
+            }
+        });
+        variables.set("slow", "static");
+        variables.add(slow);
+        variables.add(createDynamicFromIni("found", ini, "test", "found", true));
+        variables.setEvaluationTimeout(100);
+
+        variables.refresh();
+        assertNull(variables.get("slow"));
+        assertEquals("true", variables.get("found"));
+    }
+
+    /**
+     * Verifies that a conditional I/O bound value is only resolved in advance if its condition can't be changed by
+     * the dynamic variables applied before it.
+     */
+    @Test
+    public void testConcurrentConditionalDynamicVariables()
+    {
+        Map<String, Condition> conditions = new HashMap<String, Condition>();
+        conditions.put("unflagged", new VariableCondition("flag", "no"));
+        conditions.put("linux", new VariableCondition("os", "linux"));
+        AutomatedInstallData installData = new AutomatedInstallData(variables, Platforms.LINUX);
+        RulesEngineImpl rules = new RulesEngineImpl(installData, new ConditionContainer(new DefaultContainer()),
+                                                    installData.getPlatform());
+        rules.readConditionMap(conditions);
+        ((DefaultVariables) variables).setRules(rules);
+
+        String ini = "src/test/resources/com/izforge/izpack/core/variable/test.ini";
+        AtomicReference<String> dependentThread = new AtomicReference<String>();
+        AtomicReference<String> independentThread = new AtomicReference<String>();
+
+        // the condition of "dependent" is true when the refresh starts, but false once "flag" is applied
+        variables.set("flag", "no");
+        variables.set("os", "linux");
+        variables.add(createDynamic("flag", "yes"));
+        variables.add(createRecordingDynamicFromIni("dependent", ini, "unflagged", dependentThread));
+        variables.add(createRecordingDynamicFromIni("independent", ini, "linux", independentThread));
+        variables.add(createDynamicFromIni("found", ini, "test", "found", true));
+
+        variables.refresh();
+        assertEquals("yes", variables.get("flag"));
+        assertNull(dependentThread.get());
+        assertNull(variables.get("dependent"));
+        assertEquals("ini1", variables.get("independent"));
+        assertEquals("IzPack dynamic variable evaluator", independentThread.get());
+    }
+
     /**
      * Test for blocking of dynamic variables
      */
@@ -637,6 +725,35 @@ public class DefaultVariablesTest
         assertEquals("newValue", variables.get(blockedVar));
     }
 
+    /**
+     * Creates a conditional dynamic variable reading <em>var1</em> from an ini file, that records the thread it is
+     * resolved on.
+     *
+     * @param name        the variable name
+     * @param file        the ini file
+     * @param conditionId the condition identifier
+     * @param thread      records the name of the thread that the value is resolved on
+     * @return a new variable
+     */
+    private DynamicVariable createRecordingDynamicFromIni(String name, String file, String conditionId,
+                                                          final AtomicReference<String> thread)
+    {
+        DynamicVariableImpl result = new DynamicVariableImpl();
+        result.setName(name);
+        result.setConditionid(conditionId);
+        result.setAutoUnset(true);
+        result.setValue(new PlainConfigFileValue(file, ConfigFileValue.CONFIGFILE_TYPE_INI, "test", "var1", true)
+        {
+            @Override
+            public String resolve(VariableSubstitutor... substitutors) throws Exception
+            {
+                thread.set(Thread.currentThread().getName());
+                return super.resolve(substitutors);
+            }
+        });
+        return result;
+    }
+
     /**
      * Creates a dynamic variable with Checkonce set.
      *
@@ -725,6 +842,81 @@ public class DefaultVariablesTest
         return result;
     }
 
+    /**
+     * Tests the change journal.
+     */
+    @Test
+    public void testChanges()
+    {
+        long version = variables.getVersion();
+        variables.set("var1", "value1");
+        variables.set("var1", "value1");
+        variables.set("var2", "value2", "test");
+        variables.set("var1", null);
+
+        assertEquals(version + 3, variables.getVersion());
+        List<VariableChange> changes = variables.getChanges(version);
+        assertEquals(3, changes.size());
+        checkChange(changes.get(0), version + 1, "var1", null, "value1", null);
+        checkChange(changes.get(1), version + 2, "var2", null, "value2", "test");
+        checkChange(changes.get(2), version + 3, "var1", "value1", null, null);
+
+        changes = variables.getChanges(version + 2);
+        assertEquals(1, changes.size());
+        assertEquals("var1", changes.get(0).getName());
+        assertTrue(variables.getChanges(variables.getVersion()).isEmpty());
+    }
+
+    /**
+     * Verifies that changes made by dynamic variables are journalled, and that listeners are notified.
+     */
+    @Test
+    public void testDynamicVariableChanges()
+    {
+        final List<VariableChange> notified = new ArrayList<VariableChange>();
+        VariableListener listener = new VariableListener()
+        {
+            @Override
+            public void variableChanged(VariableChange change)
+            {
+                notified.add(change);
+            }
+        };
+        variables.addListener(listener);
+        variables.add(createDynamic("var1", "value1"));
+        long version = variables.getVersion();
+        variables.refresh();
+        variables.refresh();
+
+        assertEquals(variables.getChanges(version), notified);
+        assertEquals(1, notified.size());
+        checkChange(notified.get(0), version + 1, "var1", null, "value1", DefaultVariables.DYNAMIC_VARIABLE);
+
+        variables.removeListener(listener);
+        variables.set("var1", "value2");
+        assertEquals(1, notified.size());
+    }
+
+    /**
+     * Verifies a change.
+     *
+     * @param change   the change to check
+     * @param version  the expected version
+     * @param name     the expected name
+     * @param oldValue the expected old value
+     * @param newValue the expected new value
+     * @param source   the expected source
+     */
+    private void checkChange(VariableChange change, long version, String name, String oldValue, String newValue,
+                             String source)
+    {
+        assertEquals(version, change.getVersion());
+        assertEquals(name, change.getName());
+        assertEquals(oldValue, change.getOldValue());
+        assertEquals(newValue, change.getNewValue());
+        assertEquals(source, change.getSource());
+    }
+
     /**
      * Tests variable overrides to be passed to the installer
      */
@@ -0,0 +1,164 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.core.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link InstallLogWriter} and {@link InstallLogReader} classes.
+ */
+public class InstallLogWriterTest
+{
+    /**
+     * Temporary folder for the logs.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+    /**
+     * Verifies that paths can be read back after being written in several blocks, with each block in leaf first
+     * order.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testReadWrite() throws IOException
+    {
+        File file = new File(temporaryFolder.getRoot(), "install.files");
+        List<String> paths = new ArrayList<String>();
+        for (int i = 0; i < InstallLogWriter.MAX_BLOCK_ENTRIES + 10; ++i)
+        {
+            paths.add("/opt/myapp/lib/module" + (i / 100) + "/file-é" + i + ".jar");
+        }
+
+        InstallLogWriter writer = new InstallLogWriter(file);
+        for (String path : paths)
+        {
+            writer.add(path);
+        }
+        writer.flush();
+        writer.add("/opt/myapp");
+        writer.close();
+        paths.add("/opt/myapp");
+
+        List<String> expected = new ArrayList<String>();
+        expected.addAll(sort(paths.subList(0, InstallLogWriter.MAX_BLOCK_ENTRIES)));
+        expected.addAll(sort(paths.subList(InstallLogWriter.MAX_BLOCK_ENTRIES, paths.size() - 1)));
+        expected.add("/opt/myapp");
+
+        InstallLogReader reader = new InstallLogReader(file);
+        assertEquals(paths.size(), reader.size());
+        assertEquals(3, reader.getBlocks());
+        assertEquals(expected, reader.getPaths());
+        assertEquals(expected, new ArrayList<String>(reader.asList()));
+        assertEquals("/opt/myapp", reader.asList().get(paths.size() - 1));
+        assertEquals(Arrays.asList("/opt/myapp"), reader.getBlock(2));
+        assertEquals(InstallLogWriter.MAX_BLOCK_ENTRIES + 10, reader.getBlockStart(2));
+
+        // verify the log is smaller than the paths
+        int length = 0;
+        for (String path : paths)
+        {
+            length += path.length();
+        }
+        assertTrue(file.length() < length / 4);
+    }
+
+    /**
+     * Verifies that a block can be streamed.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testOpenBlock() throws IOException
+    {
+        File file = new File(temporaryFolder.getRoot(), "install.files");
+        InstallLogWriter writer = new InstallLogWriter(file);
+        writer.add("a");
+        writer.add("a/b/c");
+        writer.add("a/b");
+        writer.close();
+
+        InstallLogReader.BlockStream stream = new InstallLogReader(file).openBlock(0);
+        assertEquals("a/b/c", stream.next());
+        assertEquals("a/b", stream.next());
+        assertEquals("a", stream.next());
+        assertNull(stream.next());
+        stream.close();
+    }
+
+    /**
+     * Verifies that a log can be appended to, and that a torn trailing block is discarded.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testAppendAfterTornBlock() throws IOException
+    {
+        File file = new File(temporaryFolder.getRoot(), "install.files");
+        InstallLogWriter writer = new InstallLogWriter(file);
+        writer.add("a/b");
+        writer.flush();
+        long length = file.length();
+        writer.add("a/c");
+        writer.close();
+
+        // simulate a crash while writing the second block
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(file.length() - 2);
+        raf.close();
+        assertEquals(Arrays.asList("a/b"), new InstallLogReader(file).getPaths());
+
+        writer = new InstallLogWriter(file);
+        assertEquals(1, writer.size());
+        assertEquals(length, file.length());
+        writer.add("a/d");
+        writer.close();
+        assertEquals(Arrays.asList("a/b", "a/d"), new InstallLogReader(file).getPaths());
+    }
+
+    /**
+     * Sorts paths in leaf first order.
+     *
+     * @param paths the paths
+     * @return the sorted paths
+     */
+    private static List<String> sort(List<String> paths)
+    {
+        List<String> result = new ArrayList<String>(paths);
+        Collections.sort(result, InstallLogWriter.LEAF_FIRST);
+        return result;
+    }
+}
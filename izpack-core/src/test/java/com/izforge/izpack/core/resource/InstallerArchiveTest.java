@@ -0,0 +1,262 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.core.resource;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests the {@link InstallerArchive} class.
+ */
+public class InstallerArchiveTest
+{
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Verifies that the data of stored entries can be read directly from the archive.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testStoredEntry() throws IOException
+    {
+        byte[] stored = "stored content".getBytes("UTF-8");
+        byte[] deflated = "deflated content".getBytes("UTF-8");
+        File file = temporaryFolder.newFile("installer.jar");
+        JarOutputStream jar = new JarOutputStream(new FileOutputStream(file));
+        try
+        {
+            jar.putNextEntry(new ZipEntry("resources/packs/pack-deflated"));
+            jar.write(deflated);
+            jar.closeEntry();
+
+            ZipEntry entry = new ZipEntry("resources/packs/pack-stored pack");
+            CRC32 crc = new CRC32();
+            crc.update(stored);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(stored.length);
+            entry.setCompressedSize(stored.length);
+            entry.setCrc(crc.getValue());
+            entry.setExtra(new byte[]{1, 2, 3, 4});
+            jar.putNextEntry(entry);
+            jar.write(stored);
+            jar.closeEntry();
+        }
+        finally
+        {
+            IOUtils.closeQuietly(jar);
+        }
+
+        InstallerArchive archive = new InstallerArchive(file);
+        assertNull(archive.getEntry("resources/packs/pack-missing"));
+
+        InstallerArchive.Entry deflatedEntry = archive.getEntry("resources/packs/pack-deflated");
+        assertNotNull(deflatedEntry);
+        assertFalse(deflatedEntry.isStored());
+        assertEquals(InstallerArchive.DEFLATED, deflatedEntry.getMethod());
+        assertEquals(deflated.length, deflatedEntry.getSize());
+
+        InstallerArchive.Entry storedEntry = archive.getEntry("resources/packs/pack-stored pack");
+        assertNotNull(storedEntry);
+        assertTrue(storedEntry.isStored());
+        assertEquals(stored.length, storedEntry.getSize());
+        assertEquals(stored.length, storedEntry.getCompressedSize());
+
+        byte[] content = new byte[stored.length];
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try
+        {
+            in.seek(archive.getDataOffset(storedEntry));
+            in.readFully(content);
+        }
+        finally
+        {
+            in.close();
+        }
+        assertArrayEquals(stored, content);
+    }
+
+    /**
+     * Verifies that the content of stored and deflated entries can be read using
+     * {@link InstallerArchive#getInputStream(InstallerArchive.Entry)}.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testGetInputStream() throws IOException
+    {
+        byte[] content = new byte[100000];
+        for (int i = 0; i < content.length; ++i)
+        {
+            content[i] = (byte) (i % 251);
+        }
+        File file = temporaryFolder.newFile("installer.jar");
+        JarOutputStream jar = new JarOutputStream(new FileOutputStream(file));
+        try
+        {
+            jar.putNextEntry(new ZipEntry("resources/deflated"));
+            jar.write(content);
+            jar.closeEntry();
+
+            ZipEntry entry = new ZipEntry("resources/stored");
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+            jar.putNextEntry(entry);
+            jar.write(content);
+            jar.closeEntry();
+        }
+        finally
+        {
+            IOUtils.closeQuietly(jar);
+        }
+
+        InstallerArchive archive = InstallerArchive.getArchive(file);
+        assertSame(archive, InstallerArchive.getArchive(file));
+
+        InputStream deflated = archive.getInputStream(archive.getEntry("resources/deflated"));
+        InputStream stored = archive.getInputStream(archive.getEntry("resources/stored"));
+        assertArrayEquals(content, IOUtils.toByteArray(deflated));
+        assertEquals(1000, stored.skip(1000));
+        assertEquals(1000 % 251, stored.read());
+        assertArrayEquals(Arrays.copyOfRange(content, 1001, content.length), IOUtils.toByteArray(stored));
+        assertEquals(-1, stored.read());
+        deflated.close();
+        stored.close();
+
+        // the shared index is replaced when the archive changes
+        assertTrue(file.setLastModified(file.lastModified() - 10000));
+        InstallerArchive changed = InstallerArchive.getArchive(file);
+        assertNotSame(archive, changed);
+    }
+
+    /**
+     * Verifies that the archive is only held open by entry streams, until they are closed.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testStreamReleasesArchive() throws IOException
+    {
+        File descriptors = new File("/proc/self/fd");
+        assumeTrue(descriptors.isDirectory());
+
+        File file = temporaryFolder.newFile("installer.jar");
+        JarOutputStream jar = new JarOutputStream(new FileOutputStream(file));
+        try
+        {
+            jar.putNextEntry(new ZipEntry("resources/deflated"));
+            jar.write("content".getBytes("UTF-8"));
+            jar.closeEntry();
+        }
+        finally
+        {
+            IOUtils.closeQuietly(jar);
+        }
+
+        InstallerArchive archive = InstallerArchive.getArchive(file);
+        int open = descriptors.list().length;
+        InputStream in = archive.getInputStream(archive.getEntry("resources/deflated"));
+        assertEquals('c', in.read());
+        assertEquals(open + 1, descriptors.list().length);
+        in.close();
+        assertEquals(open, descriptors.list().length);
+        try
+        {
+            in.read();
+            fail("Expected the closed stream to fail");
+        }
+        catch (IOException expected)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * Tests the {@link InstallerArchive#getArchiveFile(URL)} method.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testGetArchiveFile() throws IOException
+    {
+        File dir = temporaryFolder.newFolder("a dir");
+        File file = new File(dir, "installer.jar");
+        JarOutputStream jar = new JarOutputStream(new FileOutputStream(file));
+        jar.putNextEntry(new ZipEntry("resources/packs/pack-A"));
+        jar.closeEntry();
+        jar.close();
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{file.toURI().toURL()}, null);
+        URL url = loader.getResource("resources/packs/pack-A");
+        assertNotNull(url);
+        assertEquals(file.getCanonicalFile(), InstallerArchive.getArchiveFile(url).getCanonicalFile());
+
+        File loose = temporaryFolder.newFile("loose");
+        FileUtils.writeStringToFile(loose, "loose");
+        assertNull(InstallerArchive.getArchiveFile(loose.toURI().toURL()));
+    }
+
+    /**
+     * Verifies that files that aren't archives are rejected.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidArchive() throws IOException
+    {
+        File file = temporaryFolder.newFile("invalid.jar");
+        FileUtils.writeStringToFile(file, "not an archive");
+        new InstallerArchive(file);
+    }
+}
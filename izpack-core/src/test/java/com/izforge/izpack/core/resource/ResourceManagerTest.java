@@ -23,10 +23,26 @@ package com.izforge.izpack.core.resource;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
 
 import javax.swing.ImageIcon;
 
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.izforge.izpack.api.exception.ResourceNotFoundException;
 
@@ -37,6 +53,12 @@ import com.izforge.izpack.api.exception.ResourceNotFoundException;
  */
 public class ResourceManagerTest
 {
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     /**
      * Verifies images can be retrieved for each of the supported countries and languages.
      */
@@ -85,4 +107,132 @@ public class ResourceManagerTest
         // this resource does not exist
         resources.getImageIcon("testbmp.bmpx");
     }
+
+    /**
+     * Verifies that installer resources can be read from a local installer jar.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testJarResources() throws IOException
+    {
+        File file = temporaryFolder.newFile("installer.jar");
+        JarOutputStream jar = new JarOutputStream(new FileOutputStream(file));
+        try
+        {
+            jar.putNextEntry(new ZipEntry("resources/info"));
+            jar.write("info".getBytes("UTF-8"));
+            jar.closeEntry();
+            jar.putNextEntry(new ZipEntry("resources/packs/pack-A"));
+            jar.write("pack A".getBytes("UTF-8"));
+            jar.closeEntry();
+        }
+        finally
+        {
+            IOUtils.closeQuietly(jar);
+        }
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{file.toURI().toURL()}, null);
+        ResourceManager resources = new ResourceManager(loader);
+        assertEquals("info", read(resources.getInputStream("info")));
+        assertEquals("pack A", read(resources.getInputStream("packs/pack-A")));
+        assertEquals("pack A", read(resources.getInputStream("/resources/packs/pack-A")));
+        try
+        {
+            resources.getInputStream("packs/pack-B");
+            fail("Expected ResourceNotFoundException");
+        }
+        catch (ResourceNotFoundException expected)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * Verifies that resources cached by a {@link ResourceCache} class loader are loaded through the class loader,
+     * while other installer resources are read from the installer jar.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testCachedResources() throws IOException
+    {
+        File file = temporaryFolder.newFile("installer.jar");
+        JarOutputStream jar = new JarOutputStream(new FileOutputStream(file));
+        try
+        {
+            jar.putNextEntry(new ZipEntry("resources/info"));
+            jar.write("info".getBytes("UTF-8"));
+            jar.closeEntry();
+            jar.putNextEntry(new ZipEntry("resources/packs/pack-A"));
+            jar.write("pack A".getBytes("UTF-8"));
+            jar.closeEntry();
+        }
+        finally
+        {
+            IOUtils.closeQuietly(jar);
+        }
+
+        CachingClassLoader loader = new CachingClassLoader(file.toURI().toURL());
+        ResourceManager resources = new ResourceManager(loader);
+        assertEquals("info", read(resources.getInputStream("info")));
+        assertEquals("pack A", read(resources.getInputStream("packs/pack-A")));
+        assertEquals(Arrays.asList("resources/info"), loader.cached);
+    }
+
+    /**
+     * Reads a stream as a string, closing it.
+     *
+     * @param stream the stream
+     * @return the stream content
+     * @throws IOException for any I/O error
+     */
+    private String read(InputStream stream) throws IOException
+    {
+        try
+        {
+            return IOUtils.toString(stream, "UTF-8");
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    /**
+     * A class loader that caches the <em>info</em> resource, recording the cached resources it serves.
+     */
+    private static class CachingClassLoader extends URLClassLoader implements ResourceCache
+    {
+        /**
+         * The names of the cached resources served.
+         */
+        private final List<String> cached = new ArrayList<String>();
+
+        /**
+         * Constructs a <tt>CachingClassLoader</tt>.
+         *
+         * @param url the installer jar
+         */
+        public CachingClassLoader(URL url)
+        {
+            super(new URL[]{url}, null);
+        }
+
+        @Override
+        public boolean isCached(String name)
+        {
+            return name.equals("resources/info");
+        }
+
+        @Override
+        public InputStream getResourceAsStream(String name)
+        {
+            if (isCached(name))
+            {
+                cached.add(name);
+            }
+            return super.getResourceAsStream(name);
+        }
+    }
 }
@@ -0,0 +1,218 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.core.resource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.izforge.izpack.api.exception.ResourceNotFoundException;
+
+/**
+ * Tests the {@link ResourcePreloader}.
+ */
+public class ResourcePreloaderTest
+{
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Verifies that independent loads run concurrently, and that a load only starts once the loads it depends on
+     * have completed.
+     */
+    @Test
+    public void testDependencies()
+    {
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch started = new CountDownLatch(1);
+        ResourcePreloader preloader = new ResourcePreloader(2);
+
+        // a waits for c to start, so only completes if c runs concurrently
+        preloader.schedule("a", new Callable<String>()
+        {
+            @Override
+            public String call() throws Exception
+            {
+                assertTrue(started.await(10, TimeUnit.SECONDS));
+                events.add("a");
+                return "a";
+            }
+        });
+        preloader.schedule("b", new Callable<String>()
+        {
+            @Override
+            public String call()
+            {
+                events.add("b");
+                return "b";
+            }
+        }, "a");
+        preloader.schedule("c", new Callable<String>()
+        {
+            @Override
+            public String call()
+            {
+                events.add("c");
+                started.countDown();
+                return "c";
+            }
+        });
+
+        assertEquals("b", preloader.get("b"));
+        assertEquals("c", preloader.get("c"));
+        assertEquals(3, events.size());
+        assertTrue("a completed before c started", events.indexOf("c") < events.indexOf("a"));
+        assertTrue("b started before a completed", events.indexOf("a") < events.indexOf("b"));
+    }
+
+    /**
+     * Verifies that the result of a load is only taken once, but can be read any number of times.
+     */
+    @Test
+    public void testTake()
+    {
+        ResourcePreloader preloader = new ResourcePreloader(1);
+        assertTrue(preloader.schedule("a", new Callable<Object>()
+        {
+            @Override
+            public Object call()
+            {
+                return new Object();
+            }
+        }));
+
+        Future<?> result = preloader.take("a");
+        assertNotNull(result);
+        assertNull(preloader.take("a"));
+        assertNull(preloader.take("b"));
+        Object object = ResourcePreloader.getResult("a", result);
+        assertSame(object, preloader.get("a"));
+        assertNull(preloader.get("b"));
+    }
+
+    /**
+     * Verifies that the exception of a failed load is rethrown, and that loads depending on it still run.
+     */
+    @Test
+    public void testFailure()
+    {
+        ResourcePreloader preloader = new ResourcePreloader(1);
+        preloader.schedule("a", new Callable<Object>()
+        {
+            @Override
+            public Object call()
+            {
+                throw new ResourceNotFoundException("a");
+            }
+        });
+        preloader.schedule("b", new Callable<String>()
+        {
+            @Override
+            public String call()
+            {
+                return "b";
+            }
+        }, "a");
+
+        assertEquals("b", preloader.get("b"));
+        try
+        {
+            preloader.get("a");
+            fail("Expected ResourceNotFoundException");
+        }
+        catch (ResourceNotFoundException expected)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * Verifies that {@link AbstractResources#getObject(String)} returns a preloaded object once, and reads the
+     * resource again afterwards.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testPreloadObject() throws IOException
+    {
+        File dir = temporaryFolder.getRoot();
+        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(new File(dir, "list")));
+        try
+        {
+            out.writeObject(new ArrayList<String>(Arrays.asList("a", "b")));
+        }
+        finally
+        {
+            IOUtils.closeQuietly(out);
+        }
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{dir.toURI().toURL()}, null);
+        AbstractResources resources = new AbstractResources(loader)
+        {
+        };
+        ResourcePreloader preloader = new ResourcePreloader(2);
+        resources.setPreloader(preloader);
+        resources.preloadObject("list");
+        resources.preloadObject("missing");
+
+        Object preloaded = preloader.get("list");
+        assertSame(preloaded, resources.getObject("list"));
+        Object read = resources.getObject("list");
+        assertNotSame(preloaded, read);
+        assertEquals(preloaded, read);
+
+        try
+        {
+            resources.getObject("missing");
+            fail("Expected ResourceNotFoundException");
+        }
+        catch (ResourceNotFoundException expected)
+        {
+            // expected
+        }
+    }
+}
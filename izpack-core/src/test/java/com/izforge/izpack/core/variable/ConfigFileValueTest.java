@@ -122,6 +122,38 @@ public class ConfigFileValueTest
         }
     }
 
+    @Test
+    public void testCachedConfigFileValue() throws Exception
+    {
+        ConfigFileCache cache = new ConfigFileCache();
+        PlainConfigFileValue value = new PlainConfigFileValue(properties.getPath(), ConfigFileValue.CONFIGFILE_TYPE_OPTIONS, null, "key", false);
+        PlainConfigFileValue value2 = new PlainConfigFileValue(properties.getPath(), ConfigFileValue.CONFIGFILE_TYPE_OPTIONS, null, "key2", false);
+        value.setCache(cache);
+        value2.setCache(cache);
+
+        long lastModified = properties.lastModified();
+        write(properties, "key = a\nkey2 = b\n");
+        properties.setLastModified(lastModified);
+        Assert.assertEquals("a", value.resolve());
+
+        // same size and modification time, so the cached file is used
+        write(properties, "key = c\nkey2 = d\n");
+        properties.setLastModified(lastModified);
+        Assert.assertEquals("a", value.resolve());
+        Assert.assertEquals("b", value2.resolve());
+
+        properties.setLastModified(lastModified - 10000);
+        Assert.assertEquals("c", value.resolve());
+        Assert.assertEquals("d", value2.resolve());
+    }
+
+    private static void write(File file, String content) throws IOException
+    {
+        BufferedWriter out = new BufferedWriter(new FileWriter(file));
+        out.write(content);
+        out.close();
+    }
+
     @After
     public void cleanUp() {
        Assert.assertTrue(properties.exists());
@@ -20,14 +20,13 @@ import com.izforge.izpack.api.exception.InstallerException;
 import com.izforge.izpack.api.exception.IzPackException;
 import com.izforge.izpack.api.handler.Prompt;
 import org.apache.commons.io.IOUtils;
-import org.apache.tools.ant.*;
-import org.apache.tools.ant.taskdefs.Ant;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Location;
 import org.apache.tools.ant.util.JavaEnvUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
@@ -94,6 +93,17 @@ public class AntAction extends ActionBase
         performAction(false);
     }
 
+    /**
+     * Performs all defined install actions, reusing a cached Ant project for the build file if one is available.
+     *
+     * @param cache the Ant project cache
+     * @throws IzPackException for any error
+     */
+    public void performInstallAction(AntProjectCache cache) throws IzPackException
+    {
+        performAction(false, cache);
+    }
+
     /**
      * Performs all defined uninstall actions.
      * <p/>
@@ -116,6 +126,21 @@ public class AntAction extends ActionBase
      * @see #performUninstallAction() for calling all uninstall actions.
      */
     public void performAction(boolean uninstall) throws IzPackException
+    {
+        performAction(uninstall, null);
+    }
+
+    /**
+     * Performs all defined actions.
+     * <p/>
+     * All targets are executed in a single build, so targets they have in common are only executed once.
+     *
+     * @param uninstall An install/uninstall switch. If this is <tt>true</tt> only the uninstall
+     *                  actions, otherwise only the install actions are being performed.
+     * @param cache     the Ant project cache. If {@code null}, the build file is parsed for this call only
+     * @throws IzPackException for any error
+     */
+    public void performAction(boolean uninstall, AntProjectCache cache) throws IzPackException
     {
         if (verbose)
         {
@@ -123,71 +148,36 @@ public class AntAction extends ActionBase
             System.out.print(buildDir!=null ? " in directory "+buildDir : " in default base directory");
             System.out.println();
         }
+        if (verbose)
+        {
+            logLevel = AntLogLevel.VERBOSE;
+        }
+        else if (quiet)
+        {
+            logLevel = AntLogLevel.WARNING;
+        }
+        Properties antProperties = new Properties();
+        antProperties.putAll(getProperties());
+        antProperties.putAll(getPropertiesFromPropertyFiles());
+        List<String> choosenTargets = (uninstall) ? uninstallTargets : targets;
+        if (choosenTargets.isEmpty())
+        {
+            return;
+        }
+
         SecurityManager oldsm = null;
         if (!JavaEnvUtils.isJavaVersion("1.0") && !JavaEnvUtils.isJavaVersion("1.1"))
         {
             oldsm = System.getSecurityManager();
         }
-        PrintStream err = System.err;
-        PrintStream out = System.out;
-        Project antProj = new Project();
         try
         {
-            antProj.setInputHandler(new AntActionInputHandler());
-            antProj.setName("antcallproject");
-            if (verbose)
-            {
-                logLevel = AntLogLevel.VERBOSE;
-            }
-            else if (quiet)
-            {
-                logLevel = AntLogLevel.WARNING;
-            }
-            final int antLogLevel = logLevel.getLevel();
-            antProj.addBuildListener(new AntSystemLogBuildListener(antLogLevel));
-            if (logFile != null)
-            {
-                antProj.addBuildListener(new AntActionLogBuildListener(logFile, logFileAppend, antLogLevel));
-            }
-            antProj.setSystemProperties();
-            addProperties(antProj, getProperties());
-            addPropertiesFromPropertyFiles(antProj);
-            // TODO: propertyfiles, logFile
-            antProj.fireBuildStarted();
-            antProj.init();
-            List<Ant> antcalls = new ArrayList<Ant>();
-            List<String> choosenTargets = (uninstall) ? uninstallTargets : targets;
-            if (choosenTargets.size() > 0)
-            {
-                Ant antcall;
-                for (String choosenTarget : choosenTargets)
-                {
-                    antcall = (Ant) antProj.createTask("ant");
-                    if (buildDir != null)
-                    {
-                        antcall.setDir(buildDir);
-                    }
-                    antcall.setAntfile(buildFile.getAbsolutePath());
-                    antcall.setTarget(choosenTarget);
-                    antcalls.add(antcall);
-                }
-            }
-            Target target = new Target();
-            target.setName("calltarget");
-
-            for (Ant antcall : antcalls)
-            {
-                target.addTask(antcall);
-            }
-            antProj.addTarget(target);
-            System.setOut(new PrintStream(new DemuxOutputStream(antProj, false)));
-            System.setErr(new PrintStream(new DemuxOutputStream(antProj, true)));
-            antProj.executeTarget("calltarget");
-            antProj.fireBuildFinished(null);
+            AntProjectRuntime runtime = (cache != null) ? cache.getRuntime(buildFile, buildDir)
+                                                        : new AntProjectRuntime(buildFile, buildDir);
+            runtime.execute(choosenTargets, antProperties, logLevel.getLevel(), logFile, logFileAppend);
         }
         catch (BuildException exception)
         {
-            antProj.fireBuildFinished(exception);
             throw new IzPackException("Ant build failed", exception, getSeverity());
         }
         finally
@@ -196,8 +186,6 @@ public class AntAction extends ActionBase
             {
                 System.setSecurityManager(oldsm);
             }
-            System.setOut(out);
-            System.setErr(err);
         }
     }
 
@@ -488,28 +476,8 @@ public class AntAction extends ActionBase
         this.verbose = verbose;
     }
 
-    private void addProperties(Project proj, Properties props)
+    private Properties getPropertiesFromPropertyFiles()
     {
-        if (proj == null)
-        {
-            return;
-        }
-        if (props.size() > 0)
-        {
-            for (Object o : props.keySet())
-            {
-                String key = (String) o;
-                proj.setProperty(key, props.getProperty(key));
-            }
-        }
-    }
-
-    private void addPropertiesFromPropertyFiles(Project proj)
-    {
-        if (proj == null)
-        {
-            return;
-        }
         Properties props = new Properties();
         FileInputStream fis = null;
         try
@@ -537,7 +505,7 @@ public class AntAction extends ActionBase
         {
             IOUtils.closeQuietly(fis);
         }
-        addProperties(proj, props);
+        return props;
     }
 
     /**
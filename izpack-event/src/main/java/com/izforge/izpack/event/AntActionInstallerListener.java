@@ -72,6 +72,11 @@ public class AntActionInstallerListener extends AbstractProgressInstallerListene
      */
     private final List<AntAction> uninstActions = new ArrayList<AntAction>();
 
+    /**
+     * The parsed Ant projects, shared by all actions using the same build file.
+     */
+    private final AntProjectCache antProjects = new AntProjectCache();
+
     /**
      * The variable replacer.
      */
@@ -225,6 +230,7 @@ public class AntActionInstallerListener extends AbstractProgressInstallerListene
             String currentPack = pack.getName();
             performAllActions(currentPack, ActionBase.AFTERPACKS, listener);
         }
+        antProjects.clear();
         if (!uninstActions.isEmpty())
         {
             uninstallData.addAdditionalData("antActions", uninstActions);
@@ -299,7 +305,7 @@ public class AntActionInstallerListener extends AbstractProgressInstallerListene
                 String conditionId = act.getConditionId();
                 if (conditionId == null || rules.isConditionTrue(conditionId))
                 {
-                    act.performInstallAction();
+                    act.performInstallAction(antProjects);
                 }
             }
             catch (IzPackException e)
@@ -0,0 +1,212 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.event;
+
+import org.apache.tools.ant.DemuxOutputStream;
+import org.apache.tools.ant.Project;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Routes {@code System.out} and {@code System.err} output to the Ant project being executed by the current thread.
+ * <p/>
+ * Replacing the system streams for the duration of each build isn't safe when several builds run concurrently, as
+ * builds would capture each other's output and restore the wrong streams. Instead, routing streams are installed
+ * once while any build is running. Output from threads executing a build goes to that build's project; all other
+ * output goes to the original streams.
+ */
+class AntOutputRouter
+{
+    /**
+     * The project streams of the current thread. Inherited so that threads started by tasks log to their project.
+     */
+    private static final InheritableThreadLocal<ProjectStreams> current = new InheritableThreadLocal<ProjectStreams>();
+
+    /**
+     * The number of builds using the routing streams.
+     */
+    private static int users;
+
+    /**
+     * The original {@code System.out}.
+     */
+    private static PrintStream out;
+
+    /**
+     * The original {@code System.err}.
+     */
+    private static PrintStream err;
+
+
+    /**
+     * Routes the system stream output of the current thread to a project, until {@link #detach} is invoked.
+     *
+     * @param project the project
+     * @return the previous project streams of the current thread, to pass to {@link #detach}. May be {@code null}
+     */
+    public static Object attach(Project project)
+    {
+        synchronized (AntOutputRouter.class)
+        {
+            if (users++ == 0)
+            {
+                out = System.out;
+                err = System.err;
+                System.setOut(new PrintStream(new RoutingOutputStream(out, false)));
+                System.setErr(new PrintStream(new RoutingOutputStream(err, true)));
+            }
+        }
+        ProjectStreams previous = current.get();
+        current.set(new ProjectStreams(project));
+        return previous;
+    }
+
+    /**
+     * Stops routing the system stream output of the current thread to the project passed to {@link #attach}.
+     *
+     * @param previous the value returned by {@link #attach}
+     */
+    public static void detach(Object previous)
+    {
+        ProjectStreams streams = current.get();
+        current.set((ProjectStreams) previous);
+        if (streams != null)
+        {
+            streams.flush();
+        }
+        synchronized (AntOutputRouter.class)
+        {
+            if (--users == 0)
+            {
+                System.setOut(out);
+                System.setErr(err);
+                out = null;
+                err = null;
+            }
+        }
+    }
+
+    /**
+     * The output and error streams of a project.
+     */
+    private static class ProjectStreams
+    {
+        /**
+         * The output stream.
+         */
+        private final OutputStream out;
+
+        /**
+         * The error stream.
+         */
+        private final OutputStream err;
+
+        /**
+         * Constructs a <tt>ProjectStreams</tt>.
+         *
+         * @param project the project
+         */
+        public ProjectStreams(Project project)
+        {
+            out = new DemuxOutputStream(project, false);
+            err = new DemuxOutputStream(project, true);
+        }
+
+        /**
+         * Flushes any partial line written by the current thread.
+         */
+        public void flush()
+        {
+            try
+            {
+                out.flush();
+                err.flush();
+            }
+            catch (IOException ignore)
+            {
+                // no-op
+            }
+        }
+    }
+
+    /**
+     * Writes to the project streams of the current thread, or to an original system stream if the thread isn't
+     * executing a build.
+     */
+    private static class RoutingOutputStream extends OutputStream
+    {
+        /**
+         * The original system stream.
+         */
+        private final PrintStream original;
+
+        /**
+         * Determines if this routes {@code System.err}.
+         */
+        private final boolean isErr;
+
+        /**
+         * Constructs a <tt>RoutingOutputStream</tt>.
+         *
+         * @param original the original system stream
+         * @param isErr    if {@code true}, route to the project error stream
+         */
+        public RoutingOutputStream(PrintStream original, boolean isErr)
+        {
+            this.original = original;
+            this.isErr = isErr;
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            getStream().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            getStream().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException
+        {
+            getStream().flush();
+        }
+
+        /**
+         * Returns the stream to write to for the current thread.
+         *
+         * @return the stream
+         */
+        private OutputStream getStream()
+        {
+            ProjectStreams streams = current.get();
+            if (streams == null)
+            {
+                return original;
+            }
+            return isErr ? streams.err : streams.out;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.event;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches parsed Ant projects per build file and base directory, so that several {@link AntAction}s using the same
+ * build file don't initialise a new project and parse the build file each time.
+ * <p/>
+ * A cached project is discarded if its build file is modified.
+ */
+public class AntProjectCache
+{
+    /**
+     * The runtimes, keyed on build file and base directory.
+     */
+    private final Map<String, AntProjectRuntime> runtimes = new HashMap<String, AntProjectRuntime>();
+
+    /**
+     * Returns the runtime for a build file, creating it if required.
+     *
+     * @param buildFile the build file
+     * @param buildDir  the base directory. May be {@code null}
+     * @return the runtime
+     */
+    synchronized AntProjectRuntime getRuntime(File buildFile, File buildDir)
+    {
+        String key = buildFile.getAbsolutePath() + File.pathSeparator
+                + ((buildDir != null) ? buildDir.getAbsolutePath() : "");
+        AntProjectRuntime runtime = runtimes.get(key);
+        if (runtime == null || runtime.isStale())
+        {
+            runtime = new AntProjectRuntime(buildFile, buildDir);
+            runtimes.put(key, runtime);
+        }
+        return runtime;
+    }
+
+    /**
+     * Discards all cached projects.
+     */
+    public synchronized void clear()
+    {
+        runtimes.clear();
+    }
+}
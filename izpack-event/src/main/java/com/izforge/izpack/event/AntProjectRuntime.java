@@ -0,0 +1,303 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.event;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.PropertyHelper;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.helper.SingleCheckExecutor;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Vector;
+import java.util.logging.Logger;
+
+/**
+ * A configured Ant project for a single build file, which can execute targets several times without
+ * re-parsing the build file.
+ * <p/>
+ * The project is initialised and the build file parsed on the first execution. The property state reached after
+ * parsing is recorded, and restored before each subsequent execution, so that properties defined by targets of a
+ * previous execution do not leak into the next one. Only the action properties that differ from those the project
+ * was configured with are re-applied.
+ * <p/>
+ * If the build file has top-level tasks, these have been evaluated against the properties of the first execution.
+ * In that case the project is configured again whenever the action properties change.
+ */
+class AntProjectRuntime
+{
+    /**
+     * The build file.
+     */
+    private final File buildFile;
+
+    /**
+     * The base directory. May be {@code null}.
+     */
+    private final File buildDir;
+
+    /**
+     * The build file modification time when the runtime was created.
+     */
+    private final long lastModified;
+
+    /**
+     * The build file length when the runtime was created.
+     */
+    private final long length;
+
+    /**
+     * The configured project, or {@code null} if the build file hasn't been parsed yet.
+     */
+    private Project project;
+
+    /**
+     * The property helper of the project.
+     */
+    private CheckpointPropertyHelper propertyHelper;
+
+    /**
+     * The action properties the project was configured with.
+     */
+    private Map<String, String> configured = new HashMap<String, String>();
+
+    /**
+     * Determines if the build file has top-level tasks.
+     */
+    private boolean topLevelTasks;
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(AntProjectRuntime.class.getName());
+
+
+    /**
+     * Constructs an <tt>AntProjectRuntime</tt>.
+     *
+     * @param buildFile the build file
+     * @param buildDir  the base directory. If {@code null}, the current working directory is used
+     */
+    public AntProjectRuntime(File buildFile, File buildDir)
+    {
+        this.buildFile = buildFile;
+        this.buildDir = buildDir;
+        this.lastModified = buildFile.lastModified();
+        this.length = buildFile.length();
+    }
+
+    /**
+     * Determines if the build file has changed since the runtime was created.
+     *
+     * @return {@code true} if the build file has changed
+     */
+    public boolean isStale()
+    {
+        return buildFile.lastModified() != lastModified || buildFile.length() != length;
+    }
+
+    /**
+     * Executes targets in a single build.
+     * <p/>
+     * Targets are sorted together, so that a target that several of the given targets depend on is only executed
+     * once.
+     *
+     * @param targets    the targets to execute
+     * @param properties the properties to pass to the build
+     * @param logLevel   the Ant log level
+     * @param logFile    the log file. May be {@code null}
+     * @param append     if {@code true}, append to an existing log file
+     * @throws BuildException if the build fails
+     */
+    public synchronized void execute(List<String> targets, Properties properties, int logLevel, File logFile,
+                                     boolean append)
+    {
+        Map<String, String> values = toMap(properties);
+        if (project == null || (topLevelTasks && !values.equals(configured)))
+        {
+            configure(values);
+        }
+        else
+        {
+            propertyHelper.restore();
+            applyChanges(values);
+        }
+
+        BuildListener systemLog = new AntSystemLogBuildListener(logLevel);
+        BuildListener fileLog = (logFile != null) ? new AntActionLogBuildListener(logFile, append, logLevel) : null;
+        project.addBuildListener(systemLog);
+        if (fileLog != null)
+        {
+            project.addBuildListener(fileLog);
+        }
+        Object previous = AntOutputRouter.attach(project);
+        try
+        {
+            project.fireBuildStarted();
+            project.executeTargets(new Vector<String>(targets));
+            project.fireBuildFinished(null);
+        }
+        catch (BuildException exception)
+        {
+            project.fireBuildFinished(exception);
+            throw exception;
+        }
+        finally
+        {
+            AntOutputRouter.detach(previous);
+            project.removeBuildListener(systemLog);
+            if (fileLog != null)
+            {
+                project.removeBuildListener(fileLog);
+            }
+        }
+    }
+
+    /**
+     * Initialises the project and parses the build file.
+     *
+     * @param values the action properties
+     * @throws BuildException if the build file cannot be parsed
+     */
+    private void configure(Map<String, String> values)
+    {
+        logger.fine("Parsing Ant build file: " + buildFile);
+        Project result = new Project();
+        CheckpointPropertyHelper helper = new CheckpointPropertyHelper();
+        helper.setProject(result);
+        result.addReference(MagicNames.REFID_PROPERTY_HELPER, helper);
+        result.setInputHandler(new AntActionInputHandler());
+        result.setName("antcallproject");
+        result.setSystemProperties();
+        for (Map.Entry<String, String> entry : values.entrySet())
+        {
+            result.setProperty(entry.getKey(), entry.getValue());
+        }
+        result.init();
+        File baseDir = (buildDir != null) ? buildDir : new File(".");
+        result.setUserProperty(MagicNames.PROJECT_BASEDIR, baseDir.getAbsolutePath());
+        result.addReference(MagicNames.ANT_EXECUTOR_REFERENCE, new SingleCheckExecutor());
+        ProjectHelper.configureProject(result, buildFile);
+
+        Target implicit = result.getTargets().get("");
+        topLevelTasks = implicit != null && implicit.getTasks().length != 0;
+        helper.checkpoint();
+        project = result;
+        propertyHelper = helper;
+        configured = values;
+    }
+
+    /**
+     * Applies action properties that differ from those the project was configured with.
+     *
+     * @param values the action properties
+     */
+    private void applyChanges(Map<String, String> values)
+    {
+        for (String name : configured.keySet())
+        {
+            if (!values.containsKey(name))
+            {
+                propertyHelper.remove(name);
+            }
+        }
+        for (Map.Entry<String, String> entry : values.entrySet())
+        {
+            String name = entry.getKey();
+            String value = entry.getValue();
+            if (!value.equals(configured.get(name)))
+            {
+                project.setProperty(name, value);
+            }
+        }
+    }
+
+    /**
+     * Converts properties to a map.
+     *
+     * @param properties the properties
+     * @return the properties as a map
+     */
+    private static Map<String, String> toMap(Properties properties)
+    {
+        Map<String, String> result = new HashMap<String, String>();
+        for (String name : properties.stringPropertyNames())
+        {
+            result.put(name, properties.getProperty(name));
+        }
+        return result;
+    }
+
+    /**
+     * A property helper that can restore the property state recorded at a checkpoint.
+     */
+    private static class CheckpointPropertyHelper extends PropertyHelper
+    {
+        private Hashtable<String, Object> properties;
+        private Hashtable<String, Object> userProperties;
+        private Hashtable<String, Object> inheritedProperties;
+
+        /**
+         * Records the current property state.
+         */
+        public synchronized void checkpoint()
+        {
+            properties = new Hashtable<String, Object>(getInternalProperties());
+            userProperties = new Hashtable<String, Object>(getInternalUserProperties());
+            inheritedProperties = new Hashtable<String, Object>(getInternalInheritedProperties());
+        }
+
+        /**
+         * Restores the property state recorded by {@link #checkpoint()}.
+         */
+        public synchronized void restore()
+        {
+            reset(getInternalProperties(), properties);
+            reset(getInternalUserProperties(), userProperties);
+            reset(getInternalInheritedProperties(), inheritedProperties);
+        }
+
+        /**
+         * Removes a property.
+         *
+         * @param name the property name
+         */
+        public synchronized void remove(String name)
+        {
+            getInternalProperties().remove(name);
+            getInternalUserProperties().remove(name);
+            getInternalInheritedProperties().remove(name);
+        }
+
+        private static void reset(Hashtable<String, Object> current, Hashtable<String, Object> saved)
+        {
+            current.clear();
+            current.putAll(saved);
+        }
+    }
+}
@@ -26,6 +26,9 @@ import com.izforge.izpack.api.data.InstallData;
 import com.izforge.izpack.api.data.Pack;
 import com.izforge.izpack.api.data.PackFile;
 import com.izforge.izpack.api.data.Variables;
+import com.izforge.izpack.api.event.AbstractBatchInstallerListener;
+import com.izforge.izpack.api.event.BatchInstallerListener;
+import com.izforge.izpack.api.event.InstalledFile;
 import com.izforge.izpack.api.event.ProgressListener;
 import com.izforge.izpack.api.event.ProgressNotifiers;
 import com.izforge.izpack.api.exception.InstallerException;
@@ -46,7 +49,14 @@ import java.util.Map;
 import java.util.logging.Logger;
 
 
-public class BSFInstallerListener extends AbstractProgressInstallerListener
+/**
+ * Installer listener that performs BSF script actions.
+ * <p/>
+ * <em>afterFile</em> and <em>afterDir</em> actions are performed in batches, on a dispatcher thread, so that the
+ * installation doesn't wait for them. They are performed in installation order, and all actions for the files of a
+ * pack complete before its <em>afterPack</em> actions. Actions are never performed concurrently.
+ */
+public class BSFInstallerListener extends AbstractProgressInstallerListener implements BatchInstallerListener
 {
 
     public static final String SPEC_FILE_NAME = "BSFActionsSpec.xml";
@@ -300,6 +310,61 @@ public class BSFInstallerListener extends AbstractProgressInstallerListener
         performAllActions(pack, BSFAction.AFTERFILE, null, file, packFile);
     }
 
+    /**
+     * Returns the maximum number of files delivered in a single batch.
+     *
+     * @return {@link AbstractBatchInstallerListener#DEFAULT_BATCH_SIZE}
+     */
+    @Override
+    public int getBatchSize()
+    {
+        return AbstractBatchInstallerListener.DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Returns the maximum time that a file may wait for its batch to fill before the batch is delivered.
+     *
+     * @return {@link AbstractBatchInstallerListener#DEFAULT_BATCH_INTERVAL}
+     */
+    @Override
+    public long getBatchInterval()
+    {
+        return AbstractBatchInstallerListener.DEFAULT_BATCH_INTERVAL;
+    }
+
+    /**
+     * Determines if batches are delivered on a dispatcher thread.
+     *
+     * @return {@code true}
+     */
+    @Override
+    public boolean isAsynchronous()
+    {
+        return true;
+    }
+
+    /**
+     * Invoked after files and directories have been installed.
+     *
+     * @param files the installed files and directories, in the order they were installed
+     * @throws IzPackException for any error
+     */
+    @Override
+    public void afterFiles(List<InstalledFile> files)
+    {
+        for (InstalledFile file : files)
+        {
+            if (file.isDirectory())
+            {
+                afterDir(file.getFile(), file.getPackFile(), file.getPack());
+            }
+            else
+            {
+                afterFile(file.getFile(), file.getPackFile(), file.getPack());
+            }
+        }
+    }
+
     private int getActionCount(List<Pack> packs)
     {
         int count = 0;
@@ -324,6 +389,15 @@ public class BSFInstallerListener extends AbstractProgressInstallerListener
         }
 
         logger.fine("Executing all " + order + " BSF actions of pack " + packName + " ...");
+        // file actions may be performed on a dispatcher thread
+        synchronized (actList)
+        {
+            performActions(actList, order, listener, args);
+        }
+    }
+
+    private void performActions(List<BSFAction> actList, String order, ProgressListener listener, Object... args)
+    {
         for (BSFAction act : actList)
         {
             // Inform progress bar if needed. Works only on AFTER_PACKS
@@ -91,6 +91,11 @@ public class ConfigurationInstallerListener extends AbstractProgressInstallerLis
      */
     private final VariableSubstitutor replacer;
 
+    /**
+     * The parsed configuration files, shared by the configuration variables of all actions.
+     */
+    private final ConfigFileCache configFileCache = new ConfigFileCache();
+
     /**
      * The specification helper.
      */
@@ -1189,6 +1194,10 @@ public class ConfigurationInstallerListener extends AbstractProgressInstallerLis
                 String conditionid = getAttribute(var, CONDITION_ATTR);
                 dynamicVariable.setConditionid(conditionid);
 
+                if (dynamicVariable.getValue() instanceof ConfigFileValue)
+                {
+                    ((ConfigFileValue) dynamicVariable.getValue()).setCache(configFileCache);
+                }
                 dynamicVariables.add(dynamicVariable);
             }
         }
@@ -0,0 +1,143 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.event;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.Project;
+import org.junit.Test;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the {@link AntOutputRouter} class.
+ */
+public class AntOutputRouterTest
+{
+
+    /**
+     * Verifies that system stream output of concurrent builds is routed to the project of the thread that wrote it,
+     * and that the original streams are restored once all builds have finished.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testConcurrentRouting() throws Exception
+    {
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        final CountDownLatch attached = new CountDownLatch(2);
+        final CountDownLatch written = new CountDownLatch(2);
+
+        List<String> messages1 = new ArrayList<String>();
+        List<String> messages2 = new ArrayList<String>();
+        Thread thread1 = new Thread(new Build(createProject(messages1), "out1", "err1", attached, written));
+        Thread thread2 = new Thread(new Build(createProject(messages2), "out2", "err2", attached, written));
+        thread1.start();
+        thread2.start();
+        thread1.join();
+        thread2.join();
+
+        Collections.sort(messages1);
+        Collections.sort(messages2);
+        assertEquals(messages1.toString(), 2, messages1.size());
+        assertEquals("err1", messages1.get(0));
+        assertEquals("out1", messages1.get(1));
+        assertEquals(messages2.toString(), 2, messages2.size());
+        assertEquals("err2", messages2.get(0));
+        assertEquals("out2", messages2.get(1));
+        assertSame(out, System.out);
+        assertSame(err, System.err);
+    }
+
+    /**
+     * Creates a project that collects the messages logged to it.
+     *
+     * @param messages the collected messages
+     * @return a new project
+     */
+    private static Project createProject(final List<String> messages)
+    {
+        Project project = new Project();
+        project.addBuildListener(new DefaultLogger()
+        {
+            @Override
+            public void messageLogged(BuildEvent event)
+            {
+                synchronized (messages)
+                {
+                    messages.add(event.getMessage());
+                }
+            }
+        });
+        return project;
+    }
+
+    /**
+     * Writes to the system streams while attached to a project, overlapping with another build.
+     */
+    private static class Build implements Runnable
+    {
+        private final Project project;
+        private final String out;
+        private final String err;
+        private final CountDownLatch attached;
+        private final CountDownLatch written;
+
+        public Build(Project project, String out, String err, CountDownLatch attached, CountDownLatch written)
+        {
+            this.project = project;
+            this.out = out;
+            this.err = err;
+            this.attached = attached;
+            this.written = written;
+        }
+
+        @Override
+        public void run()
+        {
+            Object previous = AntOutputRouter.attach(project);
+            try
+            {
+                attached.countDown();
+                attached.await();
+                System.out.println(out);
+                System.err.println(err);
+                written.countDown();
+                written.await();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+            finally
+            {
+                AntOutputRouter.detach(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.event;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.tools.ant.Project;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import static com.izforge.izpack.test.util.TestHelper.assertFileExists;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the {@link AntProjectRuntime} and {@link AntProjectCache} classes.
+ */
+public class AntProjectRuntimeTest
+{
+    /**
+     * Temporary folder for the build file and its output.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * The build file.
+     */
+    private File buildFile;
+
+    /**
+     * The build output directory.
+     */
+    private File outDir;
+
+
+    /**
+     * Sets up the test case.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        buildFile = temporaryFolder.newFile("runtime.xml");
+        FileOutputStream out = new FileOutputStream(buildFile);
+        try
+        {
+            IOUtils.copy(getClass().getResourceAsStream("/com/izforge/izpack/event/ant/runtime.xml"), out);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(out);
+        }
+        outDir = temporaryFolder.newFolder("out");
+    }
+
+    /**
+     * Verifies that targets executed together share their dependencies.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testTargetsExecutedInOneBuild() throws IOException
+    {
+        AntProjectRuntime runtime = new AntProjectRuntime(buildFile, null);
+        runtime.execute(Arrays.asList("a", "b"), getProperties("1"), Project.MSG_INFO, null, false);
+
+        assertFileExists(outDir, "a.txt");
+        assertFileExists(outDir, "b.txt");
+        assertEquals("init;", read("init.txt"));
+    }
+
+    /**
+     * Verifies that a runtime can be executed several times, and that properties defined by targets
+     * don't leak into subsequent executions.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testReuse() throws IOException
+    {
+        AntProjectRuntime runtime = new AntProjectRuntime(buildFile, null);
+        runtime.execute(Collections.singletonList("a"), getProperties("1"), Project.MSG_INFO, null, false);
+        assertEquals("1", read("a.txt"));
+
+        runtime.execute(Collections.singletonList("a"), getProperties("2"), Project.MSG_INFO, null, false);
+        assertEquals("2", read("a.txt"));
+        assertEquals("init;init;", read("init.txt"));
+    }
+
+    /**
+     * Verifies that the cache returns the same runtime for a build file, until the build file changes.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testCache() throws IOException
+    {
+        AntProjectCache cache = new AntProjectCache();
+        AntProjectRuntime runtime = cache.getRuntime(buildFile, null);
+        assertSame(runtime, cache.getRuntime(buildFile, null));
+        assertNotSame(runtime, cache.getRuntime(buildFile, outDir));
+
+        FileUtils.writeStringToFile(buildFile, "<project/>");
+        assertNotSame(runtime, cache.getRuntime(buildFile, null));
+    }
+
+    /**
+     * Returns the build properties.
+     *
+     * @param value the value of the "value" property
+     * @return the build properties
+     */
+    private Properties getProperties(String value)
+    {
+        Properties properties = new Properties();
+        properties.setProperty("out", outDir.getPath());
+        properties.setProperty("value", value);
+        return properties;
+    }
+
+    /**
+     * Reads a file from the build output directory.
+     *
+     * @param name the file name
+     * @return the file content
+     * @throws IOException for any I/O error
+     */
+    private String read(String name) throws IOException
+    {
+        return FileUtils.readFileToString(new File(outDir, name)).trim();
+    }
+}
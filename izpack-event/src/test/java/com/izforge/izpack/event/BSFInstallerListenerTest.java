@@ -23,13 +23,16 @@ package com.izforge.izpack.event;
 
 
 import com.izforge.izpack.api.data.*;
+import com.izforge.izpack.api.event.AbstractBatchInstallerListener;
 import com.izforge.izpack.api.event.ProgressListener;
 import com.izforge.izpack.api.event.ProgressNotifiers;
+import com.izforge.izpack.api.handler.Prompt;
 import com.izforge.izpack.api.resource.Resources;
 import com.izforge.izpack.api.substitutor.VariableSubstitutor;
 import com.izforge.izpack.core.data.DefaultVariables;
 import com.izforge.izpack.core.substitutor.VariableSubstitutorImpl;
 import com.izforge.izpack.installer.data.UninstallData;
+import com.izforge.izpack.installer.event.InstallerListeners;
 import com.izforge.izpack.installer.event.ProgressNotifiersImpl;
 import com.izforge.izpack.util.Platforms;
 import org.apache.commons.io.FileUtils;
@@ -45,6 +48,7 @@ import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import static com.izforge.izpack.test.util.TestHelper.assertFileExists;
 import static com.izforge.izpack.test.util.TestHelper.assertFileNotExists;
@@ -73,7 +77,7 @@ public class BSFInstallerListenerTest
     /**
      * The installation data.
      */
-    private InstallData installData;
+    private AutomatedInstallData installData;
 
     /**
      * The installation directory.
@@ -132,6 +136,70 @@ public class BSFInstallerListenerTest
         checkListener(resources, "-bsh.txt");
     }
 
+    /**
+     * Verifies that the installation doesn't wait for <em>afterFile</em> actions, and that they complete before the
+     * pack does.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testAfterFileActionsAreAsynchronous() throws IOException
+    {
+        Resources resources = Mockito.mock(Resources.class);
+        InputStream specStream = getClass().getResourceAsStream(
+                "/com/izforge/izpack/event/bsf/BSFActionsSpec-slow.xml");
+        assertNotNull(specStream);
+        Mockito.when(resources.getInputStream(BSFInstallerListener.SPEC_FILE_NAME)).thenReturn(specStream);
+
+        Pack pack = new Pack("Base", null, null, null, null, true, true, false, null, true, 0);
+        List<Pack> packs = Collections.singletonList(pack);
+        BSFInstallerListener listener = new BSFInstallerListener(installData, replacer, installData.getVariables(),
+                                                                 resources, new UninstallData(),
+                                                                 new ProgressNotifiersImpl());
+        InstallerListeners listeners = new InstallerListeners(installData, Mockito.mock(Prompt.class));
+        listeners.add(listener);
+        listeners.initialise();
+        ProgressListener progressListener = Mockito.mock(ProgressListener.class);
+        listeners.beforePacks(packs, progressListener);
+        listeners.beforePack(pack, 0);
+
+        File file = new File(installDir, "file.txt");
+        FileUtils.touch(file);
+        PackFile packFile = new PackFile(installDir, file, file.getName(), null, OverrideType.OVERRIDE_TRUE, null,
+                                         Blockable.BLOCKABLE_NONE, null);
+        listeners.beforeFile(file, packFile, pack);
+        listeners.afterFile(file, packFile, pack);
+
+        // wait for the batch interval to elapse, so that the next file delivers the batch
+        sleep(AbstractBatchInstallerListener.DEFAULT_BATCH_INTERVAL + 50);
+        long start = System.nanoTime();
+        listeners.beforeFile(file, packFile, pack);
+        listeners.afterFile(file, packFile, pack);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("afterFile() waited " + elapsed + "ms for the action", elapsed < 1000);
+
+        listeners.afterPack(pack);
+        assertFileExists(installDir, "afterfile-slow.txt");
+        listeners.afterPacks(packs, progressListener);
+    }
+
+    /**
+     * Sleeps the current thread.
+     *
+     * @param millis the time to sleep, in milliseconds
+     */
+    private void sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Tests the {@link BSFInstallerListener}.
      *
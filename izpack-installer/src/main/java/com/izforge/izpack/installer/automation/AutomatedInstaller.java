@@ -106,6 +106,7 @@ public class AutomatedInstaller implements InstallerBase
      *
      * @param inputFilename the name of the file containing the installation data
      * @param mediaPath     the multi-volume media directory. May be <tt>null</tt>
+     * @param args          the command line arguments, used to relaunch the installer with elevated rights
      * @throws Exception
      */
     public void init(String inputFilename, String mediaPath, String[] args) throws Exception
@@ -123,6 +124,18 @@ public class AutomatedInstaller implements InstallerBase
             }
             System.exit(0);
         }
+        init(inputFilename, mediaPath);
+    }
+
+    /**
+     * Initialize the automated installer, without checking that the installer has the required privileges.
+     *
+     * @param inputFilename the name of the file containing the installation data. May be <tt>null</tt>
+     * @param mediaPath     the multi-volume media directory. May be <tt>null</tt>
+     * @throws Exception for any error
+     */
+    public void init(String inputFilename, String mediaPath) throws Exception
+    {
         if (inputFilename != null)
         {
             File input = new File(inputFilename);
@@ -150,7 +163,7 @@ public class AutomatedInstaller implements InstallerBase
         if (!requirements.check())
         {
             System.out.println("[ Automated installation FAILED! ]");
-            System.exit(-1);
+            housekeeper.shutDown(-1);
             return;
         }
 
@@ -0,0 +1,70 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.automation;
+
+import com.izforge.izpack.util.Housekeeper;
+
+import java.util.logging.Logger;
+
+/**
+ * A {@link Housekeeper} for installations run within another application.
+ * <p/>
+ * Clean-up clients are run as usual, but the exit code is recorded instead of terminating the JVM. Reboots are not
+ * performed.
+ */
+public class EmbeddedHousekeeper extends Housekeeper
+{
+    /**
+     * The exit code, or {@code null} if the installation hasn't terminated.
+     */
+    private volatile Integer exitCode;
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(EmbeddedHousekeeper.class.getName());
+
+
+    /**
+     * Returns the exit code.
+     *
+     * @return the exit code, or {@code null} if the installation hasn't terminated
+     */
+    public Integer getExitCode()
+    {
+        return exitCode;
+    }
+
+    /**
+     * Records the exit code.
+     *
+     * @param exitCode the exit code
+     * @param reboot   if {@code true}, a reboot was requested. This is ignored
+     */
+    @Override
+    protected void terminate(int exitCode, boolean reboot)
+    {
+        if (reboot)
+        {
+            logger.warning("Reboot requested by an embedded installation. The reboot must be performed manually");
+        }
+        this.exitCode = exitCode;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.automation;
+
+import com.izforge.izpack.api.data.AutomatedInstallData;
+import com.izforge.izpack.api.handler.Prompt;
+import com.izforge.izpack.installer.requirement.LockFileChecker;
+
+/**
+ * A {@link LockFileChecker} for installations run within another application.
+ * <p/>
+ * The lock file guards against an installer being launched twice. It is only removed when the JVM exits, so honouring
+ * it would prevent all but the first of the installations run by an {@link InstallerImage}. The hosting application
+ * is responsible for not running two installations into the same location at once.
+ */
+public class EmbeddedLockFileChecker extends LockFileChecker
+{
+
+    /**
+     * Constructs an <tt>EmbeddedLockFileChecker</tt>.
+     *
+     * @param installData the installation data
+     * @param prompt      the prompt
+     */
+    public EmbeddedLockFileChecker(AutomatedInstallData installData, Prompt prompt)
+    {
+        super(installData, prompt);
+    }
+
+    /**
+     * Determines if installation requirements are met.
+     *
+     * @return <tt>true</tt>
+     */
+    @Override
+    public boolean check()
+    {
+        return true;
+    }
+}
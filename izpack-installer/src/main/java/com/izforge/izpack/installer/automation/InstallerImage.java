@@ -0,0 +1,233 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.automation;
+
+import com.izforge.izpack.api.data.AutomatedInstallData;
+import com.izforge.izpack.api.data.Overrides;
+import com.izforge.izpack.api.exception.InstallerException;
+import com.izforge.izpack.core.data.DefaultVariables;
+import com.izforge.izpack.core.resource.ResourceCache;
+import com.izforge.izpack.installer.container.impl.AutomatedInstallerContainer;
+import com.izforge.izpack.util.Housekeeper;
+import com.izforge.izpack.util.PrivilegedRunner;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * An installer loaded once, from which many automated installations can be run concurrently within one JVM.
+ * <p/>
+ * Each installation has its own {@link AutomatedInstallerContainer}, and therefore its own installation data,
+ * variables, rules and listeners. The installer resources describing the installation, such as <em>packs.info</em>,
+ * the langpacks and the rules, are read once and shared by all installations. Each installation still deserializes
+ * its own copy of them, as they are modified while installing. Pack contents are always streamed from the installer.
+ * <p/>
+ * Installations run this way never terminate the JVM, and never relaunch themselves with elevated rights.
+ */
+public class InstallerImage
+{
+    /**
+     * The class loader holding the shared resources.
+     */
+    private final ImageClassLoader loader;
+
+    /**
+     * The class loader providing the installer resources.
+     */
+    private final ClassLoader parent;
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(InstallerImage.class.getName());
+
+
+    /**
+     * Constructs an <tt>InstallerImage</tt> for the installer on the context class loader.
+     */
+    public InstallerImage()
+    {
+        this(Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Constructs an <tt>InstallerImage</tt>.
+     *
+     * @param loader the class loader providing the installer resources
+     */
+    public InstallerImage(ClassLoader loader)
+    {
+        this.parent = loader;
+        this.loader = new ImageClassLoader(loader);
+    }
+
+    /**
+     * Returns the class loader that installations load their resources from.
+     *
+     * @return the class loader
+     */
+    public ClassLoader getClassLoader()
+    {
+        return loader;
+    }
+
+    /**
+     * Runs an automated installation.
+     * <p/>
+     * This may be invoked concurrently from several threads. The context class loader of the calling thread is set
+     * to the class loader providing the installer resources for the duration of the installation, as the uninstaller
+     * is assembled from the resources it can see.
+     *
+     * @param installRecord the installation record path. May be {@code null} if {@code defaults} is provided
+     * @param defaults      the overrides, pre-initialized with a file name but not loaded. May be {@code null}.
+     *                      Overrides must not be shared between installations
+     * @param mediaPath     the multi-volume media directory. May be {@code null}
+     * @return the exit code of the installation. {@code 0} indicates success
+     * @throws InstallerException if the installer requires elevated rights that the JVM doesn't have
+     * @throws Exception          for any other error
+     */
+    public int install(String installRecord, Overrides defaults, String mediaPath) throws Exception
+    {
+        Thread thread = Thread.currentThread();
+        ClassLoader context = thread.getContextClassLoader();
+        thread.setContextClassLoader(parent);
+        AutomatedInstallerContainer container = null;
+        try
+        {
+            container = new AutomatedInstallerContainer(this);
+            AutomatedInstallData installData = container.getComponent(AutomatedInstallData.class);
+            if (defaults != null)
+            {
+                defaults.setInstallData(installData);
+                defaults.load();
+                logger.info("Loaded " + defaults.size() + " override(s) from " + defaults.getFile());
+                container.getComponent(DefaultVariables.class).setOverrides(defaults);
+            }
+
+            PrivilegedRunner runner = new PrivilegedRunner(installData.getPlatform());
+            if (!runner.hasCorrectPermissions(installData.getInfo(), installData.getRules()))
+            {
+                throw new InstallerException("The installation requires elevated rights");
+            }
+
+            AutomatedInstaller installer = container.getComponent(AutomatedInstaller.class);
+            installer.init(installRecord, mediaPath);
+            installer.doInstall();
+            Integer exitCode = ((EmbeddedHousekeeper) container.getComponent(Housekeeper.class)).getExitCode();
+            return (exitCode != null) ? exitCode : 1;
+        }
+        finally
+        {
+            if (container != null)
+            {
+                container.dispose();
+            }
+            thread.setContextClassLoader(context);
+        }
+    }
+
+    /**
+     * A class loader that reads each installer resource once, and shares its content between installations.
+     * <p/>
+     * Pack contents are not shared. These are read directly from the installer jar where possible.
+     */
+    private static class ImageClassLoader extends ClassLoader implements ResourceCache
+    {
+        /**
+         * The shared resources, keyed on name.
+         */
+        private final Map<String, byte[]> resources = new HashMap<String, byte[]>();
+
+        /**
+         * Constructs an <tt>ImageClassLoader</tt>.
+         *
+         * @param parent the class loader providing the installer resources
+         */
+        public ImageClassLoader(ClassLoader parent)
+        {
+            super(parent);
+        }
+
+        /**
+         * Returns a stream to a resource.
+         *
+         * @param name the resource name
+         * @return a stream to the resource, or {@code null} if it doesn't exist
+         */
+        @Override
+        public InputStream getResourceAsStream(String name)
+        {
+            if (!isCached(name))
+            {
+                return super.getResourceAsStream(name);
+            }
+            byte[] content;
+            synchronized (resources)
+            {
+                content = resources.get(name);
+            }
+            if (content == null)
+            {
+                InputStream in = super.getResourceAsStream(name);
+                if (in == null)
+                {
+                    return null;
+                }
+                try
+                {
+                    content = IOUtils.toByteArray(in);
+                }
+                catch (IOException exception)
+                {
+                    logger.warning("Failed to read resource " + name + ": " + exception.getMessage());
+                    return super.getResourceAsStream(name);
+                }
+                finally
+                {
+                    IOUtils.closeQuietly(in);
+                }
+                synchronized (resources)
+                {
+                    resources.put(name, content);
+                }
+            }
+            return new ByteArrayInputStream(content);
+        }
+
+        /**
+         * Determines if a resource is served from the cache.
+         * <p/>
+         * Installer resources are shared, apart from the pack contents.
+         *
+         * @param name the resource name
+         * @return {@code true} if the resource is cached
+         */
+        @Override
+        public boolean isCached(String name)
+        {
+            return name.startsWith("resources/") && !name.startsWith("resources/packs/");
+        }
+    }
+}
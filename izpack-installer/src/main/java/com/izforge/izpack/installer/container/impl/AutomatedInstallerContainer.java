@@ -24,12 +24,18 @@ package com.izforge.izpack.installer.container.impl;
 
 import com.izforge.izpack.api.exception.ContainerException;
 import com.izforge.izpack.core.handler.AutomatedPrompt;
+import com.izforge.izpack.core.resource.ResourceManager;
 import com.izforge.izpack.installer.automation.AutomatedInstaller;
+import com.izforge.izpack.installer.automation.EmbeddedHousekeeper;
+import com.izforge.izpack.installer.automation.EmbeddedLockFileChecker;
+import com.izforge.izpack.installer.automation.InstallerImage;
 import com.izforge.izpack.installer.console.ConsolePanelAutomationHelper;
 import com.izforge.izpack.installer.container.provider.AutomatedInstallDataProvider;
 import com.izforge.izpack.installer.container.provider.AutomatedPanelsProvider;
 import com.izforge.izpack.installer.multiunpacker.MultiVolumeUnpackerAutomationHelper;
+import com.izforge.izpack.installer.requirement.LockFileChecker;
 import com.izforge.izpack.installer.unpacker.ConsolePackResources;
+import com.izforge.izpack.util.Housekeeper;
 import org.picocontainer.MutablePicoContainer;
 import org.picocontainer.injectors.ProviderAdapter;
 
@@ -41,6 +47,11 @@ import org.picocontainer.injectors.ProviderAdapter;
 public class AutomatedInstallerContainer extends InstallerContainer
 {
 
+    /**
+     * The installer image, for installations run within another application. May be {@code null}.
+     */
+    private final InstallerImage image;
+
     /**
      * Constructs a <tt>AutomatedInstallerContainer</tt>.
      *
@@ -48,6 +59,21 @@ public class AutomatedInstallerContainer extends InstallerContainer
      */
     public AutomatedInstallerContainer()
     {
+        this.image = null;
+        initialise();
+    }
+
+    /**
+     * Constructs a <tt>AutomatedInstallerContainer</tt> for an installation run within another application.
+     * <p/>
+     * The container loads its resources from the image, and never terminates the JVM.
+     *
+     * @param image the installer image
+     * @throws ContainerException if initialisation fails
+     */
+    public AutomatedInstallerContainer(InstallerImage image)
+    {
+        this.image = image;
         initialise();
     }
 
@@ -61,6 +87,7 @@ public class AutomatedInstallerContainer extends InstallerContainer
      */
     protected AutomatedInstallerContainer(MutablePicoContainer container)
     {
+        this.image = null;
         initialise(container);
     }
 
@@ -84,5 +111,15 @@ public class AutomatedInstallerContainer extends InstallerContainer
                 .addComponent(ConsolePanelAutomationHelper.class)
                 .addComponent(ConsolePackResources.class)
                 .addComponent(MultiVolumeUnpackerAutomationHelper.class);
+
+        if (image != null)
+        {
+            container.removeComponent(ResourceManager.class);
+            container.addComponent(ResourceManager.class, new ResourceManager(image.getClassLoader()));
+            container.removeComponent(Housekeeper.class);
+            container.addComponent(Housekeeper.class, EmbeddedHousekeeper.class);
+            container.removeComponent(LockFileChecker.class);
+            container.addComponent(LockFileChecker.class, EmbeddedLockFileChecker.class);
+        }
     }
 }
@@ -29,6 +29,7 @@ import com.izforge.izpack.installer.data.UninstallData;
 import com.izforge.izpack.installer.data.UninstallDataWriter;
 import com.izforge.izpack.installer.event.InstallerListeners;
 import com.izforge.izpack.installer.event.ProgressNotifiersImpl;
+import com.izforge.izpack.installer.metrics.DefaultInstallMetrics;
 import com.izforge.izpack.installer.requirement.ExpiredChecker;
 import com.izforge.izpack.installer.requirement.InstallerRequirementChecker;
 import com.izforge.izpack.installer.requirement.JDKChecker;
@@ -111,6 +112,7 @@ public abstract class InstallerContainer extends AbstractContainer
         addComponent(UninstallDataWriter.class);
         addComponent(ProgressNotifiersImpl.class);
         addComponent(InstallerListeners.class);
+        addComponent(DefaultInstallMetrics.class);
         addComponent(CustomDataLoader.class);
         addComponent(Container.class, this);
         addComponent(RegistryDefaultHandler.class);
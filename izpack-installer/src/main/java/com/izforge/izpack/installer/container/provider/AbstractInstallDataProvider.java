@@ -7,14 +7,13 @@ import com.izforge.izpack.api.exception.ResourceException;
 import com.izforge.izpack.api.exception.ResourceNotFoundException;
 import com.izforge.izpack.api.resource.Locales;
 import com.izforge.izpack.api.resource.Resources;
+import com.izforge.izpack.core.resource.AbstractResources;
+import com.izforge.izpack.core.resource.ResourcePreloader;
 import com.izforge.izpack.util.*;
-import org.apache.commons.io.IOUtils;
 import org.picocontainer.injectors.Provider;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
 import java.net.InetAddress;
 import java.util.*;
 import java.util.logging.Level;
@@ -30,6 +29,51 @@ public abstract class AbstractInstallDataProvider implements Provider
      */
     private static final Logger logger = Logger.getLogger(AbstractInstallDataProvider.class.getName());
 
+    /**
+     * The serialized objects read while the installer starts, in the order they are first used.
+     */
+    private static final String[] STARTUP_OBJECTS = {"info", "panelsOrder", "packs.info", "vars",
+            "installerrequirements", "dynvariables", "dynconditions", "rules", "customData"};
+
+
+    /**
+     * Starts loading the resources used while the installer starts, so that independent resources are read and
+     * deserialized concurrently rather than one after another.
+     * <p/>
+     * This is a no-op if the resources don't support preloading.
+     *
+     * @param resources the resources
+     * @param locales   the supported locales
+     */
+    protected void preloadResources(Resources resources, Locales locales)
+    {
+        if (resources instanceof AbstractResources)
+        {
+            AbstractResources abstractResources = (AbstractResources) resources;
+            if (abstractResources.getPreloader() == null)
+            {
+                abstractResources.setPreloader(new ResourcePreloader());
+            }
+            preload(abstractResources, locales);
+        }
+    }
+
+    /**
+     * Schedules the resources to preload.
+     * <p/>
+     * Subclasses may override this to preload additional resources. Loads that need the result of another load
+     * should declare it as a dependency.
+     *
+     * @param resources the resources
+     * @param locales   the supported locales
+     */
+    protected void preload(AbstractResources resources, Locales locales)
+    {
+        for (String name : STARTUP_OBJECTS)
+        {
+            resources.preloadObject(name);
+        }
+    }
 
     /**
      * Loads the installation data. Also sets environment variables to <code>installdata</code>.
@@ -87,17 +131,7 @@ public abstract class AbstractInstallDataProvider implements Provider
         List<Panel> panelsOrder = (List<Panel>) resources.getObject("panelsOrder");
 
         // We read the packs data
-        InputStream in = resources.getInputStream("packs.info");
-        ObjectInputStream objIn = new ObjectInputStream(in);
-        List<PackInfo> packs;
-        try
-        {
-            packs = (List<PackInfo>) objIn.readObject();
-        }
-        finally
-        {
-            IOUtils.closeQuietly(objIn);
-        }
+        List<PackInfo> packs = (List<PackInfo>) resources.getObject("packs.info");
 
         List<Pack> availablePacks = new ArrayList<Pack>();
         List<Pack> allPacks = new ArrayList<Pack>();
@@ -22,6 +22,7 @@ public class AutomatedInstallDataProvider extends AbstractInstallDataProvider
             throws IOException, ClassNotFoundException, InstallerException
     {
         AutomatedInstallData automatedInstallData = new InstallData(variables, matcher.getCurrentPlatform());
+        preloadResources(resources, locales);
         // Loads the installation data
         loadInstallData(automatedInstallData, resources, matcher, housekeeper);
         loadInstallerRequirements(automatedInstallData, resources);
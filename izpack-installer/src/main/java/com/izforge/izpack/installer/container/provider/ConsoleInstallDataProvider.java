@@ -20,6 +20,7 @@ import com.izforge.izpack.api.data.ConsolePrefs;
 import com.izforge.izpack.api.resource.Locales;
 import com.izforge.izpack.api.resource.Resources;
 import com.izforge.izpack.core.data.DefaultVariables;
+import com.izforge.izpack.core.resource.AbstractResources;
 import com.izforge.izpack.installer.data.ConsoleInstallData;
 import com.izforge.izpack.util.Housekeeper;
 import com.izforge.izpack.util.PlatformModelMatcher;
@@ -32,6 +33,7 @@ public class ConsoleInstallDataProvider extends AbstractInstallDataProvider
             throws Exception
     {
         final ConsoleInstallData consoleInstallData = new ConsoleInstallData(variables, matcher.getCurrentPlatform());
+        preloadResources(resources, locales);
         loadInstallData(consoleInstallData, resources, matcher, housekeeper);
         loadConsoleInstallData(consoleInstallData, resources);
         loadInstallerRequirements(consoleInstallData, resources);
@@ -43,6 +45,19 @@ public class ConsoleInstallDataProvider extends AbstractInstallDataProvider
         return consoleInstallData;
     }
 
+    /**
+     * Schedules the resources to preload, including the console preferences.
+     *
+     * @param resources the resources
+     * @param locales   the supported locales
+     */
+    @Override
+    protected void preload(AbstractResources resources, Locales locales)
+    {
+        super.preload(resources, locales);
+        resources.preloadObject("ConsolePrefs");
+    }
+
     /**
      * Load GUI preference information.
      *
@@ -6,10 +6,13 @@ import com.izforge.izpack.api.data.LookAndFeels;
 import com.izforge.izpack.api.resource.Locales;
 import com.izforge.izpack.api.resource.Resources;
 import com.izforge.izpack.core.data.DefaultVariables;
+import com.izforge.izpack.core.resource.AbstractResources;
+import com.izforge.izpack.core.resource.ResourcePreloader;
 import com.izforge.izpack.gui.ButtonFactory;
 import com.izforge.izpack.gui.IzPackKMetalTheme;
 import com.izforge.izpack.gui.LabelFactory;
 import com.izforge.izpack.installer.data.GUIInstallData;
+import com.izforge.izpack.installer.gui.SplashScreen;
 import com.izforge.izpack.util.Housekeeper;
 import com.izforge.izpack.util.OsVersion;
 import com.izforge.izpack.util.PlatformModelMatcher;
@@ -24,7 +27,9 @@ import javax.swing.plaf.metal.MetalTheme;
 import java.awt.Color;
 import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -39,6 +44,7 @@ public class GUIInstallDataProvider extends AbstractInstallDataProvider
     public static final String MODIFIER_USE_BUTTON_ICONS = "useButtonIcons";
     public static final String MODIFIER_USE_LABEL_ICONS = "useLabelIcons";
     public static final String MODIFIER_LABEL_FONT_SIZE = "labelFontSize";
+    public static final String MODIFIER_USE_SPLASH_SCREEN = "useSplashScreen";
 
     private static Map<String, String> substanceVariants = new HashMap<String, String>();
     private static Map<String, String> looksVariants = new HashMap<String, String>();
@@ -84,6 +90,7 @@ public class GUIInstallDataProvider extends AbstractInstallDataProvider
             throws Exception
     {
         final GUIInstallData guiInstallData = new GUIInstallData(variables, matcher.getCurrentPlatform());
+        preloadResources(resources, locales);
         // Loads the installation data
         loadInstallData(guiInstallData, resources, matcher, housekeeper);
         loadGUIInstallData(guiInstallData, resources);
@@ -307,6 +314,47 @@ public class GUIInstallDataProvider extends AbstractInstallDataProvider
         }
     }
 
+    /**
+     * Schedules the resources to preload.
+     * <p/>
+     * In addition to the install data, this preloads the GUI preferences, the splash image if the preferences
+     * enable the splash screen, and the images of the language selection dialog if there is a choice of language.
+     *
+     * @param resources the resources
+     * @param locales   the supported locales
+     */
+    @Override
+    protected void preload(final AbstractResources resources, Locales locales)
+    {
+        resources.preloadObject("GUIPrefs");
+        final ResourcePreloader preloader = resources.getPreloader();
+        preloader.schedule("splash", new Callable<Object>()
+        {
+            @Override
+            public Object call()
+            {
+                GUIPrefs prefs = (GUIPrefs) preloader.get("GUIPrefs");
+                if (prefs != null && prefs.modifier.containsKey(MODIFIER_USE_SPLASH_SCREEN))
+                {
+                    resources.preloadImageIcon(SplashScreen.SPLASH_IMAGE);
+                }
+                return null;
+            }
+        }, "GUIPrefs");
+
+        super.preload(resources, locales);
+
+        List<String> codes = locales.getISOCodes();
+        if (codes.size() > 1)
+        {
+            resources.preloadImageIcon("installer.langsel.img");
+            for (String code : codes)
+            {
+                resources.preloadImageIcon("flag." + code);
+            }
+        }
+    }
+
     /**
      * Load GUI preference information.
      *
@@ -21,11 +21,20 @@ package com.izforge.izpack.installer.data;
 
 import com.izforge.izpack.data.CustomData;
 import com.izforge.izpack.api.data.ExecutableFile;
+import com.izforge.izpack.api.exception.IzPackException;
+import com.izforge.izpack.core.io.InstallLogReader;
+import com.izforge.izpack.core.io.InstallLogWriter;
 
+import java.io.File;
+import java.io.IOException;
+
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Holds uninstallation data.
@@ -36,7 +45,7 @@ public class UninstallData
 {
 
     /**
-     * The installed files list.
+     * The installed files list. This excludes files written to the install log.
      */
     private List<String> installedFilesList;
 
@@ -45,6 +54,17 @@ public class UninstallData
      */
     private List<String> uninstallableFilesList;
 
+    /**
+     * The install log file that uninstallable files are appended to, or {@code null} if they are held in
+     * {@link #uninstallableFilesList}.
+     */
+    private File installLogFile;
+
+    /**
+     * The install log writer. May be {@code null}.
+     */
+    private InstallLogWriter installLog;
+
     /**
      * The executables list.
      */
@@ -102,6 +122,16 @@ public class UninstallData
      */
     public final static String ROOTSCRIPT = "rootscript";
 
+    /**
+     * The name of the install log file, written to the uninstaller directory during installation.
+     */
+    public final static String INSTALL_LOG = "install.files";
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(UninstallData.class.getName());
+
     /**
      * Adds a file to the data.
      *
@@ -112,28 +142,184 @@ public class UninstallData
     {
         if (path != null)
         {
-            installedFilesList.add(path);
-            if (uninstall)
+            if (uninstall && installLog != null)
+            {
+                try
+                {
+                    installLog.add(path);
+                }
+                catch (IOException exception)
+                {
+                    throw new IzPackException("Failed to write install log: " + installLogFile, exception);
+                }
+            }
+            else
             {
-                uninstallableFilesList.add(path);
+                installedFilesList.add(path);
+                if (uninstall)
+                {
+                    uninstallableFilesList.add(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens an install log to append uninstallable files to, rather than holding them in memory.
+     * <p/>
+     * The log is written incrementally, and is copied to the uninstaller once installation completes.
+     * <p/>
+     * If the file already exists, it is the log of an installation that terminated abnormally. It is discarded with
+     * a warning, so that the uninstaller only removes the files of this installation. Uninstalling the files of an
+     * incomplete installation from a surviving log is not supported.
+     *
+     * @param file the install log file
+     * @throws IOException for any I/O error
+     */
+    public synchronized void openInstallLog(File file) throws IOException
+    {
+        closeInstallLog();
+        if (file.exists())
+        {
+            logger.warning("Discarding the install log of an incomplete installation: " + file);
+            if (!file.delete())
+            {
+                throw new IOException("Failed to delete install log: " + file);
+            }
+        }
+        installLog = new InstallLogWriter(file);
+        installLogFile = file;
+    }
+
+    /**
+     * Returns the install log file.
+     *
+     * @return the install log file, or {@code null} if no install log was opened
+     */
+    public synchronized File getInstallLogFile()
+    {
+        return installLogFile;
+    }
+
+    /**
+     * Writes buffered uninstallable files to the install log, if one is open.
+     *
+     * @throws IzPackException if the log cannot be written
+     */
+    public synchronized void flushInstallLog()
+    {
+        if (installLog != null)
+        {
+            try
+            {
+                installLog.flush();
+            }
+            catch (IOException exception)
+            {
+                throw new IzPackException("Failed to write install log: " + installLogFile, exception);
+            }
+        }
+    }
+
+    /**
+     * Closes and deletes the install log, if one was opened.
+     * <p/>
+     * This is invoked once the log has been copied to the uninstaller, or if no uninstaller is written.
+     * The files recorded in the log are no longer returned by {@link #getInstalledFilesList()}. Uninstallable files
+     * added subsequently are held in memory.
+     */
+    public synchronized void deleteInstallLog()
+    {
+        if (installLogFile != null)
+        {
+            try
+            {
+                closeInstallLog();
+            }
+            catch (IOException exception)
+            {
+                logger.log(Level.WARNING, "Failed to close install log: " + installLogFile, exception);
+            }
+            if (installLogFile.exists() && !installLogFile.delete())
+            {
+                logger.warning("Failed to delete install log: " + installLogFile);
+            }
+            installLogFile = null;
+        }
+    }
+
+    /**
+     * Closes the install log, if one is open.
+     * <p/>
+     * Uninstallable files added subsequently are held in memory.
+     *
+     * @throws IOException for any I/O error
+     */
+    public synchronized void closeInstallLog() throws IOException
+    {
+        if (installLog != null)
+        {
+            try
+            {
+                installLog.close();
+            }
+            finally
+            {
+                installLog = null;
             }
         }
     }
 
     /**
      * Returns the installed files list.
+     * <p/>
+     * If an install log is open, this is a read-only view of the files in the log, followed by those held in
+     * memory. The log is only decompressed as the view is accessed.
      *
      * @return The installed files list.
      */
-    public List<String> getInstalledFilesList()
+    public synchronized List<String> getInstalledFilesList()
     {
-        return installedFilesList;
+        if (installLogFile == null)
+        {
+            return installedFilesList;
+        }
+        try
+        {
+            if (installLog != null)
+            {
+                installLog.flush();
+            }
+            final List<String> logged = new InstallLogReader(installLogFile).asList();
+            final List<String> held = new ArrayList<String>(installedFilesList);
+            return new AbstractList<String>()
+            {
+                @Override
+                public String get(int index)
+                {
+                    return (index < logged.size()) ? logged.get(index) : held.get(index - logged.size());
+                }
+
+                @Override
+                public int size()
+                {
+                    return logged.size() + held.size();
+                }
+            };
+        }
+        catch (IOException exception)
+        {
+            throw new IzPackException("Failed to read install log: " + installLogFile, exception);
+        }
     }
 
     /**
      * Returns the uninstallable files list.
+     * <p/>
+     * This excludes files written to the install log.
      *
      * @return The uninstallable files list.
+     * @see #openInstallLog(File)
      */
     public List<String> getUninstalableFilesList()
     {
@@ -2,11 +2,14 @@ package com.izforge.izpack.installer.data;
 
 import com.izforge.izpack.api.data.AutomatedInstallData;
 import com.izforge.izpack.api.merge.Mergeable;
+import com.izforge.izpack.api.metrics.InstallMetrics;
 import com.izforge.izpack.api.rules.RulesEngine;
+import com.izforge.izpack.core.io.InstallLogReader;
 import com.izforge.izpack.data.CustomData;
 import com.izforge.izpack.api.data.ExecutableFile;
 import com.izforge.izpack.merge.resolve.PathResolver;
 import com.izforge.izpack.util.IoHelper;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
 import java.io.*;
@@ -54,6 +57,11 @@ public class UninstallDataWriter
      */
     private final RulesEngine rules;
 
+    /**
+     * The installation metrics. May be {@code null}.
+     */
+    private final InstallMetrics metrics;
+
     /**
      * The logger.
      */
@@ -74,11 +82,27 @@ public class UninstallDataWriter
      */
     public UninstallDataWriter(UninstallData uninstallData, AutomatedInstallData installData, PathResolver pathResolver,
                                RulesEngine rules)
+    {
+        this(uninstallData, installData, pathResolver, rules, null);
+    }
+
+    /**
+     * Constructs an <tt>UninstallDataWriter</tt>.
+     *
+     * @param uninstallData the uninstall data
+     * @param installData   the install data
+     * @param pathResolver  the path resolver
+     * @param rules         the rules engine
+     * @param metrics       the installation metrics. May be {@code null}
+     */
+    public UninstallDataWriter(UninstallData uninstallData, AutomatedInstallData installData, PathResolver pathResolver,
+                               RulesEngine rules, InstallMetrics metrics)
     {
         this.uninstallData = uninstallData;
         this.installData = installData;
         this.pathResolver = pathResolver;
         this.rules = rules;
+        this.metrics = metrics;
     }
 
     /**
@@ -106,6 +130,7 @@ public class UninstallDataWriter
     public boolean write()
     {
         boolean result = false;
+        long start = System.nanoTime();
         try
         {
             BufferedWriter extLogWriter = getExternalLogFile();
@@ -124,6 +149,7 @@ public class UninstallDataWriter
             writeScriptFiles();
 
             jar.close();
+            uninstallData.deleteInstallLog();
             result = true;
         }
         catch (Throwable t)
@@ -131,6 +157,10 @@ public class UninstallDataWriter
             logger.log(Level.SEVERE, t.getMessage(), t);
             destroyJar(); // don't keep the jar - it may be incomplete or corrupted
         }
+        if (metrics != null)
+        {
+            metrics.getMetric(InstallMetrics.UNINSTALL_DATA).stop(start);
+        }
         return result;
     }
 
@@ -254,12 +284,36 @@ public class UninstallDataWriter
 
     /**
      * Writes the file log.
+     * <p/>
+     * If files were recorded in an install log during installation, it is copied to the jar as is. The
+     * <em>install.log</em> entry holds the installation path, and any files not recorded in the install log.
      *
      * @param extLogWriter the external log writer. May be <tt>null</tt>
      * @throws IOException for any I/O error
      */
     private void writeFilesLog(BufferedWriter extLogWriter) throws IOException
     {
+        File installLog = uninstallData.getInstallLogFile();
+        if (installLog != null)
+        {
+            uninstallData.closeInstallLog();
+            jar.putNextEntry(new JarEntry(UninstallData.INSTALL_LOG));
+            FileUtils.copyFile(installLog, jar);
+            jar.closeEntry();
+            if (extLogWriter != null)
+            {
+                InstallLogReader reader = new InstallLogReader(installLog);
+                for (int i = 0; i < reader.getBlocks(); ++i)
+                {
+                    for (String path : reader.getBlock(i))
+                    {
+                        extLogWriter.write(path);
+                        extLogWriter.newLine();
+                    }
+                }
+            }
+        }
+
         List<String> files = uninstallData.getUninstalableFilesList();
 
         jar.putNextEntry(new JarEntry("install.log"));
@@ -29,6 +29,8 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -46,7 +48,10 @@ import javax.swing.JTextField;
 import javax.swing.JTextPane;
 import javax.swing.ListSelectionModel;
 
+import com.izforge.izpack.api.data.JournaledVariables;
 import com.izforge.izpack.api.data.Panel;
+import com.izforge.izpack.api.data.VariableChange;
+import com.izforge.izpack.api.data.Variables;
 import com.izforge.izpack.api.rules.Condition;
 import com.izforge.izpack.api.rules.RulesEngine;
 import com.izforge.izpack.gui.ButtonFactory;
@@ -64,7 +69,7 @@ public class Debugger
     private RulesEngine rules;
     private GUIInstallData idata;
 
-    private Properties lasttimevariables;
+    private long lastversion;
 
     private IconsDatabase icons;
     private Map<String, VariableHistory> variableshistory;
@@ -80,7 +85,6 @@ public class Debugger
     {
         idata = installdata;
         this.rules = rules;
-        lasttimevariables = (Properties) idata.getVariables().getProperties().clone();
         this.icons = icons;
         this.variableshistory = new HashMap<String, VariableHistory>();
         this.conditionhistory = new HashMap<String, ConditionHistory>();
@@ -90,11 +94,13 @@ public class Debugger
 
     private void init()
     {
-        String[] variablekeys = lasttimevariables.keySet().toArray(new String[lasttimevariables.size()]);
-        for (String variablename : variablekeys)
+        Variables variables = idata.getVariables();
+        lastversion = getVersion();
+        Properties initialvariables = (Properties) variables.getProperties().clone();
+        for (String variablename : initialvariables.stringPropertyNames())
         {
             VariableHistory variableHistory = new VariableHistory(variablename);
-            variableHistory.addValue(lasttimevariables.getProperty(variablename), "initial value");
+            variableHistory.addValue(initialvariables.getProperty(variablename), "initial value");
             variableshistory.put(variablename, variableHistory);
         }
         Set<String> conditionids = this.rules.getKnownConditionIds();
@@ -115,7 +121,6 @@ public class Debugger
     private void debugVariables(Panel nextpanelmetadata, Panel lastpanelmetadata)
     {
         getChangedVariables(nextpanelmetadata, lastpanelmetadata);
-        lasttimevariables = (Properties) idata.getVariables().getProperties().clone();
     }
 
     private void debugConditions(Panel nextpanelmetadata, Panel lastpanelmetadata)
@@ -151,18 +156,59 @@ public class Debugger
 
     private Properties getChangedVariables(Panel nextpanelmetadata, Panel lastpanelmetadata)
     {
-        Properties currentvariables = (Properties) idata.getVariables().getProperties().clone();
+        Variables variables = idata.getVariables();
+        List<VariableChange> journal = null;
+        if (variables instanceof JournaledVariables)
+        {
+            JournaledVariables journaled = (JournaledVariables) variables;
+            long version = journaled.getVersion();
+            journal = journaled.getChanges(lastversion);
+            lastversion = version;
+        }
+
+        // the value of each variable before and after the panel switch, if it is known to have changed
+        Map<String, String[]> candidates = new LinkedHashMap<String, String[]>();
+        if (journal != null)
+        {
+            for (VariableChange change : journal)
+            {
+                String[] values = candidates.get(change.getName());
+                if (values == null)
+                {
+                    candidates.put(change.getName(), new String[]{change.getOldValue(), change.getNewValue()});
+                }
+                else
+                {
+                    values[1] = change.getNewValue();
+                }
+            }
+        }
+        else
+        {
+            // there is no journal, or it no longer holds all changes since the last switch, so compare everything
+            Properties currentvariables = (Properties) variables.getProperties().clone();
+            for (String key : currentvariables.stringPropertyNames())
+            {
+                VariableHistory variableHistory = variableshistory.get(key);
+                String oldvalue = (variableHistory != null) ? variableHistory.getLastValue() : null;
+                candidates.put(key, new String[]{oldvalue, currentvariables.getProperty(key)});
+            }
+        }
+
         Properties changedvariables = new Properties();
 
         variablesrenderer.clearState();
         // check for changed and new variables
-        Enumeration currentvariableskeys = currentvariables.keys();
         boolean changes = false;
-        while (currentvariableskeys.hasMoreElements())
+        for (Map.Entry<String, String[]> entry : candidates.entrySet())
         {
-            String key = (String) currentvariableskeys.nextElement();
-            String currentvalue = currentvariables.getProperty(key);
-            String oldvalue = lasttimevariables.getProperty(key);
+            String key = entry.getKey();
+            String oldvalue = entry.getValue()[0];
+            String currentvalue = entry.getValue()[1];
+            if (currentvalue == null)
+            {
+                continue;
+            }
 
             if ((oldvalue == null))
             {
@@ -192,9 +238,20 @@ public class Debugger
         return changedvariables;
     }
 
+    /**
+     * Returns the version of the variables.
+     *
+     * @return the version of the variables, or {@code 0} if they don't record changes
+     */
+    private long getVersion()
+    {
+        Variables variables = idata.getVariables();
+        return (variables instanceof JournaledVariables) ? ((JournaledVariables) variables).getVersion() : 0;
+    }
+
     private void modifyVariableManually(String varnametxt, String varvaluetxt)
     {
-        lasttimevariables = (Properties) idata.getVariables().getProperties().clone();
+        lastversion = getVersion();
         VariableHistory variableHistory = variableshistory.get(varnametxt);
         if (variableHistory != null)
         {
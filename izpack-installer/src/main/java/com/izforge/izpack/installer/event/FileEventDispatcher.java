@@ -0,0 +1,213 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.event;
+
+import com.izforge.izpack.api.event.BatchInstallerListener;
+import com.izforge.izpack.api.event.InstalledFile;
+import com.izforge.izpack.api.exception.IzPackException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Accumulates installed files for a {@link BatchInstallerListener}, and delivers them in batches.
+ * <p/>
+ * Asynchronous listeners have at most one batch being delivered while the next one fills, so a slow listener
+ * eventually slows down the installation rather than accumulating an unbounded number of batches.
+ */
+class FileEventDispatcher
+{
+    /**
+     * The listener.
+     */
+    private final BatchInstallerListener listener;
+
+    /**
+     * The maximum batch size.
+     */
+    private final int batchSize;
+
+    /**
+     * The batch interval, in nanoseconds, or {@code 0} if batches are only delivered when full.
+     */
+    private final long batchInterval;
+
+    /**
+     * The executor to deliver batches on, or {@code null} if batches are delivered synchronously.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The batch being filled.
+     */
+    private List<InstalledFile> batch;
+
+    /**
+     * The time when the first file of the current batch was added.
+     */
+    private long batchStart;
+
+    /**
+     * The batch being delivered asynchronously. May be {@code null}.
+     */
+    private Future<?> pending;
+
+    /**
+     * The failure of the last asynchronous delivery. May be {@code null}.
+     */
+    private volatile IzPackException failure;
+
+
+    /**
+     * Constructs a {@code FileEventDispatcher}.
+     *
+     * @param listener the listener
+     * @param executor the executor to deliver batches on, or {@code null} to deliver them synchronously
+     */
+    public FileEventDispatcher(BatchInstallerListener listener, ExecutorService executor)
+    {
+        this.listener = listener;
+        this.batchSize = Math.max(1, listener.getBatchSize());
+        this.batchInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(0, listener.getBatchInterval()));
+        this.executor = executor;
+        batch = new ArrayList<InstalledFile>(Math.min(batchSize, 1024));
+    }
+
+    /**
+     * Returns the listener.
+     *
+     * @return the listener
+     */
+    public BatchInstallerListener getListener()
+    {
+        return listener;
+    }
+
+    /**
+     * Adds an installed file, delivering the current batch if it is full or has waited long enough.
+     *
+     * @param file the installed file
+     * @throws IzPackException if the listener fails
+     */
+    public void add(InstalledFile file)
+    {
+        if (batch.isEmpty() && batchInterval != 0)
+        {
+            batchStart = System.nanoTime();
+        }
+        batch.add(file);
+        if (batch.size() >= batchSize || (batchInterval != 0 && System.nanoTime() - batchStart >= batchInterval))
+        {
+            deliver();
+        }
+    }
+
+    /**
+     * Delivers any outstanding files, and waits for all deliveries to complete.
+     *
+     * @throws IzPackException if the listener fails
+     */
+    public void flush()
+    {
+        if (!batch.isEmpty())
+        {
+            deliver();
+        }
+        await();
+    }
+
+    /**
+     * Delivers the current batch.
+     *
+     * @throws IzPackException if the listener fails
+     */
+    private void deliver()
+    {
+        final List<InstalledFile> files = batch;
+        batch = new ArrayList<InstalledFile>(files.size());
+        if (executor == null)
+        {
+            listener.afterFiles(files);
+        }
+        else
+        {
+            await();
+            pending = executor.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        listener.afterFiles(files);
+                    }
+                    catch (IzPackException exception)
+                    {
+                        failure = exception;
+                    }
+                    catch (RuntimeException exception)
+                    {
+                        failure = new IzPackException(exception);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Waits for an asynchronous delivery to complete.
+     *
+     * @throws IzPackException if the delivery failed, or the thread is interrupted
+     */
+    private void await()
+    {
+        if (pending != null)
+        {
+            try
+            {
+                pending.get();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                throw new IzPackException("Interrupted waiting for installer listener", exception);
+            }
+            catch (ExecutionException exception)
+            {
+                throw new IzPackException(exception.getCause());
+            }
+            finally
+            {
+                pending = null;
+            }
+        }
+        IzPackException exception = failure;
+        if (exception != null)
+        {
+            failure = null;
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.event;
+
+import com.izforge.izpack.api.data.Pack;
+import com.izforge.izpack.api.data.PackFile;
+import com.izforge.izpack.api.event.BatchInstallerListener;
+import com.izforge.izpack.api.event.InstalledFile;
+import com.izforge.izpack.api.event.InstallerListener;
+import com.izforge.izpack.api.event.ProgressListener;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Adapts a per-file {@link InstallerListener} to the {@link BatchInstallerListener} interface.
+ * <p/>
+ * Each file of a batch is passed to {@link InstallerListener#afterFile afterFile()} or
+ * {@link InstallerListener#afterDir afterDir()} of the adapted listener. All other notifications are forwarded
+ * unchanged.
+ * <p/>
+ * By default, batches hold a single file and are delivered synchronously, which is equivalent to notifying the
+ * adapted listener directly. This preserves the per-file contract of third party listeners, which may expect
+ * {@code afterFile()} to complete before the next file is installed, and may not be thread safe. Listeners whose
+ * per-file work doesn't need to complete before the next file is installed should implement
+ * {@link BatchInstallerListener} instead, as the built-in file listeners do, or be adapted with a larger batch
+ * size and asynchronous delivery.
+ */
+public class FileListenerAdapter implements BatchInstallerListener
+{
+    /**
+     * The adapted listener.
+     */
+    private final InstallerListener listener;
+
+    /**
+     * The batch size.
+     */
+    private final int batchSize;
+
+    /**
+     * The batch interval, in milliseconds.
+     */
+    private final long batchInterval;
+
+    /**
+     * Determines if batches are delivered asynchronously.
+     */
+    private final boolean asynchronous;
+
+
+    /**
+     * Constructs a {@code FileListenerAdapter} that delivers each file synchronously.
+     *
+     * @param listener the listener to adapt
+     */
+    public FileListenerAdapter(InstallerListener listener)
+    {
+        this(listener, 1, 0, false);
+    }
+
+    /**
+     * Constructs a {@code FileListenerAdapter}.
+     *
+     * @param listener      the listener to adapt
+     * @param batchSize     the maximum batch size
+     * @param batchInterval the batch interval, in milliseconds
+     * @param asynchronous  if {@code true}, deliver batches on a dispatcher thread
+     */
+    public FileListenerAdapter(InstallerListener listener, int batchSize, long batchInterval, boolean asynchronous)
+    {
+        this.listener = listener;
+        this.batchSize = batchSize;
+        this.batchInterval = batchInterval;
+        this.asynchronous = asynchronous;
+    }
+
+    /**
+     * Returns the adapted listener.
+     *
+     * @return the adapted listener
+     */
+    public InstallerListener getListener()
+    {
+        return listener;
+    }
+
+    @Override
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    @Override
+    public long getBatchInterval()
+    {
+        return batchInterval;
+    }
+
+    @Override
+    public boolean isAsynchronous()
+    {
+        return asynchronous;
+    }
+
+    @Override
+    public void afterFiles(List<InstalledFile> files)
+    {
+        for (InstalledFile file : files)
+        {
+            if (file.isDirectory())
+            {
+                listener.afterDir(file.getFile(), file.getPackFile(), file.getPack());
+            }
+            else
+            {
+                listener.afterFile(file.getFile(), file.getPackFile(), file.getPack());
+            }
+        }
+    }
+
+    @Override
+    public void initialise()
+    {
+        listener.initialise();
+    }
+
+    @Override
+    public boolean isFileListener()
+    {
+        return listener.isFileListener();
+    }
+
+    @Override
+    public void beforePacks(List<Pack> packs)
+    {
+        listener.beforePacks(packs);
+    }
+
+    @Override
+    public void beforePacks(List<Pack> packs, ProgressListener progressListener)
+    {
+        listener.beforePacks(packs, progressListener);
+    }
+
+    @Override
+    public void beforePack(Pack pack)
+    {
+        listener.beforePack(pack);
+    }
+
+    @Override
+    public void afterPack(Pack pack)
+    {
+        listener.afterPack(pack);
+    }
+
+    @Override
+    public void afterPacks(List<Pack> packs, ProgressListener progressListener)
+    {
+        listener.afterPacks(packs, progressListener);
+    }
+
+    @Override
+    public void beforeDir(File dir, PackFile packFile, Pack pack)
+    {
+        listener.beforeDir(dir, packFile, pack);
+    }
+
+    @Override
+    public void afterDir(File dir, PackFile packFile, Pack pack)
+    {
+        listener.afterDir(dir, packFile, pack);
+    }
+
+    @Override
+    public void beforeFile(File file, PackFile packFile, Pack pack)
+    {
+        listener.beforeFile(file, packFile, pack);
+    }
+
+    @Override
+    public void afterFile(File file, PackFile packFile, Pack pack)
+    {
+        listener.afterFile(file, packFile, pack);
+    }
+}
@@ -25,6 +25,8 @@ package com.izforge.izpack.installer.event;
 import com.izforge.izpack.api.data.AutomatedInstallData;
 import com.izforge.izpack.api.data.Pack;
 import com.izforge.izpack.api.data.PackFile;
+import com.izforge.izpack.api.event.BatchInstallerListener;
+import com.izforge.izpack.api.event.InstalledFile;
 import com.izforge.izpack.api.event.InstallerListener;
 import com.izforge.izpack.api.event.ProgressListener;
 import com.izforge.izpack.api.exception.InstallerException;
@@ -32,16 +34,30 @@ import com.izforge.izpack.api.exception.IzPackException;
 import com.izforge.izpack.api.handler.AbstractPrompt;
 import com.izforge.izpack.api.handler.AbstractUIHandler;
 import com.izforge.izpack.api.handler.Prompt;
+import com.izforge.izpack.api.metrics.InstallMetrics;
+import com.izforge.izpack.api.metrics.Metric;
 import com.izforge.izpack.api.resource.Messages;
 import com.izforge.izpack.core.handler.PromptUIHandler;
+import com.izforge.izpack.installer.metrics.DefaultInstallMetrics;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 
 /**
  * A container for {@link InstallerListener}s that supports notifying each registered listener.
+ * <p/>
+ * Installed files and directories are delivered to {@link BatchInstallerListener}s in batches. Per-file listeners
+ * are notified through a {@link FileListenerAdapter}.
+ * <p/>
+ * The time spent in each listener callback is recorded in the {@link InstallMetrics}, as
+ * <em>listener.&lt;listener class&gt;.&lt;callback&gt;</em>.
  *
  * @author Tim Anderson
  */
@@ -59,6 +75,31 @@ public class InstallerListeners
      */
     private final List<InstallerListener> fileListeners = new ArrayList<InstallerListener>();
 
+    /**
+     * The dispatchers of installed files and directories, one per batch or per-file listener.
+     */
+    private final List<FileEventDispatcher> dispatchers = new ArrayList<FileEventDispatcher>();
+
+    /**
+     * The metrics of {@link #beforeDir} callbacks, one per file listener.
+     */
+    private final List<Metric> beforeDirMetrics = new ArrayList<Metric>();
+
+    /**
+     * The metrics of {@link #beforeFile} callbacks, one per file listener.
+     */
+    private final List<Metric> beforeFileMetrics = new ArrayList<Metric>();
+
+    /**
+     * The metrics of installed file and directory deliveries, one per dispatcher.
+     */
+    private final List<Metric> dispatchMetrics = new ArrayList<Metric>();
+
+    /**
+     * The executor for asynchronous batch listeners. Created on demand.
+     */
+    private ExecutorService executor;
+
     /**
      * The installation data.
      */
@@ -69,6 +110,11 @@ public class InstallerListeners
      */
     private final Prompt prompt;
 
+    /**
+     * The installation metrics.
+     */
+    private final InstallMetrics metrics;
+
 
     /**
      * Constructs an {@code InstallerListeners}.
@@ -77,9 +123,22 @@ public class InstallerListeners
      * @param prompt      the prompt
      */
     public InstallerListeners(AutomatedInstallData installData, Prompt prompt)
+    {
+        this(installData, prompt, new DefaultInstallMetrics());
+    }
+
+    /**
+     * Constructs an {@code InstallerListeners}.
+     *
+     * @param installData the installation data
+     * @param prompt      the prompt
+     * @param metrics     the installation metrics
+     */
+    public InstallerListeners(AutomatedInstallData installData, Prompt prompt, InstallMetrics metrics)
     {
         this.installData = installData;
         this.prompt = prompt;
+        this.metrics = metrics;
     }
 
     /**
@@ -123,6 +182,16 @@ public class InstallerListeners
         return listeners;
     }
 
+    /**
+     * Returns the installation metrics.
+     *
+     * @return the installation metrics
+     */
+    public InstallMetrics getMetrics()
+    {
+        return metrics;
+    }
+
     /**
      * Initialises the listeners.
      *
@@ -135,9 +204,22 @@ public class InstallerListeners
             try
             {
                 listener.initialise();
-                if (listener.isFileListener())
+                if (listener instanceof BatchInstallerListener)
+                {
+                    BatchInstallerListener batchListener = (BatchInstallerListener) listener;
+                    ExecutorService dispatchExecutor = batchListener.isAsynchronous() ? getExecutor() : null;
+                    dispatchers.add(new FileEventDispatcher(batchListener, dispatchExecutor));
+                    dispatchMetrics.add(getMetric(listener, "afterFiles"));
+                    if (listener.isFileListener())
+                    {
+                        addFileListener(listener);
+                    }
+                }
+                else if (listener.isFileListener())
                 {
-                    fileListeners.add(listener);
+                    addFileListener(listener);
+                    dispatchers.add(new FileEventDispatcher(new FileListenerAdapter(listener), null));
+                    dispatchMetrics.add(getMetric(listener, "afterFile"));
                 }
             }
                 catch (IzPackException ize)
@@ -160,7 +242,9 @@ public class InstallerListeners
         {
             try
             {
+                long start = System.nanoTime();
                 l.beforePacks(packs, listener);
+                getMetric(l, "beforePacks").stop(start);
             }
                 catch (IzPackException ize)
             {
@@ -182,7 +266,9 @@ public class InstallerListeners
         {
             try
             {
+                long start = System.nanoTime();
                 l.beforePack(pack);
+                getMetric(l, "beforePack").stop(start);
             }
                 catch (IzPackException ize)
             {
@@ -198,7 +284,7 @@ public class InstallerListeners
      */
     public boolean isFileListener()
     {
-        return !fileListeners.isEmpty();
+        return !fileListeners.isEmpty() || !dispatchers.isEmpty();
     }
 
     /**
@@ -211,11 +297,13 @@ public class InstallerListeners
      */
     public void beforeDir(File dir, PackFile packFile, Pack pack) throws InstallerException
     {
-        for (InstallerListener l : fileListeners)
+        for (int i = 0; i < fileListeners.size(); ++i)
         {
             try
             {
-                l.beforeDir(dir, packFile, pack);
+                long start = System.nanoTime();
+                fileListeners.get(i).beforeDir(dir, packFile, pack);
+                beforeDirMetrics.get(i).stop(start);
             }
                 catch (IzPackException ize)
             {
@@ -234,17 +322,7 @@ public class InstallerListeners
      */
     public void afterDir(File dir, PackFile packFile, Pack pack) throws InstallerException
     {
-        for (InstallerListener l : fileListeners)
-        {
-            try
-            {
-                l.afterDir(dir, packFile, pack);
-            }
-                catch (IzPackException ize)
-            {
-                handleError(ize);
-            }
-        }
+        dispatch(new InstalledFile(dir, packFile, pack, true));
     }
 
     /**
@@ -259,11 +337,13 @@ public class InstallerListeners
      */
     public void beforeFile(File file, PackFile packFile, Pack pack) throws InstallerException
     {
-        for (InstallerListener l : fileListeners)
+        for (int i = 0; i < fileListeners.size(); ++i)
         {
             try
             {
-                l.beforeFile(file, packFile, pack);
+                long start = System.nanoTime();
+                fileListeners.get(i).beforeFile(file, packFile, pack);
+                beforeFileMetrics.get(i).stop(start);
             }
                 catch (IzPackException ize)
             {
@@ -284,17 +364,7 @@ public class InstallerListeners
      */
     public void afterFile(File file, PackFile packFile, Pack pack) throws InstallerException
     {
-        for (InstallerListener l : fileListeners)
-        {
-            try
-            {
-                l.afterFile(file, packFile, pack);
-            }
-                catch (IzPackException ize)
-            {
-                handleError(ize);
-            }
-        }
+        dispatch(new InstalledFile(file, packFile, pack, false));
     }
 
     /**
@@ -305,11 +375,14 @@ public class InstallerListeners
      */
     public void afterPack(Pack pack) throws InstallerException
     {
+        flush();
         for (InstallerListener l : listeners)
         {
             try
             {
+                long start = System.nanoTime();
                 l.afterPack(pack);
+                getMetric(l, "afterPack").stop(start);
             }
             catch (IzPackException ize)
             {
@@ -327,11 +400,14 @@ public class InstallerListeners
      */
     public void afterPacks(List<Pack> packs, ProgressListener listener) throws InstallerException
     {
+        flush();
         for (InstallerListener l : listeners)
         {
             try
             {
+                long start = System.nanoTime();
                 l.afterPacks(packs, listener);
+                getMetric(l, "afterPacks").stop(start);
             }
                 catch (IzPackException ize)
             {
@@ -340,6 +416,103 @@ public class InstallerListeners
         }
     }
 
+    /**
+     * Registers a file listener.
+     *
+     * @param listener the listener
+     */
+    private void addFileListener(InstallerListener listener)
+    {
+        fileListeners.add(listener);
+        beforeDirMetrics.add(getMetric(listener, "beforeDir"));
+        beforeFileMetrics.add(getMetric(listener, "beforeFile"));
+    }
+
+    /**
+     * Returns the metric for a listener callback.
+     *
+     * @param listener the listener
+     * @param callback the callback name
+     * @return the corresponding metric
+     */
+    private Metric getMetric(InstallerListener listener, String callback)
+    {
+        return metrics.getMetric(InstallMetrics.LISTENER_PREFIX + listener.getClass().getName() + "." + callback);
+    }
+
+    /**
+     * Passes an installed file or directory to the dispatchers.
+     *
+     * @param file the installed file or directory
+     * @throws InstallerException if a listener throws an exception
+     */
+    private void dispatch(InstalledFile file) throws InstallerException
+    {
+        for (int i = 0; i < dispatchers.size(); ++i)
+        {
+            try
+            {
+                long start = System.nanoTime();
+                dispatchers.get(i).add(file);
+                dispatchMetrics.get(i).stop(start);
+            }
+            catch (IzPackException ize)
+            {
+                handleError(ize);
+            }
+        }
+    }
+
+    /**
+     * Delivers outstanding files and directories to the batch listeners, waiting for asynchronous deliveries to
+     * complete.
+     *
+     * @throws InstallerException if a listener throws an exception
+     */
+    private void flush() throws InstallerException
+    {
+        for (int i = 0; i < dispatchers.size(); ++i)
+        {
+            try
+            {
+                long start = System.nanoTime();
+                dispatchers.get(i).flush();
+                dispatchMetrics.get(i).stop(start);
+            }
+            catch (IzPackException ize)
+            {
+                handleError(ize);
+            }
+        }
+    }
+
+    /**
+     * Returns the executor for asynchronous batch listeners, creating it if required.
+     *
+     * @return the executor
+     */
+    private synchronized ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            // the dispatcher thread terminates when idle, so the executor never needs to be shut down
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+                                                             new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "IzPack installer listener dispatcher");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
     private void handleError(IzPackException ize) throws IzPackException
     {
         Messages messages = installData.getMessages();
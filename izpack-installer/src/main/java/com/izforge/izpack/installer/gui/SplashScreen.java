@@ -21,6 +21,11 @@ public class SplashScreen
 {
     private static final Logger logger = Logger.getLogger(SplashScreen.class.getName());
 
+    /**
+     * The splash image resource name.
+     */
+    public static final String SPLASH_IMAGE = "/resources/Splash.image";
+
     private final Resources resources;
     private final GUIInstallData installData;
     
@@ -41,7 +46,7 @@ public class SplashScreen
     {
         if (installData.guiPrefs.modifier.containsKey("useSplashScreen"))
         {
-            ImageIcon splashIcon = resources.getImageIcon("/resources/Splash.image");
+            ImageIcon splashIcon = resources.getImageIcon(SPLASH_IMAGE);
             if (splashIcon != null)
             {
             	try {
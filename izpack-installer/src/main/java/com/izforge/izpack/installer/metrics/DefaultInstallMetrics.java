@@ -0,0 +1,88 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.metrics;
+
+import com.izforge.izpack.api.metrics.InstallMetrics;
+import com.izforge.izpack.api.metrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Default implementation of {@link InstallMetrics}.
+ */
+public class DefaultInstallMetrics implements InstallMetrics
+{
+    /**
+     * The metrics, keyed on name.
+     */
+    private final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<String, Metric>();
+
+    /**
+     * Orders metrics on name.
+     */
+    private static final Comparator<Metric> NAME_ORDER = new Comparator<Metric>()
+    {
+        @Override
+        public int compare(Metric o1, Metric o2)
+        {
+            return o1.getName().compareTo(o2.getName());
+        }
+    };
+
+    /**
+     * Returns the named metric, creating it if it doesn't exist.
+     *
+     * @param name the metric name
+     * @return the corresponding metric
+     */
+    @Override
+    public Metric getMetric(String name)
+    {
+        Metric result = metrics.get(name);
+        if (result == null)
+        {
+            Metric metric = new Metric(name);
+            result = metrics.putIfAbsent(name, metric);
+            if (result == null)
+            {
+                result = metric;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the metrics.
+     *
+     * @return the metrics, ordered on name
+     */
+    @Override
+    public List<Metric> getMetrics()
+    {
+        List<Metric> result = new ArrayList<Metric>(metrics.values());
+        Collections.sort(result, NAME_ORDER);
+        return result;
+    }
+}
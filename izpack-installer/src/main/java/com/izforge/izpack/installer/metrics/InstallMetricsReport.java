@@ -0,0 +1,214 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.metrics;
+
+import com.izforge.izpack.api.data.InstallData;
+import com.izforge.izpack.api.metrics.InstallMetrics;
+import com.izforge.izpack.api.metrics.Metric;
+import com.izforge.izpack.util.CleanupClient;
+import com.izforge.izpack.util.IoHelper;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes {@link InstallMetrics} as a JSON report.
+ * <p/>
+ * The report is written next to the install log: in the directory of the log file requested via the
+ * <em>InstallerFrame.logfilePath</em> variable if set, otherwise in the uninstaller directory. It is rewritten when
+ * the installer shuts down, so that it includes the phases that follow unpacking.
+ */
+public class InstallMetricsReport implements CleanupClient
+{
+    /**
+     * The report file name.
+     */
+    public static final String FILE_NAME = "install-metrics.json";
+
+    /**
+     * The metrics.
+     */
+    private final InstallMetrics metrics;
+
+    /**
+     * The report file.
+     */
+    private final File file;
+
+    /**
+     * Log file path variable name.
+     */
+    private static final String LOGFILE_PATH = "InstallerFrame.logfilePath";
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(InstallMetricsReport.class.getName());
+
+
+    /**
+     * Constructs an {@code InstallMetricsReport}.
+     *
+     * @param metrics the metrics
+     * @param file    the report file
+     */
+    public InstallMetricsReport(InstallMetrics metrics, File file)
+    {
+        this.metrics = metrics;
+        this.file = file;
+    }
+
+    /**
+     * Returns the report file.
+     *
+     * @return the report file
+     */
+    public File getFile()
+    {
+        return file;
+    }
+
+    /**
+     * Writes the report.
+     * <p/>
+     * Nothing is written if the report directory doesn't exist.
+     *
+     * @throws IOException for any I/O error
+     */
+    public void write() throws IOException
+    {
+        if (!file.getParentFile().isDirectory())
+        {
+            logger.fine("Skipping install metrics report, no directory for " + file);
+            return;
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try
+        {
+            write(writer);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(writer);
+        }
+    }
+
+    /**
+     * Writes the report.
+     *
+     * @param writer the writer to write to
+     * @throws IOException for any I/O error
+     */
+    public void write(Writer writer) throws IOException
+    {
+        writer.write("{\n  \"metrics\": [");
+        Iterator<Metric> iterator = metrics.getMetrics().iterator();
+        while (iterator.hasNext())
+        {
+            Metric metric = iterator.next();
+            writer.write("\n    {\"name\": ");
+            writeString(metric.getName(), writer);
+            writer.write(", \"count\": " + metric.getCount() + ", \"nanos\": " + metric.getTime()
+                                 + ", \"bytes\": " + metric.getBytes() + "}");
+            if (iterator.hasNext())
+            {
+                writer.write(',');
+            }
+        }
+        writer.write("\n  ]\n}\n");
+        writer.flush();
+    }
+
+    /**
+     * Writes the report when the installer shuts down.
+     */
+    @Override
+    public void cleanUp()
+    {
+        try
+        {
+            write();
+        }
+        catch (IOException exception)
+        {
+            logger.log(Level.WARNING, "Failed to write install metrics report " + file + ": "
+                    + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Returns the report file for an installation.
+     *
+     * @param installData the installation data
+     * @return the report file, or {@code null} if there is neither an install log nor an uninstaller
+     */
+    public static File getFile(InstallData installData)
+    {
+        String path = installData.getVariable(LOGFILE_PATH);
+        String uninstallerPath = installData.getInfo().getUninstallerPath();
+        File dir = null;
+        if (path != null && !path.toLowerCase().startsWith("default"))
+        {
+            dir = new File(IoHelper.translatePath(path, installData.getVariables())).getParentFile();
+        }
+        else if (uninstallerPath != null)
+        {
+            dir = new File(IoHelper.translatePath(uninstallerPath, installData.getVariables()));
+        }
+        return (dir != null) ? new File(dir, FILE_NAME) : null;
+    }
+
+    /**
+     * Writes a JSON string.
+     *
+     * @param value  the value to write
+     * @param writer the writer
+     * @throws IOException for any I/O error
+     */
+    private static void writeString(String value, Writer writer) throws IOException
+    {
+        writer.write('"');
+        for (int i = 0; i < value.length(); ++i)
+        {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\')
+            {
+                writer.write('\\');
+                writer.write(ch);
+            }
+            else if (ch < 0x20)
+            {
+                writer.write(String.format("\\u%04x", (int) ch));
+            }
+            else
+            {
+                writer.write(ch);
+            }
+        }
+        writer.write('"');
+    }
+}
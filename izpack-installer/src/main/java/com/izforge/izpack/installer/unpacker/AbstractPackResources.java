@@ -26,8 +26,13 @@ import com.izforge.izpack.api.exception.ResourceException;
 import com.izforge.izpack.api.exception.ResourceInterruptedException;
 import com.izforge.izpack.api.exception.ResourceNotFoundException;
 import com.izforge.izpack.api.resource.Resources;
+import com.izforge.izpack.core.resource.InstallerArchive;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.util.logging.Logger;
 
 
 /**
@@ -52,6 +57,11 @@ public abstract class AbstractPackResources implements PackResources
      */
     private final InstallData installData;
 
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(AbstractPackResources.class.getName());
+
     /**
      * Constructs an {@code AbstractPackResources}.
      *
@@ -106,6 +116,47 @@ public abstract class AbstractPackResources implements PackResources
         return resources.getInputStream(name);
     }
 
+    /**
+     * Locates a resource stored uncompressed in a local installer jar, so that its content can be read directly from
+     * the jar.
+     *
+     * @param name the resource name, relative to the installer resources
+     * @return the location of the resource content, or {@code null} if the resource isn't stored uncompressed in a
+     *         local jar
+     */
+    public StoredResource getStoredResource(String name)
+    {
+        if (installData.getInfo().getWebDirURL() != null)
+        {
+            return null;
+        }
+        URL url;
+        try
+        {
+            url = resources.getURL(name);
+        }
+        catch (ResourceNotFoundException exception)
+        {
+            return null;
+        }
+        File file = InstallerArchive.getArchiveFile(url);
+        InstallerArchive archive = (file != null) ? getArchive(file) : null;
+        InstallerArchive.Entry entry = (archive != null) ? archive.getEntry(UnpackerBase.RESOURCES_PATH + name) : null;
+        if (entry == null || !entry.isStored())
+        {
+            return null;
+        }
+        try
+        {
+            return new StoredResource(file, archive.getDataOffset(entry), entry.getSize());
+        }
+        catch (IOException exception)
+        {
+            logger.warning("Failed to locate " + name + " in " + file + ": " + exception.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Returns a stream to a local pack.
      *
@@ -117,6 +168,25 @@ public abstract class AbstractPackResources implements PackResources
         return resources.getInputStream("packs/pack-" + name);
     }
 
+    /**
+     * Returns the index of a local installer jar.
+     *
+     * @param file the jar
+     * @return the index, or {@code null} if the jar cannot be indexed
+     */
+    private InstallerArchive getArchive(File file)
+    {
+        try
+        {
+            return InstallerArchive.getArchive(file);
+        }
+        catch (IOException exception)
+        {
+            logger.warning("Failed to index " + file + ": " + exception.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Returns the stream to a web-based pack resource.
      *
@@ -0,0 +1,301 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.unpacker;
+
+import com.izforge.izpack.api.data.PackCompression;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * An input stream that decompresses a file stored as a sequence of independently compressed blocks.
+ * <p/>
+ * Compressed blocks are read from the pack stream in order, and decompressed on an executor ahead of the reader. At
+ * most {@code window} blocks are held in memory.
+ */
+class BlockInputStream extends InputStream
+{
+    /**
+     * The pack stream.
+     */
+    private final InputStream packStream;
+
+    /**
+     * The compression format.
+     */
+    private final PackCompression compression;
+
+    /**
+     * The compressed sizes of the blocks.
+     */
+    private final long[] blocks;
+
+    /**
+     * The uncompressed size of each block but the last.
+     */
+    private final long blockSize;
+
+    /**
+     * The uncompressed size of the file.
+     */
+    private final long length;
+
+    /**
+     * The executor to decompress blocks with.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The maximum number of blocks to decompress ahead of the reader.
+     */
+    private final int window;
+
+    /**
+     * The blocks being decompressed, in order.
+     */
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+
+    /**
+     * The number of blocks read from the pack stream.
+     */
+    private int submitted;
+
+    /**
+     * The current decompressed block.
+     */
+    private byte[] block = new byte[0];
+
+    /**
+     * The position in the current block.
+     */
+    private int position;
+
+
+    /**
+     * Constructs a {@code BlockInputStream}.
+     *
+     * @param packStream  the pack stream, positioned at the first block
+     * @param compression the compression format
+     * @param blocks      the compressed sizes of the blocks
+     * @param blockSize   the uncompressed size of each block but the last
+     * @param length      the uncompressed size of the file
+     * @param executor    the executor to decompress blocks with
+     * @param window      the maximum number of blocks to decompress ahead of the reader
+     */
+    public BlockInputStream(InputStream packStream, PackCompression compression, long[] blocks, long blockSize,
+                            long length, ExecutorService executor, int window)
+    {
+        this.packStream = packStream;
+        this.compression = compression;
+        this.blocks = blocks;
+        this.blockSize = blockSize;
+        this.length = length;
+        this.executor = executor;
+        this.window = Math.max(1, window);
+    }
+
+    /**
+     * Reads the next byte of data.
+     *
+     * @return the next byte, or {@code -1} if the end of the stream is reached
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public int read() throws IOException
+    {
+        if (!next())
+        {
+            return -1;
+        }
+        return block[position++] & 0xff;
+    }
+
+    /**
+     * Reads up to {@code len} bytes into an array.
+     *
+     * @param buffer the buffer to read into
+     * @param offset the offset in the buffer
+     * @param len    the maximum number of bytes to read
+     * @return the number of bytes read, or {@code -1} if the end of the stream is reached
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public int read(byte[] buffer, int offset, int len) throws IOException
+    {
+        if (len == 0)
+        {
+            return 0;
+        }
+        if (!next())
+        {
+            return -1;
+        }
+        int count = Math.min(len, block.length - position);
+        System.arraycopy(block, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Cancels outstanding decompression.
+     * <p/>
+     * The pack stream is not closed.
+     */
+    @Override
+    public void close()
+    {
+        for (Future<byte[]> future : pending)
+        {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Makes the next decompressed block available, if the current one has been consumed.
+     *
+     * @return {@code true} if there is data to read, {@code false} if the end of the stream is reached
+     * @throws IOException for any I/O error
+     */
+    private boolean next() throws IOException
+    {
+        while (position == block.length)
+        {
+            fill();
+            if (pending.isEmpty())
+            {
+                return false;
+            }
+            block = get(pending.remove());
+            position = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Reads compressed blocks from the pack stream and submits them for decompression, until the window is full.
+     *
+     * @throws IOException for any I/O error
+     */
+    private void fill() throws IOException
+    {
+        while (submitted < blocks.length && pending.size() < window)
+        {
+            byte[] compressed = new byte[(int) blocks[submitted]];
+            IOUtils.readFully(packStream, compressed);
+            int size = (int) Math.min(blockSize, length - submitted * blockSize);
+            pending.add(executor.submit(new Decompress(compressed, size)));
+            ++submitted;
+        }
+    }
+
+    /**
+     * Waits for a block to be decompressed.
+     *
+     * @param future the decompressed block
+     * @return the decompressed block
+     * @throws IOException if the block cannot be decompressed
+     */
+    private byte[] get(Future<byte[]> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decompressing");
+        }
+        catch (ExecutionException exception)
+        {
+            Throwable cause = exception.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Decompresses a single block.
+     */
+    private class Decompress implements Callable<byte[]>
+    {
+        /**
+         * The compressed block.
+         */
+        private final byte[] compressed;
+
+        /**
+         * The uncompressed size of the block.
+         */
+        private final int size;
+
+        /**
+         * Constructs a {@code Decompress}.
+         *
+         * @param compressed the compressed block
+         * @param size       the uncompressed size of the block
+         */
+        public Decompress(byte[] compressed, int size)
+        {
+            this.compressed = compressed;
+            this.size = size;
+        }
+
+        /**
+         * Decompresses the block.
+         *
+         * @return the decompressed block
+         * @throws IOException if the block cannot be decompressed, or has the wrong size
+         */
+        @Override
+        public byte[] call() throws IOException
+        {
+            byte[] result = new byte[size];
+            InputStream in = CompressedFileUnpacker.createInputStream(compression,
+                                                                      new ByteArrayInputStream(compressed));
+            try
+            {
+                IOUtils.readFully(in, result);
+                if (in.read() != -1)
+                {
+                    throw new IOException("Block size mismatch when uncompressing");
+                }
+            }
+            finally
+            {
+                IOUtils.closeQuietly(in);
+            }
+            return result;
+        }
+    }
+}
@@ -24,6 +24,7 @@ package com.izforge.izpack.installer.unpacker;
 import com.izforge.izpack.api.data.PackCompression;
 import com.izforge.izpack.api.data.PackFile;
 import com.izforge.izpack.api.exception.InstallerException;
+import com.izforge.izpack.util.compress.LZ4FrameInputStream;
 import com.izforge.izpack.util.os.FileQueue;
 import org.apache.commons.compress.compressors.CompressorException;
 import org.apache.commons.compress.compressors.CompressorStreamFactory;
@@ -36,6 +37,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.zip.Deflater;
 
 
@@ -46,6 +50,11 @@ public class CompressedFileUnpacker extends FileUnpacker
 {
     private final PackCompression compressionFormat;
 
+    /**
+     * The solid block cache.
+     */
+    private final SolidBlocks solidBlocks;
+
     /**
      * Constructs a <tt>CompressedFileUnpacker</tt>.
      *
@@ -53,9 +62,24 @@ public class CompressedFileUnpacker extends FileUnpacker
      * @param queue       the file queue. May be <tt>null</tt>
      */
     public CompressedFileUnpacker(Cancellable cancellable, FileQueue queue, PackCompression compressionFormat)
+    {
+        this(cancellable, queue, compressionFormat, new SolidBlocks(null, compressionFormat));
+    }
+
+    /**
+     * Constructs a <tt>CompressedFileUnpacker</tt>.
+     *
+     * @param cancellable       determines if unpacking should be cancelled
+     * @param queue             the file queue. May be <tt>null</tt>
+     * @param compressionFormat the compression format
+     * @param solidBlocks       the solid block cache, shared by the unpackers of an installation
+     */
+    public CompressedFileUnpacker(Cancellable cancellable, FileQueue queue, PackCompression compressionFormat,
+                                  SolidBlocks solidBlocks)
     {
         super(cancellable, queue);
         this.compressionFormat = compressionFormat;
+        this.solidBlocks = solidBlocks;
     }
 
     /**
@@ -71,6 +95,23 @@ public class CompressedFileUnpacker extends FileUnpacker
     public void unpack(PackFile file, InputStream packInputStream, File target)
             throws IOException, InstallerException
     {
+        PackFile source = file.isBackReference() ? file.getLinkedPackFile() : file;
+        if (source.getSolidBlock() != null)
+        {
+            // the stream is positioned at the block for back references, and for the first file of the block
+            InputStream in = (file.isBackReference() || file.size() != 0) ? packInputStream : null;
+            if (copy(file, solidBlocks.getInputStream(source, in), target) != source.length())
+            {
+                throw new IOException("File size mismatch when uncompressing from pack: "
+                                              + file.getRelativeSourcePath());
+            }
+            return;
+        }
+        if (source.getBlocks() != null)
+        {
+            unpackBlocks(file, source, packInputStream, target);
+            return;
+        }
         File tmpfile = File.createTempFile("izpack-uncompress", null, FileUtils.getTempDirectory());
         OutputStream fo = null;
         InputStream finalStream = null;
@@ -88,17 +129,7 @@ public class CompressedFileUnpacker extends FileUnpacker
             }
 
             InputStream in = IOUtils.buffer(FileUtils.openInputStream(tmpfile));
-
-            if (compressionFormat == PackCompression.DEFLATE)
-            {
-                DeflateParameters deflateParameters = new DeflateParameters();
-                deflateParameters.setCompressionLevel(Deflater.BEST_COMPRESSION);
-                finalStream = new DeflateCompressorInputStream(in, deflateParameters);
-            }
-            else
-            {
-                finalStream = new CompressorStreamFactory().createCompressorInputStream(compressionFormat.toName(), in);
-            }
+            finalStream = createInputStream(compressionFormat, in);
 
             final long bytesUncompressed = copy(file, finalStream, target);
 
@@ -108,10 +139,6 @@ public class CompressedFileUnpacker extends FileUnpacker
             }
 
         }
-        catch (CompressorException e)
-        {
-            throw new IOException("An exception occurred whilst unpacking: " + file.getRelativeSourcePath() + ": " + e.getMessage(), e);
-        }
         finally
         {
             IOUtils.closeQuietly(fo);
@@ -119,4 +146,76 @@ public class CompressedFileUnpacker extends FileUnpacker
             FileUtils.deleteQuietly(tmpfile);
         }
     }
+
+    /**
+     * Unpacks a pack file compressed in independent blocks, decompressing the blocks in parallel.
+     *
+     * @param file            the pack file meta-data
+     * @param source          the pack file holding the block index. This differs from {@code file} for back
+     *                        references
+     * @param packInputStream the pack input stream, positioned at the first block
+     * @param target          the target
+     * @throws IOException for any I/O error
+     */
+    private void unpackBlocks(PackFile file, PackFile source, InputStream packInputStream, File target)
+            throws IOException
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "IzPack block decompressor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        InputStream in = new BlockInputStream(packInputStream, compressionFormat, source.getBlocks(),
+                                              source.getBlockSize(), source.length(), executor, threads * 2);
+        try
+        {
+            long bytesUncompressed = copy(file, in, target);
+            if (bytesUncompressed != source.length())
+            {
+                throw new IOException("File size mismatch when uncompressing from pack: "
+                                              + file.getRelativeSourcePath());
+            }
+        }
+        finally
+        {
+            IOUtils.closeQuietly(in);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a stream that decompresses another stream.
+     *
+     * @param compression the compression format
+     * @param in          the compressed stream
+     * @return the decompressing stream
+     * @throws IOException if the stream cannot be created
+     */
+    static InputStream createInputStream(PackCompression compression, InputStream in) throws IOException
+    {
+        if (compression == PackCompression.DEFLATE)
+        {
+            DeflateParameters deflateParameters = new DeflateParameters();
+            deflateParameters.setCompressionLevel(Deflater.BEST_COMPRESSION);
+            return new DeflateCompressorInputStream(in, deflateParameters);
+        }
+        if (compression == PackCompression.LZ4)
+        {
+            return new LZ4FrameInputStream(in);
+        }
+        try
+        {
+            return new CompressorStreamFactory().createCompressorInputStream(compression.toName(), in);
+        }
+        catch (CompressorException exception)
+        {
+            throw new IOException("An exception occurred whilst unpacking: " + exception.getMessage(), exception);
+        }
+    }
 }
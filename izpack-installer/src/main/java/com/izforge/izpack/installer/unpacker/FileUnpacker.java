@@ -24,9 +24,10 @@ package com.izforge.izpack.installer.unpacker;
 import com.izforge.izpack.api.data.Blockable;
 import com.izforge.izpack.api.data.PackFile;
 import com.izforge.izpack.api.exception.InstallerException;
+import com.izforge.izpack.api.metrics.InstallMetrics;
+import com.izforge.izpack.api.metrics.Metric;
 import com.izforge.izpack.util.os.FileQueue;
 import com.izforge.izpack.util.os.FileQueueMove;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
 import java.io.*;
@@ -68,6 +69,31 @@ public abstract class FileUnpacker
      */
     private boolean queued;
 
+    /**
+     * The metric recording the time spent reading from the pack stream, or {@code null} if it isn't recorded.
+     */
+    private Metric readMetric;
+
+    /**
+     * The metric recording the time spent writing to the target, or {@code null} if it isn't recorded.
+     */
+    private Metric writeMetric;
+
+    /**
+     * Determines how the target is written.
+     */
+    private WriteStrategy writeStrategy = WriteStrategy.DEFAULT;
+
+    /**
+     * The time spent reading the current file, in nanoseconds.
+     */
+    private long readTime;
+
+    /**
+     * The time spent writing the current file, in nanoseconds.
+     */
+    private long writeTime;
+
     /**
      * The logger.
      */
@@ -98,6 +124,27 @@ public abstract class FileUnpacker
     public abstract void unpack(PackFile file, InputStream packInputStream, File target)
             throws IOException, InstallerException;
 
+    /**
+     * Sets the installation metrics, used to record the time spent reading from the pack stream and writing files.
+     *
+     * @param metrics the installation metrics. May be {@code null}
+     */
+    public void setMetrics(InstallMetrics metrics)
+    {
+        readMetric = (metrics != null) ? metrics.getMetric(InstallMetrics.READ) : null;
+        writeMetric = (metrics != null) ? metrics.getMetric(InstallMetrics.WRITE) : null;
+    }
+
+    /**
+     * Sets the strategy used to write the target.
+     *
+     * @param writeStrategy the write strategy
+     */
+    public void setWriteStrategy(WriteStrategy writeStrategy)
+    {
+        this.writeStrategy = writeStrategy;
+    }
+
     /**
      * Determines if the file was queued.
      *
@@ -127,6 +174,8 @@ public abstract class FileUnpacker
         long bytesCopied = 0;
         long bytesToCopy = (file.isBackReference() ? file.getLinkedPackFile().length() : file.length());
         logger.fine("|- Copying to file system (size: " + bytesToCopy + " bytes)");
+        readTime = 0;
+        writeTime = 0;
         try
         {
             while (bytesCopied < bytesToCopy)
@@ -143,6 +192,11 @@ public abstract class FileUnpacker
         {
             IOUtils.closeQuietly(out);
         }
+        if (readMetric != null)
+        {
+            readMetric.add(readTime, bytesCopied);
+            writeMetric.add(writeTime, bytesCopied);
+        }
 
         postCopy(file);
 
@@ -179,12 +233,16 @@ public abstract class FileUnpacker
             throws IOException
     {
         int maxBytes = (int) Math.min(file.length() - bytesCopied, buffer.length);
+        long start = System.nanoTime();
         int read = read(buffer, in, maxBytes);
+        long end = System.nanoTime();
+        readTime += end - start;
         if (read == -1)
         {
             throw new IOException("Unexpected end of stream (installer corrupted?)");
         }
         out.write(buffer, 0, read);
+        writeTime += System.nanoTime() - end;
         bytesCopied += read;
 
         return bytesCopied;
@@ -208,6 +266,8 @@ public abstract class FileUnpacker
      * Returns a stream to the target file.
      * <p/>
      * If the target file is blockable, then a temporary file will be created, and a stream to this returned instead.
+     * <p/>
+     * The stream is opened using the {@link WriteStrategy}.
      *
      * @param file   the pack file meta-data
      * @param target the requested target
@@ -217,17 +277,18 @@ public abstract class FileUnpacker
     protected OutputStream getTarget(PackFile file, File target) throws IOException
     {
         this.target = target;
+        long length = file.isBackReference() ? file.getLinkedPackFile().length() : file.length();
         OutputStream result;
         if (isBlockable(file))
         {
             // If target file might be blocked the output file must first refer to a temporary file, because
             // Windows Setup API doesn't work on streams but only on physical files
             tmpTarget = File.createTempFile("__FQ__", null, target.getParentFile());
-            result = FileUtils.openOutputStream(tmpTarget);
+            result = writeStrategy.open(tmpTarget, length);
         }
         else
         {
-            result = FileUtils.openOutputStream(target);
+            result = writeStrategy.open(target, length);
         }
         return result;
     }
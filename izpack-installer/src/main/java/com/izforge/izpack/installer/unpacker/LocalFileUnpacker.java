@@ -0,0 +1,198 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.unpacker;
+
+import com.izforge.izpack.api.data.PackFile;
+import com.izforge.izpack.api.exception.InstallerException;
+import com.izforge.izpack.api.metrics.InstallMetrics;
+import com.izforge.izpack.api.metrics.Metric;
+import com.izforge.izpack.util.os.FileQueue;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.logging.Logger;
+
+
+/**
+ * An unpacker that copies pack file content directly from a local file instead of reading it through the pack
+ * stream. The local file is either a file already installed, for back-referenced pack files, or the installer jar,
+ * for pack streams stored uncompressed.
+ * <p/>
+ * Where possible, the content is transferred between file channels, letting the operating system perform the copy.
+ */
+public class LocalFileUnpacker extends FileUnpacker
+{
+
+    /**
+     * The no. of bytes to transfer between cancellation checks.
+     */
+    private static final long CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * The file to copy from.
+     */
+    private final File source;
+
+    /**
+     * The position of the content within the source file.
+     */
+    private final long position;
+
+    /**
+     * Determines if unpacking should be cancelled.
+     */
+    private final Cancellable cancellable;
+
+    /**
+     * The metric recording the time spent copying, or {@code null} if it isn't recorded.
+     */
+    private Metric copyMetric;
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(LocalFileUnpacker.class.getName());
+
+
+    /**
+     * Constructs a <tt>LocalFileUnpacker</tt>.
+     *
+     * @param cancellable determines if unpacking should be cancelled
+     * @param queue       the file queue. May be {@code null}
+     * @param source      the installed file to copy
+     */
+    public LocalFileUnpacker(Cancellable cancellable, FileQueue queue, File source)
+    {
+        this(cancellable, queue, source, 0);
+    }
+
+    /**
+     * Constructs a <tt>LocalFileUnpacker</tt>.
+     *
+     * @param cancellable determines if unpacking should be cancelled
+     * @param queue       the file queue. May be {@code null}
+     * @param source      the file to copy from
+     * @param position    the position of the content within the source file
+     */
+    public LocalFileUnpacker(Cancellable cancellable, FileQueue queue, File source, long position)
+    {
+        super(cancellable, queue);
+        this.cancellable = cancellable;
+        this.source = source;
+        this.position = position;
+    }
+
+    /**
+     * Sets the installation metrics, used to record the time spent copying files.
+     *
+     * @param metrics the installation metrics. May be {@code null}
+     */
+    @Override
+    public void setMetrics(InstallMetrics metrics)
+    {
+        copyMetric = (metrics != null) ? metrics.getMetric(InstallMetrics.LOCAL_COPY) : null;
+    }
+
+    /**
+     * Unpacks a pack file.
+     *
+     * @param file            the pack file meta-data
+     * @param packInputStream the pack input stream. Unused
+     * @param target          the target
+     * @throws IOException        for any I/O error
+     * @throws InstallerException for any installer exception
+     */
+    @Override
+    public void unpack(PackFile file, InputStream packInputStream, File target)
+            throws IOException, InstallerException
+    {
+        long length = file.isBackReference() ? file.getLinkedPackFile().length() : file.length();
+        logger.fine("|- Copying " + source + " (offset: " + position + ", size: " + length + " bytes)");
+        long start = System.nanoTime();
+        FileInputStream in = new FileInputStream(source);
+        OutputStream out = null;
+        try
+        {
+            out = getTarget(file, target);
+            FileChannel channel = null;
+            if (out instanceof TargetOutputStream)
+            {
+                channel = ((TargetOutputStream) out).getChannel();
+            }
+            else if (out instanceof FileOutputStream)
+            {
+                channel = ((FileOutputStream) out).getChannel();
+            }
+            if (channel != null)
+            {
+                transfer(in.getChannel(), channel, length);
+            }
+            else
+            {
+                IOUtils.copyLarge(in, out, position, length);
+            }
+        }
+        finally
+        {
+            IOUtils.closeQuietly(out);
+            IOUtils.closeQuietly(in);
+        }
+        if (copyMetric != null)
+        {
+            copyMetric.stop(start, length);
+        }
+
+        postCopy(file);
+    }
+
+    /**
+     * Transfers content between channels.
+     *
+     * @param in     the channel to read from
+     * @param out    the channel to write to
+     * @param length the no. of bytes to transfer
+     * @throws InterruptedIOException if the copy operation is cancelled
+     * @throws IOException            for any I/O error
+     */
+    private void transfer(FileChannel in, FileChannel out, long length) throws IOException
+    {
+        long copied = 0;
+        while (copied < length)
+        {
+            if (cancellable.isCancelled())
+            {
+                throw new InterruptedIOException("Copy operation cancelled");
+            }
+            long transferred = in.transferTo(position + copied, Math.min(CHUNK_SIZE, length - copied), out);
+            if (transferred <= 0)
+            {
+                throw new IOException("Unexpected end of file: " + source);
+            }
+            copied += transferred;
+        }
+    }
+}
@@ -83,7 +83,7 @@ public class LooseFileUnpacker extends FileUnpacker
         // path's
 
         File resolvedFile = file.getFile();
-        if (!resolvedFile.exists())
+        if (resolvedFile == null || !resolvedFile.exists())
         {
             // try alternative destination - the current working directory
             // user.dir is likely (depends on launcher type) the current directory of the executable or
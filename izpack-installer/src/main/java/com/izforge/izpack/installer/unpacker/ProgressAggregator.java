@@ -0,0 +1,402 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.unpacker;
+
+import com.izforge.izpack.api.event.ProgressListener;
+import com.izforge.izpack.api.event.ProgressStatistics;
+import com.izforge.izpack.api.event.ProgressStatisticsListener;
+
+
+/**
+ * A {@link ProgressListener} that sits between the unpacker and the installer view, coalescing per-file progress
+ * notifications to a fixed refresh rate.
+ * <p/>
+ * Pack progress is weighted by bytes rather than by file count, when the sizes of the pack files are known.
+ * If the delegate is a {@link ProgressStatisticsListener}, it is also notified of the throughput and estimated time
+ * remaining, at the same rate.
+ * <p/>
+ * Any pending notification is delivered before notifications that aren't coalesced, so the delegate sees
+ * notifications in their original order.
+ */
+public class ProgressAggregator implements ProgressListener
+{
+
+    /**
+     * The default refresh interval, in milliseconds.
+     */
+    public static final long REFRESH_INTERVAL = 100;
+
+    /**
+     * The number of sub-steps that byte-weighted pack progress is scaled to.
+     */
+    public static final int SCALE = 1000;
+
+    /**
+     * Files at least this size are notified immediately, as they take a noticeable time to extract.
+     */
+    private static final long LARGE_FILE = 1024 * 1024;
+
+    /**
+     * The listener to delegate to.
+     */
+    private final ProgressListener delegate;
+
+    /**
+     * The delegate, if it accepts progress statistics, otherwise {@code null}.
+     */
+    private final ProgressStatisticsListener statisticsListener;
+
+    /**
+     * The minimum time between notifications, in milliseconds.
+     */
+    private final long interval;
+
+    /**
+     * The time when the action started.
+     */
+    private long started;
+
+    /**
+     * The time of the last notification.
+     */
+    private long published;
+
+    /**
+     * The total number of bytes of the action, or {@code -1} if it is unknown.
+     */
+    private long totalBytes = -1;
+
+    /**
+     * The number of bytes processed in the action.
+     */
+    private long bytes;
+
+    /**
+     * The total number of bytes of the current pack, or {@code -1} if pack progress is by file count.
+     */
+    private long packBytes = -1;
+
+    /**
+     * The number of bytes processed in the current pack.
+     */
+    private long packProcessed;
+
+    /**
+     * Determines if there is a pending progress notification.
+     */
+    private boolean pending;
+
+    /**
+     * The pending sub-step.
+     */
+    private int pendingStep;
+
+    /**
+     * The pending message.
+     */
+    private String pendingMessage;
+
+
+    /**
+     * Constructs a {@code ProgressAggregator} with the default refresh interval.
+     *
+     * @param delegate the listener to delegate to
+     */
+    public ProgressAggregator(ProgressListener delegate)
+    {
+        this(delegate, REFRESH_INTERVAL);
+    }
+
+    /**
+     * Constructs a {@code ProgressAggregator}.
+     *
+     * @param delegate the listener to delegate to
+     * @param interval the minimum time between progress notifications, in milliseconds
+     */
+    public ProgressAggregator(ProgressListener delegate, long interval)
+    {
+        this.delegate = delegate;
+        this.statisticsListener = (delegate instanceof ProgressStatisticsListener)
+                ? (ProgressStatisticsListener) delegate : null;
+        this.interval = interval;
+    }
+
+    /**
+     * Invoked when an action starts.
+     *
+     * @param name  the name of the action
+     * @param steps the number of steps the action consists of
+     */
+    @Override
+    public void startAction(String name, int steps)
+    {
+        reset();
+        delegate.startAction(name, steps);
+    }
+
+    /**
+     * Sets the total number of bytes that the action will process.
+     *
+     * @param totalBytes the total number of bytes, or {@code -1} if it is unknown
+     */
+    public void setTotalBytes(long totalBytes)
+    {
+        this.totalBytes = totalBytes;
+    }
+
+    /**
+     * Invoked when a pack starts.
+     * <p/>
+     * The pack progress is weighted by bytes, unless the pack has no content.
+     *
+     * @param name  the name of the step
+     * @param step  the step number
+     * @param files the number of files in the pack
+     * @param size  the total size of the pack files, in bytes
+     */
+    public void startPack(String name, int step, int files, long size)
+    {
+        flush();
+        packProcessed = 0;
+        if (size > 0)
+        {
+            packBytes = size;
+            delegate.nextStep(name, step, SCALE);
+        }
+        else
+        {
+            packBytes = -1;
+            delegate.nextStep(name, step, files);
+        }
+    }
+
+    /**
+     * Invoked when a pack file is about to be extracted.
+     *
+     * @param fileNo the file number within the pack
+     * @param path   the path of the file
+     * @param length the length of the file, in bytes
+     */
+    public void file(int fileNo, String path, long length)
+    {
+        bytes += length;
+        if (packBytes > 0)
+        {
+            packProcessed += length;
+            int scaled = (int) Math.min(SCALE, packProcessed * SCALE / packBytes);
+            update(Math.max(0, scaled - 1), path, length >= LARGE_FILE);
+        }
+        else
+        {
+            update(fileNo, path, false);
+        }
+    }
+
+    /**
+     * Invoked when a pack file is skipped.
+     *
+     * @param length the length of the file, in bytes
+     */
+    public void skip(long length)
+    {
+        bytes += length;
+        packProcessed += length;
+    }
+
+    /**
+     * Invoked when an action finishes.
+     */
+    @Override
+    public void stopAction()
+    {
+        flush();
+        if (statisticsListener != null)
+        {
+            statisticsListener.progress(getStatistics(now()));
+        }
+        delegate.stopAction();
+    }
+
+    /**
+     * Invoked when an action step starts.
+     *
+     * @param stepName the name of the step
+     * @param step     the step number
+     * @param subSteps the number of sub-steps the step consists of
+     */
+    @Override
+    public void nextStep(String stepName, int step, int subSteps)
+    {
+        flush();
+        packBytes = -1;
+        delegate.nextStep(stepName, step, subSteps);
+    }
+
+    /**
+     * Sets the number of sub-steps.
+     *
+     * @param subSteps the number of sub-steps
+     */
+    @Override
+    public void setSubStepNo(int subSteps)
+    {
+        flush();
+        delegate.setSubStepNo(subSteps);
+    }
+
+    /**
+     * Invoked to notify progress.
+     * <p/>
+     * This increments the current step, so is never coalesced.
+     *
+     * @param message a message describing the step
+     */
+    @Override
+    public void progress(String message)
+    {
+        flush();
+        delegate.progress(message);
+    }
+
+    /**
+     * Invoked to notify progress.
+     * <p/>
+     * The notification is delayed if the previous one was delivered less than the refresh interval ago. It is
+     * replaced by any subsequent notification in the meantime.
+     *
+     * @param subStep the sub-step which will be performed next
+     * @param message an additional message describing the sub-step
+     */
+    @Override
+    public void progress(int subStep, String message)
+    {
+        update(subStep, message, false);
+    }
+
+    /**
+     * Invoked when an action restarts.
+     *
+     * @param name           the name of the action
+     * @param overallMessage a message describing the overall progress
+     * @param tip            a tip describing the current progress
+     * @param steps          the number of steps the action consists of
+     */
+    @Override
+    public void restartAction(String name, String overallMessage, String tip, int steps)
+    {
+        flush();
+        reset();
+        delegate.restartAction(name, overallMessage, tip, steps);
+    }
+
+    /**
+     * Delivers any pending progress notification.
+     */
+    public void flush()
+    {
+        if (pending)
+        {
+            publish(now());
+        }
+    }
+
+    /**
+     * Returns the current progress statistics.
+     *
+     * @return the progress statistics
+     */
+    public ProgressStatistics getStatistics()
+    {
+        return getStatistics(now());
+    }
+
+    /**
+     * Returns the current time.
+     *
+     * @return the current time, in milliseconds
+     */
+    protected long now()
+    {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Records a progress notification, delivering it if the refresh interval has elapsed.
+     *
+     * @param subStep   the sub-step
+     * @param message   the message
+     * @param immediate if {@code true}, deliver the notification immediately
+     */
+    private void update(int subStep, String message, boolean immediate)
+    {
+        pending = true;
+        pendingStep = subStep;
+        pendingMessage = message;
+        long now = now();
+        if (immediate || now - published >= interval)
+        {
+            publish(now);
+        }
+    }
+
+    /**
+     * Delivers the pending progress notification and the progress statistics.
+     *
+     * @param now the current time
+     */
+    private void publish(long now)
+    {
+        published = now;
+        if (pending)
+        {
+            pending = false;
+            delegate.progress(pendingStep, pendingMessage);
+        }
+        if (statisticsListener != null)
+        {
+            statisticsListener.progress(getStatistics(now));
+        }
+    }
+
+    /**
+     * Returns the progress statistics.
+     *
+     * @param now the current time
+     * @return the progress statistics
+     */
+    private ProgressStatistics getStatistics(long now)
+    {
+        return new ProgressStatistics(bytes, totalBytes, now - started);
+    }
+
+    /**
+     * Resets the state for a new action.
+     */
+    private void reset()
+    {
+        started = now();
+        published = 0;
+        bytes = 0;
+        totalBytes = -1;
+        packBytes = -1;
+        packProcessed = 0;
+        pending = false;
+    }
+}
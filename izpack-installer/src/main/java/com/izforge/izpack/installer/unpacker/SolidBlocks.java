@@ -0,0 +1,173 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.unpacker;
+
+import com.izforge.izpack.api.data.PackCompression;
+import com.izforge.izpack.api.data.PackFile;
+import com.izforge.izpack.api.data.SolidBlock;
+import com.izforge.izpack.core.resource.ResourceManager;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decompresses solid blocks, caching the most recently used block so that each block is decompressed once for all
+ * of its files.
+ */
+public class SolidBlocks
+{
+    /**
+     * The pack resources, used to re-read blocks whose first file was skipped. May be {@code null}.
+     */
+    private final PackResources resources;
+
+    /**
+     * The compression format.
+     */
+    private final PackCompression compression;
+
+    /**
+     * The cached block.
+     */
+    private SolidBlock block;
+
+    /**
+     * The decompressed content of the cached block.
+     */
+    private byte[] data;
+
+
+    /**
+     * Constructs a {@code SolidBlocks}.
+     *
+     * @param resources   the pack resources, used to re-read blocks whose first file was skipped. May be
+     *                    {@code null}
+     * @param compression the compression format
+     */
+    public SolidBlocks(PackResources resources, PackCompression compression)
+    {
+        this.resources = resources;
+        this.compression = compression;
+    }
+
+    /**
+     * Returns a stream to the content of a file in a solid block.
+     *
+     * @param file       the pack file, holding the block index
+     * @param packStream the pack stream, if it is positioned at the compressed block, otherwise {@code null}.
+     *                   If the block is already cached, the compressed block is skipped
+     * @return a stream to the file content
+     * @throws IOException for any I/O error
+     */
+    public synchronized InputStream getInputStream(PackFile file, InputStream packStream) throws IOException
+    {
+        SolidBlock solidBlock = file.getSolidBlock();
+        if (solidBlock != block)
+        {
+            data = null;
+            block = null;
+            if (packStream != null)
+            {
+                data = read(solidBlock, packStream);
+            }
+            else
+            {
+                InputStream stream = open(file);
+                try
+                {
+                    data = read(solidBlock, stream);
+                }
+                finally
+                {
+                    IOUtils.closeQuietly(stream);
+                }
+            }
+            block = solidBlock;
+        }
+        else if (packStream != null)
+        {
+            IOUtils.skipFully(packStream, solidBlock.size());
+        }
+        return new ByteArrayInputStream(data, (int) file.getSolidOffset(), (int) file.length());
+    }
+
+    /**
+     * Discards the cached block.
+     */
+    public synchronized void clear()
+    {
+        block = null;
+        data = null;
+    }
+
+    /**
+     * Reads and decompresses a block.
+     *
+     * @param solidBlock the block
+     * @param stream     the stream, positioned at the compressed block
+     * @return the decompressed block
+     * @throws IOException for any I/O error
+     */
+    private byte[] read(SolidBlock solidBlock, InputStream stream) throws IOException
+    {
+        byte[] compressed = new byte[(int) solidBlock.size()];
+        IOUtils.readFully(stream, compressed);
+        byte[] result = new byte[(int) solidBlock.length()];
+        InputStream in = CompressedFileUnpacker.createInputStream(compression, new ByteArrayInputStream(compressed));
+        try
+        {
+            IOUtils.readFully(in, result);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(in);
+        }
+        return result;
+    }
+
+    /**
+     * Opens the pack stream containing a block, positioned at the block.
+     *
+     * @param file a file in the block
+     * @return the stream
+     * @throws IOException if the stream cannot be opened
+     */
+    private InputStream open(PackFile file) throws IOException
+    {
+        if (resources == null)
+        {
+            throw new IOException("Cannot read solid block of " + file.getRelativeSourcePath());
+        }
+        InputStream result = resources.getInputStream(ResourceManager.RESOURCE_BASEPATH_DEFAULT
+                                                              + file.getStreamResourceName());
+        try
+        {
+            IOUtils.skipFully(result, file.getStreamOffset());
+        }
+        catch (IOException exception)
+        {
+            IOUtils.closeQuietly(result);
+            throw exception;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.unpacker;
+
+import java.io.File;
+
+
+/**
+ * The location of a resource stored uncompressed in a local installer jar.
+ */
+public class StoredResource
+{
+    /**
+     * The jar holding the resource.
+     */
+    private final File archive;
+
+    /**
+     * The offset of the resource content within the jar.
+     */
+    private final long offset;
+
+    /**
+     * The length of the resource content.
+     */
+    private final long length;
+
+
+    /**
+     * Constructs a <tt>StoredResource</tt>.
+     *
+     * @param archive the jar holding the resource
+     * @param offset  the offset of the resource content within the jar
+     * @param length  the length of the resource content
+     */
+    public StoredResource(File archive, long offset, long length)
+    {
+        this.archive = archive;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns the jar holding the resource.
+     *
+     * @return the jar
+     */
+    public File getArchive()
+    {
+        return archive;
+    }
+
+    /**
+     * Returns the offset of the resource content within the jar.
+     *
+     * @return the offset, in bytes
+     */
+    public long getOffset()
+    {
+        return offset;
+    }
+
+    /**
+     * Returns the length of the resource content.
+     *
+     * @return the length, in bytes
+     */
+    public long getLength()
+    {
+        return length;
+    }
+}
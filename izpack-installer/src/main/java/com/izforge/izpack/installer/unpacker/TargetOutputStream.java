@@ -0,0 +1,215 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.unpacker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * A buffered stream to an extracted file, writing through the file channel.
+ * <p/>
+ * Files are written sequentially from the start. If the file was preallocated, it is truncated to the no. of bytes
+ * written when the stream is closed.
+ *
+ * @see WriteStrategy
+ */
+public class TargetOutputStream extends OutputStream
+{
+    /**
+     * The file channel.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The write buffer.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Determines if the file was preallocated, and must be truncated to the no. of bytes written.
+     */
+    private final boolean preallocated;
+
+    /**
+     * Determines if the file is synchronized with the disk when the stream is closed.
+     */
+    private final boolean sync;
+
+    /**
+     * Determines if the stream is closed.
+     */
+    private boolean closed;
+
+
+    /**
+     * Constructs a <tt>TargetOutputStream</tt>.
+     *
+     * @param channel      the file channel, positioned at the start of the file
+     * @param bufferSize   the write buffer size
+     * @param preallocated if {@code true}, the file was preallocated, and is truncated to the no. of bytes written
+     *                     when the stream is closed
+     * @param sync         if {@code true}, synchronize the file with the disk when the stream is closed
+     */
+    public TargetOutputStream(FileChannel channel, int bufferSize, boolean preallocated, boolean sync)
+    {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.preallocated = preallocated;
+        this.sync = sync;
+    }
+
+    /**
+     * Writes a byte.
+     *
+     * @param b the byte
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public void write(int b) throws IOException
+    {
+        if (!buffer.hasRemaining())
+        {
+            flushBuffer();
+        }
+        buffer.put((byte) b);
+    }
+
+    /**
+     * Writes bytes.
+     * <p/>
+     * Writes at least as large as the buffer bypass it.
+     *
+     * @param bytes  the bytes
+     * @param offset the offset into the bytes
+     * @param length the no. of bytes to write
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException
+    {
+        if (length >= buffer.capacity())
+        {
+            flushBuffer();
+            write(ByteBuffer.wrap(bytes, offset, length));
+        }
+        else
+        {
+            if (length > buffer.remaining())
+            {
+                flushBuffer();
+            }
+            buffer.put(bytes, offset, length);
+        }
+    }
+
+    /**
+     * Returns the file channel, after flushing any buffered bytes.
+     * <p/>
+     * Bytes may be written directly to the channel, at its current position.
+     *
+     * @return the file channel
+     * @throws IOException for any I/O error
+     */
+    public FileChannel getChannel() throws IOException
+    {
+        flushBuffer();
+        return channel;
+    }
+
+    /**
+     * Flushes buffered bytes to the file.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        flushBuffer();
+    }
+
+    /**
+     * Closes the stream.
+     * <p/>
+     * This flushes buffered bytes, truncates a preallocated file to the no. of bytes written, and synchronizes the
+     * file with the disk if required.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (!closed)
+        {
+            closed = true;
+            try
+            {
+                flushBuffer();
+                if (preallocated)
+                {
+                    long written = channel.position();
+                    if (channel.size() != written)
+                    {
+                        channel.truncate(written);
+                    }
+                }
+                if (sync)
+                {
+                    channel.force(true);
+                }
+            }
+            finally
+            {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the buffer to the file.
+     *
+     * @throws IOException for any I/O error
+     */
+    private void flushBuffer() throws IOException
+    {
+        if (buffer.position() != 0)
+        {
+            buffer.flip();
+            write(buffer);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Writes bytes to the file.
+     *
+     * @param bytes the bytes to write
+     * @throws IOException for any I/O error
+     */
+    private void write(ByteBuffer bytes) throws IOException
+    {
+        while (bytes.hasRemaining())
+        {
+            channel.write(bytes);
+        }
+    }
+}
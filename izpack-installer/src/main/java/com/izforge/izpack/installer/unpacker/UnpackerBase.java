@@ -31,16 +31,19 @@ import com.izforge.izpack.api.exception.ResourceInterruptedException;
 import com.izforge.izpack.api.handler.AbstractPrompt;
 import com.izforge.izpack.api.handler.AbstractUIHandler;
 import com.izforge.izpack.api.handler.Prompt;
+import com.izforge.izpack.api.metrics.InstallMetrics;
 import com.izforge.izpack.api.resource.Messages;
 import com.izforge.izpack.api.resource.Resources;
 import com.izforge.izpack.api.rules.RulesEngine;
 import com.izforge.izpack.api.substitutor.VariableSubstitutor;
 import com.izforge.izpack.core.handler.ProgressHandler;
+import com.izforge.izpack.core.handler.AutomatedPrompt;
 import com.izforge.izpack.core.handler.PromptUIHandler;
 import com.izforge.izpack.core.resource.ResourceManager;
 import com.izforge.izpack.installer.bootstrap.Installer;
 import com.izforge.izpack.installer.data.UninstallData;
 import com.izforge.izpack.installer.event.InstallerListeners;
+import com.izforge.izpack.installer.metrics.InstallMetricsReport;
 import com.izforge.izpack.installer.util.PackHelper;
 import com.izforge.izpack.util.*;
 import com.izforge.izpack.util.file.DirectoryScanner;
@@ -132,9 +135,56 @@ public abstract class UnpackerBase implements IUnpacker
     private final InstallerListeners listeners;
 
     /**
-     * The installer listener.
+     * The installation metrics.
      */
-    private ProgressListener listener;
+    private final InstallMetrics metrics;
+
+    /**
+     * The installation metrics report, or {@code null} if it hasn't been registered.
+     */
+    private InstallMetricsReport report;
+
+    /**
+     * The solid block cache. Created on demand.
+     */
+    private SolidBlocks solidBlocks;
+
+    /**
+     * The pack files that back-references link to, and whose installed files may be copied to satisfy them.
+     */
+    private final Set<PackFile> linked = Collections.newSetFromMap(new IdentityHashMap<PackFile, Boolean>());
+
+    /**
+     * The installed files of {@link #linked} pack files, keyed on the pack file they were extracted from. Used to
+     * satisfy back-references without reading the pack streams again.
+     */
+    private final Map<PackFile, InstalledFile> installed = new IdentityHashMap<PackFile, InstalledFile>();
+
+    /**
+     * The pack files of {@link #installed}, keyed on their absolute installed file.
+     */
+    private final Map<File, PackFile> installedTargets = new HashMap<File, PackFile>();
+
+    /**
+     * The pack streams stored uncompressed in the installer jar, keyed on resource name. A {@code null} value
+     * indicates the pack stream must be read through the resources.
+     */
+    private final Map<String, StoredResource> storedStreams = new HashMap<String, StoredResource>();
+
+    /**
+     * Determines how extracted files are written.
+     */
+    private WriteStrategy writeStrategy = WriteStrategy.DEFAULT;
+
+    /**
+     * The files extracted from the current pack that haven't been synchronized with the disk yet.
+     */
+    private final List<File> unsynced = new ArrayList<File>();
+
+    /**
+     * The progress listener, coalescing notifications to the listener supplied by the installer.
+     */
+    private ProgressAggregator listener;
 
     /**
      * The prompt.
@@ -206,6 +256,7 @@ public abstract class UnpackerBase implements IUnpacker
         this.queueFactory = factory;
         this.housekeeper = housekeeper;
         this.listeners = listeners;
+        this.metrics = listeners.getMetrics();
         this.prompt = prompt;
         this.matcher = matcher;
         this.variables = installData.getVariables();
@@ -228,7 +279,7 @@ public abstract class UnpackerBase implements IUnpacker
     @Override
     public void setProgressListener(ProgressListener listener)
     {
-        this.listener = listener;
+        this.listener = new ProgressAggregator(listener);
     }
 
     /**
@@ -284,6 +335,7 @@ public abstract class UnpackerBase implements IUnpacker
 
         state = State.UNPACKING;
         ObjectInputStream objIn = null;
+        long start = System.nanoTime();
         try
         {
             FileQueue queue = queueFactory.isSupported() ? queueFactory.create() : null;
@@ -292,12 +344,15 @@ public abstract class UnpackerBase implements IUnpacker
             objIn = new ObjectInputStream(in);
             @SuppressWarnings("unchecked") List<PackInfo> packsInfo = (List<PackInfo>) objIn.readObject();
             objIn.close();
+            metrics.getMetric(InstallMetrics.PACKS_INFO).stop(start);
 
             selectedPacks = installData.getSelectedPacks();
 
             preUnpack(selectedPacks);
             unpack(packsInfo, queue);
             postUnpack(selectedPacks, queue);
+            metrics.getMetric(InstallMetrics.UNPACK).stop(start);
+            writeMetricsReport();
         }
         catch (Exception exception)
         {
@@ -445,10 +500,85 @@ public abstract class UnpackerBase implements IUnpacker
     protected void preUnpack(List<Pack> packs) throws InstallerException
     {
         logger.fine("Unpacker starting");
+        openInstallLog();
+        registerMetricsReport();
+        writeStrategy = WriteStrategy.create(variables);
         listener.startAction("Unpacking", packs.size());
         listeners.beforePacks(packs, listener);
     }
 
+    /**
+     * Opens the install log in the uninstaller directory, if an uninstaller will be written.
+     * <p/>
+     * Installed files are appended to the log as they are extracted, rather than held in memory until the
+     * uninstaller is written. If the log cannot be created, installed files are held in memory.
+     * <p/>
+     * The log is deleted when the installer shuts down without writing the uninstaller, e.g. if installation is
+     * aborted. A log left by an installer that terminated abnormally is discarded when the next installation to the
+     * same location opens its log.
+     */
+    protected void openInstallLog()
+    {
+        Info info = installData.getInfo();
+        String condition = info.getUninstallerCondition();
+        if (info.getUninstallerPath() == null || uninstallData.getInstallLogFile() != null
+                || (condition != null && condition.length() != 0 && !rules.isConditionTrue(condition)))
+        {
+            return;
+        }
+        File dir = new File(IoHelper.translatePath(info.getUninstallerPath(), variables));
+        File file = new File(dir, UninstallData.INSTALL_LOG);
+        try
+        {
+            if (!dir.exists() && !dir.mkdirs())
+            {
+                throw new IOException("Failed to create directory: " + dir);
+            }
+            uninstallData.openInstallLog(file);
+            housekeeper.registerForCleanup(new CleanupClient()
+            {
+                @Override
+                public void cleanUp()
+                {
+                    // no-op if the log has been copied to the uninstaller
+                    uninstallData.deleteInstallLog();
+                }
+            });
+        }
+        catch (IOException exception)
+        {
+            logger.log(Level.WARNING, "Cannot create install log " + file + ": " + exception.getMessage(),
+                       exception);
+        }
+    }
+
+    /**
+     * Registers the installation metrics report to be written when the installer shuts down.
+     * <p/>
+     * The report is added to the uninstall data, so that it is removed on uninstallation.
+     */
+    protected void registerMetricsReport()
+    {
+        File file = InstallMetricsReport.getFile(installData);
+        if (report == null && file != null)
+        {
+            report = new InstallMetricsReport(metrics, file);
+            uninstallData.addFile(file.getAbsolutePath(), true);
+            housekeeper.registerForCleanup(report);
+        }
+    }
+
+    /**
+     * Writes the installation metrics report, if one has been registered.
+     */
+    protected void writeMetricsReport()
+    {
+        if (report != null)
+        {
+            report.cleanUp();
+        }
+    }
+
     /**
      * Unpacks the selected packs.
      *
@@ -460,6 +590,17 @@ public abstract class UnpackerBase implements IUnpacker
     protected void unpack(List<PackInfo> packs, FileQueue queue) throws InstallerException
     {
         int count = packs.size();
+        long totalBytes = 0;
+        for (PackInfo packInfo : packs)
+        {
+            if (shouldUnpack(packInfo.getPack()))
+            {
+                totalBytes += getSize(packInfo);
+            }
+        }
+        listener.setTotalBytes(totalBytes);
+        initLinked(packs);
+
         for (int i = 0; i < count; i++)
         {
             PackInfo packInfo = packs.get(i);
@@ -472,21 +613,32 @@ public abstract class UnpackerBase implements IUnpacker
                 List<UpdateCheck> updateChecks = new ArrayList<UpdateCheck>();
 
                 listeners.beforePack(pack, i);
+                long start = System.nanoTime();
                 unpack(packInfo, i, queue, parsables, executables, updateChecks);
+                metrics.getMetric(InstallMetrics.PACK_PREFIX + pack.getName()).stop(start, getSize(packInfo));
                 checkInterrupt();
 
                 logger.fine("Found " + parsables.size() + " parsable files");
+                start = System.nanoTime();
                 parseFiles(parsables);
+                metrics.getMetric(InstallMetrics.PARSE_FILES).stop(start);
                 checkInterrupt();
 
                 logger.fine("Found " + executables.size() + " executable files");
+                start = System.nanoTime();
                 executeFiles(executables);
+                metrics.getMetric(InstallMetrics.EXECUTE_FILES).stop(start);
                 checkInterrupt();
 
                 // update checks should be done _after_ uninstaller was put, so we don't delete it. TODO
+                start = System.nanoTime();
                 performUpdateChecks(updateChecks);
+                metrics.getMetric(InstallMetrics.UPDATE_CHECKS).stop(start);
                 checkInterrupt();
 
+                syncFiles();
+
+                uninstallData.flushInstallLog();
                 listeners.afterPack(pack);
             }
         }
@@ -512,9 +664,11 @@ public abstract class UnpackerBase implements IUnpacker
 
             String stepName = getStepName(pack);
             selectedPacks = installData.getSelectedPacks();
-            listener.nextStep(stepName, selectedPacks.indexOf(pack) + 1, len);
+            listener.startPack(stepName, selectedPacks.indexOf(pack) + 1, len, getSize(packInfo));
 
+            long start = System.nanoTime();
             in = resources.getPackStream(pack.getName());
+            metrics.getMetric(InstallMetrics.PACK_STREAM).stop(start);
 
             for (int i = 0; i < len; i++)
             {
@@ -532,6 +686,7 @@ public abstract class UnpackerBase implements IUnpacker
                     {
                         // condition is not fulfilled, so skip it in main stream
                         skip(packFile, pack, in);
+                        listener.skip(packFile.length());
                     }
                 }
             }
@@ -553,6 +708,81 @@ public abstract class UnpackerBase implements IUnpacker
         }
     }
 
+    /**
+     * Determines the pack files whose installed files may be copied to satisfy back-references.
+     * <p/>
+     * These are the pack files linked to by back-references of the packs to unpack. Files that are parsed or executed
+     * after their pack is unpacked are excluded, as their installed content may differ from the pack file.
+     *
+     * @param packs the packs
+     */
+    private void initLinked(List<PackInfo> packs)
+    {
+        linked.clear();
+        Set<String> modified = new HashSet<String>();
+        for (PackInfo packInfo : packs)
+        {
+            if (shouldUnpack(packInfo.getPack()))
+            {
+                for (ParsableFile parsable : packInfo.getParsables())
+                {
+                    modified.add(getAbsolutePath(parsable.getPath()));
+                }
+                for (ExecutableFile executable : packInfo.getExecutables())
+                {
+                    modified.add(getAbsolutePath(executable.path));
+                }
+            }
+        }
+        for (PackInfo packInfo : packs)
+        {
+            if (shouldUnpack(packInfo.getPack()) && !packInfo.getPack().isLoose())
+            {
+                for (PackFile packFile : packInfo.getPackFiles())
+                {
+                    if (packFile.isBackReference() && !packFile.isPack200Jar())
+                    {
+                        PackFile linkedPackFile = packFile.getLinkedPackFile();
+                        if (!modified.contains(getAbsolutePath(linkedPackFile.getTargetPath())))
+                        {
+                            linked.add(linkedPackFile);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the absolute path of a file, after replacing variables.
+     *
+     * @param path the path
+     * @return the absolute path
+     */
+    private String getAbsolutePath(String path)
+    {
+        return new File(IoHelper.translatePath(path, variables)).getAbsolutePath();
+    }
+
+    /**
+     * Returns the total size of the files in a pack.
+     *
+     * @param packInfo the pack info
+     * @return the total size of the pack files, in bytes
+     */
+    private long getSize(PackInfo packInfo)
+    {
+        long result = 0;
+        for (PackFile packFile : packInfo.getPackFiles())
+        {
+            if (!packFile.isDirectory())
+            {
+                result += packFile.length();
+            }
+        }
+        return result;
+    }
+
     /**
      * Determines if a file should be unpacked.
      *
@@ -610,7 +840,7 @@ public abstract class UnpackerBase implements IUnpacker
 
         listeners.beforeFile(target, packFile, pack);
 
-        listener.progress(fileNo, path);
+        listener.file(fileNo, path, packFile.length());
 
         // if this file exists and should not be overwritten, check what to do
         if (target.exists() && (packFile.override() != OverrideType.OVERRIDE_TRUE) && !isOverwriteFile(packFile, target))
@@ -647,8 +877,30 @@ public abstract class UnpackerBase implements IUnpacker
         try
         {
             FileUnpacker unpacker;
+            File source = getInstalledFile(packFile, target, pack);
+            forgetInstalledFile(target);
+            long position = 0;
+            if (source == null)
+            {
+                PackFile data = packFile.isBackReference() ? packFile.getLinkedPackFile() : packFile;
+                StoredResource stored = getStoredStream(data, pack);
+                if (stored != null)
+                {
+                    source = stored.getArchive();
+                    position = stored.getOffset() + data.getStreamOffset();
+                    if (!packFile.isBackReference())
+                    {
+                        // keep the pack stream in step
+                        skip(packInputStream, packFile.size());
+                    }
+                }
+            }
 
-            if (!pack.isLoose() && packFile.isBackReference())
+            if (source != null)
+            {
+                logger.fine("|- Copying directly from " + source);
+            }
+            else if (!pack.isLoose() && packFile.isBackReference())
             {
                 PackFile linkedPackFile = packFile.getLinkedPackFile();
                 packStream = resources.getInputStream(ResourceManager.RESOURCE_BASEPATH_DEFAULT + linkedPackFile.getStreamResourceName());
@@ -668,13 +920,27 @@ public abstract class UnpackerBase implements IUnpacker
                 packStream = new NoCloseInputStream(packInputStream);
             }
 
-            unpacker = createFileUnpacker(packFile, pack, queue, cancellable);
+            if (source != null)
+            {
+                unpacker = new LocalFileUnpacker(cancellable, queue, source, position);
+            }
+            else
+            {
+                unpacker = createFileUnpacker(packFile, pack, queue, cancellable);
+            }
+            unpacker.setMetrics(metrics);
+            unpacker.setWriteStrategy(writeStrategy);
             logger.fine("|- Extracting file using " + unpacker.getClass().getName() + ")");
             unpacker.unpack(packFile, packStream, target);
             checkInterrupt();
 
             if (!unpacker.isQueued())
             {
+                recordInstalledFile(packFile, target, pack);
+                if (writeStrategy.getSync() == WriteStrategy.Sync.PACK)
+                {
+                    unsynced.add(target);
+                }
                 listeners.afterFile(target, packFile, pack);
             }
         }
@@ -687,6 +953,150 @@ public abstract class UnpackerBase implements IUnpacker
         }
     }
 
+    /**
+     * Synchronizes the files extracted from the current pack with the disk, if the {@link WriteStrategy} requires it.
+     * <p/>
+     * Synchronization is only a durability measure, so files that cannot be synchronized are logged, and don't fail
+     * the installation.
+     */
+    private void syncFiles()
+    {
+        if (unsynced.isEmpty())
+        {
+            return;
+        }
+        long start = System.nanoTime();
+        try
+        {
+            for (File file : unsynced)
+            {
+                if (file.exists())
+                {
+                    try
+                    {
+                        WriteStrategy.sync(file);
+                    }
+                    catch (IOException exception)
+                    {
+                        logger.log(Level.WARNING, "Failed to synchronize " + file + ": " + exception.getMessage(),
+                                   exception);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            metrics.getMetric(InstallMetrics.SYNC).stop(start);
+            unsynced.clear();
+        }
+    }
+
+    /**
+     * Returns an installed file that a back-referenced pack file can be copied from.
+     * <p/>
+     * A file qualifies if it was extracted from the linked pack file earlier in this installation, isn't parsed or
+     * executed, and hasn't been overwritten by another pack file since. As the file may also have been changed by
+     * other means, e.g. by a listener, its length and modification time must be unchanged since it was extracted.
+     *
+     * @param packFile the pack file
+     * @param target   the file to write to
+     * @param pack     the pack that the pack file comes from
+     * @return the installed file, or {@code null} if the pack file must be read from the pack stream
+     */
+    private File getInstalledFile(PackFile packFile, File target, Pack pack)
+    {
+        if (pack.isLoose() || !packFile.isBackReference() || packFile.isPack200Jar())
+        {
+            return null;
+        }
+        PackFile linkedPackFile = packFile.getLinkedPackFile();
+        InstalledFile file = installed.get(linkedPackFile);
+        if (file == null || file.getFile().equals(target.getAbsoluteFile())
+                || !file.isUnchanged(linkedPackFile.length()))
+        {
+            return null;
+        }
+        return file.getFile();
+    }
+
+    /**
+     * Records the installed file of a pack file, if back-references may be satisfied by copying it.
+     *
+     * @param packFile the pack file
+     * @param target   the installed file
+     * @param pack     the pack that the pack file comes from
+     */
+    private void recordInstalledFile(PackFile packFile, File target, Pack pack)
+    {
+        if (pack.isLoose() || packFile.isPack200Jar())
+        {
+            return;
+        }
+        PackFile key = packFile.isBackReference() ? packFile.getLinkedPackFile() : packFile;
+        if (linked.contains(key))
+        {
+            File file = target.getAbsoluteFile();
+            installed.put(key, new InstalledFile(file));
+            installedTargets.put(file, key);
+        }
+    }
+
+    /**
+     * Forgets the installed file recorded for a target, as it is about to be overwritten.
+     *
+     * @param target the file to write to
+     */
+    private void forgetInstalledFile(File target)
+    {
+        if (!installedTargets.isEmpty())
+        {
+            PackFile packFile = installedTargets.remove(target.getAbsoluteFile());
+            if (packFile != null)
+            {
+                installed.remove(packFile);
+            }
+        }
+    }
+
+    /**
+     * Returns the stored pack stream that an uncompressed pack file can be copied from.
+     *
+     * @param data the pack file whose data is in the pack stream
+     * @param pack the pack that the pack file comes from
+     * @return the stored pack stream, or {@code null} if the pack file must be read through the pack stream, or the
+     *         pack resources can't locate stored pack streams
+     */
+    private StoredResource getStoredStream(PackFile data, Pack pack)
+    {
+        if (pack.isLoose() || data.isPack200Jar() || data.getStreamResourceName() == null
+                || !(resources instanceof AbstractPackResources))
+        {
+            return null;
+        }
+        PackCompression compression = (data.getCompression() != null) ? data.getCompression()
+                : getInstallData().getInfo().getCompressionFormat();
+        if (compression != PackCompression.DEFAULT)
+        {
+            return null;
+        }
+        String name = data.getStreamResourceName();
+        StoredResource result;
+        if (storedStreams.containsKey(name))
+        {
+            result = storedStreams.get(name);
+        }
+        else
+        {
+            result = ((AbstractPackResources) resources).getStoredResource(name);
+            storedStreams.put(name, result);
+        }
+        if (result != null && data.getStreamOffset() + data.length() > result.getLength())
+        {
+            return null;
+        }
+        return result;
+    }
+
     /**
      * Skips a pack file.
      *
@@ -718,7 +1128,8 @@ public abstract class UnpackerBase implements IUnpacker
     protected FileUnpacker createFileUnpacker(PackFile file, Pack pack, FileQueue queue, Cancellable cancellable)
             throws InstallerException
     {
-        PackCompression compressionFormat = getInstallData().getInfo().getCompressionFormat();
+        PackCompression installFormat = getInstallData().getInfo().getCompressionFormat();
+        PackCompression compressionFormat = (file.getCompression() != null) ? file.getCompression() : installFormat;
         FileUnpacker unpacker;
         if (pack.isLoose())
         {
@@ -728,7 +1139,11 @@ public abstract class UnpackerBase implements IUnpacker
             unpacker = new Pack200FileUnpacker(cancellable, resources, queue);
         } else if (compressionFormat != PackCompression.DEFAULT)
         {
-            unpacker = new CompressedFileUnpacker(cancellable, queue, compressionFormat);
+            if (solidBlocks == null)
+            {
+                solidBlocks = new SolidBlocks(resources, installFormat);
+            }
+            unpacker = new CompressedFileUnpacker(cancellable, queue, compressionFormat, solidBlocks);
         } else
         {
             unpacker = new DefaultFileUnpacker(cancellable, queue);
@@ -751,7 +1166,9 @@ public abstract class UnpackerBase implements IUnpacker
         // commit the file queue if there are potentially blocked files
         if (queue != null && !queue.isEmpty())
         {
+            long start = System.nanoTime();
             queue.execute();
+            metrics.getMetric(InstallMetrics.FILE_QUEUE).stop(start);
             installData.setRebootNecessary(queue.isRebootNecessary());
         }
         checkInterrupt();
@@ -760,7 +1177,9 @@ public abstract class UnpackerBase implements IUnpacker
         checkInterrupt();
 
         // write installation information
+        long start = System.nanoTime();
         writeInstallationInformation();
+        metrics.getMetric(InstallMetrics.INSTALLATION_INFORMATION).stop(start);
 
         // unpacking complete
         listener.stopAction();
@@ -772,6 +1191,12 @@ public abstract class UnpackerBase implements IUnpacker
     protected void cleanup()
     {
         state = State.READY;
+        solidBlocks = null;
+        linked.clear();
+        installed.clear();
+        installedTargets.clear();
+        storedStreams.clear();
+        unsynced.clear();
     }
 
     /**
@@ -784,6 +1209,16 @@ public abstract class UnpackerBase implements IUnpacker
         return installData;
     }
 
+    /**
+     * Returns the installation metrics.
+     *
+     * @return the installation metrics
+     */
+    protected InstallMetrics getMetrics()
+    {
+        return metrics;
+    }
+
     /**
      * Returns the uninstallation data.
      *
@@ -1263,8 +1698,9 @@ public abstract class UnpackerBase implements IUnpacker
                         defChoice = Option.YES;
                     }
 
-                    // are we running in automated mode? If so use default choice.
-                    if (Installer.getInstallerMode() == INSTALLER_AUTO)
+                    // are we running in automated mode? If so use default choice. Installs run in-process don't
+                    // set the installer mode, so check the prompt as well
+                    if (Installer.getInstallerMode() == INSTALLER_AUTO || prompt instanceof AutomatedPrompt)
                     {
                         result = (defChoice == Option.YES);
                     } else // ask the user
@@ -1398,5 +1834,58 @@ public abstract class UnpackerBase implements IUnpacker
 
         logger = Logger.getLogger(UnpackerBase.class.getName());
     }
-}
 
+    /**
+     * A file extracted during installation, along with its state at the time.
+     */
+    private static class InstalledFile
+    {
+        /**
+         * The file.
+         */
+        private final File file;
+
+        /**
+         * The file length after extraction.
+         */
+        private final long length;
+
+        /**
+         * The file modification time after extraction.
+         */
+        private final long lastModified;
+
+        /**
+         * Constructs an <tt>InstalledFile</tt>.
+         *
+         * @param file the extracted file
+         */
+        public InstalledFile(File file)
+        {
+            this.file = file;
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        /**
+         * Returns the file.
+         *
+         * @return the file
+         */
+        public File getFile()
+        {
+            return file;
+        }
+
+        /**
+         * Determines if the file is unchanged on disk since it was extracted.
+         *
+         * @param expected the expected file length
+         * @return {@code true} if the file is unchanged
+         */
+        public boolean isUnchanged(long expected)
+        {
+            return length == expected && file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+}
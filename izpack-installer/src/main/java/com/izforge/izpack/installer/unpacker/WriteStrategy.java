@@ -0,0 +1,289 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.unpacker;
+
+import com.izforge.izpack.api.data.Variables;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.logging.Logger;
+
+
+/**
+ * Determines how extracted files are written to disk.
+ * <p/>
+ * The strategy is configured using installer variables:
+ * <ul>
+ * <li><em>unpacker.sync</em> - when extracted files are synchronized with the disk. One of <em>none</em>, leaving
+ * it to the operating system, <em>pack</em>, synchronizing the files of a pack once the pack has been extracted, or
+ * <em>file</em>, synchronizing each file when it is closed. Defaults to <em>none</em></li>
+ * <li><em>unpacker.preallocate</em> - if <em>true</em>, the length of each file is set before it is written</li>
+ * <li><em>unpacker.bufferSize</em> - the write buffer size, in bytes</li>
+ * </ul>
+ * If none of these are set, files are written with unbuffered streams.
+ * <p/>
+ * Note that preallocation reserves disk space on filesystems that support it when a file is extended, e.g. NTFS;
+ * others simply record the new length.
+ */
+public class WriteStrategy
+{
+    /**
+     * When extracted files are synchronized with the disk.
+     */
+    public enum Sync
+    {
+        /**
+         * Files are never explicitly synchronized.
+         */
+        NONE,
+
+        /**
+         * The files of a pack are synchronized once the pack has been extracted.
+         */
+        PACK,
+
+        /**
+         * Each file is synchronized when it is closed.
+         */
+        FILE
+    }
+
+    /**
+     * The variable specifying when files are synchronized.
+     */
+    public static final String SYNC = "unpacker.sync";
+
+    /**
+     * The variable specifying if files are preallocated.
+     */
+    public static final String PREALLOCATE = "unpacker.preallocate";
+
+    /**
+     * The variable specifying the write buffer size.
+     */
+    public static final String BUFFER_SIZE = "unpacker.bufferSize";
+
+    /**
+     * The default write buffer size.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The strategy used when none is configured, writing files with unbuffered streams.
+     */
+    public static final WriteStrategy DEFAULT = new WriteStrategy(Sync.NONE, false, 0);
+
+    /**
+     * The minimum write buffer size allocated for a file.
+     */
+    private static final int MIN_BUFFER_SIZE = 8192;
+
+    /**
+     * When files are synchronized.
+     */
+    private final Sync sync;
+
+    /**
+     * Determines if files are preallocated.
+     */
+    private final boolean preallocate;
+
+    /**
+     * The write buffer size, or {@code 0} to write with unbuffered streams.
+     */
+    private final int bufferSize;
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(WriteStrategy.class.getName());
+
+
+    /**
+     * Constructs a <tt>WriteStrategy</tt>.
+     *
+     * @param sync        when files are synchronized
+     * @param preallocate if {@code true}, set the length of files before writing them
+     * @param bufferSize  the write buffer size, or {@code 0} to write with unbuffered streams. Ignored unless
+     *                    positive, when files are synchronized or preallocated
+     */
+    public WriteStrategy(Sync sync, boolean preallocate, int bufferSize)
+    {
+        this.sync = sync;
+        this.preallocate = preallocate;
+        if (bufferSize <= 0 && (sync != Sync.NONE || preallocate))
+        {
+            bufferSize = DEFAULT_BUFFER_SIZE;
+        }
+        this.bufferSize = Math.max(bufferSize, 0);
+    }
+
+    /**
+     * Creates a strategy from installer variables.
+     *
+     * @param variables the variables
+     * @return the strategy
+     */
+    public static WriteStrategy create(Variables variables)
+    {
+        String syncValue = variables.get(SYNC);
+        String preallocateValue = variables.get(PREALLOCATE);
+        String bufferSizeValue = variables.get(BUFFER_SIZE);
+        if (syncValue == null && preallocateValue == null && bufferSizeValue == null)
+        {
+            return DEFAULT;
+        }
+        Sync sync = Sync.NONE;
+        if (syncValue != null)
+        {
+            try
+            {
+                sync = Sync.valueOf(syncValue.trim().toUpperCase());
+            }
+            catch (IllegalArgumentException exception)
+            {
+                logger.warning("Invalid value for " + SYNC + ": " + syncValue + ". Files will not be synchronized");
+            }
+        }
+        int bufferSize = variables.getInt(BUFFER_SIZE, DEFAULT_BUFFER_SIZE);
+        return new WriteStrategy(sync, variables.getBoolean(PREALLOCATE, false), bufferSize);
+    }
+
+    /**
+     * Returns when files are synchronized.
+     *
+     * @return when files are synchronized
+     */
+    public Sync getSync()
+    {
+        return sync;
+    }
+
+    /**
+     * Determines if files are preallocated.
+     *
+     * @return {@code true} if files are preallocated
+     */
+    public boolean isPreallocate()
+    {
+        return preallocate;
+    }
+
+    /**
+     * Returns the write buffer size.
+     *
+     * @return the write buffer size, or {@code 0} if files are written with unbuffered streams
+     */
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    /**
+     * Opens a file for writing, creating any parent directories.
+     *
+     * @param file   the file
+     * @param length the expected file length
+     * @return a stream to the file
+     * @throws IOException if the file cannot be opened
+     */
+    public OutputStream open(File file, long length) throws IOException
+    {
+        if (bufferSize == 0)
+        {
+            return FileUtils.openOutputStream(file);
+        }
+        File parent = file.getParentFile();
+        if (parent != null)
+        {
+            FileUtils.forceMkdir(parent);
+        }
+        FileChannel channel;
+        boolean preallocated = preallocate && length > 0;
+        if (preallocated)
+        {
+            RandomAccessFile output = new RandomAccessFile(file, "rw");
+            try
+            {
+                output.setLength(length);
+            }
+            catch (IOException exception)
+            {
+                output.close();
+                throw exception;
+            }
+            channel = output.getChannel();
+        }
+        else
+        {
+            channel = new FileOutputStream(file).getChannel();
+        }
+        // small files don't need a full buffer
+        int size = (int) Math.min(bufferSize, Math.max(length, MIN_BUFFER_SIZE));
+        return new TargetOutputStream(channel, size, preallocated, sync == Sync.FILE);
+    }
+
+    /**
+     * Synchronizes a file that has already been written and closed with the disk.
+     * <p/>
+     * The file is opened read-only, so that files made read-only after extraction can still be synchronized. Where
+     * the platform cannot synchronize a file opened read-only, e.g. Windows, it is opened for writing instead.
+     *
+     * @param file the file
+     * @throws IOException if the file cannot be synchronized
+     */
+    public static void sync(File file) throws IOException
+    {
+        try
+        {
+            sync(file, "r");
+        }
+        catch (IOException exception)
+        {
+            logger.fine("Failed to synchronize read-only " + file + ": " + exception.getMessage());
+            sync(file, "rw");
+        }
+    }
+
+    /**
+     * Synchronizes a file with the disk.
+     *
+     * @param file the file
+     * @param mode the mode to open the file with
+     * @throws IOException if the file cannot be synchronized
+     */
+    private static void sync(File file, String mode) throws IOException
+    {
+        RandomAccessFile output = new RandomAccessFile(file, mode);
+        try
+        {
+            output.getChannel().force(true);
+        }
+        finally
+        {
+            output.close();
+        }
+    }
+}
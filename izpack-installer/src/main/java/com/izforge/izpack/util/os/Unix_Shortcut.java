@@ -122,10 +122,6 @@ public class Unix_Shortcut extends Shortcut
      */
     private final static String C = H + S;
 
-    private static ShellScript rootScript = null;
-
-    private static ShellScript uninstallScript = null;
-
     private List<UnixUser> users;
 
 
@@ -165,6 +161,16 @@ public class Unix_Shortcut extends Shortcut
      */
     private ShellScript myInstallScript;
 
+    /**
+     * The script run as root to install the shortcuts of other users.
+     */
+    private final ShellScript rootScript = new ShellScript();
+
+    /**
+     * The script to remove the shortcuts of other users on uninstallation.
+     */
+    private final ShellScript uninstallScript = new ShellScript();
+
     /**
      * Internal Constant: FS = File.separator // *
      */
@@ -214,14 +220,6 @@ public class Unix_Shortcut extends Shortcut
         this.resources = resources;
         this.installData = installData;
 
-        if (rootScript == null)
-        {
-            rootScript = new ShellScript();
-        }
-        if (uninstallScript == null)
-        {
-            uninstallScript = new ShellScript();
-        }
         if (myInstallScript == null)
         {
             myInstallScript = new ShellScript();
@@ -0,0 +1,119 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.data;
+
+import com.izforge.izpack.core.io.InstallLogReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests the install log support of {@link UninstallData}.
+ */
+public class UninstallDataTest
+{
+    /**
+     * Temporary folder for the install log.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Verifies that uninstallable files are written to the install log rather than held in memory, and held in memory
+     * once the log is deleted.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testInstallLog() throws Exception
+    {
+        File file = new File(temporaryFolder.getRoot(), UninstallData.INSTALL_LOG);
+        UninstallData data = new UninstallData();
+        data.openInstallLog(file);
+        data.addFile("myapp/file1", true);
+        data.addFile("myapp/file2", false);
+        assertEquals(Arrays.asList("myapp/file1", "myapp/file2"), data.getInstalledFilesList());
+        data.closeInstallLog();
+
+        InstallLogReader reader = new InstallLogReader(file);
+        assertEquals(1, reader.getBlocks());
+        assertEquals(Arrays.asList("myapp/file1"), reader.getBlock(0));
+        assertTrue(data.getUninstalableFilesList().isEmpty());
+
+        data.deleteInstallLog();
+        assertFalse(file.exists());
+        assertNull(data.getInstallLogFile());
+
+        data.addFile("myapp/file3", true);
+        assertEquals(Arrays.asList("myapp/file3"), data.getUninstalableFilesList());
+        assertEquals(Arrays.asList("myapp/file2", "myapp/file3"), data.getInstalledFilesList());
+    }
+
+    /**
+     * Verifies that the install log of an installation that terminated abnormally is discarded.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testStaleInstallLogDiscarded() throws Exception
+    {
+        File file = new File(temporaryFolder.getRoot(), UninstallData.INSTALL_LOG);
+        UninstallData previous = new UninstallData();
+        previous.openInstallLog(file);
+        previous.addFile("myapp/old", true);
+        previous.flushInstallLog();
+        // simulate the installer being killed, by not deleting the log
+
+        UninstallData data = new UninstallData();
+        data.openInstallLog(file);
+        data.addFile("myapp/new", true);
+        data.closeInstallLog();
+        assertEquals(Arrays.asList("myapp/new"), new InstallLogReader(file).getPaths());
+        previous.closeInstallLog();
+    }
+
+    /**
+     * Verifies that deleting the install log closes it if it is still open.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testDeleteOpenInstallLog() throws Exception
+    {
+        File file = new File(temporaryFolder.getRoot(), UninstallData.INSTALL_LOG);
+        UninstallData data = new UninstallData();
+        data.openInstallLog(file);
+        data.addFile("myapp/file1", true);
+        data.deleteInstallLog();
+        assertFalse(file.exists());
+
+        // deleting again is a no-op
+        data.deleteInstallLog();
+    }
+}
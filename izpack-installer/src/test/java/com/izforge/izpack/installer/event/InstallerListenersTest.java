@@ -0,0 +1,252 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.event;
+
+import com.izforge.izpack.api.data.AutomatedInstallData;
+import com.izforge.izpack.api.data.Pack;
+import com.izforge.izpack.api.data.PackFile;
+import com.izforge.izpack.api.event.AbstractBatchInstallerListener;
+import com.izforge.izpack.api.event.InstalledFile;
+import com.izforge.izpack.api.event.InstallerListener;
+import com.izforge.izpack.api.exception.IzPackException;
+import com.izforge.izpack.api.handler.Prompt;
+import com.izforge.izpack.api.metrics.InstallMetrics;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Tests the {@link InstallerListeners} class.
+ */
+public class InstallerListenersTest
+{
+    /**
+     * The listeners.
+     */
+    private InstallerListeners listeners;
+
+    /**
+     * The pack.
+     */
+    private Pack pack;
+
+    /**
+     * The pack file.
+     */
+    private PackFile packFile;
+
+
+    /**
+     * Sets up the test case.
+     */
+    @Before
+    public void setUp()
+    {
+        listeners = new InstallerListeners(Mockito.mock(AutomatedInstallData.class), Mockito.mock(Prompt.class));
+        pack = new Pack("Base", null, null, null, null, true, true, false, null, true, 0);
+        packFile = Mockito.mock(PackFile.class);
+    }
+
+    /**
+     * Verifies that per-file listeners are notified of each file as it is installed.
+     */
+    @Test
+    public void testFileListener()
+    {
+        InstallerListener listener = Mockito.mock(InstallerListener.class);
+        Mockito.when(listener.isFileListener()).thenReturn(true);
+        listeners.add(listener);
+        listeners.initialise();
+        assertTrue(listeners.isFileListener());
+
+        File dir = new File("a");
+        File file = new File("a/b");
+        listeners.afterDir(dir, packFile, pack);
+        Mockito.verify(listener).afterDir(dir, packFile, pack);
+        listeners.beforeFile(file, packFile, pack);
+        listeners.afterFile(file, packFile, pack);
+
+        InOrder order = Mockito.inOrder(listener);
+        order.verify(listener).beforeFile(file, packFile, pack);
+        order.verify(listener).afterFile(file, packFile, pack);
+    }
+
+    /**
+     * Verifies that synchronous batch listeners receive full batches as they fill, and the remaining files
+     * before the pack completes.
+     */
+    @Test
+    public void testSynchronousBatches()
+    {
+        BatchListener listener = new BatchListener(2, false);
+        listeners.add(listener);
+        listeners.initialise();
+
+        listeners.afterDir(new File("a"), packFile, pack);
+        assertEquals(0, listener.batches.size());
+        listeners.afterFile(new File("a/b"), packFile, pack);
+        assertEquals(1, listener.batches.size());
+        listeners.afterFile(new File("a/c"), packFile, pack);
+        assertEquals(1, listener.batches.size());
+
+        listeners.afterPack(pack);
+        assertEquals(2, listener.batches.size());
+        assertEquals(2, listener.batches.get(0).size());
+        assertTrue(listener.batches.get(0).get(0).isDirectory());
+        assertEquals(new File("a/c"), listener.batches.get(1).get(0).getFile());
+        assertEquals(1, listener.afterPack);
+    }
+
+    /**
+     * Verifies that the time spent in listener callbacks is recorded in the installation metrics.
+     */
+    @Test
+    public void testMetrics()
+    {
+        BatchListener listener = new BatchListener(2, false);
+        listeners.add(listener);
+        listeners.initialise();
+
+        listeners.beforePack(pack, 0);
+        listeners.afterFile(new File("a/b"), packFile, pack);
+        listeners.afterPack(pack);
+
+        InstallMetrics metrics = listeners.getMetrics();
+        String prefix = InstallMetrics.LISTENER_PREFIX + BatchListener.class.getName();
+        assertEquals(1, metrics.getMetric(prefix + ".beforePack").getCount());
+        assertEquals(1, metrics.getMetric(prefix + ".afterPack").getCount());
+        assertEquals(2, metrics.getMetric(prefix + ".afterFiles").getCount()); // the file, and the flush
+        assertEquals(3, metrics.getMetrics().size());
+    }
+
+    /**
+     * Verifies that asynchronous batch listeners receive all files on the dispatcher thread, before the pack
+     * completes.
+     */
+    @Test
+    public void testAsynchronousBatches()
+    {
+        BatchListener listener = new BatchListener(10, true);
+        listeners.add(listener);
+        listeners.initialise();
+
+        for (int i = 0; i < 25; ++i)
+        {
+            listeners.afterFile(new File("file" + i), packFile, pack);
+        }
+        listeners.afterPack(pack);
+
+        assertEquals(3, listener.batches.size());
+        assertEquals(25, listener.count);
+        assertNotSame(Thread.currentThread(), listener.thread);
+        assertEquals(1, listener.afterPack);
+    }
+
+    /**
+     * Verifies that a failure of an asynchronous batch listener is reported on the installation thread.
+     */
+    @Test
+    public void testAsynchronousFailure()
+    {
+        BatchListener listener = new BatchListener(1, true)
+        {
+            @Override
+            public void afterFiles(List<InstalledFile> files)
+            {
+                throw new IzPackException("failed");
+            }
+        };
+        listeners.add(listener);
+        listeners.initialise();
+
+        listeners.afterFile(new File("file"), packFile, pack);
+        try
+        {
+            listeners.afterPack(pack);
+            fail("Expected IzPackException");
+        }
+        catch (IzPackException expected)
+        {
+            assertEquals("failed", expected.getMessage());
+        }
+    }
+
+    /**
+     * Batch listener that records the batches it receives.
+     */
+    private static class BatchListener extends AbstractBatchInstallerListener
+    {
+        private final int batchSize;
+        private final boolean asynchronous;
+        private final List<List<InstalledFile>> batches = new ArrayList<List<InstalledFile>>();
+        private int count;
+        private int afterPack;
+        private Thread thread;
+
+        public BatchListener(int batchSize, boolean asynchronous)
+        {
+            this.batchSize = batchSize;
+            this.asynchronous = asynchronous;
+        }
+
+        @Override
+        public int getBatchSize()
+        {
+            return batchSize;
+        }
+
+        @Override
+        public long getBatchInterval()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean isAsynchronous()
+        {
+            return asynchronous;
+        }
+
+        @Override
+        public void afterFiles(List<InstalledFile> files)
+        {
+            batches.add(files);
+            count += files.size();
+            thread = Thread.currentThread();
+        }
+
+        @Override
+        public void afterPack(Pack pack)
+        {
+            ++afterPack;
+        }
+    }
+}
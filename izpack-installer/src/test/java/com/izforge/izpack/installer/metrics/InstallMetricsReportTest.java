@@ -0,0 +1,111 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.metrics;
+
+import com.izforge.izpack.api.data.Info;
+import com.izforge.izpack.api.data.InstallData;
+import com.izforge.izpack.api.data.Variables;
+import com.izforge.izpack.api.metrics.InstallMetrics;
+import com.izforge.izpack.core.data.DefaultVariables;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link InstallMetricsReport} class.
+ */
+public class InstallMetricsReportTest
+{
+    /**
+     * Temporary folder for the report.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+    /**
+     * Verifies that metrics are written as JSON, ordered on name.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testWrite() throws IOException
+    {
+        InstallMetrics metrics = new DefaultInstallMetrics();
+        metrics.getMetric(InstallMetrics.WRITE).add(2000, 1024);
+        metrics.getMetric(InstallMetrics.WRITE).add(1000, 1024);
+        metrics.getMetric(InstallMetrics.PACK_PREFIX + "A \"quoted\" pack").add(5000, 2048);
+
+        StringWriter writer = new StringWriter();
+        new InstallMetricsReport(metrics, new File("unused")).write(writer);
+        assertEquals("{\n  \"metrics\": [\n"
+                             + "    {\"name\": \"pack.A \\\"quoted\\\" pack\", \"count\": 1, \"nanos\": 5000, "
+                             + "\"bytes\": 2048},\n"
+                             + "    {\"name\": \"phase.write\", \"count\": 2, \"nanos\": 3000, \"bytes\": 2048}\n"
+                             + "  ]\n}\n", writer.toString());
+    }
+
+    /**
+     * Verifies that the report is written next to the install log, and only if its directory exists.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testReportFile() throws IOException
+    {
+        File dir = temporaryFolder.newFolder("uninstaller");
+        Variables variables = new DefaultVariables();
+        variables.set("INSTALL_PATH", dir.getParent());
+        Info info = new Info();
+        info.setUninstallerPath("$INSTALL_PATH/uninstaller");
+        InstallData installData = Mockito.mock(InstallData.class);
+        Mockito.when(installData.getInfo()).thenReturn(info);
+        Mockito.when(installData.getVariables()).thenReturn(variables);
+
+        File file = InstallMetricsReport.getFile(installData);
+        assertEquals(new File(dir, InstallMetricsReport.FILE_NAME), file);
+
+        Mockito.when(installData.getVariable("InstallerFrame.logfilePath")).thenReturn("$INSTALL_PATH/logs/a.log");
+        File logFile = InstallMetricsReport.getFile(installData);
+        assertEquals(new File(new File(dir.getParentFile(), "logs"), InstallMetricsReport.FILE_NAME), logFile);
+
+        InstallMetrics metrics = new DefaultInstallMetrics();
+        metrics.getMetric(InstallMetrics.UNPACK).add(1, 0);
+        new InstallMetricsReport(metrics, file).cleanUp();
+        new InstallMetricsReport(metrics, logFile).cleanUp();
+        assertTrue(FileUtils.readFileToString(file, "UTF-8").contains("\"phase.unpack\""));
+        assertFalse(logFile.exists());
+
+        info.setUninstallerPath(null);
+        Mockito.when(installData.getVariable("InstallerFrame.logfilePath")).thenReturn(null);
+        assertNull(InstallMetricsReport.getFile(installData));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.unpacker;
+
+import com.izforge.izpack.api.data.Blockable;
+import com.izforge.izpack.api.data.PackCompression;
+import com.izforge.izpack.api.data.PackFile;
+import com.izforge.izpack.util.os.FileQueue;
+import org.apache.commons.compress.compressors.xz.XZCompressorOutputStream;
+import org.apache.commons.io.FileUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+
+/**
+ * Tests the {@link CompressedFileUnpacker} class, for files compressed in independent blocks.
+ */
+public class CompressedFileUnpackerTest extends AbstractFileUnpackerTest
+{
+    /**
+     * The uncompressed block size.
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    /**
+     * The compressed blocks.
+     */
+    private byte[] compressed;
+
+    /**
+     * The compressed block sizes.
+     */
+    private long[] blocks;
+
+
+    /**
+     * Creates a new source file, and compresses it in blocks.
+     *
+     * @param baseDir the base directory
+     * @return the source file
+     * @throws IOException for any I/O error
+     */
+    @Override
+    protected File createSourceFile(File baseDir) throws IOException
+    {
+        File file = new File(baseDir, "source.txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; content.length() < 5 * BLOCK_SIZE + 100; ++i)
+        {
+            content.append("Line ").append(i).append('\n');
+        }
+        byte[] data = content.toString().getBytes("UTF-8");
+        FileUtils.writeByteArrayToFile(file, data);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        blocks = new long[(data.length + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        for (int i = 0; i < blocks.length; ++i)
+        {
+            int start = out.size();
+            XZCompressorOutputStream stream = new XZCompressorOutputStream(out);
+            stream.write(Arrays.copyOfRange(data, i * BLOCK_SIZE, Math.min(data.length, (i + 1) * BLOCK_SIZE)));
+            stream.finish();
+            blocks[i] = out.size() - start;
+        }
+        compressed = out.toByteArray();
+        return file;
+    }
+
+    /**
+     * Creates a pack file stream.
+     *
+     * @param source the source
+     * @return a new stream
+     */
+    @Override
+    protected InputStream createPackStream(File source)
+    {
+        return new ByteArrayInputStream(compressed);
+    }
+
+    /**
+     * Helper to create a new pack file.
+     *
+     * @param baseDir   the base directory
+     * @param source    the source file
+     * @param target    the target file
+     * @param blockable the blockable type
+     * @return a new pack file
+     * @throws IOException if the source file doesn't exist
+     */
+    @Override
+    protected PackFile createPackFile(File baseDir, File source, File target, Blockable blockable) throws IOException
+    {
+        PackFile file = super.createPackFile(baseDir, source, target, blockable);
+        file.setBlocks(BLOCK_SIZE, blocks);
+        file.setSize(compressed.length);
+        return file;
+    }
+
+    /**
+     * Helper to create an unpacker.
+     *
+     * @param sourceDir the source directory
+     * @param queue     the file queue. May be {@code null}
+     * @return a new unpacker
+     */
+    @Override
+    protected FileUnpacker createUnpacker(File sourceDir, FileQueue queue)
+    {
+        return new CompressedFileUnpacker(getCancellable(), queue, PackCompression.XZ);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.unpacker;
+
+import com.izforge.izpack.api.event.ProgressStatistics;
+import com.izforge.izpack.api.event.ProgressStatisticsListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+
+/**
+ * Tests the {@link ProgressAggregator}.
+ */
+public class ProgressAggregatorTest
+{
+    /**
+     * The listener to delegate to.
+     */
+    private ProgressStatisticsListener listener;
+
+    /**
+     * The current time.
+     */
+    private long now;
+
+    /**
+     * The aggregator.
+     */
+    private ProgressAggregator aggregator;
+
+
+    /**
+     * Sets up the test case.
+     */
+    @Before
+    public void setUp()
+    {
+        listener = mock(ProgressStatisticsListener.class);
+        now = 1000;
+        aggregator = new ProgressAggregator(listener, 100)
+        {
+            @Override
+            protected long now()
+            {
+                return now;
+            }
+        };
+    }
+
+    /**
+     * Verifies that file progress is coalesced to the refresh interval, and that the last pending notification is
+     * delivered before the next step.
+     */
+    @Test
+    public void testCoalescing()
+    {
+        aggregator.startAction("Unpacking", 2);
+        aggregator.startPack("pack1", 1, 1000, 1000);
+        for (int i = 1; i <= 1000; ++i)
+        {
+            aggregator.file(i, "file" + i, 1);
+            now += 1;
+        }
+        // 1000 files over 1000ms, at most one notification each 100ms
+        verify(listener, times(10)).progress(anyInt(), anyString());
+        verify(listener).progress(0, "file1");
+        verify(listener, never()).progress(998, "file999");
+
+        aggregator.nextStep("other", 2, 10);
+        InOrder order = inOrder(listener);
+        order.verify(listener).progress(999, "file1000");
+        order.verify(listener).nextStep("other", 2, 10);
+    }
+
+    /**
+     * Verifies that pack progress is weighted by bytes.
+     */
+    @Test
+    public void testByteWeighting()
+    {
+        aggregator.startAction("Unpacking", 1);
+        aggregator.startPack("pack", 1, 2, 4000);
+        verify(listener).nextStep("pack", 1, ProgressAggregator.SCALE);
+
+        aggregator.file(1, "small", 1000);
+        verify(listener).progress(249, "small");
+        now += 100;
+        aggregator.file(2, "big", 3000);
+        verify(listener).progress(999, "big");
+    }
+
+    /**
+     * Verifies that packs without content are weighted by file count.
+     */
+    @Test
+    public void testEmptyPack()
+    {
+        aggregator.startAction("Unpacking", 1);
+        aggregator.startPack("pack", 1, 3, 0);
+        verify(listener).nextStep("pack", 1, 3);
+        aggregator.file(1, "empty", 0);
+        verify(listener).progress(1, "empty");
+    }
+
+    /**
+     * Verifies that throughput and the estimated time remaining are published.
+     */
+    @Test
+    public void testStatistics()
+    {
+        aggregator.startAction("Unpacking", 1);
+        aggregator.setTotalBytes(10000);
+        aggregator.startPack("pack", 1, 2, 10000);
+        now += 1000;
+        aggregator.file(1, "file1", 2000);
+
+        ArgumentCaptor<ProgressStatistics> captor = ArgumentCaptor.forClass(ProgressStatistics.class);
+        verify(listener, atLeastOnce()).progress(captor.capture());
+        ProgressStatistics statistics = captor.getValue();
+        assertEquals(2000, statistics.getBytes());
+        assertEquals(2000, statistics.getBytesPerSecond());
+        assertEquals(4000, statistics.getRemainingTime());
+
+        aggregator.stopAction();
+        InOrder order = inOrder(listener);
+        order.verify(listener, times(2)).progress(any(ProgressStatistics.class));
+        order.verify(listener).stopAction();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.unpacker;
+
+import com.izforge.izpack.api.data.Blockable;
+import com.izforge.izpack.api.data.OverrideType;
+import com.izforge.izpack.api.data.PackCompression;
+import com.izforge.izpack.api.data.PackFile;
+import com.izforge.izpack.api.data.SolidBlock;
+import com.izforge.izpack.core.resource.ResourceManager;
+import org.apache.commons.compress.compressors.xz.XZCompressorOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link SolidBlocks} class.
+ */
+public class SolidBlocksTest
+{
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * The pack stream, containing a byte followed by the solid block, followed by a byte.
+     */
+    private byte[] packStream;
+
+    /**
+     * The first file in the block.
+     */
+    private PackFile file1;
+
+    /**
+     * The second file in the block.
+     */
+    private PackFile file2;
+
+
+    /**
+     * Sets up the test case.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(1);
+        XZCompressorOutputStream out = new XZCompressorOutputStream(bytes);
+        out.write("first\nsecond\n".getBytes("UTF-8"));
+        out.finish();
+        int size = bytes.size() - 1;
+        bytes.write(2);
+        packStream = bytes.toByteArray();
+
+        SolidBlock block = new SolidBlock();
+        block.setSizes(13, size);
+        file1 = createPackFile("a.txt", "first\n", block, 0);
+        file1.setSize(size);
+        file2 = createPackFile("b.txt", "second\n", block, 6);
+    }
+
+    /**
+     * Verifies that the block is read from the pack stream for its first file, and then served from the cache.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testRead() throws IOException
+    {
+        SolidBlocks blocks = new SolidBlocks(null, PackCompression.XZ);
+        InputStream stream = new ByteArrayInputStream(packStream);
+        assertEquals(1, stream.read());
+        assertEquals("first\n", read(blocks.getInputStream(file1, stream)));
+        assertEquals("second\n", read(blocks.getInputStream(file2, null)));
+        assertEquals(2, stream.read());
+
+        // the block is skipped in the pack stream if it is already cached
+        stream = new ByteArrayInputStream(packStream);
+        assertEquals(1, stream.read());
+        assertEquals("first\n", read(blocks.getInputStream(file1, stream)));
+        assertEquals(2, stream.read());
+    }
+
+    /**
+     * Verifies that the block is re-read from the pack resources if its first file was skipped.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testReadSkipped() throws IOException
+    {
+        PackResources resources = Mockito.mock(PackResources.class);
+        Mockito.when(resources.getInputStream(ResourceManager.RESOURCE_BASEPATH_DEFAULT + "packs/pack-Base"))
+                .thenReturn(new ByteArrayInputStream(packStream));
+        SolidBlocks blocks = new SolidBlocks(resources, PackCompression.XZ);
+        assertEquals("second\n", read(blocks.getInputStream(file2, null)));
+    }
+
+    /**
+     * Creates a pack file in a solid block.
+     *
+     * @param name    the file name
+     * @param content the file content
+     * @param block   the solid block
+     * @param offset  the offset of the file in the block
+     * @return a new pack file
+     * @throws IOException for any I/O error
+     */
+    private PackFile createPackFile(String name, String content, SolidBlock block, long offset) throws IOException
+    {
+        File file = temporaryFolder.newFile(name);
+        FileUtils.writeStringToFile(file, content, "UTF-8");
+        PackFile result = new PackFile(temporaryFolder.getRoot(), file, name, null, OverrideType.OVERRIDE_TRUE, null,
+                                       Blockable.BLOCKABLE_NONE, null);
+        result.setStreamResourceName("packs/pack-Base");
+        result.setStreamOffset(1);
+        result.setSize(0);
+        result.setSolidBlock(block, offset);
+        return result;
+    }
+
+    /**
+     * Reads a stream as a string.
+     *
+     * @param stream the stream
+     * @return the stream content
+     * @throws IOException for any I/O error
+     */
+    private String read(InputStream stream) throws IOException
+    {
+        return IOUtils.toString(stream, "UTF-8");
+    }
+}
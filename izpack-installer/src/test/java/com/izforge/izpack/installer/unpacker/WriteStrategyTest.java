@@ -0,0 +1,170 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.unpacker;
+
+import com.izforge.izpack.api.data.Blockable;
+import com.izforge.izpack.api.data.OverrideType;
+import com.izforge.izpack.api.data.PackFile;
+import com.izforge.izpack.api.data.Variables;
+import com.izforge.izpack.core.data.DefaultVariables;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests the {@link WriteStrategy} and {@link TargetOutputStream} classes.
+ */
+public class WriteStrategyTest
+{
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Tests creating strategies from variables.
+     */
+    @Test
+    public void testCreate()
+    {
+        Variables variables = new DefaultVariables();
+        assertSame(WriteStrategy.DEFAULT, WriteStrategy.create(variables));
+        assertEquals(0, WriteStrategy.DEFAULT.getBufferSize());
+
+        variables.set(WriteStrategy.SYNC, "pack");
+        WriteStrategy strategy = WriteStrategy.create(variables);
+        assertEquals(WriteStrategy.Sync.PACK, strategy.getSync());
+        assertFalse(strategy.isPreallocate());
+        assertEquals(WriteStrategy.DEFAULT_BUFFER_SIZE, strategy.getBufferSize());
+
+        variables.set(WriteStrategy.SYNC, "invalid");
+        variables.set(WriteStrategy.PREALLOCATE, "true");
+        variables.set(WriteStrategy.BUFFER_SIZE, "1024");
+        strategy = WriteStrategy.create(variables);
+        assertEquals(WriteStrategy.Sync.NONE, strategy.getSync());
+        assertTrue(strategy.isPreallocate());
+        assertEquals(1024, strategy.getBufferSize());
+    }
+
+    /**
+     * Verifies that writes smaller and larger than the buffer are written in order, and that a preallocated file is
+     * truncated to the no. of bytes written.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testWrite() throws IOException
+    {
+        byte[] content = new byte[100];
+        for (int i = 0; i < content.length; ++i)
+        {
+            content[i] = (byte) i;
+        }
+        File file = new File(temporaryFolder.getRoot(), "dir/file");
+        WriteStrategy strategy = new WriteStrategy(WriteStrategy.Sync.FILE, true, 16);
+        OutputStream out = strategy.open(file, 1000);
+        assertEquals(1000, file.length());
+        out.write(content, 0, 10);
+        out.write(content, 10, 40);
+        out.write(content[50]);
+        out.write(content, 51, 49);
+        out.close();
+        assertArrayEquals(content, FileUtils.readFileToByteArray(file));
+
+        // an existing file is replaced
+        out = new WriteStrategy(WriteStrategy.Sync.NONE, false, 16).open(file, 10);
+        out.write(content, 0, 10);
+        out.close();
+        assertArrayEquals(Arrays.copyOf(content, 10), FileUtils.readFileToByteArray(file));
+    }
+
+    /**
+     * Verifies that a file made read-only after it was written can be synchronized.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testSyncReadOnly() throws IOException
+    {
+        File file = new File(temporaryFolder.getRoot(), "file");
+        FileUtils.writeStringToFile(file, "content", "UTF-8");
+        assertTrue(file.setWritable(false));
+        WriteStrategy.sync(file);
+        assertEquals("content", FileUtils.readFileToString(file, "UTF-8"));
+    }
+
+    /**
+     * Verifies that pack files are unpacked using the write strategy.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testUnpack() throws Exception
+    {
+        byte[] content = new byte[10000];
+        for (int i = 0; i < content.length; ++i)
+        {
+            content[i] = (byte) (i % 253);
+        }
+        File baseDir = temporaryFolder.getRoot();
+        File source = new File(baseDir, "source");
+        FileUtils.writeByteArrayToFile(source, content);
+        PackFile file = new PackFile(baseDir, source, "target", null, OverrideType.OVERRIDE_TRUE, null,
+                                     Blockable.BLOCKABLE_NONE, null);
+        WriteStrategy strategy = new WriteStrategy(WriteStrategy.Sync.FILE, true, 1024);
+        Cancellable cancellable = new Cancellable()
+        {
+            @Override
+            public boolean isCancelled()
+            {
+                return false;
+            }
+        };
+
+        File target1 = new File(baseDir, "target1");
+        FileUnpacker unpacker = new DefaultFileUnpacker(cancellable, null);
+        unpacker.setWriteStrategy(strategy);
+        unpacker.unpack(file, new ByteArrayInputStream(content), target1);
+        assertArrayEquals(content, FileUtils.readFileToByteArray(target1));
+
+        File target2 = new File(baseDir, "target2");
+        unpacker = new LocalFileUnpacker(cancellable, null, source);
+        unpacker.setWriteStrategy(strategy);
+        unpacker.unpack(file, null, target2);
+        assertArrayEquals(content, FileUtils.readFileToByteArray(target2));
+
+        WriteStrategy.sync(target2);
+    }
+}
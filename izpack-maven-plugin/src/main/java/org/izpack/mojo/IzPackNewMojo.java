@@ -72,7 +72,7 @@ public class IzPackNewMojo extends AbstractMojo
     private MavenProjectHelper projectHelper;
 
     /**
-     * Format compression. Choices are default (no compression), gzip, bzip2, xz, lzma, deflate
+     * Format compression. Choices are default (no compression), gzip, bzip2, xz, lzma, deflate, lz4
      */
     @Parameter( defaultValue = "default" )
     private String comprFormat;
@@ -473,7 +473,7 @@ public class CompilePanel extends IzPanel implements ActionListener, CompileHand
     @Override
     public void progress(String message)
     {
-        // no-op
+        opLabel.setText(message);
     }
 
     @Override
@@ -259,16 +259,19 @@ public class CompilePanelAutomationHelper extends PanelAutomationHelper implemen
     }
 
     /**
-     * Invoked to notify progress.
-     * <p/>
-     * This increments the current step.
+     * Reports a compiler diagnostic to System.out
      *
-     * @param message a message describing the step
+     * @param message the diagnostic
      */
     @Override
     public void progress(String message)
     {
-        // no-op
+        if (this.last_line_len > 0)
+        {
+            this.stdout.println();
+            this.last_line_len = 0;
+        }
+        this.stdout.println(message);
     }
 
     /**
@@ -29,17 +29,40 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
 import com.izforge.izpack.api.adaptator.IXMLElement;
 import com.izforge.izpack.api.adaptator.IXMLParser;
 import com.izforge.izpack.api.adaptator.impl.XMLParser;
@@ -63,6 +86,12 @@ import com.izforge.izpack.util.PlatformModelMatcher;
  * <li>collecting and creating all jobs
  * <li>doing the actual compilation
  * </ul>
+ * <p/>
+ * If the specification contains an <code>&lt;inprocess&gt;</code> element in its
+ * <code>&lt;global&gt;</code> section and <em>javac</em> is selected, the sources are compiled with the
+ * compiler of the running JVM instead of forking a compiler per batch of files. Jobs that don't depend on the
+ * output of other jobs are then compiled in parallel, on up to <code>threads</code> threads. If no compiler is
+ * available in the running JVM, the compiler is forked as usual.
  *
  * @author Tino Schwarze
  */
@@ -92,6 +121,11 @@ public class CompileWorker implements Runnable
 
     private CompileHandler handler;
 
+    /**
+     * The handler passed to jobs. This serializes notifications from jobs compiled in parallel.
+     */
+    private CompileHandler jobHandler;
+
     private IXMLElement compilerSpec;
 
     private ArrayList<String> compilerList;
@@ -106,6 +140,16 @@ public class CompileWorker implements Runnable
 
     private CompileResult result = null;
 
+    /**
+     * Determines if sources should be compiled in-process, if possible.
+     */
+    private boolean inProcess = false;
+
+    /**
+     * The maximum no. of jobs to compile in parallel, when compiling in-process.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
     private final Resources resources;
 
     /**
@@ -128,6 +172,7 @@ public class CompileWorker implements Runnable
     {
         this.idata = installData;
         this.handler = handler;
+        this.jobHandler = new SynchronizedCompileHandler(handler);
         this.vs = variableSubstitutor;
         this.resources = resources;
         this.matcher = matcher;
@@ -307,6 +352,25 @@ public class CompileWorker implements Runnable
                 readChoices(this.compilerArgumentsSpec, this.compilerArgumentsList);
             }
 
+            IXMLElement inProcessSpec = global.getFirstChildNamed("inprocess");
+
+            if (inProcessSpec != null)
+            {
+                this.inProcess = true;
+                String threadsValue = inProcessSpec.getAttribute("threads");
+                if (threadsValue != null)
+                {
+                    try
+                    {
+                        this.threads = Math.max(1, Integer.parseInt(threadsValue.trim()));
+                    }
+                    catch (NumberFormatException exception)
+                    {
+                        logger.warning("Invalid threads attribute: " + threadsValue);
+                    }
+                }
+            }
+
         }
 
         // supply default values if no useful ones where found
@@ -426,6 +490,12 @@ public class CompileWorker implements Runnable
 
         this.handler.startAction("Compilation", this.jobs.size());
 
+        JavaCompiler javaCompiler = getInProcessCompiler();
+        if (javaCompiler != null)
+        {
+            return compileInProcess(javaCompiler, args);
+        }
+
         // check whether compiler is valid (but only if there are jobs)
         if (job_it.hasNext())
         {
@@ -459,6 +529,219 @@ public class CompileWorker implements Runnable
         return new CompileResult();
     }
 
+    /**
+     * Returns the compiler of the running JVM, if sources should be compiled in-process.
+     *
+     * @return the compiler, or {@code null} if the selected compiler should be forked
+     */
+    private JavaCompiler getInProcessCompiler()
+    {
+        if (!this.inProcess)
+        {
+            return null;
+        }
+
+        String name = new File(this.compilerToUse).getName();
+        if (!name.equalsIgnoreCase("javac") && !name.equalsIgnoreCase("javac.exe"))
+        {
+            logger.fine("Compiler " + this.compilerToUse + " cannot be run in-process");
+            return null;
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+        {
+            logger.info("No compiler available in the running JVM, forking " + this.compilerToUse);
+        }
+        return compiler;
+    }
+
+    /**
+     * Compiles the jobs with the compiler of the running JVM.
+     * <p/>
+     * Jobs are started as soon as the jobs they depend on have completed. Each compilation thread reuses one
+     * file manager for all of its jobs, as file managers may not be used by several tasks at once.
+     * No more jobs are started once a job fails and the failure isn't ignored.
+     *
+     * @param compiler  the compiler
+     * @param arguments the compiler arguments
+     * @return the result of the first job that failed without continuing, or a successful result
+     */
+    private CompileResult compileInProcess(final JavaCompiler compiler, final List<String> arguments)
+    {
+        if (!this.jobs.isEmpty())
+        {
+            CompileResult checkResult = this.jobs.get(0).checkInProcessCompiler(compiler, arguments);
+            if (!checkResult.isContinue())
+            {
+                return checkResult;
+            }
+        }
+
+        final List<StandardJavaFileManager> fileManagers = Collections.synchronizedList(
+                new ArrayList<StandardJavaFileManager>());
+        final ThreadLocal<StandardJavaFileManager> fileManager = new ThreadLocal<StandardJavaFileManager>()
+        {
+            @Override
+            protected StandardJavaFileManager initialValue()
+            {
+                StandardJavaFileManager result = compiler.getStandardFileManager(null, null, null);
+                fileManagers.add(result);
+                return result;
+            }
+        };
+
+        Map<CompilationJob, Set<CompilationJob>> dependencies = getDependencies(arguments);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(this.threads, this.jobs.size())),
+                                                            new JobThreadFactory());
+        CompletionService<CompileResult> completion = new ExecutorCompletionService<CompileResult>(pool);
+        Map<Future<CompileResult>, CompilationJob> running = new HashMap<Future<CompileResult>, CompilationJob>();
+        Set<CompilationJob> completed = new HashSet<CompilationJob>();
+        List<CompilationJob> pending = new ArrayList<CompilationJob>(this.jobs);
+        CompileResult failure = null;
+        int job_no = 0;
+
+        try
+        {
+            while (true)
+            {
+                if (failure == null)
+                {
+                    Iterator<CompilationJob> iterator = pending.iterator();
+                    while (iterator.hasNext())
+                    {
+                        final CompilationJob job = iterator.next();
+                        if (completed.containsAll(dependencies.get(job)))
+                        {
+                            iterator.remove();
+                            final int step = job_no++;
+                            Future<CompileResult> future = completion.submit(new Callable<CompileResult>()
+                            {
+                                @Override
+                                public CompileResult call()
+                                {
+                                    jobHandler.nextStep(job.getName(), job.getSize(), step);
+                                    return job.performInProcess(compiler, fileManager.get(), arguments);
+                                }
+                            });
+                            running.put(future, job);
+                        }
+                    }
+                }
+                if (running.isEmpty())
+                {
+                    break;
+                }
+                Future<CompileResult> future = completion.take();
+                CompilationJob job = running.remove(future);
+                completed.add(job);
+                CompileResult jobResult = getResult(job, future);
+                if (failure == null && !jobResult.isContinue())
+                {
+                    failure = jobResult;
+                }
+            }
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+            failure = new CompileResult(exception);
+        }
+        finally
+        {
+            pool.shutdown();
+            closeFileManagers(fileManagers);
+        }
+
+        if (failure != null)
+        {
+            return failure;
+        }
+        logger.fine("Compilation finished");
+        return new CompileResult();
+    }
+
+    /**
+     * Determines the jobs each job depends on.
+     * <p/>
+     * A job depends on a preceding job if its classpath contains a directory the preceding job compiles into.
+     *
+     * @param arguments the compiler arguments
+     * @return the preceding jobs each job depends on
+     */
+    private Map<CompilationJob, Set<CompilationJob>> getDependencies(List<String> arguments)
+    {
+        File outputDir = null;
+        int index = arguments.indexOf("-d");
+        if (index >= 0 && index + 1 < arguments.size())
+        {
+            outputDir = new File(arguments.get(index + 1)).getAbsoluteFile();
+        }
+
+        Map<CompilationJob, Set<CompilationJob>> result = new HashMap<CompilationJob, Set<CompilationJob>>();
+        for (int i = 0; i < this.jobs.size(); ++i)
+        {
+            CompilationJob job = this.jobs.get(i);
+            Set<CompilationJob> dependencies = new HashSet<CompilationJob>();
+            for (int j = 0; j < i; ++j)
+            {
+                CompilationJob other = this.jobs.get(j);
+                if (job.dependsOn(other, outputDir))
+                {
+                    dependencies.add(other);
+                }
+            }
+            result.put(job, dependencies);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the result of a job compiled in-process.
+     *
+     * @param job    the job
+     * @param future the job future
+     * @return the job result
+     * @throws InterruptedException if interrupted
+     */
+    private CompileResult getResult(CompilationJob job, Future<CompileResult> future) throws InterruptedException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (ExecutionException exception)
+        {
+            logger.log(Level.SEVERE, "Job '" + job.getName() + "' failed", exception.getCause());
+            Throwable cause = exception.getCause();
+            return new CompileResult((cause instanceof Exception) ? (Exception) cause : exception);
+        }
+    }
+
+    /**
+     * Closes file managers, logging any error.
+     *
+     * @param fileManagers the file managers to close
+     */
+    private void closeFileManagers(List<StandardJavaFileManager> fileManagers)
+    {
+        synchronized (fileManagers)
+        {
+            for (StandardJavaFileManager fileManager : fileManagers)
+            {
+                try
+                {
+                    fileManager.close();
+                }
+                catch (IOException exception)
+                {
+                    logger.log(Level.WARNING, "Failed to close file manager", exception);
+                }
+            }
+        }
+    }
+
     private CompilationJob collectJobsRecursive(IXMLElement node, List<String> classpath)
             throws Exception
     {
@@ -541,7 +824,7 @@ public class CompileWorker implements Runnable
 
         if (files.size() > 0)
         {
-            return new CompilationJob(this.handler, this.idata, node.getAttribute("name"), files, ourclasspath);
+            return new CompilationJob(this.jobHandler, this.idata, node.getAttribute("name"), files, ourclasspath);
         }
 
         return null;
@@ -723,18 +1006,7 @@ public class CompileWorker implements Runnable
             cmdline_len += compiler.length() + 1;
 
             // construct classpath argument for compiler
-            // - collect all classpaths
-            StringBuffer classpath_sb = new StringBuffer();
-            for (String cp : this.classpath)
-            {
-                if (classpath_sb.length() > 0)
-                {
-                    classpath_sb.append(File.pathSeparatorChar);
-                }
-                classpath_sb.append(new File(cp).getAbsolutePath());
-            }
-
-            String classpath_str = classpath_sb.toString();
+            String classpath_str = getClassPath();
 
             // - add classpath argument to command line
             if (classpath_str.length() > 0)
@@ -803,36 +1075,12 @@ public class CompileWorker implements Runnable
                     }
                     else
                     {
-                        // verify that all files have been compiled successfully
-                        // I found that sometimes, no error code is returned
-                        // although compilation failed.
-                        Iterator<String> arg_it = args.listIterator(common_args_no);
-                        while (arg_it.hasNext())
+                        CompileResult result = verifyClassFiles(args.subList(common_args_no, args.size()), args,
+                                                                output[0], output[1]);
+                        if (!result.isContinue())
                         {
-                            File java_file = new File(arg_it.next());
-
-                            String basename = java_file.getName();
-                            int dotpos = basename.lastIndexOf('.');
-                            basename = basename.substring(0, dotpos) + ".class";
-                            File class_file = new File(java_file.getParentFile(), basename);
-
-                            if (!class_file.exists())
-                            {
-                                CompileResult result = new CompileResult(messages.get("CompilePanel.error.noclassfile")
-                                                                                 + java_file.getAbsolutePath(), args,
-                                                                         output[0],
-                                                                         output[1]);
-                                this.listener.handleCompileError(result);
-                                if (!result.isContinue())
-                                {
-                                    return result;
-                                }
-                                // don't continue any further
-                                break;
-                            }
-
+                            return result;
                         }
-
                     }
 
                     // clean command line: remove files we just compiled
@@ -870,36 +1118,12 @@ public class CompileWorker implements Runnable
                 }
                 else
                 {
-                    // verify that all files have been compiled successfully
-                    // I found that sometimes, no error code is returned
-                    // although compilation failed.
-                    Iterator<String> arg_it = args.listIterator(common_args_no);
-                    while (arg_it.hasNext())
+                    CompileResult result = verifyClassFiles(args.subList(common_args_no, args.size()), args,
+                                                            output[0], output[1]);
+                    if (!result.isContinue())
                     {
-                        File java_file = new File(arg_it.next());
-
-                        String basename = java_file.getName();
-                        int dotpos = basename.lastIndexOf('.');
-                        basename = basename.substring(0, dotpos) + ".class";
-                        File class_file = new File(java_file.getParentFile(), basename);
-
-                        if (!class_file.exists())
-                        {
-                            CompileResult result = new CompileResult(messages.get("CompilePanel.error.noclassfile")
-                                                                             + java_file.getAbsolutePath(), args,
-                                                                     output[0],
-                                                                     output[1]);
-                            this.listener.handleCompileError(result);
-                            if (!result.isContinue())
-                            {
-                                return result;
-                            }
-                            // don't continue any further
-                            break;
-                        }
-
+                        return result;
                     }
-
                 }
 
             }
@@ -1046,6 +1270,247 @@ public class CompileWorker implements Runnable
 
         }
 
+        /**
+         * Perform this job with the compiler of the running JVM.
+         * <p/>
+         * All files of the job are compiled in a single task. Diagnostics are passed to the listener as they are
+         * reported.
+         *
+         * @param compiler    the compiler
+         * @param fileManager the file manager. Its class path is replaced by the class path of this job
+         * @param arguments   the compiler arguments
+         * @return the result
+         */
+        public CompileResult performInProcess(JavaCompiler compiler, StandardJavaFileManager fileManager,
+                                              List<String> arguments)
+        {
+            logger.fine("starting job " + this.name + " in-process");
+
+            List<String> cmdline = getCommandLine(arguments);
+            List<String> sources = new ArrayList<String>();
+            List<File> classpathFiles = new ArrayList<File>();
+            for (File file : this.files)
+            {
+                sources.add(file.getAbsolutePath());
+            }
+            cmdline.addAll(sources);
+            for (String cp : this.classpath)
+            {
+                classpathFiles.add(new File(cp).getAbsoluteFile());
+            }
+
+            final StringBuilder errors = new StringBuilder();
+            DiagnosticListener<JavaFileObject> diagnostics = new DiagnosticListener<JavaFileObject>()
+            {
+                @Override
+                public void report(Diagnostic<? extends JavaFileObject> diagnostic)
+                {
+                    String message = diagnostic.toString();
+                    errors.append(message).append('\n');
+                    listener.progress(message);
+                }
+            };
+            StringWriter out = new StringWriter();
+            boolean success;
+
+            this.listener.progress(0, getName());
+            try
+            {
+                fileManager.setLocation(StandardLocation.CLASS_PATH, classpathFiles);
+                Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(this.files);
+                success = compiler.getTask(out, fileManager, diagnostics, arguments, null, units).call();
+            }
+            catch (IOException exception)
+            {
+                errors.append(exception.getMessage());
+                success = false;
+            }
+            catch (RuntimeException exception)
+            {
+                logger.log(Level.WARNING, "Job " + this.name + " failed: " + exception.getMessage(), exception);
+                errors.append(exception.getMessage());
+                success = false;
+            }
+            this.listener.progress(this.files.size(), getName());
+
+            if (!success)
+            {
+                CompileResult result = new CompileResult(messages.get("CompilePanel.error"), cmdline,
+                                                         out.toString(), errors.toString());
+                this.listener.handleCompileError(result);
+                if (!result.isContinue())
+                {
+                    return result;
+                }
+            }
+            else
+            {
+                CompileResult result = verifyClassFiles(sources, cmdline, out.toString(), errors.toString());
+                if (!result.isContinue())
+                {
+                    return result;
+                }
+            }
+
+            logger.fine("Job " + this.name + " done (" + this.files.size() + " files compiled)");
+
+            return new CompileResult();
+        }
+
+        /**
+         * Check whether the compiler of the running JVM accepts the given arguments.
+         *
+         * @param compiler  the compiler
+         * @param arguments the compiler arguments
+         * @return the result
+         */
+        public CompileResult checkInProcessCompiler(JavaCompiler compiler, List<String> arguments)
+        {
+            logger.fine("Checking whether the in-process compiler accepts " + arguments);
+
+            try
+            {
+                compiler.getTask(null, null, null, arguments, null, null);
+            }
+            catch (IllegalArgumentException exception)
+            {
+                CompileResult result = new CompileResult(messages.get("CompilePanel.error.invalidarguments"),
+                                                         getCommandLine(arguments), "", exception.getMessage());
+                this.listener.handleCompileError(result);
+                if (!result.isContinue())
+                {
+                    return result;
+                }
+            }
+
+            return new CompileResult();
+        }
+
+        /**
+         * Determines if this job depends on the output of another job.
+         *
+         * @param other     the other job
+         * @param outputDir the directory classes are compiled into, or {@code null} if classes are compiled
+         *                  next to their sources
+         * @return {@code true} if a directory on the class path of this job contains classes of the other job
+         */
+        public boolean dependsOn(CompilationJob other, File outputDir)
+        {
+            for (String cp : this.classpath)
+            {
+                File dir = new File(cp).getAbsoluteFile();
+                if (!dir.isDirectory())
+                {
+                    continue;
+                }
+                if (outputDir != null)
+                {
+                    if (contains(dir, outputDir))
+                    {
+                        return true;
+                    }
+                }
+                else
+                {
+                    for (File file : other.files)
+                    {
+                        if (contains(dir, file.getAbsoluteFile()))
+                        {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the command line equivalent to compiling in-process, for error reporting.
+         *
+         * @param arguments the compiler arguments
+         * @return the command line, excluding the files to compile
+         */
+        private List<String> getCommandLine(List<String> arguments)
+        {
+            List<String> result = new ArrayList<String>();
+            result.add("javac");
+            result.addAll(arguments);
+            String classpath_str = getClassPath();
+            if (classpath_str.length() > 0)
+            {
+                result.add("-classpath");
+                result.add(classpath_str);
+            }
+            return result;
+        }
+
+        /**
+         * Returns the class path of this job.
+         *
+         * @return the class path, with absolute entries separated by the platform path separator
+         */
+        private String getClassPath()
+        {
+            StringBuilder classpath_sb = new StringBuilder();
+            for (String cp : this.classpath)
+            {
+                if (classpath_sb.length() > 0)
+                {
+                    classpath_sb.append(File.pathSeparatorChar);
+                }
+                classpath_sb.append(new File(cp).getAbsolutePath());
+            }
+            return classpath_sb.toString();
+        }
+
+        /**
+         * Verify that all files have been compiled successfully.
+         * <p/>
+         * I found that sometimes, no error code is returned although compilation failed.
+         *
+         * @param sources the paths of the compiled source files
+         * @param cmdline the command line, for error reporting
+         * @param stdout  the output of the compiler
+         * @param stderr  the error output of the compiler
+         * @return the result
+         */
+        private CompileResult verifyClassFiles(List<String> sources, List<String> cmdline, String stdout,
+                                               String stderr)
+        {
+            for (String source : sources)
+            {
+                File java_file = new File(source);
+
+                String basename = java_file.getName();
+                int dotpos = basename.lastIndexOf('.');
+                basename = basename.substring(0, dotpos) + ".class";
+                File class_file = new File(java_file.getParentFile(), basename);
+
+                if (!class_file.exists())
+                {
+                    CompileResult result = new CompileResult(messages.get("CompilePanel.error.noclassfile")
+                                                                     + java_file.getAbsolutePath(), cmdline,
+                                                             stdout, stderr);
+                    this.listener.handleCompileError(result);
+                    // don't continue any further
+                    return result;
+                }
+            }
+            return new CompileResult();
+        }
+
+        /**
+         * Determines if a directory contains a file.
+         *
+         * @param dir  the directory
+         * @param file the file
+         * @return {@code true} if the file is the directory, or is below it
+         */
+        private static boolean contains(File dir, File file)
+        {
+            return file.equals(dir) || file.getPath().startsWith(dir.getPath() + File.separator);
+        }
+
         /**
          * Check whether the given compiler works.
          * <p/>
@@ -1109,18 +1574,7 @@ public class CompileWorker implements Runnable
             args.add(0, compiler);
 
             // construct classpath argument for compiler
-            // - collect all classpaths
-            StringBuffer classpath_sb = new StringBuffer();
-            for (String cp : this.classpath)
-            {
-                if (classpath_sb.length() > 0)
-                {
-                    classpath_sb.append(File.pathSeparatorChar);
-                }
-                classpath_sb.append(new File(cp).getAbsolutePath());
-            }
-
-            String classpath_str = classpath_sb.toString();
+            String classpath_str = getClassPath();
 
             // - add classpath argument to command line
             if (classpath_str.length() > 0)
@@ -1147,6 +1601,173 @@ public class CompileWorker implements Runnable
 
     }
 
+    /**
+     * A handler that serializes notifications to another handler, so that jobs compiled in parallel don't
+     * report concurrently.
+     */
+    private static class SynchronizedCompileHandler implements CompileHandler
+    {
+        /**
+         * The handler to delegate to.
+         */
+        private final CompileHandler handler;
+
+        /**
+         * Constructs a <tt>SynchronizedCompileHandler</tt>.
+         *
+         * @param handler the handler to delegate to
+         */
+        public SynchronizedCompileHandler(CompileHandler handler)
+        {
+            this.handler = handler;
+        }
+
+        @Override
+        public void handleCompileError(CompileResult error)
+        {
+            synchronized (handler)
+            {
+                handler.handleCompileError(error);
+            }
+        }
+
+        @Override
+        public void startAction(String name, int steps)
+        {
+            synchronized (handler)
+            {
+                handler.startAction(name, steps);
+            }
+        }
+
+        @Override
+        public void stopAction()
+        {
+            synchronized (handler)
+            {
+                handler.stopAction();
+            }
+        }
+
+        @Override
+        public void nextStep(String stepName, int step, int subSteps)
+        {
+            synchronized (handler)
+            {
+                handler.nextStep(stepName, step, subSteps);
+            }
+        }
+
+        @Override
+        public void setSubStepNo(int subSteps)
+        {
+            synchronized (handler)
+            {
+                handler.setSubStepNo(subSteps);
+            }
+        }
+
+        @Override
+        public void progress(String message)
+        {
+            synchronized (handler)
+            {
+                handler.progress(message);
+            }
+        }
+
+        @Override
+        public void progress(int subStep, String message)
+        {
+            synchronized (handler)
+            {
+                handler.progress(subStep, message);
+            }
+        }
+
+        @Override
+        public void restartAction(String name, String overallMessage, String tip, int steps)
+        {
+            synchronized (handler)
+            {
+                handler.restartAction(name, overallMessage, tip, steps);
+            }
+        }
+
+        @Override
+        public void emitNotification(String message)
+        {
+            synchronized (handler)
+            {
+                handler.emitNotification(message);
+            }
+        }
+
+        @Override
+        public boolean emitWarning(String title, String message)
+        {
+            synchronized (handler)
+            {
+                return handler.emitWarning(title, message);
+            }
+        }
+
+        @Override
+        public void emitError(String title, String message)
+        {
+            synchronized (handler)
+            {
+                handler.emitError(title, message);
+            }
+        }
+
+        @Override
+        public int askQuestion(String title, String question, int choices)
+        {
+            synchronized (handler)
+            {
+                return handler.askQuestion(title, question, choices);
+            }
+        }
+
+        @Override
+        public int askQuestion(String title, String question, int choices, int default_choice)
+        {
+            synchronized (handler)
+            {
+                return handler.askQuestion(title, question, choices, default_choice);
+            }
+        }
+
+        @Override
+        public int askWarningQuestion(String title, String question, int choices, int default_choice)
+        {
+            synchronized (handler)
+            {
+                return handler.askWarningQuestion(title, question, choices, default_choice);
+            }
+        }
+    }
+
+    /**
+     * Creates daemon threads to compile jobs on.
+     */
+    private static class JobThreadFactory implements ThreadFactory
+    {
+        /**
+         * The no. of threads created.
+         */
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "compilation job " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     /**
      * This PrintStream is used to track the Eclipse compiler output.
      * <p/>
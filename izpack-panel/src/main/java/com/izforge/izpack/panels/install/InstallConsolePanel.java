@@ -24,7 +24,8 @@ package com.izforge.izpack.panels.install;
 import java.util.Properties;
 
 import com.izforge.izpack.api.data.InstallData;
-import com.izforge.izpack.api.event.ProgressListener;
+import com.izforge.izpack.api.event.ProgressStatistics;
+import com.izforge.izpack.api.event.ProgressStatisticsListener;
 import com.izforge.izpack.installer.console.AbstractConsolePanel;
 import com.izforge.izpack.installer.console.ConsolePanel;
 import com.izforge.izpack.installer.panel.PanelView;
@@ -36,7 +37,7 @@ import com.izforge.izpack.util.Console;
  *
  * @author Mounir el hajj
  */
-public class InstallConsolePanel extends AbstractConsolePanel implements ProgressListener
+public class InstallConsolePanel extends AbstractConsolePanel implements ProgressStatisticsListener
 {
     /**
      * The unpacker.
@@ -45,6 +46,16 @@ public class InstallConsolePanel extends AbstractConsolePanel implements Progres
 
     private int noOfPacks = 0;
 
+    /**
+     * The time when progress statistics were last printed.
+     */
+    private long printed;
+
+    /**
+     * The minimum time between printing progress statistics, in milliseconds.
+     */
+    private static final long PRINT_INTERVAL = 5000;
+
     public InstallConsolePanel(IUnpacker unpacker, PanelView<ConsolePanel> panel)
     {
         super(panel);
@@ -76,6 +87,7 @@ public class InstallConsolePanel extends AbstractConsolePanel implements Progres
     {
         System.out.println("[ Starting to unpack ]");
         this.noOfPacks = no_of_steps;
+        this.printed = System.currentTimeMillis();
     }
 
     @Override
@@ -90,6 +102,22 @@ public class InstallConsolePanel extends AbstractConsolePanel implements Progres
 
     }
 
+    /**
+     * Prints the throughput and estimated time remaining, at most every {@link #PRINT_INTERVAL} ms.
+     *
+     * @param statistics the progress statistics
+     */
+    @Override
+    public void progress(ProgressStatistics statistics)
+    {
+        long now = System.currentTimeMillis();
+        if (now - printed >= PRINT_INTERVAL)
+        {
+            printed = now;
+            System.out.println(ProgressText.getSummary(statistics));
+        }
+    }
+
     @Override
     public void nextStep(String packName, int stepno, int stepsize)
     {
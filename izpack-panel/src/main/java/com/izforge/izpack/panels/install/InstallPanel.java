@@ -26,7 +26,8 @@ import javax.swing.JProgressBar;
 import javax.swing.SwingUtilities;
 
 import com.izforge.izpack.api.data.Panel;
-import com.izforge.izpack.api.event.ProgressListener;
+import com.izforge.izpack.api.event.ProgressStatistics;
+import com.izforge.izpack.api.event.ProgressStatisticsListener;
 import com.izforge.izpack.api.resource.Resources;
 import com.izforge.izpack.gui.IzPanelLayout;
 import com.izforge.izpack.gui.LabelFactory;
@@ -40,7 +41,7 @@ import com.izforge.izpack.installer.gui.IzPanel;
  *
  * @author Julien Ponge
  */
-public class InstallPanel extends IzPanel implements ProgressListener
+public class InstallPanel extends IzPanel implements ProgressStatisticsListener
 {
 
     private static final long serialVersionUID = 3257282547959410992L;
@@ -90,6 +91,11 @@ public class InstallPanel extends IzPanel implements ProgressListener
      */
     private int currentStep = 0;
 
+    /**
+     * The overall progress text, excluding progress statistics. Only accessed on the event dispatch thread.
+     */
+    private String overallText = "";
+
     /**
      * Constructs an <tt>InstallPanel</tt>.
      *
@@ -160,7 +166,8 @@ public class InstallPanel extends IzPanel implements ProgressListener
                 {
                     overallProgressBar.setIndeterminate(true);
                 }
-                overallProgressBar.setString("0 / " + Integer.toString(noOfPacks));
+                overallText = "0 / " + Integer.toString(noOfPacks);
+                overallProgressBar.setString(overallText);
             }
         });
     }
@@ -242,6 +249,28 @@ public class InstallPanel extends IzPanel implements ProgressListener
         });
     }
 
+    /**
+     * Displays the throughput and estimated time remaining.
+     *
+     * @param statistics the progress statistics
+     */
+    @Override
+    public void progress(ProgressStatistics statistics)
+    {
+        final String rate = ProgressText.getRate(statistics);
+        SwingUtilities.invokeLater(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if (overallProgressBar.isEnabled())
+                {
+                    overallProgressBar.setString(rate.length() != 0 ? overallText + " - " + rate : overallText);
+                }
+            }
+        });
+    }
+
     /**
      * Pack changing.
      *
@@ -263,8 +292,8 @@ public class InstallPanel extends IzPanel implements ProgressListener
                 packProgressBar.setMaximum(max);
                 packProgressBar.setString(packName);
                 overallProgressBar.setValue(stepno - 1);
-                overallProgressBar.setString(Integer.toString(stepno) + " / "
-                                                     + Integer.toString(noOfPacks));
+                overallText = Integer.toString(stepno) + " / " + Integer.toString(noOfPacks);
+                overallProgressBar.setString(overallText);
             }
         });
     }
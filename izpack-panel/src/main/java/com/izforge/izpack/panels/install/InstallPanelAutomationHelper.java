@@ -24,7 +24,8 @@ package com.izforge.izpack.panels.install;
 import com.izforge.izpack.api.adaptator.IXMLElement;
 import com.izforge.izpack.api.data.InstallData;
 import com.izforge.izpack.api.data.Overrides;
-import com.izforge.izpack.api.event.ProgressListener;
+import com.izforge.izpack.api.event.ProgressStatistics;
+import com.izforge.izpack.api.event.ProgressStatisticsListener;
 import com.izforge.izpack.api.exception.InstallerException;
 import com.izforge.izpack.installer.automation.PanelAutomation;
 import com.izforge.izpack.installer.automation.PanelAutomationHelper;
@@ -35,7 +36,7 @@ import com.izforge.izpack.installer.unpacker.IUnpacker;
  *
  * @author Jonathan Halliday
  */
-public class InstallPanelAutomationHelper extends PanelAutomationHelper implements PanelAutomation, ProgressListener
+public class InstallPanelAutomationHelper extends PanelAutomationHelper implements PanelAutomation, ProgressStatisticsListener
 {
 
     /**
@@ -45,6 +46,16 @@ public class InstallPanelAutomationHelper extends PanelAutomationHelper implemen
 
     private int noOfPacks = 0;
 
+    /**
+     * The time when progress statistics were last printed.
+     */
+    private long printed;
+
+    /**
+     * The minimum time between printing progress statistics, in milliseconds.
+     */
+    private static final long PRINT_INTERVAL = 5000;
+
     /**
      * Constructs an <tt>InstallPanelAutomationHelper</tt>.
      *
@@ -84,6 +95,7 @@ public class InstallPanelAutomationHelper extends PanelAutomationHelper implemen
     {
         System.out.println("[ Starting to unpack ]");
         this.noOfPacks = no_of_steps;
+        this.printed = System.currentTimeMillis();
     }
 
     @Override
@@ -98,6 +110,22 @@ public class InstallPanelAutomationHelper extends PanelAutomationHelper implemen
         // silent for now. should log individual files here, if we had a verbose mode?
     }
 
+    /**
+     * Prints the throughput and estimated time remaining, at most every {@link #PRINT_INTERVAL} ms.
+     *
+     * @param statistics the progress statistics
+     */
+    @Override
+    public void progress(ProgressStatistics statistics)
+    {
+        long now = System.currentTimeMillis();
+        if (now - printed >= PRINT_INTERVAL)
+        {
+            printed = now;
+            System.out.println(ProgressText.getSummary(statistics));
+        }
+    }
+
     @Override
     public void nextStep(String packName, int stepno, int stepsize)
     {
@@ -0,0 +1,116 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.panels.install;
+
+import com.izforge.izpack.api.data.Pack;
+import com.izforge.izpack.api.event.ProgressStatistics;
+
+
+/**
+ * Formats {@link ProgressStatistics} for display.
+ */
+final class ProgressText
+{
+
+    /**
+     * Private constructor.
+     */
+    private ProgressText()
+    {
+    }
+
+    /**
+     * Formats the throughput and estimated time remaining.
+     *
+     * @param statistics the progress statistics
+     * @return the formatted statistics, or an empty string if they cannot be determined yet
+     */
+    public static String getRate(ProgressStatistics statistics)
+    {
+        StringBuilder result = new StringBuilder();
+        long rate = statistics.getBytesPerSecond();
+        if (rate >= 0)
+        {
+            result.append(Pack.toByteUnitsString(rate)).append("/s");
+            long remaining = statistics.getRemainingTime();
+            if (remaining >= 0)
+            {
+                result.append(", ETA ").append(getTime(remaining));
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Formats the progress statistics as a single line.
+     *
+     * @param statistics the progress statistics
+     * @return the formatted statistics
+     */
+    public static String getSummary(ProgressStatistics statistics)
+    {
+        StringBuilder result = new StringBuilder("[ ");
+        double fraction = statistics.getFraction();
+        if (fraction >= 0)
+        {
+            result.append((int) (fraction * 100)).append("% - ");
+        }
+        result.append(Pack.toByteUnitsString(statistics.getBytes()));
+        if (statistics.getTotalBytes() >= 0)
+        {
+            result.append(" of ").append(Pack.toByteUnitsString(statistics.getTotalBytes()));
+        }
+        String rate = getRate(statistics);
+        if (rate.length() != 0)
+        {
+            result.append(" - ").append(rate);
+        }
+        return result.append(" ]").toString();
+    }
+
+    /**
+     * Formats a duration as [h:]mm:ss.
+     *
+     * @param millis the duration in milliseconds
+     * @return the formatted duration
+     */
+    public static String getTime(long millis)
+    {
+        long seconds = (millis + 999) / 1000;
+        long hours = seconds / 3600;
+        long minutes = (seconds / 60) % 60;
+        seconds %= 60;
+        StringBuilder result = new StringBuilder();
+        if (hours > 0)
+        {
+            result.append(hours).append(':');
+            if (minutes < 10)
+            {
+                result.append('0');
+            }
+        }
+        result.append(minutes).append(':');
+        if (seconds < 10)
+        {
+            result.append('0');
+        }
+        return result.append(seconds).toString();
+    }
+}
@@ -121,7 +121,7 @@ public class JDKPathConsolePanel extends AbstractConsolePanel
             strPath = PathInputBase.normalizePath(strPath);
             detectedJavaVersion = JDKPathPanelHelper.getCurrentJavaVersion(strPath, installData.getPlatform());
 
-            String errorMessage = JDKPathPanelHelper.validate(strPath, detectedJavaVersion, messages);
+            String errorMessage = JDKPathPanelHelper.validate(strPath, detectedJavaVersion, installData, messages);
             if (!errorMessage.isEmpty())
             {
                 if (errorMessage.endsWith("?"))
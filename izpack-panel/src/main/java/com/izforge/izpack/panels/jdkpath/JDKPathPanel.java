@@ -134,7 +134,8 @@ public class JDKPathPanel extends PathInputPanel implements HyperlinkListener
             String strPath = pathSelectionPanel.getPath();
 
             detectedJavaVersion = JDKPathPanelHelper.getCurrentJavaVersion(strPath, installData.getPlatform());
-            String errorMessage = JDKPathPanelHelper.validate(strPath, detectedJavaVersion, installData.getMessages());
+            String errorMessage = JDKPathPanelHelper.validate(strPath, detectedJavaVersion, installData,
+                                                              installData.getMessages());
             if (!errorMessage.isEmpty())
             {
                 if (errorMessage.endsWith("?"))
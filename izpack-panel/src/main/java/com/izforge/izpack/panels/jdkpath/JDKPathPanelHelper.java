@@ -25,17 +25,26 @@ public class JDKPathPanelHelper
     public final static String JDK_PATH = "jdkPath";
     public final static String JDK_VAR_NAME = "jdkVarName";
 
-    private static String minVersion = null;
-    private static String maxVersion = null;
+    /**
+     * The variable holding the minimum JDK version.
+     */
+    public final static String MIN_VERSION = "JDKPathPanel.minVersion";
+
+    /**
+     * The variable holding the maximum JDK version.
+     */
+    public final static String MAX_VERSION = "JDKPathPanel.maxVersion";
 
     /**
      * MUST always be called in constructor of JDKPathConsolePanel and JDKPathPanel
+     * <p/>
+     * The version bounds are read from the installation data each time they are needed, so that concurrent
+     * installations don't share them.
+     *
      * @param installData
      */
     public static void initialize(InstallData installData)
     {
-        minVersion = installData.getVariable("JDKPathPanel.minVersion");
-        maxVersion = installData.getVariable("JDKPathPanel.maxVersion");
         installData.setVariable(JDK_VAR_NAME, JDK_PATH);
     }
 
@@ -69,11 +78,13 @@ public class JDKPathPanelHelper
         //If java is still not found set path ot JAVA_HOME to an empty string.
         Platform platform = installData.getPlatform();
         detectedJavaVersion = JDKPathPanelHelper.getCurrentJavaVersion(defaultValue, platform);
-        if (!JDKPathPanelHelper.pathIsValid(defaultValue) || !JDKPathPanelHelper.verifyVersion(detectedJavaVersion))
+        if (!JDKPathPanelHelper.pathIsValid(defaultValue)
+                || !JDKPathPanelHelper.verifyVersion(detectedJavaVersion, installData))
         {
-            defaultValue = JDKPathPanelHelper.getJavaHomeFromRegistry(handler);
+            defaultValue = JDKPathPanelHelper.getJavaHomeFromRegistry(installData, handler);
             detectedJavaVersion = JDKPathPanelHelper.getCurrentJavaVersion(defaultValue, platform);
-            if (!JDKPathPanelHelper.pathIsValid(defaultValue) || !JDKPathPanelHelper.verifyVersion(detectedJavaVersion))
+            if (!JDKPathPanelHelper.pathIsValid(defaultValue)
+                    || !JDKPathPanelHelper.verifyVersion(detectedJavaVersion, installData))
             {
                 defaultValue = "";
             }
@@ -87,10 +98,14 @@ public class JDKPathPanelHelper
      * registered, that one with the highest allowed version will be returned. Works only on windows.
      * On Unix an empty string returns.
      *
+     * @param installData the installation data, providing the version bounds
+     * @param handler     the registry handler
      * @return the path to the needed JDK if found in the windows registry
      */
-    public static String getJavaHomeFromRegistry(RegistryDefaultHandler handler)
+    public static String getJavaHomeFromRegistry(InstallData installData, RegistryDefaultHandler handler)
     {
+        String minVersion = installData.getVariable(MIN_VERSION);
+        String maxVersion = installData.getVariable(MAX_VERSION);
         String javaHome = "";
         int oldVal = 0;
         RegistryHandler registryHandler = null;
@@ -187,10 +202,13 @@ public class JDKPathPanelHelper
      * Validate that the given javaVersion meets meets the minimum and maximum java version requirements.
      *
      * @param javaVersion
+     * @param installData the installation data, providing the version bounds
      * @return
      */
-    private static boolean verifyVersion(String javaVersion)
+    private static boolean verifyVersion(String javaVersion, InstallData installData)
     {
+        String minVersion = installData.getVariable(MIN_VERSION);
+        String maxVersion = installData.getVariable(MAX_VERSION);
         boolean valid = true;
 
         // No min and max, version always ok.
@@ -376,18 +394,21 @@ public class JDKPathPanelHelper
      *
      * @param javaHome JAVA_HOME path to test
      * @param javaVersion the java version being queried
+     * @param installData the installation data, providing the version bounds
      * @param messages available messages
      * @return error message if validation failed, otherwise an empty string
      */
-    public static String validate(String javaHome, String javaVersion, Messages messages)
+    public static String validate(String javaHome, String javaVersion, InstallData installData, Messages messages)
     {
+        String minVersion = installData.getVariable(MIN_VERSION);
+        String maxVersion = installData.getVariable(MAX_VERSION);
         StringBuilder message = new StringBuilder();
 
         if(!pathIsValid(javaHome))
         {
             message.append(messages.get("PathInputPanel.notValid"));
         }
-        else if (!verifyVersion(javaVersion))
+        else if (!verifyVersion(javaVersion, installData))
         {
             message.append(messages.get("JDKPathPanel.badVersion1"))
                     .append(javaVersion)
@@ -0,0 +1,397 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.panels.packs;
+
+import com.izforge.izpack.api.data.Pack;
+import com.izforge.izpack.panels.packs.PacksModel.CbSelectionState;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+
+/**
+ * The checkbox states of the visible packs, indexed by row, together with a precomputed index of pack dependencies,
+ * dependants and exclude groups.
+ * <p/>
+ * Each state change is propagated incrementally:
+ * <ul>
+ * <li>a pack is <em>blocked</em> if any of its transitive dependencies is neither selected nor required. Only the
+ * dependants of a pack whose contribution changes are revisited</li>
+ * <li>rows whose state or blocked status changed are marked dirty, so that callers need only re-examine those
+ * rows</li>
+ * <li>the total size of checked and selected packs is maintained</li>
+ * </ul>
+ */
+class PackStates extends AbstractList<CbSelectionState> implements RandomAccess
+{
+    /**
+     * The packs, indexed by row.
+     */
+    private final List<Pack> packs;
+
+    /**
+     * The pack states, indexed by row.
+     */
+    private final CbSelectionState[] states;
+
+    /**
+     * The rows of the dependencies of each pack.
+     */
+    private final int[][] dependencies;
+
+    /**
+     * The rows of the dependants of each pack.
+     */
+    private final int[][] dependants;
+
+    /**
+     * The rows of the other packs in the same exclude group as each pack.
+     */
+    private final int[][] excluded;
+
+    /**
+     * The number of dependencies of each pack that are unselected or blocked.
+     */
+    private final int[] unsatisfied;
+
+    /**
+     * The rows whose state or blocked status has changed since the dirty rows were last cleared.
+     */
+    private final BitSet dirty = new BitSet();
+
+    /**
+     * The total size of checked packs.
+     */
+    private long checkedBytes;
+
+    /**
+     * The total size of packs that are selected or required.
+     */
+    private long selectedBytes;
+
+
+    /**
+     * Constructs a {@code PackStates}.
+     *
+     * @param packs     the visible packs, indexed by row
+     * @param nameToRow the pack name to row mapping
+     * @param states    the initial pack states, indexed by row
+     */
+    public PackStates(List<Pack> packs, Map<String, Integer> nameToRow, CbSelectionState[] states)
+    {
+        int count = packs.size();
+        this.packs = packs;
+        this.states = states;
+        dependencies = new int[count][];
+        excluded = new int[count][];
+        unsatisfied = new int[count];
+
+        List<List<Integer>> dependantRows = new ArrayList<List<Integer>>(count);
+        Map<String, List<Integer>> groups = new HashMap<String, List<Integer>>();
+        for (int row = 0; row < count; ++row)
+        {
+            dependantRows.add(new ArrayList<Integer>());
+            String group = packs.get(row).getExcludeGroup();
+            if (group != null)
+            {
+                List<Integer> rows = groups.get(group);
+                if (rows == null)
+                {
+                    rows = new ArrayList<Integer>();
+                    groups.put(group, rows);
+                }
+                rows.add(row);
+            }
+        }
+
+        for (int row = 0; row < count; ++row)
+        {
+            Pack pack = packs.get(row);
+            Set<Integer> rows = new LinkedHashSet<Integer>();
+            if (pack.getDependencies() != null)
+            {
+                for (String name : pack.getDependencies())
+                {
+                    Integer dependency = nameToRow.get(name);
+                    if (dependency != null && rows.add(dependency))
+                    {
+                        dependantRows.get(dependency).add(row);
+                    }
+                }
+            }
+            dependencies[row] = toArray(rows, -1);
+            String group = pack.getExcludeGroup();
+            excluded[row] = (group != null) ? toArray(groups.get(group), row) : new int[0];
+        }
+        dependants = new int[count][];
+        for (int row = 0; row < count; ++row)
+        {
+            dependants[row] = toArray(dependantRows.get(row), -1);
+        }
+
+        for (int row = 0; row < count; ++row)
+        {
+            addBytes(row, states[row], 1);
+            if (isUnselected(states[row]))
+            {
+                propagate(row, 1);
+            }
+        }
+        dirty.set(0, count);
+    }
+
+    /**
+     * Returns the state of a pack.
+     *
+     * @param row the pack row
+     * @return the state
+     */
+    @Override
+    public CbSelectionState get(int row)
+    {
+        return states[row];
+    }
+
+    /**
+     * Sets the state of a pack, propagating any change to its dependants.
+     *
+     * @param row   the pack row
+     * @param state the new state
+     * @return the previous state
+     */
+    @Override
+    public CbSelectionState set(int row, CbSelectionState state)
+    {
+        CbSelectionState old = states[row];
+        if (old != state)
+        {
+            states[row] = state;
+            dirty.set(row);
+            addBytes(row, old, -1);
+            addBytes(row, state, 1);
+            boolean wasUnselected = isUnselected(old);
+            if (wasUnselected != isUnselected(state) && !isBlocked(row))
+            {
+                propagate(row, wasUnselected ? -1 : 1);
+            }
+        }
+        return old;
+    }
+
+    /**
+     * Returns the number of packs.
+     *
+     * @return the number of packs
+     */
+    @Override
+    public int size()
+    {
+        return states.length;
+    }
+
+    /**
+     * Determines if a pack is blocked, i.e. if any of its transitive dependencies is neither selected nor
+     * required.
+     *
+     * @param row the pack row
+     * @return {@code true} if the pack is blocked
+     */
+    public boolean isBlocked(int row)
+    {
+        return unsatisfied[row] != 0;
+    }
+
+    /**
+     * Returns the rows of the blocked packs.
+     *
+     * @return the blocked rows
+     */
+    public BitSet getBlocked()
+    {
+        BitSet result = new BitSet(states.length);
+        for (int row = 0; row < states.length; ++row)
+        {
+            if (unsatisfied[row] != 0)
+            {
+                result.set(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the rows whose state or blocked status has changed since they were last cleared, and clears them.
+     *
+     * @return the dirty rows
+     */
+    public BitSet clearDirty()
+    {
+        BitSet result = (BitSet) dirty.clone();
+        dirty.clear();
+        return result;
+    }
+
+    /**
+     * Returns the rows of the dependencies of a pack.
+     *
+     * @param row the pack row
+     * @return the dependency rows
+     */
+    public int[] getDependencies(int row)
+    {
+        return dependencies[row];
+    }
+
+    /**
+     * Returns the rows of the other packs in the same exclude group as a pack.
+     *
+     * @param row the pack row
+     * @return the excluded rows
+     */
+    public int[] getExcluded(int row)
+    {
+        return excluded[row];
+    }
+
+    /**
+     * Returns the total size of the checked packs.
+     *
+     * @return the total size, in bytes
+     * @see CbSelectionState#isChecked()
+     */
+    public long getCheckedBytes()
+    {
+        return checkedBytes;
+    }
+
+    /**
+     * Returns the total size of the packs that are selected or required.
+     *
+     * @return the total size, in bytes
+     * @see CbSelectionState#isSelectedOrRequiredSelected()
+     */
+    public long getSelectedBytes()
+    {
+        return selectedBytes;
+    }
+
+    /**
+     * Propagates a change in whether a pack is unselected or blocked to its transitive dependants.
+     *
+     * @param row   the pack row
+     * @param delta {@code 1} if the pack became unselected or blocked, {@code -1} if it no longer is
+     */
+    private void propagate(int row, int delta)
+    {
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = row;
+        while (size != 0)
+        {
+            int current = stack[--size];
+            for (int dependant : dependants[current])
+            {
+                int before = unsatisfied[dependant];
+                unsatisfied[dependant] = before + delta;
+                boolean flipped = (delta > 0) ? before == 0 : before == 1;
+                if (flipped)
+                {
+                    dirty.set(dependant);
+                    if (!isUnselected(states[dependant]))
+                    {
+                        if (size == stack.length)
+                        {
+                            int[] grown = new int[size * 2];
+                            System.arraycopy(stack, 0, grown, 0, size);
+                            stack = grown;
+                        }
+                        stack[size++] = dependant;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the size of a pack to the totals for a state.
+     *
+     * @param row   the pack row
+     * @param state the state. May be {@code null}
+     * @param sign  {@code 1} to add, {@code -1} to subtract
+     */
+    private void addBytes(int row, CbSelectionState state, int sign)
+    {
+        if (state != null)
+        {
+            long size = packs.get(row).getSize();
+            if (state.isChecked())
+            {
+                checkedBytes += sign * size;
+            }
+            if (state.isSelectedOrRequiredSelected())
+            {
+                selectedBytes += sign * size;
+            }
+        }
+    }
+
+    /**
+     * Determines if a state makes the dependants of a pack unresolvable.
+     *
+     * @param state the state. May be {@code null}
+     * @return {@code true} if the state is neither selected nor required
+     */
+    private static boolean isUnselected(CbSelectionState state)
+    {
+        return state == null || !state.isSelectedOrRequiredSelected();
+    }
+
+    /**
+     * Converts rows to an array.
+     *
+     * @param rows    the rows
+     * @param exclude a row to exclude, or {@code -1}
+     * @return the rows
+     */
+    private static int[] toArray(Iterable<Integer> rows, int exclude)
+    {
+        List<Integer> list = new ArrayList<Integer>();
+        for (Integer row : rows)
+        {
+            if (row != exclude)
+            {
+                list.add(row);
+            }
+        }
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; ++i)
+        {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+}
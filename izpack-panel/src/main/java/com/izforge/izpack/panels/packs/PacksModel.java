@@ -26,7 +26,6 @@ package com.izforge.izpack.panels.packs;
 
 import com.izforge.izpack.api.data.InstallData;
 import com.izforge.izpack.api.data.Pack;
-import com.izforge.izpack.api.data.PackColor;
 import com.izforge.izpack.api.data.Variables;
 import com.izforge.izpack.api.exception.ResourceNotFoundException;
 import com.izforge.izpack.api.resource.Messages;
@@ -61,7 +60,7 @@ public class PacksModel extends AbstractTableModel
 
     private final Map<String, Pack> installedPacks;
 
-    List<CbSelectionState> checkValues;
+    PackStates checkValues;
 
     private final Map<String, Pack> nameToPack;
     private final Map<String, Integer> nameToRow;
@@ -274,94 +273,83 @@ public class PacksModel extends AbstractTableModel
      * @param packsToInstall
      * @return
      */
-    private List<CbSelectionState> initCheckValues(List<Pack> packs, List<Pack> packsToInstall)
+    private PackStates initCheckValues(List<Pack> packs, List<Pack> packsToInstall)
     {
-        CbSelectionState[] checkValues = new CbSelectionState[packs.size()];
+        CbSelectionState[] states = new CbSelectionState[packs.size()];
+        Set<String> names = new HashSet<String>();
+        for (Pack pack : packsToInstall)
+        {
+            names.add(pack.getName());
+        }
 
         // If a pack is indicated to be installed checkbox value should be SELECTED
         for (int i = 0; i < packs.size(); i++)
         {
             Pack pack = packs.get(i);
-            if (packsToInstall.contains(pack))
+            if (names.contains(pack.getName()))
             {
-                checkValues[i] = CbSelectionState.SELECTED;
+                states[i] = CbSelectionState.SELECTED;
             }
             else
             {
-                checkValues[i] = CbSelectionState.DESELECTED;
+                states[i] = CbSelectionState.DESELECTED;
             }
         }
 
+        PackStates checkValues = new PackStates(packs, nameToRow, states);
+
         // If a packs dependency cannot be resolved checkboc value should be DEPENDENT_DESELECTED
         for (int i = 0; i < packs.size(); i++)
         {
             Pack pack = packs.get(i);
-            if (checkValues[i] == CbSelectionState.DESELECTED)
+            if (checkValues.get(i) == CbSelectionState.DESELECTED)
             {
                 List<String> deps = pack.getDependants();
                 for (int j = 0; deps != null && j < deps.size(); j++)
                 {
                     String name = deps.get(j);
                     int pos = getPos(name);
-                    checkValues[pos] = CbSelectionState.DEPENDENT_DESELECTED;
+                    checkValues.set(pos, CbSelectionState.DEPENDENT_DESELECTED);
                 }
             }
 
             // for mutual exclusion, uncheck uncompatible packs too
             // (if available in the current installGroup)
-            CbSelectionState checkState = checkValues[i];
-            if (checkState != null && checkState.isFullyOrPartiallySelected() && pack.getExcludeGroup() != null)
-            {
-                for (int q = 0; q < packs.size(); q++)
-                {
-                    if (q != i)
-                    {
-                        Pack otherPack = packs.get(q);
-                        if (pack.getExcludeGroup().equals(otherPack.getExcludeGroup()))
-                        {
-                            if (checkValues[q] == CbSelectionState.SELECTED)
-                            {
-                                checkValues[q] = CbSelectionState.DESELECTED;
-                            }
-                        }
-                    }
-                }
-            }
+            updateExcludes(checkValues, i);
         }
 
         // Configure required packs
-        for (Pack pack : packs)
+        for (int i = 0; i < packs.size(); i++)
         {
-            if (pack.isRequired())
+            if (packs.get(i).isRequired())
             {
-                checkValues = propRequirement(pack.getName(), Arrays.asList(checkValues)).toArray(new CbSelectionState[checkValues.length]);
+                propRequirement(checkValues, i);
             }
         }
 
-        return Arrays.asList(checkValues);
+        return checkValues;
     }
 
     /**
      * Configure required packs.
-     * @param name
-     * @param checkValues
-     * @return
+     * <p/>
+     * The pack is marked as required, and its requirement propagated to its first dependency.
+     *
+     * @param checkValues the pack states
+     * @param row         the row of the required pack
      */
-    private List<CbSelectionState> propRequirement(String name, List<CbSelectionState> checkValues)
+    private void propRequirement(PackStates checkValues, int row)
     {
-
-        final int pos = getPos(name);
-        checkValues.set(pos, CbSelectionState.REQUIRED_SELECTED);
-        List<String> deps = packs.get(pos).getDependencies();
-        if (deps != null)
+        while (true)
         {
-            for (String s : deps)
+            checkValues.set(row, CbSelectionState.REQUIRED_SELECTED);
+            List<String> deps = packs.get(row).getDependencies();
+            if (deps == null || deps.isEmpty())
             {
-                return propRequirement(s, checkValues);
+                break;
             }
+            row = getPos(deps.get(0));
         }
-        return checkValues;
-
     }
 
     /**
@@ -710,40 +698,37 @@ public class PacksModel extends AbstractTableModel
 
     /**
      * This function updates the checkboxes after a change by disabling packs that cannot be
-     * installed anymore and enabling those that can after the change. This is accomplished by
-     * running a search that pinpoints the packs that must be disabled by a non-fullfiled
-     * dependency.
-     * TODO: Look into "+2" and "-2", doesn't look safe
+     * installed anymore and enabling those that can after the change. The packs that must be
+     * disabled by a non-fullfiled dependency are maintained incrementally by {@link PackStates},
+     * so only the packs affected by the change are examined.
      */
     private void updateDeps()
     {
-        int[] statusArray = new int[packs.size()];
-        for (int i = 0; i < statusArray.length; i++)
-        {
-            statusArray[i] = 0;
-        }
-        dfs(statusArray);
-        for (int i = 0; i < statusArray.length; i++)
+        // only the rows whose state or dependencies changed since the last update need to be examined
+        BitSet blocked = checkValues.getBlocked();
+        BitSet dirty = checkValues.clearDirty();
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1))
         {
-            if (statusArray[i] == 0 && !checkValues.get(i).isSelectable())
+            if (!blocked.get(i) && !checkValues.get(i).isSelectable())
             {
                 checkValues.set(i, CbSelectionState.PARTIAL_SELECTED);
             }
-            if (statusArray[i] == 1 && checkValues.get(i).isSelectable())
+            if (blocked.get(i) && checkValues.get(i).isSelectable())
             {
                 checkValues.set(i, CbSelectionState.DEPENDENT_DESELECTED);
             }
 
         }
         // The required ones must propagate their required status to all the ones that they depend on
-        for (Pack pack : packs)
+        for (int i = 0; i < packs.size(); i++)
         {
+            Pack pack = packs.get(i);
             if (pack.isRequired())
             {
                 String name = pack.getName();
                 if (!(!rules.canInstallPack(name, variables) && rules.canInstallPackOptional(name, variables)))
                 {
-                    checkValues = propRequirement(name, checkValues);
+                    propRequirement(checkValues, i);
                 }
             }
         }
@@ -755,86 +740,25 @@ public class PacksModel extends AbstractTableModel
      */
     private void updateExcludes(int rowindex)
     {
-        CbSelectionState value = checkValues.get(rowindex);
-        Pack pack = packs.get(rowindex);
-        if (value != null && value.isFullyOrPartiallySelected() && pack.getExcludeGroup() != null)
-        {
-            for (int q = 0; q < packs.size(); q++)
-            {
-                if (rowindex != q)
-                {
-                    Pack otherPack = packs.get(q);
-                    String name1 = otherPack.getExcludeGroup();
-                    String name2 = pack.getExcludeGroup();
-                    if (name2.equals(name1))
-                    {
-                        if (checkValues.get(q) == CbSelectionState.SELECTED)
-                        {
-                            checkValues.set(q, CbSelectionState.DESELECTED);
-                        }
-                    }
-                }
-            }
-        }
+        updateExcludes(checkValues, rowindex);
     }
 
-
-    /**
-     * We use a modified dfs graph search algorithm as described in: Thomas H. Cormen, Charles
-     * Leiserson, Ronald Rivest and Clifford Stein. Introduction to algorithms 2nd Edition
-     * 540-549,MIT Press, 2001
+    /*
+     * Deselects the packs in the same exclude group as a selected pack
      */
-    private void dfs(int[] status)
-    {
-        Map<String, PackColor> colours = new HashMap<String, PackColor>();
-        for (int i = 0; i < packs.size(); i++)
-        {
-            for (Pack pack : packs)
-            {
-                colours.put(pack.getName(), PackColor.WHITE);
-            }
-            Pack pack = packs.get(i);
-            boolean wipe = false;
-
-            if (dfsVisit(pack, status, wipe, colours) != 0)
-            {
-                return;
-            }
-
-        }
-    }
-
-    private int dfsVisit(Pack u, int[] status, boolean wipe, Map<String, PackColor> colours)
+    private static void updateExcludes(PackStates checkValues, int rowindex)
     {
-        colours.put(u.getName(), PackColor.GREY);
-        CbSelectionState check = checkValues.get(getPos(u.getName()));
-
-        if (!check.isSelectedOrRequiredSelected())
-        {
-            wipe = true;
-        }
-        List<String> deps = u.getDependants();
-        if (deps != null)
+        CbSelectionState value = checkValues.get(rowindex);
+        if (value != null && value.isFullyOrPartiallySelected())
         {
-            for (String name : deps)
+            for (int q : checkValues.getExcluded(rowindex))
             {
-                Pack v = nameToPack.get(name);
-                if (wipe)
+                if (checkValues.get(q) == CbSelectionState.SELECTED)
                 {
-                    status[getPos(v.getName())] = 1;
-                }
-                if (colours.get(v.getName()) == PackColor.WHITE)
-                {
-                    final int result = dfsVisit(v, status, wipe, colours);
-                    if (result != 0)
-                    {
-                        return result;
-                    }
+                    checkValues.set(q, CbSelectionState.DESELECTED);
                 }
             }
         }
-        colours.put(u.getName(), PackColor.BLACK);
-        return 0;
     }
 
     /**
@@ -983,18 +907,15 @@ public class PacksModel extends AbstractTableModel
      */
     public long getTotalByteSize()
     {
-        Map<Pack, Integer> packToRow = getPacksToRowNumbers();
-        int row;
-        long bytes = 0;
-        for (Pack pack : packs)
-        {
-            row = packToRow.get(pack);
-            if(isChecked(row))
-            {
-                bytes += pack.getSize();
-            }
-        }
-        return bytes;
+        return checkValues.getCheckedBytes();
+    }
+
+    /**
+     * @return the number of bytes of the visible packs that are selected or required
+     */
+    long getSelectedByteSize()
+    {
+        return checkValues.getSelectedBytes();
     }
 
     /**
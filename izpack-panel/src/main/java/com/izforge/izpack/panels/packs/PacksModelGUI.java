@@ -63,15 +63,7 @@ public class PacksModelGUI extends PacksModel
 
     private void updateBytes()
     {
-        long bytes = 0;
-        for (int q = 0; q < packs.size(); q++)
-        {
-            if (checkValues.get(q).isSelectedOrRequiredSelected())
-            {
-                Pack pack = packs.get(q);
-                bytes += pack.getSize();
-            }
-        }
+        long bytes = getSelectedByteSize();
 
         // add selected hidden bytes
         for (Pack hidden : this.hiddenPacks)
@@ -21,6 +21,15 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,6 +41,11 @@ import java.util.logging.Logger;
  * <li>parsing the process spec XML file
  * <li>performing the actions described therein
  * </ul>
+ * <p/>
+ * Jobs run in the order they are declared, unless they are marked <em>parallel</em>, or declare the jobs they
+ * <em>depend</em> on. Such jobs run concurrently with each other on a bounded pool, once the jobs they depend on and
+ * the preceding sequential job have completed. A sequential job waits for all preceding jobs. The output of
+ * concurrent jobs is prefixed with the job name.
  *
  * @author Tino Schwarze
  */
@@ -60,6 +74,21 @@ public class ProcessPanelWorker implements Runnable
      */
     private ArrayList<ProcessPanelWorker.ProcessingJob> finalJobs = new ArrayList<ProcessPanelWorker.ProcessingJob>();
 
+    /**
+     * The last sequential job read, which subsequent jobs must wait for. May be {@code null}.
+     */
+    private ProcessingJob barrier;
+
+    /**
+     * Determines if any jobs may run concurrently.
+     */
+    private boolean concurrent;
+
+    /**
+     * The maximum no. of jobs to run concurrently.
+     */
+    private int threads;
+
     private boolean result = true;
 
     private PrintWriter logfile = null;
@@ -68,6 +97,11 @@ public class ProcessPanelWorker implements Runnable
 
     private final InstallData idata;
 
+    /**
+     * Serializes questions and messages from concurrent jobs.
+     */
+    private final Object promptLock = new Object();
+
     private final Map<Boolean, List<ButtonConfig>> buttonConfigs = new HashMap<Boolean, List<ButtonConfig>>();
     private final RulesEngine rules;
 
@@ -139,6 +173,20 @@ public class ProcessPanelWorker implements Runnable
             return false;
         }
 
+        threads = Runtime.getRuntime().availableProcessors();
+        String threadsValue = spec.getAttribute("threads");
+        if (threadsValue != null)
+        {
+            try
+            {
+                threads = Math.max(1, Integer.parseInt(threadsValue.trim()));
+            }
+            catch (NumberFormatException exception)
+            {
+                logger.warning("Invalid threads attribute: " + threadsValue);
+            }
+        }
+
         // Handle logfile
         IXMLElement logFileDirElement = spec.getFirstChildNamed("logfiledir");
         if (logFileDirElement != null)
@@ -235,6 +283,7 @@ public class ProcessPanelWorker implements Runnable
 
                 Boolean isCatch = job_el.hasAttribute("catch") && Boolean.parseBoolean(job_el.getAttribute("catch"));
                 Boolean isFinal = job_el.hasAttribute("final") && Boolean.parseBoolean(job_el.getAttribute("final"));
+                boolean parallel = Boolean.parseBoolean(job_el.getAttribute("parallel", "false"));
 
                 if (ef_list.isEmpty())
                 {
@@ -247,7 +296,7 @@ public class ProcessPanelWorker implements Runnable
                     } else if (isFinal) {
                         this.finalJobs.add(new ProcessingJob(job_name, ef_list));
                     } else {
-                        this.jobs.add(new ProcessingJob(job_name, ef_list));
+                        addJob(new ProcessingJob(job_name, ef_list), parallel, job_el.getAttribute("depends"));
                     }
                 }
             }
@@ -280,6 +329,68 @@ public class ProcessPanelWorker implements Runnable
         return true;
     }
 
+    /**
+     * Adds a job, determining the jobs it must wait for.
+     *
+     * @param job      the job
+     * @param parallel if {@code true}, the job may run concurrently with other jobs
+     * @param depends  a comma separated list of the names of preceding jobs that the job depends on. May be
+     *                 {@code null}
+     */
+    private void addJob(ProcessingJob job, boolean parallel, String depends)
+    {
+        if (depends != null && depends.trim().length() != 0)
+        {
+            parallel = true;
+            for (String name : depends.split(","))
+            {
+                name = name.trim();
+                ProcessingJob dependency = getJob(name);
+                if (dependency != null)
+                {
+                    job.dependencies.add(dependency);
+                }
+                else if (name.length() != 0)
+                {
+                    logger.warning("Job '" + job.name + "' depends on '" + name
+                                           + "', which is not a preceding job. The dependency is ignored");
+                }
+            }
+        }
+        if (parallel)
+        {
+            if (barrier != null)
+            {
+                job.dependencies.add(barrier);
+            }
+            concurrent = true;
+        }
+        else
+        {
+            job.dependencies.addAll(jobs);
+            barrier = job;
+        }
+        jobs.add(job);
+    }
+
+    /**
+     * Returns a job given its name.
+     *
+     * @param name the job name
+     * @return the job, or {@code null} if none is found
+     */
+    private ProcessingJob getJob(String name)
+    {
+        for (ProcessingJob job : jobs)
+        {
+            if (job.name.equals(name))
+            {
+                return job;
+            }
+        }
+        return null;
+    }
+
     /**
      * This is called when the processing thread is activated.
      * <p/>
@@ -294,6 +405,10 @@ public class ProcessPanelWorker implements Runnable
         try
         {
             jobs.clear();
+            catchJobs.clear();
+            finalJobs.clear();
+            barrier = null;
+            concurrent = false;
             if (!readSpec())
             {
                 System.err.println("Error parsing XML specification for processing.");
@@ -345,20 +460,15 @@ public class ProcessPanelWorker implements Runnable
         /**
          * Process panel jobs.
          */
-        for (ProcessPanelWorker.ProcessingJob processingJob : this.jobs)
+        this.result = concurrent ? runConcurrently(this.jobs) : runSequentially(this.jobs);
+        if (!this.result)
         {
-            this.result = runJob(processingJob);
-
-            if (!this.result)
+            /**
+             * Jobs run in event of failure.
+             */
+            for (ProcessPanelWorker.ProcessingJob catchJob : this.catchJobs)
             {
-                /**
-                 * Jobs run in event of failure.
-                 */
-                for (ProcessPanelWorker.ProcessingJob catchJob : this.catchJobs)
-                {
-                    runJob(catchJob);
-                }
-                break;
+                runJob(catchJob, this.handler);
             }
         }
 
@@ -367,7 +477,7 @@ public class ProcessPanelWorker implements Runnable
          */
         for (ProcessPanelWorker.ProcessingJob finalJob : this.finalJobs)
         {
-            runJob(finalJob);
+            runJob(finalJob, this.handler);
         }
 
         boolean unlockNext = true;
@@ -401,24 +511,147 @@ public class ProcessPanelWorker implements Runnable
         }
     }
 
+    /**
+     * Runs jobs one after the other, stopping at the first failure.
+     *
+     * @param jobs the jobs to run
+     * @return {@code true} if all jobs succeeded, otherwise {@code false}
+     */
+    private boolean runSequentially(List<ProcessingJob> jobs)
+    {
+        for (ProcessingJob job : jobs)
+        {
+            if (!runJob(job, this.handler))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs jobs concurrently, each as soon as the jobs it depends on have completed.
+     * <p/>
+     * Once a job fails, no more jobs are started, and the running jobs are waited for.
+     *
+     * @param jobs the jobs to run
+     * @return {@code true} if all jobs succeeded, otherwise {@code false}
+     */
+    private boolean runConcurrently(List<ProcessingJob> jobs)
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, jobs.size())),
+                                                            new JobThreadFactory());
+        CompletionService<Boolean> completion = new ExecutorCompletionService<Boolean>(pool);
+        Map<Future<Boolean>, ProcessingJob> running = new HashMap<Future<Boolean>, ProcessingJob>();
+        Set<ProcessingJob> completed = new HashSet<ProcessingJob>();
+        List<ProcessingJob> pending = new ArrayList<ProcessingJob>(jobs);
+        boolean success = true;
+        try
+        {
+            while (true)
+            {
+                if (success)
+                {
+                    Iterator<ProcessingJob> iterator = pending.iterator();
+                    while (iterator.hasNext())
+                    {
+                        final ProcessingJob job = iterator.next();
+                        if (completed.containsAll(job.dependencies))
+                        {
+                            iterator.remove();
+                            final AbstractUIProcessHandler jobHandler = new JobHandler(job.name);
+                            Future<Boolean> future = completion.submit(new Callable<Boolean>()
+                            {
+                                @Override
+                                public Boolean call()
+                                {
+                                    return runJob(job, jobHandler);
+                                }
+                            });
+                            running.put(future, job);
+                        }
+                    }
+                }
+                if (running.isEmpty())
+                {
+                    break;
+                }
+                Future<Boolean> future = completion.take();
+                ProcessingJob job = running.remove(future);
+                completed.add(job);
+                if (!getResult(job, future))
+                {
+                    success = false;
+                }
+            }
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+            success = false;
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        return success;
+    }
+
+    /**
+     * Returns the result of a job run concurrently.
+     *
+     * @param job    the job
+     * @param future the job future
+     * @return the job's return value, or {@code false} if it threw an exception
+     * @throws InterruptedException if interrupted
+     */
+    private boolean getResult(ProcessingJob job, Future<Boolean> future) throws InterruptedException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (ExecutionException exception)
+        {
+            logger.log(Level.SEVERE, "Job '" + job.name + "' failed", exception.getCause());
+            return false;
+        }
+    }
+
     /**
      * Runs the specified process panel job.
      * @param job a ProcessPanelWorker job.
+     * @param handler the handler to report to
      * @return the job's return value.
      */
-    private boolean runJob(ProcessPanelWorker.ProcessingJob job)
+    private boolean runJob(ProcessPanelWorker.ProcessingJob job, AbstractUIProcessHandler handler)
     {
         Boolean val;
 
-        this.handler.startProcess(job.name);
+        handler.startProcess(job.name);
 
-        val = job.run(this.handler, idata.getVariables());
+        val = job.run(handler, idata.getVariables());
 
-        this.handler.finishProcess();
+        handler.finishProcess();
 
         return val;
     }
 
+    /**
+     * Writes a line of job output to the log file, if one was specified.
+     *
+     * @param handler the job handler
+     * @param line    the line to write
+     */
+    private void writeLog(AbstractUIProcessHandler handler, String line)
+    {
+        if (logfile != null)
+        {
+            logfile.println((handler instanceof JobHandler) ? ((JobHandler) handler).format(line) : line);
+        }
+    }
+
     /**
      * Start the compilation in a separate thread.
      */
@@ -457,6 +690,11 @@ public class ProcessPanelWorker implements Runnable
 
         private List<ProcessPanelWorker.Processable> processables;
 
+        /**
+         * The jobs that must complete before this one starts.
+         */
+        private final Set<ProcessingJob> dependencies = new LinkedHashSet<ProcessingJob>();
+
         public ProcessingJob(String name, List<ProcessPanelWorker.Processable> processables)
         {
             this.name = name;
@@ -662,11 +900,7 @@ public class ProcessPanelWorker implements Runnable
                         this.handler.logOutput(line, stderr);
 
                         // log output also to file given in ProcessPanelSpec
-
-                        if (logfile != null)
-                        {
-                            logfile.println(line);
-                        }
+                        writeLog(this.handler, line);
 
                         synchronized (this.stop)
                         {
@@ -682,11 +916,7 @@ public class ProcessPanelWorker implements Runnable
                     this.handler.logOutput(ioe.toString(), true);
 
                     // log errors also to file given in ProcessPanelSpec
-
-                    if (logfile != null)
-                    {
-                        logfile.println(ioe.toString());
-                    }
+                    writeLog(this.handler, ioe.toString());
 
                 }
 
@@ -885,6 +1115,217 @@ public class ProcessPanelWorker implements Runnable
         return (false);
     }
 
+    /**
+     * Handler for a job run concurrently with others.
+     * <p/>
+     * This serializes calls to the panel handler, and prefixes output with the job name, so that the output of
+     * concurrent jobs can be told apart. Questions and errors are serialized separately, so that output continues
+     * while one is displayed. They aren't serialized on the event dispatch thread, which Swing already serializes.
+     */
+    private class JobHandler implements AbstractUIProcessHandler
+    {
+        /**
+         * The output prefix.
+         */
+        private final String prefix;
+
+        /**
+         * Constructs a <tt>JobHandler</tt>.
+         *
+         * @param name the job name
+         */
+        public JobHandler(String name)
+        {
+            this.prefix = "[" + name + "] ";
+        }
+
+        /**
+         * Prefixes a line of output with the job name.
+         *
+         * @param line the line
+         * @return the prefixed line
+         */
+        public String format(String line)
+        {
+            return prefix + line;
+        }
+
+        @Override
+        public void logOutput(String message, boolean stderr)
+        {
+            synchronized (handler)
+            {
+                handler.logOutput(format(message), stderr);
+            }
+        }
+
+        @Override
+        public void startProcessing(int no_of_processes)
+        {
+            synchronized (handler)
+            {
+                handler.startProcessing(no_of_processes);
+            }
+        }
+
+        @Override
+        public void startProcess(String name)
+        {
+            synchronized (handler)
+            {
+                handler.startProcess(name);
+            }
+        }
+
+        @Override
+        public void finishProcess()
+        {
+            synchronized (handler)
+            {
+                handler.finishProcess();
+            }
+        }
+
+        @Override
+        public void finishProcessing(boolean unlockPrev, boolean unlockNext)
+        {
+            synchronized (handler)
+            {
+                handler.finishProcessing(unlockPrev, unlockNext);
+            }
+        }
+
+        @Override
+        public void emitNotification(final String message)
+        {
+            prompt(new Callable<Object>()
+            {
+                @Override
+                public Object call()
+                {
+                    handler.emitNotification(format(message));
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public boolean emitWarning(final String title, final String message)
+        {
+            return prompt(new Callable<Boolean>()
+            {
+                @Override
+                public Boolean call()
+                {
+                    return handler.emitWarning(title, format(message));
+                }
+            });
+        }
+
+        @Override
+        public void emitError(final String title, final String message)
+        {
+            prompt(new Callable<Object>()
+            {
+                @Override
+                public Object call()
+                {
+                    handler.emitError(title, format(message));
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public int askQuestion(final String title, final String question, final int choices)
+        {
+            return prompt(new Callable<Integer>()
+            {
+                @Override
+                public Integer call()
+                {
+                    return handler.askQuestion(title, format(question), choices);
+                }
+            });
+        }
+
+        @Override
+        public int askQuestion(final String title, final String question, final int choices,
+                               final int default_choice)
+        {
+            return prompt(new Callable<Integer>()
+            {
+                @Override
+                public Integer call()
+                {
+                    return handler.askQuestion(title, format(question), choices, default_choice);
+                }
+            });
+        }
+
+        @Override
+        public int askWarningQuestion(final String title, final String question, final int choices,
+                                      final int default_choice)
+        {
+            return prompt(new Callable<Integer>()
+            {
+                @Override
+                public Integer call()
+                {
+                    return handler.askWarningQuestion(title, format(question), choices, default_choice);
+                }
+            });
+        }
+
+        /**
+         * Displays a question or message, one at a time.
+         *
+         * @param prompt the prompt
+         * @return the result of the prompt
+         */
+        private <T> T prompt(Callable<T> prompt)
+        {
+            try
+            {
+                if (SwingUtilities.isEventDispatchThread())
+                {
+                    return prompt.call();
+                }
+                synchronized (promptLock)
+                {
+                    return prompt.call();
+                }
+            }
+            catch (RuntimeException exception)
+            {
+                throw exception;
+            }
+            catch (Exception exception)
+            {
+                throw new IllegalStateException(exception);
+            }
+        }
+    }
+
+    /**
+     * Creates daemon threads to run jobs on.
+     */
+    private static class JobThreadFactory implements ThreadFactory
+    {
+        /**
+         * The no. of threads created.
+         */
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "processing job " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     private static class QuestionErrorDisplayer implements Runnable
     {
         private AbstractUIProcessHandler uiHandler;
@@ -504,9 +504,10 @@ public class TreePacksPanel extends IzPanel
             int i = getRowIndex(pack);
             if (pack.getExcludeGroup() != null)
             {
-                for (int q = 0; q < packsModel.getVisiblePacks().size(); q++)
+                List<Pack> visiblePacks = packsModel.getVisiblePacks();
+                for (int q = 0; q < visiblePacks.size(); q++)
                 {
-                    Pack otherPack = packsModel.getVisiblePacks().get(q);
+                    Pack otherPack = visiblePacks.get(q);
                     String exGroup = otherPack.getExcludeGroup();
                     if (exGroup != null)
                     {
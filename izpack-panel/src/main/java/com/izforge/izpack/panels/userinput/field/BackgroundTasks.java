@@ -0,0 +1,92 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.panels.userinput.field;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Runs field tasks that may block, such as validation and searches, off the calling thread.
+ * <p/>
+ * Each task gets its own thread, so a task that hangs, such as a validator waiting on an unreachable host, can't
+ * delay other tasks. Threads are daemons, created on demand, reused when free, and exit when idle.
+ */
+public final class BackgroundTasks
+{
+
+    /**
+     * The executor.
+     */
+    private static final ExecutorService executor = createExecutor();
+
+    /**
+     * Private constructor.
+     */
+    private BackgroundTasks()
+    {
+    }
+
+    /**
+     * Runs a task in the background.
+     *
+     * @param task the task
+     */
+    public static void execute(Runnable task)
+    {
+        executor.execute(task);
+    }
+
+    /**
+     * Runs a task in the background.
+     *
+     * @param task the task
+     * @return the future result of the task
+     */
+    public static <T> Future<T> submit(Callable<T> task)
+    {
+        return executor.submit(task);
+    }
+
+    /**
+     * Creates the executor.
+     *
+     * @return a new executor
+     */
+    private static ExecutorService createExecutor()
+    {
+        return new ThreadPoolExecutor(
+                0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "IzPack-UserInput");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
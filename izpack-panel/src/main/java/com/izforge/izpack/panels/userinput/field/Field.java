@@ -29,6 +29,8 @@ import com.izforge.izpack.core.rules.process.ExistsCondition;
 import com.izforge.izpack.panels.userinput.processorclient.ValuesProcessingClient;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -487,15 +489,107 @@ public abstract class Field
      * @return the status of the validation
      */
     public ValidationStatus validate(ValuesProcessingClient values)
+    {
+        return validate(values, -1);
+    }
+
+    /**
+     * Validates values using any validators associated with the field, without waiting on validators that run in
+     * the background.
+     * <p/>
+     * If a background validation hasn't completed, this returns an {@link ValidationStatus#isIncomplete()
+     * incomplete} status. The validation continues, and its result is used the next time the values are validated.
+     *
+     * @param values the values to validate
+     * @return the status of the validation
+     * @see FieldValidator#isBlocking()
+     */
+    public ValidationStatus getValidationStatus(String... values)
+    {
+        return getValidationStatus(0, values);
+    }
+
+    /**
+     * Validates values using any validators associated with the field, waiting at most {@code wait} ms for each
+     * validator that runs in the background.
+     * <p/>
+     * If a background validation doesn't complete in that time, this returns an
+     * {@link ValidationStatus#isIncomplete() incomplete} status. The validation continues, and its result is used the
+     * next time the values are validated.
+     *
+     * @param wait   the maximum time to wait for each background validation, in milliseconds
+     * @param values the values to validate
+     * @return the status of the validation
+     */
+    public ValidationStatus getValidationStatus(long wait, String... values)
+    {
+        return validate(new ValuesProcessingClient(values), Math.max(wait, 0));
+    }
+
+    /**
+     * Determines if any validator associated with the field runs in the background.
+     *
+     * @return {@code true} if validation may block
+     * @see FieldValidator#isBlocking()
+     */
+    public boolean isValidationBlocking()
+    {
+        for (FieldValidator validator : validators)
+        {
+            if (validator.isBlocking())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Validates values in the background, using {@link #validate(String...)}.
+     * <p/>
+     * This doesn't block the caller. Views can use it to validate input as it is entered, so that results of
+     * blocking validators are already available when the field is updated.
+     *
+     * @param listener the listener to notify with the status of the validation. Notified on the validation thread
+     * @param values   the values to validate
+     * @return the status of the validation
+     */
+    public Future<ValidationStatus> validateInBackground(final ValidationListener listener, final String... values)
+    {
+        return BackgroundTasks.submit(new Callable<ValidationStatus>()
+        {
+            @Override
+            public ValidationStatus call()
+            {
+                ValidationStatus status = validate(values);
+                if (listener != null)
+                {
+                    listener.validated(values, status);
+                }
+                return status;
+            }
+        });
+    }
+
+    /**
+     * Validates values using any validators associated with the field.
+     *
+     * @param values the values to validate
+     * @param wait   the maximum time to wait for each validator that runs in the background, in milliseconds, or
+     *               {@code -1} to wait for the validator timeout
+     * @return the status of the validation
+     */
+    private ValidationStatus validate(ValuesProcessingClient values, long wait)
     {
         try
         {
             for (FieldValidator validator : validators)
             {
                 validator.setInstallData(installData);
-                if (!validator.validate(values))
+                ValidationStatus status = validator.getStatus(values, wait);
+                if (!status.isValid())
                 {
-                    return ValidationStatus.failed(validator.getMessage());
+                    return status;
                 }
             }
         }
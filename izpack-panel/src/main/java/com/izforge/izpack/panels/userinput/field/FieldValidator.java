@@ -25,16 +25,37 @@ import com.izforge.izpack.api.data.Configurable;
 import com.izforge.izpack.api.data.ConfigurationOption;
 import com.izforge.izpack.api.data.InstallData;
 import com.izforge.izpack.api.factory.ObjectFactory;
+import com.izforge.izpack.api.resource.Messages;
 import com.izforge.izpack.panels.userinput.processorclient.ValuesProcessingClient;
+import com.izforge.izpack.panels.userinput.validator.BlockingValidator;
+import com.izforge.izpack.panels.userinput.validator.CacheableValidator;
 import com.izforge.izpack.panels.userinput.validator.Validator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 
 /**
  * FieldValidator is a wrapper around a {@link Validator}.
+ * <p/>
+ * {@link BlockingValidator}s, and validators configured with a timeout, are run on a background thread. The caller
+ * waits at most for the timeout. A pending validation is shared by all requests for the same input value, but
+ * completed results are only cached, for {@link #CACHE_EXPIRY} ms, if the validator is a {@link CacheableValidator}.
+ * <p/>
+ * Validators needn't be thread-safe: calls to the same validator instance are serialized.
  *
  * @author Tim Anderson
  */
@@ -65,6 +86,32 @@ public class FieldValidator
 
     private InstallData installData;
 
+    /**
+     * The time to wait for a background validation to complete, in milliseconds, or {@code -1} if the validator
+     * is only run in the background if it is a {@link BlockingValidator}.
+     */
+    private long timeout = -1;
+
+    /**
+     * The results of background validations, keyed on validated values and configuration.
+     */
+    private final Map<List<String>, CachedResult> results = new ConcurrentHashMap<List<String>, CachedResult>();
+
+    /**
+     * The default time to wait for a blocking validator to complete, in milliseconds.
+     */
+    public static final long DEFAULT_TIMEOUT = 10000;
+
+    /**
+     * The time that the result of a background validation is cached for, in milliseconds.
+     */
+    public static final long CACHE_EXPIRY = 30000;
+
+    /**
+     * The message used when a background validation doesn't complete in time, if the langpack doesn't define one.
+     */
+    private static final String INCOMPLETE_MESSAGE = "The entered value could not be validated in time.";
+
     /**
      * The logger.
      */
@@ -112,6 +159,11 @@ public class FieldValidator
         this.className = validatorReader.getClassName();
         this.message = validatorReader.getMessage();
         this.factory = factory;
+        int seconds = validatorReader.getTimeout();
+        if (seconds >= 0)
+        {
+            this.timeout = TimeUnit.SECONDS.toMillis(seconds);
+        }
     }
 
     /**
@@ -140,58 +192,299 @@ public class FieldValidator
         this.installData = installData;
     }
 
+    /**
+     * Determines if the validator is run in the background.
+     *
+     * @return {@code true} if the validator is a {@link BlockingValidator} or has a timeout
+     */
+    public boolean isBlocking()
+    {
+        try
+        {
+            return timeout >= 0 || getValidator() instanceof BlockingValidator;
+        }
+        catch (Throwable exception)
+        {
+            return false;
+        }
+    }
+
     /**
      * Validates field values.
+     * <p/>
+     * If the validator is run in the background, this waits at most for the validator timeout. A validation that
+     * times out fails, but continues in the background, so that its result is available when it is next requested.
+     * Use {@link #getStatus(ValuesProcessingClient, long)} to distinguish a timeout from invalid values.
      *
      * @param values the values to validate
      * @return {@code true} if the values are valid, otherwise {@code false}
      */
     public boolean validate(ValuesProcessingClient values)
     {
-        boolean result = false;
+        return getStatus(values, -1).isValid();
+    }
+
+    /**
+     * Validates field values.
+     * <p/>
+     * If the validator is run in the background, this waits at most {@code wait} ms for it to complete, limited to
+     * the validator timeout. A negative {@code wait} waits for the validator timeout, and {@code 0} only returns the
+     * result of a completed validation.
+     * <p/>
+     * In either case, a validation that hasn't completed is reported as {@link ValidationStatus#isIncomplete()
+     * incomplete}, and continues in the background, so that its result is available when it is next requested.
+     *
+     * @param values the values to validate
+     * @param wait   the maximum time to wait for a background validation to complete, in milliseconds, or
+     *               {@code -1} to wait for the validator timeout
+     * @return the status of the validation
+     */
+    public ValidationStatus getStatus(ValuesProcessingClient values, long wait)
+    {
+        Boolean result = false;
         try
         {
-            if (validator == null)
+            Validator validator = getValidator();
+            List<String> key = configure(values);
+            if (timeout >= 0 || validator instanceof BlockingValidator)
             {
-                validator = factory.create(className, Validator.class);
+                result = validate(validator, values, key, wait);
             }
+            else
+            {
+                result = validate(validator, values);
+            }
+        }
+        catch (Throwable exception)
+        {
+            logger.log(Level.WARNING, "Validation using " + className + " failed: " + exception.getMessage(),
+                       exception);
+        }
+        if (result == null)
+        {
+            return ValidationStatus.incomplete(getIncompleteMessage());
+        }
+        return result ? ValidationStatus.success(values.getValues()) : ValidationStatus.failed(message);
+    }
+
+    /**
+     * Returns the validator, creating it if required.
+     *
+     * @return the validator
+     */
+    private synchronized Validator getValidator()
+    {
+        if (validator == null)
+        {
+            validator = factory.create(className, Validator.class);
+        }
+        return validator;
+    }
+
+    /**
+     * Copies the validator configuration parameters to the values to validate.
+     *
+     * @param values the values to validate
+     * @return the key to cache the validation result under
+     */
+    private List<String> configure(ValuesProcessingClient values)
+    {
+        List<String> key = new ArrayList<String>(Arrays.asList(values.getValues()));
+        key.add(values.getClass().getName());
 
-            // Copy optional validator configuration parameters
-            if (configurable != null)
+        // Copy optional validator configuration parameters
+        if (configurable != null)
+        {
+            Set<String> names = configurable.getNames();
+            if (names != null)
             {
-                Set<String> names = configurable.getNames();
-                if (names != null)
+                for (String name : names)
                 {
-                    for (String key : names)
+                    ConfigurationOption option = configurable.getConfigurationOption(name);
+                    if (installData != null)
                     {
-                        ConfigurationOption option = configurable.getConfigurationOption(key);
-                        if (installData != null)
+                        // Resolve variables in validator configuration parameters
+                        String value = option.getValue(installData.getRules());
+                        String newValue = installData.getVariables().replace(value);
+                        if (value != null && !value.equals(newValue))
                         {
-                            // Resolve variables in validator configuration parameters
-                            String value = option.getValue(installData.getRules());
-                            String newValue = installData.getVariables().replace(value);
-                            if (value != null && !value.equals(newValue))
-                            {
-                                option = new ConfigurationOption(newValue);
-                            }
+                            option = new ConfigurationOption(newValue);
                         }
-                        values.addConfigurationOption(key, option);
+                        key.add(name + "=" + newValue);
                     }
+                    values.addConfigurationOption(name, option);
                 }
             }
+        }
+        return key;
+    }
 
+    /**
+     * Validates field values using the validator on the current thread.
+     *
+     * @param validator the validator
+     * @param values    the values to validate
+     * @return {@code true} if the values are valid, otherwise {@code false}
+     */
+    private boolean validate(Validator validator, ValuesProcessingClient values)
+    {
+        boolean result;
+        synchronized (validator)
+        {
             result = validator.validate(values);
-            if (logger.isLoggable(Level.FINE))
+        }
+        if (logger.isLoggable(Level.FINE))
+        {
+            logger.log(Level.FINE, "Validation " + (result ? "OK" : "FAILED") + " using "
+                    + validator.getClass().getSimpleName());
+        }
+        return result;
+    }
+
+    /**
+     * Validates field values using the validator in the background, reusing any cached or pending result.
+     *
+     * @param validator the validator
+     * @param values    the values to validate
+     * @param key       the cache key
+     * @param wait      the maximum time to wait for the validation to complete, in milliseconds, or {@code -1} to
+     *                  wait for the validator timeout
+     * @return {@code true} if the values are valid, {@code false} if they are invalid, or {@code null} if the
+     *         validation didn't complete
+     * @throws Throwable if the validator fails
+     */
+    private Boolean validate(final Validator validator, final ValuesProcessingClient values, List<String> key,
+                             long wait) throws Throwable
+    {
+        CachedResult cached = results.get(key);
+        if (cached == null || cached.isExpired())
+        {
+            FutureTask<Boolean> task = new FutureTask<Boolean>(new Callable<Boolean>()
             {
-                logger.log(Level.FINE, "Validation " + (result ? "OK" : "FAILED") + " using "
-                        + validator.getClass().getSimpleName());
+                @Override
+                public Boolean call() throws Exception
+                {
+                    return validate(validator, values);
+                }
+            });
+            cached = new CachedResult(task, validator instanceof CacheableValidator);
+            for (Iterator<CachedResult> iterator = results.values().iterator(); iterator.hasNext(); )
+            {
+                if (iterator.next().isExpired())
+                {
+                    iterator.remove();
+                }
             }
+            results.put(key, cached);
+            BackgroundTasks.execute(task);
         }
-        catch (Throwable exception)
+
+        Future<Boolean> result = cached.getResult();
+        try
         {
-            logger.log(Level.WARNING, "Validation using " + className + " failed: " + exception.getMessage(),
-                       exception);
+            long limit = (timeout >= 0) ? timeout : DEFAULT_TIMEOUT;
+            long millis = (wait < 0) ? limit : Math.min(wait, limit);
+            if (millis > 0)
+            {
+                try
+                {
+                    return result.get(millis, TimeUnit.MILLISECONDS);
+                }
+                catch (TimeoutException exception)
+                {
+                    if (millis == limit)
+                    {
+                        logger.warning("Validation using " + className + " did not complete within " + millis + "ms");
+                    }
+                    return null;
+                }
+            }
+            return result.isDone() ? result.get() : null;
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch (ExecutionException exception)
+        {
+            // don't cache failures
+            results.remove(key);
+            throw exception.getCause();
+        }
+    }
+
+    /**
+     * Returns the message to report when a validation doesn't complete in time.
+     *
+     * @return the message
+     */
+    private String getIncompleteMessage()
+    {
+        String result = null;
+        Messages messages = (installData != null) ? installData.getMessages() : null;
+        if (messages != null)
+        {
+            result = messages.get("UserInputPanel.validation.incomplete");
+        }
+        if (result == null || result.equals("UserInputPanel.validation.incomplete"))
+        {
+            result = INCOMPLETE_MESSAGE;
         }
         return result;
     }
+
+    /**
+     * The result of a background validation.
+     */
+    private static class CachedResult
+    {
+        /**
+         * The result.
+         */
+        private final Future<Boolean> result;
+
+        /**
+         * The time when the validation was started.
+         */
+        private final long started = System.currentTimeMillis();
+
+        /**
+         * Determines if the completed result may be reused.
+         */
+        private final boolean cacheable;
+
+        /**
+         * Constructs a {@code CachedResult}.
+         *
+         * @param result    the result
+         * @param cacheable if {@code true}, the completed result may be reused until it expires, otherwise it is
+         *                  only reused while pending
+         */
+        public CachedResult(Future<Boolean> result, boolean cacheable)
+        {
+            this.result = result;
+            this.cacheable = cacheable;
+        }
+
+        /**
+         * Returns the result.
+         *
+         * @return the result
+         */
+        public Future<Boolean> getResult()
+        {
+            return result;
+        }
+
+        /**
+         * Determines if the result has expired. Pending results never expire.
+         *
+         * @return {@code true} if the result has expired
+         */
+        public boolean isExpired()
+        {
+            return result.isDone() && (!cacheable || System.currentTimeMillis() - started > CACHE_EXPIRY);
+        }
+    }
 }
@@ -76,4 +76,17 @@ class FieldValidatorReader extends DefaultConfigurationHandler
     {
         return config.getText(validator);
     }
+
+    /**
+     * Returns the time to wait for the validator to complete, in seconds.
+     * <p/>
+     * If specified, the validator is run in the background, even if it is not a
+     * {@link com.izforge.izpack.panels.userinput.validator.BlockingValidator BlockingValidator}.
+     *
+     * @return the timeout in seconds, or {@code -1} if none is specified
+     */
+    public int getTimeout()
+    {
+        return config.getInt(validator, "timeout", -1);
+    }
 }
@@ -0,0 +1,38 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.panels.userinput.field;
+
+
+/**
+ * Listener for the status of background field validation.
+ *
+ * @see Field#validateInBackground(ValidationListener, String...)
+ */
+public interface ValidationListener
+{
+
+    /**
+     * Invoked when validation completes.
+     *
+     * @param values the validated values
+     * @param status the status of the validation
+     */
+    void validated(String[] values, ValidationStatus status);
+}
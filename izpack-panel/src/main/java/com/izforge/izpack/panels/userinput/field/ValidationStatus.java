@@ -45,6 +45,11 @@ public class ValidationStatus
      */
     private final String message;
 
+    /**
+     * Determines if validation didn't complete, so the field values could be neither accepted nor rejected.
+     */
+    private final boolean incomplete;
+
     /**
      * Constructs a {@code ValidationStatus}.
      *
@@ -53,10 +58,24 @@ public class ValidationStatus
      * @param message the validation error message, or {@code null} if validation was successful
      */
     public ValidationStatus(boolean valid, String[] values, String message)
+    {
+        this(valid, values, message, false);
+    }
+
+    /**
+     * Constructs a {@code ValidationStatus}.
+     *
+     * @param valid      indicates if validation was successful or not
+     * @param values     the field values
+     * @param message    the validation error message, or {@code null} if validation was successful
+     * @param incomplete indicates if validation didn't complete
+     */
+    private ValidationStatus(boolean valid, String[] values, String message, boolean incomplete)
     {
         this.valid = valid;
         this.values = values;
         this.message = message;
+        this.incomplete = incomplete;
     }
 
     /**
@@ -81,6 +100,19 @@ public class ValidationStatus
         return new ValidationStatus(false, null, message);
     }
 
+    /**
+     * Creates a {@link ValidationStatus} indicating that validation didn't complete in time.
+     * <p/>
+     * The values are neither valid nor known to be invalid.
+     *
+     * @param message the message describing why validation didn't complete
+     * @return a new validation status
+     */
+    public static ValidationStatus incomplete(String message)
+    {
+        return new ValidationStatus(false, null, message, true);
+    }
+
     /**
      * Determines if validation was successful.
      *
@@ -91,6 +123,16 @@ public class ValidationStatus
         return valid;
     }
 
+    /**
+     * Determines if validation didn't complete in time.
+     *
+     * @return {@code true} if the values could not be validated
+     */
+    public boolean isIncomplete()
+    {
+        return incomplete;
+    }
+
     /**
      * Returns the field values.
      *
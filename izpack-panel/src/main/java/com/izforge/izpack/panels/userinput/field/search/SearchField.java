@@ -23,12 +23,19 @@ package com.izforge.izpack.panels.userinput.field.search;
 
 import com.izforge.izpack.api.data.InstallData;
 import com.izforge.izpack.api.exception.IzPackException;
+import com.izforge.izpack.panels.userinput.field.BackgroundTasks;
 import com.izforge.izpack.panels.userinput.field.Field;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 
@@ -41,6 +48,11 @@ public class SearchField extends Field
 {
     private static final Logger logger = Logger.getLogger(SearchField.class.getName());
 
+    /**
+     * The time to wait for the search choices to be determined, in milliseconds.
+     */
+    private static final long SEARCH_TIMEOUT = 10000;
+
     private final InstallData installData;
     /**
      * The filename to search on. May be {@code null}
@@ -157,42 +169,87 @@ public class SearchField extends Field
      */
     public List<String> getChoices(List<String> choices)
     {
-        List<String> items = new ArrayList<String>();
-
+        // search each path in the background, so that slow file systems don't block the caller indefinitely
+        List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
         for (String path : choices)
         {
-            path = installData.getVariables().replace(path);
+            final String resolved = installData.getVariables().replace(path);
+            results.add(BackgroundTasks.submit(new Callable<List<String>>()
+            {
+                @Override
+                public List<String> call()
+                {
+                    return search(resolved);
+                }
+            }));
+        }
 
-            if (path.endsWith("*"))
+        List<String> items = new ArrayList<String>();
+        long deadline = System.currentTimeMillis() + SEARCH_TIMEOUT;
+        for (int i = 0; i < results.size(); ++i)
+        {
+            Future<List<String>> result = results.get(i);
+            try
             {
-                path = path.substring(0, path.length() - 1);
-                File dir = new File(path);
+                long wait = Math.max(0, deadline - System.currentTimeMillis());
+                items.addAll(result.get(wait, TimeUnit.MILLISECONDS));
+            }
+            catch (TimeoutException exception)
+            {
+                logger.warning("Search of " + choices.get(i) + " did not complete within " + SEARCH_TIMEOUT + "ms");
+                result.cancel(true);
+            }
+            catch (ExecutionException exception)
+            {
+                logger.log(Level.WARNING, "Search of " + choices.get(i) + " failed", exception.getCause());
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        return items;
+    }
 
-                if (dir.isDirectory())
+    /**
+     * Returns the search choices for a path.
+     *
+     * @param path the path, with variables replaced. If it ends with &#42;, all its sub-directories are searched
+     * @return the matching choices
+     */
+    private List<String> search(String path)
+    {
+        List<String> items = new ArrayList<String>();
+        if (path.endsWith("*"))
+        {
+            path = path.substring(0, path.length() - 1);
+            File dir = new File(path);
+
+            if (dir.isDirectory())
+            {
+                File[] subdirs = dir.listFiles();
+                if (subdirs != null)
                 {
-                    File[] subdirs = dir.listFiles();
-                    if (subdirs != null)
+                    for (File subdir : subdirs)
                     {
-                        for (File subdir : subdirs)
+                        String search = subdir.getAbsolutePath();
+                        if (pathMatches(search))
                         {
-                            String search = subdir.getAbsolutePath();
-                            if (pathMatches(search))
-                            {
-                                items.add(search);
-                            }
+                            items.add(search);
                         }
                     }
                 }
             }
-            else
+        }
+        else
+        {
+            if (pathMatches(path))
             {
-                if (pathMatches(path))
-                {
-                    items.add(path);
-                }
+                items.add(path);
             }
         }
-
         return items;
     }
 
@@ -27,12 +27,17 @@ import com.izforge.izpack.api.resource.Messages;
 import com.izforge.izpack.gui.TwoColumnConstraints;
 import com.izforge.izpack.panels.userinput.field.AbstractFieldView;
 import com.izforge.izpack.panels.userinput.field.Field;
+import com.izforge.izpack.panels.userinput.field.ValidationListener;
+import com.izforge.izpack.panels.userinput.field.ValidationStatus;
 import com.izforge.izpack.util.HyperlinkHandler;
 import com.izforge.izpack.panels.userinput.gui.rule.RuleInputField;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -68,6 +73,27 @@ public abstract class GUIField extends AbstractFieldView
      */
     private final Map<Integer, String> untranslatedTooltips;
 
+    /**
+     * Timer to delay background validation until input pauses. Created on demand.
+     */
+    private Timer validationTimer;
+
+    /**
+     * The foreground colour of the component highlighted as invalid, or {@code null} if it isn't highlighted.
+     */
+    private Color validForeground;
+
+    /**
+     * The time that input must pause before it is validated in the background, in milliseconds.
+     */
+    private static final int VALIDATION_DELAY = 400;
+
+    /**
+     * The time to wait for background validations to complete when the field is updated, in milliseconds.
+     * This lets fast validators pass without the user being asked to accept unvalidated values.
+     */
+    private static final long UPDATE_WAIT = 500;
+
 
     /**
      * Constructs a {@code GUIField}.
@@ -353,6 +379,143 @@ public abstract class GUIField extends AbstractFieldView
         }
     }
 
+    /**
+     * Schedules validation of the view in the background, once input has paused.
+     * <p/>
+     * This only applies to fields with validators that may block. Their results are cached, so the field can be
+     * updated without waiting on the validators. The status is reported via {@link #showValidationStatus}.
+     * <p/>
+     * This must be invoked on the event dispatch thread.
+     */
+    protected void validateLater()
+    {
+        if (!getField().isValidationBlocking())
+        {
+            return;
+        }
+        if (validationTimer == null)
+        {
+            validationTimer = new Timer(VALIDATION_DELAY, new ActionListener()
+            {
+                @Override
+                public void actionPerformed(ActionEvent event)
+                {
+                    validateInBackground();
+                }
+            });
+            validationTimer.setRepeats(false);
+        }
+        validationTimer.restart();
+    }
+
+    /**
+     * Validates values, waiting briefly for validators that run in the background.
+     * <p/>
+     * If a background validation hasn't completed within {@link #UPDATE_WAIT} ms, the user is asked whether to accept the values without
+     * validating them. If not, the validation continues, and its result is shown when it arrives.
+     * <p/>
+     * This must be invoked on the event dispatch thread.
+     *
+     * @param prompt the prompt to display messages
+     * @param values the values to validate
+     * @return the status of the validation. This is successful if the user accepts values that couldn't be validated
+     */
+    protected ValidationStatus validate(Prompt prompt, String... values)
+    {
+        ValidationStatus status = getField().getValidationStatus(UPDATE_WAIT, values);
+        if (status.isIncomplete())
+        {
+            Messages messages = getInstallData().getMessages();
+            String question = messages.get("UserInputPanel.validation.continue");
+            if (question.equals("UserInputPanel.validation.continue"))
+            {
+                question = "Continue without validating it?";
+            }
+            Prompt.Option option = prompt.confirm(Prompt.Type.WARNING, messages.get("UserInputPanel.error.caption"),
+                                                  status.getMessage() + "\n" + question, Prompt.Options.YES_NO,
+                                                  Prompt.Option.NO);
+            if (option == Prompt.Option.YES)
+            {
+                status = ValidationStatus.success(values);
+            }
+            else
+            {
+                validateLater();
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Returns the values to validate in the background.
+     * <p/>
+     * This implementation returns {@code null}, indicating that background validation isn't supported.
+     *
+     * @return the values to validate, or {@code null} if background validation isn't supported
+     */
+    protected String[] getValidationValues()
+    {
+        return null;
+    }
+
+    /**
+     * Displays the status of a background validation.
+     * <p/>
+     * This implementation highlights the first focusable component if validation failed. Validations that didn't
+     * complete are ignored.
+     * <p/>
+     * This is invoked on the event dispatch thread.
+     *
+     * @param status the validation status
+     */
+    protected void showValidationStatus(ValidationStatus status)
+    {
+        JComponent component = getFirstFocusableComponent();
+        if (component != null && !status.isIncomplete())
+        {
+            if (!status.isValid() && validForeground == null)
+            {
+                validForeground = component.getForeground();
+                component.setForeground(Color.RED);
+            }
+            else if (status.isValid() && validForeground != null)
+            {
+                component.setForeground(validForeground);
+                validForeground = null;
+            }
+        }
+    }
+
+    /**
+     * Validates the view in the background.
+     */
+    private void validateInBackground()
+    {
+        String[] values = getValidationValues();
+        if (values != null)
+        {
+            getField().validateInBackground(new ValidationListener()
+            {
+                @Override
+                public void validated(final String[] values, final ValidationStatus status)
+                {
+                    SwingUtilities.invokeLater(new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            // ignore the status if the input has since changed
+                            if (Arrays.equals(values, getValidationValues()))
+                            {
+                                showValidationStatus(status);
+                            }
+                        }
+                    });
+                }
+            }, values);
+        }
+    }
+
     /**
      * Returns the installation data.
      *
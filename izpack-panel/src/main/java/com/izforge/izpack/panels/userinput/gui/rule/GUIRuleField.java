@@ -25,6 +25,8 @@ import java.util.List;
 
 import javax.swing.JComponent;
 import javax.swing.JTextField;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import com.izforge.izpack.api.handler.Prompt;
 import com.izforge.izpack.panels.userinput.field.Field;
@@ -61,6 +63,26 @@ public class GUIRuleField extends GUIField
         for (JTextField input : component.getInputFields())
         {
             input.setName(field.getVariable() + "." + id);
+            input.getDocument().addDocumentListener(new DocumentListener()
+            {
+                @Override
+                public void insertUpdate(DocumentEvent e)
+                {
+                    validateLater();
+                }
+
+                @Override
+                public void removeUpdate(DocumentEvent e)
+                {
+                    validateLater();
+                }
+
+                @Override
+                public void changedUpdate(DocumentEvent e)
+                {
+                    validateLater();
+                }
+            });
             ++id;
         }
 
@@ -110,13 +132,13 @@ public class GUIRuleField extends GUIField
     {
         boolean result = false;
         Field field = getField();
-        ValidationStatus status = field.validate(component.getValues());
-        if (skipValidation || status.isValid())
+        ValidationStatus status = skipValidation ? null : validate(prompt, component.getValues());
+        if (status == null || status.isValid())
         {
             field.setValue(component.getText());
             result = true;
         }
-        else if (status.getMessage() != null)
+        else if (!status.isIncomplete() && status.getMessage() != null)
         {
             prompt.warn(status.getMessage());
         }
@@ -189,4 +211,15 @@ public class GUIRuleField extends GUIField
         }
         return null;
     }
+
+    /**
+     * Returns the values to validate in the background.
+     *
+     * @return the sub-field values
+     */
+    @Override
+    protected String[] getValidationValues()
+    {
+        return component.getValues();
+    }
 }
@@ -82,13 +82,13 @@ public class GUITextField extends GUIField implements FocusListener, DocumentLis
         boolean result = false;
         String text = this.text.getText();
         Field field = getField();
-        ValidationStatus status = field.validate(text);
-        if (skipValidation || status.isValid())
+        ValidationStatus status = skipValidation ? null : validate(prompt, text);
+        if (status == null || status.isValid())
         {
             field.setValue(text);
             result = true;
         }
-        else
+        else if (!status.isIncomplete())
         {
             String message = status.getMessage();
             if (message == null)
@@ -180,16 +180,19 @@ public class GUITextField extends GUIField implements FocusListener, DocumentLis
     public void insertUpdate(DocumentEvent e)
     {
         setChanged(true);
+        validateLater();
     }
     @Override
     public void removeUpdate(DocumentEvent e)
     {
         setChanged(true);
+        validateLater();
     }
     @Override
     public void changedUpdate(DocumentEvent e)
     {
         setChanged(true);
+        validateLater();
     }
 
     @Override
@@ -197,4 +200,15 @@ public class GUITextField extends GUIField implements FocusListener, DocumentLis
     {
         return text;
     }
+
+    /**
+     * Returns the values to validate in the background.
+     *
+     * @return the text
+     */
+    @Override
+    protected String[] getValidationValues()
+    {
+        return new String[]{text.getText()};
+    }
 }
@@ -0,0 +1,35 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.panels.userinput.validator;
+
+/**
+ * A {@link Validator} that may block for a significant time, e.g. because it performs network name lookups, binds
+ * sockets or reads from the file system.
+ * <p/>
+ * Blocking validators are run on a background thread, and the caller waits for the result for a limited time, so
+ * that the installer UI doesn't freeze on slow networks or file systems. Calls to the same instance are serialized,
+ * so implementations needn't be thread safe.
+ * <p/>
+ * Results are only reused while a validation is in progress, as they may depend on state that changes, such as
+ * whether a port is free. Implement {@link CacheableValidator} to have completed results cached as well.
+ */
+public interface BlockingValidator extends Validator
+{
+}
@@ -39,7 +39,7 @@ import java.util.logging.Logger;
  * @author Elmar Grom
  * @author Jeff Gordon
  */
-public class PasswordKeystoreValidator implements Validator
+public class PasswordKeystoreValidator implements CacheableValidator
 {
     /**
      * The logger.
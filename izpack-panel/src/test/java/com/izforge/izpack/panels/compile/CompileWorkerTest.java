@@ -0,0 +1,156 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.panels.compile;
+
+import com.izforge.izpack.api.data.InstallData;
+import com.izforge.izpack.api.data.Variables;
+import com.izforge.izpack.api.resource.Messages;
+import com.izforge.izpack.api.resource.Resources;
+import com.izforge.izpack.core.data.DefaultVariables;
+import com.izforge.izpack.core.substitutor.VariableSubstitutorImpl;
+import com.izforge.izpack.util.PlatformModelMatcher;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Tests in-process compilation with the {@link CompileWorker}.
+ */
+public class CompileWorkerTest
+{
+    /**
+     * Temporary folder for the sources.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * The source directory.
+     */
+    private File src;
+
+    /**
+     * The handler.
+     */
+    private CompileHandler handler;
+
+    /**
+     * The worker.
+     */
+    private CompileWorker worker;
+
+
+    /**
+     * Sets up the test case.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException
+    {
+        src = temporaryFolder.newFolder("src");
+        write("a/A.java", "public class A {}");
+        write("b/B.java", "public class B {}");
+        write("c/C.java", "public class C { A a; B b; }");
+
+        Variables variables = new DefaultVariables();
+        variables.set("src", src.getPath());
+        Messages messages = mock(Messages.class);
+        InstallData installData = mock(InstallData.class);
+        when(installData.getVariables()).thenReturn(variables);
+        when(installData.getMessages()).thenReturn(messages);
+        Resources resources = mock(Resources.class);
+        when(resources.getInputStream("CompilePanel.Spec.xml")).thenReturn(
+                getClass().getResourceAsStream("InProcess.Spec.xml"));
+        PlatformModelMatcher matcher = mock(PlatformModelMatcher.class);
+        when(matcher.matchesCurrentPlatform(anyList())).thenReturn(true);
+        handler = mock(CompileHandler.class);
+
+        worker = new CompileWorker(installData, handler, new VariableSubstitutorImpl(variables), resources,
+                                   matcher);
+        worker.setCompiler("javac");
+        worker.setCompilerArguments("-g");
+    }
+
+    /**
+     * Verifies that jobs are compiled in-process, and that a job is only compiled after the jobs whose classes
+     * are on its class path.
+     */
+    @Test
+    public void testInProcess()
+    {
+        worker.run();
+
+        assertTrue(worker.getResult().isSuccess());
+        assertTrue(new File(src, "a/A.class").exists());
+        assertTrue(new File(src, "b/B.class").exists());
+        assertTrue(new File(src, "c/C.class").exists());
+        verify(handler, never()).handleCompileError(any(CompileResult.class));
+        verify(handler).stopAction();
+    }
+
+    /**
+     * Verifies that compiler diagnostics are passed to the handler, and that a failed job stops compilation.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testInProcessError() throws IOException
+    {
+        write("a/A.java", "public class A { Missing missing; }");
+        worker.run();
+
+        CompileResult result = worker.getResult();
+        assertFalse(result.isContinue());
+        assertTrue(result.getStderr().contains("Missing"));
+        verify(handler).progress(contains("Missing"));
+        verify(handler).handleCompileError(result);
+        assertFalse(new File(src, "c/C.class").exists());
+    }
+
+    /**
+     * Writes a source file.
+     *
+     * @param path    the file path, relative to the source directory
+     * @param content the file content
+     * @throws IOException for any I/O error
+     */
+    private void write(String path, String content) throws IOException
+    {
+        FileUtils.writeStringToFile(new File(src, path), content);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.panels.packs;
+
+import com.izforge.izpack.api.data.Pack;
+import com.izforge.izpack.panels.packs.PacksModel.CbSelectionState;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link PackStates} class.
+ */
+public class PackStatesTest
+{
+    /**
+     * The packs. Pack c depends on b, which depends on a. Packs d and e are in the same exclude group.
+     */
+    private List<Pack> packs;
+
+    /**
+     * The pack name to row mapping.
+     */
+    private Map<String, Integer> nameToRow;
+
+
+    /**
+     * Sets up the test case.
+     */
+    @Before
+    public void setUp()
+    {
+        packs = Arrays.asList(createPack("a", 1, null, null), createPack("b", 10, null, "a"),
+                              createPack("c", 100, null, "b"), createPack("d", 1000, "group", null),
+                              createPack("e", 10000, "group", null));
+        nameToRow = new HashMap<String, Integer>();
+        for (int i = 0; i < packs.size(); ++i)
+        {
+            nameToRow.put(packs.get(i).getName(), i);
+        }
+    }
+
+    /**
+     * Verifies that deselecting a pack blocks its transitive dependants, and that selecting it again
+     * unblocks them.
+     */
+    @Test
+    public void testBlocked()
+    {
+        PackStates states = createStates(CbSelectionState.SELECTED);
+        assertTrue(states.getBlocked().isEmpty());
+
+        states.set(0, CbSelectionState.DESELECTED);
+        assertFalse(states.isBlocked(0));
+        assertTrue(states.isBlocked(1));
+        assertTrue(states.isBlocked(2));
+        assertFalse(states.isBlocked(3));
+
+        // deselecting b doesn't change the blocked status of c
+        states.set(1, CbSelectionState.DEPENDENT_DESELECTED);
+        assertTrue(states.isBlocked(2));
+
+        states.set(0, CbSelectionState.SELECTED);
+        assertFalse(states.isBlocked(1));
+        assertTrue(states.isBlocked(2));
+
+        states.set(1, CbSelectionState.REQUIRED_SELECTED);
+        assertTrue(states.getBlocked().isEmpty());
+    }
+
+    /**
+     * Verifies that only rows whose state or blocked status changed are reported as dirty.
+     */
+    @Test
+    public void testDirty()
+    {
+        PackStates states = createStates(CbSelectionState.SELECTED);
+        assertEquals(5, states.clearDirty().cardinality());
+        assertTrue(states.clearDirty().isEmpty());
+
+        states.set(3, CbSelectionState.SELECTED);
+        assertTrue(states.clearDirty().isEmpty());
+
+        states.set(0, CbSelectionState.DESELECTED);
+        BitSet expected = new BitSet();
+        expected.set(0, 3);
+        assertEquals(expected, states.clearDirty());
+    }
+
+    /**
+     * Verifies that the byte totals are maintained as states change.
+     */
+    @Test
+    public void testBytes()
+    {
+        PackStates states = createStates(CbSelectionState.DESELECTED);
+        assertEquals(0, states.getCheckedBytes());
+        assertEquals(0, states.getSelectedBytes());
+
+        states.set(0, CbSelectionState.SELECTED);
+        states.set(1, CbSelectionState.REQUIRED_SELECTED);
+        states.set(3, CbSelectionState.PARTIAL_SELECTED);
+        assertEquals(1011, states.getCheckedBytes());
+        assertEquals(11, states.getSelectedBytes());
+
+        states.set(1, CbSelectionState.DEPENDENT_DESELECTED);
+        assertEquals(1001, states.getCheckedBytes());
+        assertEquals(1, states.getSelectedBytes());
+    }
+
+    /**
+     * Verifies the dependency and exclude group indexes.
+     */
+    @Test
+    public void testIndexes()
+    {
+        PackStates states = createStates(CbSelectionState.SELECTED);
+        assertArrayEquals(new int[0], states.getDependencies(0));
+        assertArrayEquals(new int[]{1}, states.getDependencies(2));
+        assertArrayEquals(new int[]{4}, states.getExcluded(3));
+        assertArrayEquals(new int[]{3}, states.getExcluded(4));
+        assertArrayEquals(new int[0], states.getExcluded(0));
+    }
+
+    /**
+     * Creates the pack states.
+     *
+     * @param state the initial state of each pack
+     * @return the pack states
+     */
+    private PackStates createStates(CbSelectionState state)
+    {
+        CbSelectionState[] states = new CbSelectionState[packs.size()];
+        Arrays.fill(states, state);
+        return new PackStates(packs, nameToRow, states);
+    }
+
+    /**
+     * Creates a pack.
+     *
+     * @param name         the pack name
+     * @param size         the pack size
+     * @param excludeGroup the exclude group. May be {@code null}
+     * @param dependency   the pack dependency. May be {@code null}
+     * @return a new pack
+     */
+    private static Pack createPack(String name, long size, String excludeGroup, String dependency)
+    {
+        List<String> dependencies = (dependency != null) ? Arrays.asList(dependency) : null;
+        return new Pack(name, null, null, null, dependencies, false, true, false, excludeGroup, true, size);
+    }
+}
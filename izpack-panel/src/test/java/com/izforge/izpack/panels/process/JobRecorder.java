@@ -0,0 +1,107 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.panels.process;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Helper for testing concurrent jobs in {@link ProcessPanelWorker}.
+ * <p/>
+ * The first argument is the job name, and the second the mode: <em>ok</em> to succeed, <em>fail</em> to fail, or
+ * <em>await</em> to wait for another job in <em>await</em> mode before succeeding.
+ */
+public class JobRecorder
+{
+    /**
+     * The recorded events.
+     */
+    private static final List<String> events = new ArrayList<String>();
+
+    /**
+     * The latch that jobs in <em>await</em> mode wait on.
+     */
+    private static CountDownLatch latch = new CountDownLatch(2);
+
+    /**
+     * Initialises statics.
+     */
+    public static void init()
+    {
+        synchronized (events)
+        {
+            events.clear();
+        }
+        latch = new CountDownLatch(2);
+    }
+
+    /**
+     * Returns the recorded events.
+     *
+     * @return the events
+     */
+    public static List<String> getEvents()
+    {
+        synchronized (events)
+        {
+            return new ArrayList<String>(events);
+        }
+    }
+
+    /**
+     * Runs a job.
+     *
+     * @param handler the handler
+     * @param args    the job name and mode
+     * @return {@code true} if the job succeeded
+     * @throws InterruptedException if interrupted
+     */
+    public boolean run(AbstractUIProcessHandler handler, String[] args) throws InterruptedException
+    {
+        String name = args[0];
+        String mode = args[1];
+        record(name + " start");
+        handler.logOutput(name, false);
+        boolean result = !"fail".equals(mode);
+        if ("await".equals(mode))
+        {
+            latch.countDown();
+            result = latch.await(10, TimeUnit.SECONDS);
+        }
+        record(name + " end");
+        return result;
+    }
+
+    /**
+     * Records an event.
+     *
+     * @param event the event
+     */
+    private static void record(String event)
+    {
+        synchronized (events)
+        {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.panels.process;
+
+import com.izforge.izpack.api.data.InstallData;
+import com.izforge.izpack.api.data.Variables;
+import com.izforge.izpack.api.resource.Resources;
+import com.izforge.izpack.api.rules.RulesEngine;
+import com.izforge.izpack.core.data.DefaultVariables;
+import com.izforge.izpack.util.PlatformModelMatcher;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Tests running concurrent jobs with the {@link ProcessPanelWorker}.
+ */
+public class ProcessPanelWorkerTest
+{
+    /**
+     * The variables.
+     */
+    private Variables variables;
+
+    /**
+     * The handler.
+     */
+    private AbstractUIProcessHandler handler;
+
+    /**
+     * The worker.
+     */
+    private ProcessPanelWorker worker;
+
+
+    /**
+     * Sets up the test case.
+     */
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp()
+    {
+        JobRecorder.init();
+        variables = new DefaultVariables();
+        InstallData installData = mock(InstallData.class);
+        when(installData.getVariables()).thenReturn(variables);
+        Resources resources = mock(Resources.class);
+        when(resources.getInputStream(ProcessPanelWorker.SPEC_RESOURCE_NAME)).thenReturn(
+                getClass().getResourceAsStream("ConcurrentJobs.Spec.xml"));
+        PlatformModelMatcher matcher = mock(PlatformModelMatcher.class);
+        when(matcher.matchesCurrentPlatform(anyList())).thenReturn(true);
+        handler = mock(AbstractUIProcessHandler.class);
+
+        worker = new ProcessPanelWorker(installData, mock(RulesEngine.class), resources, matcher);
+        worker.setHandler(handler);
+    }
+
+    /**
+     * Verifies that parallel jobs run concurrently, and that jobs wait for the jobs they depend on.
+     */
+    @Test
+    public void testConcurrentJobs()
+    {
+        // a and b each wait for the other to start, so they only succeed if they run concurrently
+        variables.set("a.mode", "await");
+        variables.set("b.mode", "await");
+        worker.run();
+        assertTrue(worker.getResult());
+
+        List<String> events = JobRecorder.getEvents();
+        assertEquals(12, events.size());
+        assertEquals("init start", events.get(0));
+        assertEquals("init end", events.get(1));
+        checkBefore(events, "a end", "c start");
+        checkBefore(events, "b end", "c start");
+        assertEquals("c end", events.get(7));
+        assertEquals("done start", events.get(8));
+        assertEquals("final end", events.get(11));
+
+        // output of concurrent jobs is prefixed with the job name
+        verify(handler).logOutput("[a] a", false);
+        verify(handler).logOutput("[c] c", false);
+        verify(handler).startProcessing(5);
+    }
+
+    /**
+     * Verifies that no more jobs are started once a concurrent job fails, and that the catch and final jobs run.
+     */
+    @Test
+    public void testConcurrentJobFailure()
+    {
+        variables.set("a.mode", "ok");
+        variables.set("b.mode", "fail");
+        worker.run();
+        assertFalse(worker.getResult());
+
+        List<String> events = JobRecorder.getEvents();
+        assertTrue(events.contains("a end"));
+        assertTrue(events.contains("b end"));
+        assertFalse(events.contains("c start"));
+        assertFalse(events.contains("done start"));
+        assertEquals("catch start", events.get(6));
+        assertEquals("final end", events.get(9));
+    }
+
+    /**
+     * Verifies that one event precedes another.
+     *
+     * @param events the events
+     * @param first  the event expected first
+     * @param second the event expected second
+     */
+    private void checkBefore(List<String> events, String first, String second)
+    {
+        assertTrue(first + " before " + second, events.indexOf(first) < events.indexOf(second));
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.panels.userinput.field;
+
+import com.izforge.izpack.api.data.AutomatedInstallData;
+import com.izforge.izpack.api.factory.ObjectFactory;
+import com.izforge.izpack.core.container.DefaultContainer;
+import com.izforge.izpack.core.data.DefaultVariables;
+import com.izforge.izpack.core.factory.DefaultObjectFactory;
+import com.izforge.izpack.panels.userinput.field.text.TextField;
+import com.izforge.izpack.panels.userinput.processorclient.ProcessingClient;
+import com.izforge.izpack.panels.userinput.validator.BlockingValidator;
+import com.izforge.izpack.panels.userinput.validator.CacheableValidator;
+import com.izforge.izpack.panels.userinput.validator.NotEmptyValidator;
+import com.izforge.izpack.util.Platforms;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests background validation by {@link FieldValidator} and {@link Field}.
+ */
+public class FieldValidatorTest
+{
+    /**
+     * The install data.
+     */
+    private AutomatedInstallData installData;
+
+    /**
+     * The object factory.
+     */
+    private ObjectFactory factory;
+
+
+    /**
+     * Sets up the test case.
+     */
+    @Before
+    public void setUp()
+    {
+        installData = new AutomatedInstallData(new DefaultVariables(), Platforms.LINUX);
+        factory = new DefaultObjectFactory(new DefaultContainer());
+        CountingValidator.COUNT.set(0);
+        StateValidator.COUNT.set(0);
+        LatchValidator.LATCH.set(new CountDownLatch(1));
+        ConcurrencyValidator.ACTIVE.set(0);
+        ConcurrencyValidator.MAX_ACTIVE.set(0);
+    }
+
+    /**
+     * Verifies that the results of cacheable validators are cached per input value.
+     */
+    @Test
+    public void testBlockingValidatorResultsCached()
+    {
+        FieldValidator validator = new FieldValidator(CountingValidator.class, "failed", factory);
+        assertTrue(validator.isBlocking());
+
+        assertTrue(validator.validate(new String[]{"a"}));
+        assertTrue(validator.validate(new String[]{"a"}));
+        assertEquals(1, CountingValidator.COUNT.get());
+
+        assertFalse(validator.validate(new String[]{""}));
+        assertEquals(2, CountingValidator.COUNT.get());
+    }
+
+    /**
+     * Verifies that the completed results of blocking validators that aren't cacheable aren't reused.
+     */
+    @Test
+    public void testBlockingValidatorResultsNotCached()
+    {
+        FieldValidator validator = new FieldValidator(StateValidator.class, "failed", factory);
+        assertTrue(validator.isBlocking());
+
+        assertTrue(validator.validate(new String[]{"a"}));
+        assertTrue(validator.validate(new String[]{"a"}));
+        assertEquals(2, StateValidator.COUNT.get());
+    }
+
+    /**
+     * Verifies that the results of non-blocking validators aren't cached.
+     */
+    @Test
+    public void testNonBlockingValidator()
+    {
+        FieldValidator validator = new FieldValidator(NotEmptyValidator.class, "failed", factory);
+        assertFalse(validator.isBlocking());
+        assertTrue(validator.validate(new String[]{"a"}));
+        assertFalse(validator.validate(new String[]{""}));
+    }
+
+    /**
+     * Verifies that fields can be validated in the background, and that the listener is notified.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testValidateInBackground() throws Exception
+    {
+        TestFieldConfig config = new TestFieldConfig("var");
+        config.addValidator(new FieldValidator(CountingValidator.class, "failed", factory));
+        TextField field = new TextField(config, installData);
+        assertTrue(field.isValidationBlocking());
+
+        final AtomicReference<ValidationStatus> notified = new AtomicReference<ValidationStatus>();
+        ValidationStatus status = field.validateInBackground(new ValidationListener()
+        {
+            @Override
+            public void validated(String[] values, ValidationStatus status)
+            {
+                notified.set(status);
+            }
+        }, "").get(10, TimeUnit.SECONDS);
+
+        assertFalse(status.isValid());
+        assertEquals("failed", status.getMessage());
+        assertSame(status, notified.get());
+
+        // the field is now validated using the cached result
+        assertFalse(field.validate("").isValid());
+        assertEquals(1, CountingValidator.COUNT.get());
+    }
+
+    /**
+     * Verifies that a validation that hasn't completed is reported as incomplete rather than invalid, and that its
+     * result is used once it completes.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testIncompleteValidation() throws Exception
+    {
+        TestFieldConfig config = new TestFieldConfig("var");
+        config.addValidator(new FieldValidator(LatchValidator.class, "failed", factory));
+        TextField field = new TextField(config, installData);
+
+        ValidationStatus status = field.getValidationStatus("a");
+        assertFalse(status.isValid());
+        assertTrue(status.isIncomplete());
+        assertNotNull(status.getMessage());
+
+        LatchValidator.LATCH.get().countDown();
+        status = field.validateInBackground(null, "a").get(10, TimeUnit.SECONDS);
+        assertTrue(status.isValid());
+        assertFalse(status.isIncomplete());
+        assertTrue(field.getValidationStatus("a").isValid());
+    }
+
+    /**
+     * Verifies that concurrent validations don't call the same validator instance concurrently.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testCallsSerialized() throws Exception
+    {
+        final FieldValidator validator = new FieldValidator(ConcurrencyValidator.class, "failed", factory);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 8; ++i)
+            {
+                final String value = Integer.toString(i);
+                results.add(executor.submit(new Callable<Boolean>()
+                {
+                    @Override
+                    public Boolean call()
+                    {
+                        return validator.validate(new String[]{value});
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results)
+            {
+                assertTrue(result.get(30, TimeUnit.SECONDS));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        assertEquals(1, ConcurrencyValidator.MAX_ACTIVE.get());
+    }
+
+    /**
+     * Cacheable validator that counts its invocations, and fails empty values.
+     */
+    public static class CountingValidator implements CacheableValidator
+    {
+        /**
+         * The number of invocations.
+         */
+        static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public boolean validate(ProcessingClient client)
+        {
+            COUNT.incrementAndGet();
+            return client.getText().length() != 0;
+        }
+    }
+
+    /**
+     * Blocking validator that counts its invocations, and passes all values, as if checking state that may change.
+     */
+    public static class StateValidator implements BlockingValidator
+    {
+        /**
+         * The number of invocations.
+         */
+        static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public boolean validate(ProcessingClient client)
+        {
+            COUNT.incrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * Cacheable validator that waits on a latch before passing values.
+     */
+    public static class LatchValidator implements CacheableValidator
+    {
+        /**
+         * The latch to wait on.
+         */
+        static final AtomicReference<CountDownLatch> LATCH = new AtomicReference<CountDownLatch>();
+
+        @Override
+        public boolean validate(ProcessingClient client)
+        {
+            try
+            {
+                return LATCH.get().await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException exception)
+            {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Blocking validator that records the maximum number of concurrent invocations.
+     */
+    public static class ConcurrencyValidator implements BlockingValidator
+    {
+        /**
+         * The number of active invocations.
+         */
+        static final AtomicInteger ACTIVE = new AtomicInteger();
+
+        /**
+         * The maximum number of active invocations.
+         */
+        static final AtomicInteger MAX_ACTIVE = new AtomicInteger();
+
+        @Override
+        public boolean validate(ProcessingClient client)
+        {
+            int active = ACTIVE.incrementAndGet();
+            try
+            {
+                synchronized (MAX_ACTIVE)
+                {
+                    MAX_ACTIVE.set(Math.max(active, MAX_ACTIVE.get()));
+                }
+                Thread.sleep(20);
+                return true;
+            }
+            catch (InterruptedException exception)
+            {
+                return false;
+            }
+            finally
+            {
+                ACTIVE.decrementAndGet();
+            }
+        }
+    }
+}
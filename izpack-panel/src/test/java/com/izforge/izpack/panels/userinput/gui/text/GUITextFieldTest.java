@@ -0,0 +1,95 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.panels.userinput.gui.text;
+
+import com.izforge.izpack.api.factory.ObjectFactory;
+import com.izforge.izpack.api.handler.Prompt;
+import com.izforge.izpack.core.container.DefaultContainer;
+import com.izforge.izpack.core.data.DefaultVariables;
+import com.izforge.izpack.core.factory.DefaultObjectFactory;
+import com.izforge.izpack.installer.data.GUIInstallData;
+import com.izforge.izpack.panels.userinput.field.FieldValidator;
+import com.izforge.izpack.panels.userinput.field.TestFieldConfig;
+import com.izforge.izpack.panels.userinput.field.text.TextField;
+import com.izforge.izpack.panels.userinput.processorclient.ProcessingClient;
+import com.izforge.izpack.panels.userinput.validator.BlockingValidator;
+import com.izforge.izpack.util.Platforms;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+
+/**
+ * Tests the {@link GUITextField}.
+ */
+public class GUITextFieldTest
+{
+
+    /**
+     * Verifies that a field with a fast blocking validator is updated without asking the user to accept values that
+     * couldn't be validated.
+     */
+    @Test
+    public void testFastBlockingValidator()
+    {
+        GUIInstallData installData = new GUIInstallData(new DefaultVariables(), Platforms.LINUX);
+        ObjectFactory factory = new DefaultObjectFactory(new DefaultContainer());
+        TestFieldConfig config = new TestFieldConfig("var");
+        config.setInitialValue("value");
+        config.addValidator(new FieldValidator(FastValidator.class, "failed", factory));
+        TextField model = new TextField(config, installData);
+        assertTrue(model.isValidationBlocking());
+
+        GUITextField field = new GUITextField(model);
+        field.updateView();
+
+        Prompt prompt = Mockito.mock(Prompt.class);
+        assertTrue(field.updateField(prompt));
+        assertEquals("value", installData.getVariable("var"));
+        verify(prompt, never()).confirm(any(Prompt.Type.class), anyString(), anyString(), any(Prompt.Options.class),
+                                        any(Prompt.Option.class));
+    }
+
+    /**
+     * Blocking validator that completes quickly.
+     */
+    public static class FastValidator implements BlockingValidator
+    {
+        @Override
+        public boolean validate(ProcessingClient client)
+        {
+            try
+            {
+                Thread.sleep(20);
+            }
+            catch (InterruptedException exception)
+            {
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.installer.automation;
+
+import com.izforge.izpack.api.data.InstallData;
+import com.izforge.izpack.compiler.CompilerConfig;
+import com.izforge.izpack.compiler.container.TestCompilationContainer;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.izforge.izpack.test.util.TestHelper.assertFileExists;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link InstallerImage} class.
+ */
+public class InstallerImageTest
+{
+    /**
+     * Temporary folder for the installer and the installations.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+    /**
+     * Verifies that two installations can run concurrently from the same image, into separate directories, without
+     * affecting each other's files or variables.
+     *
+     * @throws Exception for any error
+     */
+    @Test
+    public void testConcurrentInstallations() throws Exception
+    {
+        File installer = compile("samples/basicInstall/basicInstall.xml");
+        final InstallerImage image = new InstallerImage(
+                new URLClassLoader(new URL[]{installer.toURI().toURL()}, getClass().getClassLoader()));
+
+        File dir1 = new File(temporaryFolder.getRoot(), "install1");
+        File dir2 = new File(temporaryFolder.getRoot(), "install2");
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            Future<Integer> install1 = executor.submit(createInstallation(image, dir1, barrier));
+            Future<Integer> install2 = executor.submit(createInstallation(image, dir2, barrier));
+            assertEquals(0, (int) install1.get(5, TimeUnit.MINUTES));
+            assertEquals(0, (int) install2.get(5, TimeUnit.MINUTES));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        checkInstalled(dir1);
+        checkInstalled(dir2);
+        assertEquals(getRelativePaths(dir1), getRelativePaths(dir2));
+    }
+
+    /**
+     * Compiles an installer.
+     *
+     * @param installFile the install file resource
+     * @return the installer jar
+     * @throws Exception if compilation fails
+     */
+    private File compile(String installFile) throws Exception
+    {
+        TestCompilationContainer container = new TestCompilationContainer(installFile, temporaryFolder.getRoot());
+        try
+        {
+            container.getComponent(CompilerConfig.class).executeCompiler();
+            return container.getComponent(File.class);
+        }
+        finally
+        {
+            container.dispose();
+        }
+    }
+
+    /**
+     * Creates an installation task, that waits for the other installation to be ready before installing.
+     *
+     * @param image      the installer image
+     * @param installDir the installation directory
+     * @param barrier    the barrier to wait on
+     * @return the installation task, returning the exit code
+     * @throws IOException if the installation record cannot be written
+     */
+    private Callable<Integer> createInstallation(final InstallerImage image, File installDir,
+                                                 final CyclicBarrier barrier) throws IOException
+    {
+        String record = IOUtils.toString(getClass().getResourceAsStream("/samples/basicInstall/auto.xml"), "UTF-8");
+        final File file = new File(temporaryFolder.getRoot(), installDir.getName() + ".xml");
+        FileUtils.writeStringToFile(file, record.replace("${INSTALL_PATH}", installDir.getAbsolutePath()), "UTF-8");
+        return new Callable<Integer>()
+        {
+            @Override
+            public Integer call() throws Exception
+            {
+                barrier.await(1, TimeUnit.MINUTES);
+                return image.install(file.getAbsolutePath(), null, null);
+            }
+        };
+    }
+
+    /**
+     * Verifies that an installation installed its files, and that its variables refer to its own directory.
+     *
+     * @param installDir the installation directory
+     * @throws Exception for any error
+     */
+    private void checkInstalled(File installDir) throws Exception
+    {
+        assertFileExists(installDir, "Readme.txt");
+        assertFileExists(installDir, "Licence.txt");
+        assertFileExists(installDir, "Uninstaller/uninstaller.jar");
+
+        // the parsed script refers to the installation directory
+        File script = new File(installDir, "test/script.bat");
+        assertEquals("echo " + installDir.getAbsolutePath(), FileUtils.readFileToString(script, "UTF-8").trim());
+
+        ObjectInputStream in = new ObjectInputStream(
+                new FileInputStream(new File(installDir, InstallData.INSTALLATION_INFORMATION)));
+        try
+        {
+            in.readObject(); // the installed packs
+            Properties variables = (Properties) in.readObject();
+            assertEquals(installDir.getAbsolutePath(), variables.getProperty(InstallData.INSTALL_PATH));
+            assertEquals(new File(installDir, "test").getAbsolutePath(),
+                         new File(variables.getProperty("myPath")).getAbsolutePath());
+        }
+        finally
+        {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Returns the paths of the files in a directory, relative to the directory.
+     *
+     * @param dir the directory
+     * @return the relative paths
+     */
+    private Set<String> getRelativePaths(File dir)
+    {
+        Set<String> result = new TreeSet<String>();
+        int length = dir.getAbsolutePath().length() + 1;
+        for (File file : FileUtils.listFiles(dir, null, true))
+        {
+            result.add(file.getAbsolutePath().substring(length));
+        }
+        return result;
+    }
+}
@@ -22,13 +22,20 @@
 package com.izforge.izpack.uninstaller.resource;
 
 import com.izforge.izpack.api.exception.IzPackException;
+import com.izforge.izpack.api.exception.ResourceNotFoundException;
 import com.izforge.izpack.api.resource.Resources;
+import com.izforge.izpack.core.io.InstallLogReader;
+import com.izforge.izpack.core.io.InstallLogWriter;
 import org.apache.commons.io.IOUtils;
 
 import java.io.*;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.TreeSet;
 
 
@@ -36,6 +43,10 @@ import java.util.TreeSet;
  * The installation log.
  * <p/>
  * This holds the installation path and the list of installed files.
+ * <p/>
+ * If the installer recorded installed files in a compressed install log, these are merged with the files listed in
+ * the <em>install.log</em> as they are accessed. The blocks of the log are each sorted, and are streamed through a
+ * merge, so the files are returned in leaf first order, without duplicates, without holding them all in memory.
  *
  * @author Tim Anderson
  */
@@ -47,6 +58,11 @@ public class InstallLog
      */
     private static final String INSTALL_LOG = "install.log";
 
+    /**
+     * The compressed install log resource path.
+     */
+    private static final String INSTALL_FILES = "install.files";
+
     /**
      * The installation directory.
      */
@@ -75,7 +91,15 @@ public class InstallLog
             BufferedReader reader = new BufferedReader(inReader);
 
             installPath = getInstallPath(reader);
-            files = getFiles(reader);
+            InstallLogReader installed = getInstallLogReader(resources);
+            if (installed != null)
+            {
+                files = new LeafFirstFileList(getLines(reader), installed);
+            }
+            else
+            {
+                files = getFiles(reader);
+            }
         }
         catch (IOException exception)
         {
@@ -176,5 +200,315 @@ public class InstallLog
         return new ArrayList<File>(files);
     }
 
+    /**
+     * Returns the lines of the <em>install.log</em> following the installation path, in leaf first order.
+     *
+     * @param reader the <em>install.log</em> reader
+     * @return the paths
+     * @throws IOException for any I/O error
+     */
+    private List<String> getLines(BufferedReader reader) throws IOException
+    {
+        List<String> paths = new ArrayList<String>();
+        String read = reader.readLine();
+        while (read != null)
+        {
+            paths.add(read);
+            read = reader.readLine();
+        }
+        Collections.sort(paths, InstallLogWriter.LEAF_FIRST);
+        return paths;
+    }
+
+    /**
+     * Returns a reader for the compressed install log.
+     *
+     * @param resources used to locate the <em>install.files</em> resource
+     * @return the reader, or {@code null} if there is no compressed install log
+     * @throws IOException for any I/O error
+     */
+    private static InstallLogReader getInstallLogReader(Resources resources) throws IOException
+    {
+        InputStream in;
+        try
+        {
+            in = resources.getInputStream(INSTALL_FILES);
+        }
+        catch (ResourceNotFoundException exception)
+        {
+            return null;
+        }
+        if (in == null)
+        {
+            return null;
+        }
+        try
+        {
+            return new InstallLogReader(in);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * A read-only list of installed files, merged from the <em>install.log</em> and the sorted blocks of a
+     * compressed install log.
+     * <p/>
+     * Files are produced by a merge that streams each block, so only one path per block is held in memory. The list
+     * is intended to be accessed sequentially; accessing an earlier element restarts the merge.
+     */
+    private static class LeafFirstFileList extends AbstractList<File>
+    {
+        /**
+         * The <em>install.log</em> paths, in leaf first order.
+         */
+        private final List<String> head;
+
+        /**
+         * The compressed install log.
+         */
+        private final InstallLogReader reader;
+
+        /**
+         * The number of distinct files.
+         */
+        private final int size;
+
+        /**
+         * The current merge, or {@code null} if none has been started.
+         */
+        private Merge merge;
+
+        /**
+         * The index of the last file returned by the merge, or {@code -1} if none has been returned.
+         */
+        private int last = -1;
 
+        /**
+         * The last file returned by the merge.
+         */
+        private File file;
+
+        /**
+         * Constructs a {@code LeafFirstFileList}.
+         *
+         * @param head   the <em>install.log</em> paths, in leaf first order
+         * @param reader the compressed install log
+         * @throws IOException if the install log is corrupt
+         */
+        public LeafFirstFileList(List<String> head, InstallLogReader reader) throws IOException
+        {
+            this.head = head;
+            this.reader = reader;
+            int count = 0;
+            Merge merge = new Merge(head, reader);
+            try
+            {
+                while (merge.next() != null)
+                {
+                    ++count;
+                }
+            }
+            finally
+            {
+                merge.close();
+            }
+            size = count;
+        }
+
+        @Override
+        public synchronized File get(int index)
+        {
+            if (index < 0 || index >= size)
+            {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            try
+            {
+                if (merge == null || index < last)
+                {
+                    if (merge != null)
+                    {
+                        merge.close();
+                    }
+                    merge = new Merge(head, reader);
+                    last = -1;
+                }
+                while (last < index)
+                {
+                    file = new File(merge.next());
+                    ++last;
+                }
+            }
+            catch (IOException exception)
+            {
+                throw new IzPackException(exception);
+            }
+            return file;
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+    }
+
+    /**
+     * Merges sorted runs of paths into a single leaf first sequence, dropping duplicates.
+     */
+    private static class Merge implements Closeable
+    {
+        /**
+         * The runs with remaining paths, ordered on their current path.
+         */
+        private final PriorityQueue<Run> runs;
+
+        /**
+         * The previous path returned.
+         */
+        private String previous;
+
+        /**
+         * Constructs a {@code Merge}.
+         *
+         * @param head   the <em>install.log</em> paths, in leaf first order
+         * @param reader the compressed install log
+         * @throws IOException if the install log is corrupt
+         */
+        public Merge(List<String> head, InstallLogReader reader) throws IOException
+        {
+            runs = new PriorityQueue<Run>(reader.getBlocks() + 1, new Comparator<Run>()
+            {
+                @Override
+                public int compare(Run run1, Run run2)
+                {
+                    return InstallLogWriter.LEAF_FIRST.compare(run1.current, run2.current);
+                }
+            });
+            add(new Run(head.iterator(), null));
+            for (int i = 0; i < reader.getBlocks(); ++i)
+            {
+                add(new Run(null, reader.openBlock(i)));
+            }
+        }
+
+        /**
+         * Returns the next path.
+         *
+         * @return the next path, or {@code null} if there are no more paths
+         * @throws IOException if the install log is corrupt
+         */
+        public String next() throws IOException
+        {
+            Run run;
+            while ((run = runs.poll()) != null)
+            {
+                String path = run.current;
+                add(run);
+                if (previous == null || InstallLogWriter.LEAF_FIRST.compare(previous, path) != 0)
+                {
+                    previous = path;
+                    return path;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Releases the block decompressors.
+         */
+        @Override
+        public void close()
+        {
+            for (Run run : runs)
+            {
+                run.close();
+            }
+            runs.clear();
+        }
+
+        /**
+         * Advances a run, and queues it if it has a path.
+         *
+         * @param run the run
+         * @throws IOException if the install log is corrupt
+         */
+        private void add(Run run) throws IOException
+        {
+            if (run.advance())
+            {
+                runs.add(run);
+            }
+            else
+            {
+                run.close();
+            }
+        }
+    }
+
+    /**
+     * A sorted run of paths, from either the <em>install.log</em> or a block of the compressed install log.
+     */
+    private static class Run
+    {
+        /**
+         * The <em>install.log</em> paths. May be {@code null}.
+         */
+        private final Iterator<String> iterator;
+
+        /**
+         * The block stream. May be {@code null}.
+         */
+        private final InstallLogReader.BlockStream stream;
+
+        /**
+         * The current path.
+         */
+        private String current;
+
+        /**
+         * Constructs a {@code Run}.
+         *
+         * @param iterator the <em>install.log</em> paths. May be {@code null}
+         * @param stream   the block stream. May be {@code null}
+         */
+        public Run(Iterator<String> iterator, InstallLogReader.BlockStream stream)
+        {
+            this.iterator = iterator;
+            this.stream = stream;
+        }
+
+        /**
+         * Moves to the next path.
+         *
+         * @return {@code true} if there is a path, {@code false} if the run is exhausted
+         * @throws IOException if the install log is corrupt
+         */
+        public boolean advance() throws IOException
+        {
+            if (stream != null)
+            {
+                current = stream.next();
+            }
+            else
+            {
+                current = iterator.hasNext() ? iterator.next() : null;
+            }
+            return current != null;
+        }
+
+        /**
+         * Releases the run.
+         */
+        public void close()
+        {
+            if (stream != null)
+            {
+                stream.close();
+            }
+        }
+    }
 }
@@ -26,16 +26,21 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.io.input.ReaderInputStream;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 import com.izforge.izpack.api.resource.Resources;
+import com.izforge.izpack.core.io.InstallLogWriter;
 
 /**
  * Tests the {@link InstallLog} class.
@@ -44,6 +49,11 @@ import com.izforge.izpack.api.resource.Resources;
  */
 public class InstallLogTest
 {
+    /**
+     * Temporary folder for the compressed install log.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
     /**
      * The resources.
@@ -104,4 +114,42 @@ public class InstallLogTest
         assertEquals(new File("myapp/dir1"), installed.get(3));
     }
 
+    /**
+     * Verifies that files recorded in a compressed install log are merged with those in the <em>install.log</em>,
+     * without duplicates, and returned in leaf first order.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testCompressedInstallLog() throws IOException
+    {
+        File file = temporaryFolder.newFile("install.files");
+        InstallLogWriter writer = new InstallLogWriter(file);
+        writer.add("myapp/dir1");
+        writer.add("myapp/dir1/file1");
+        writer.flush();
+        writer.add("myapp/dir2/file2");
+        writer.add("myapp/dir2");
+        writer.add("myapp/dir1/file1");
+        writer.close();
+
+        resources = Mockito.mock(Resources.class);
+        when(resources.getInputStream("install.log")).thenReturn(
+                new ReaderInputStream(new StringReader("myapp\nmyapp/dir2\nmyapp/Uninstaller/uninstaller.jar")));
+        when(resources.getInputStream("install.files")).thenReturn(new FileInputStream(file));
+
+        InstallLog log = new InstallLog(resources);
+        assertEquals("myapp", log.getInstallPath());
+        List<File> installed = log.getInstalled();
+        assertEquals(5, installed.size());
+        assertEquals(new File("myapp/dir2/file2"), installed.get(0));
+        assertEquals(new File("myapp/dir2"), installed.get(1));
+        assertEquals(new File("myapp/dir1/file1"), installed.get(2));
+        assertEquals(new File("myapp/dir1"), installed.get(3));
+        assertEquals(new File("myapp/Uninstaller/uninstaller.jar"), installed.get(4));
+
+        // earlier files can be accessed again
+        assertEquals(new File("myapp/dir2"), installed.get(1));
+        assertEquals(installed, new ArrayList<File>(installed));
+    }
 }
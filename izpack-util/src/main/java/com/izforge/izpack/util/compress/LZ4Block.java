@@ -0,0 +1,467 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.util.compress;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compresses and decompresses blocks in the LZ4 block format.
+ * <p/>
+ * The compressor is a single pass, greedy matcher using a hash table of 4 byte sequences. It favours speed over
+ * ratio, and skips ahead faster the more positions it tries without finding a match, so that incompressible data
+ * passes through quickly.
+ */
+final class LZ4Block
+{
+    /**
+     * The minimum match length.
+     */
+    private static final int MIN_MATCH = 4;
+
+    /**
+     * The number of bytes at the end of a block that are always literals.
+     */
+    private static final int LAST_LITERALS = 5;
+
+    /**
+     * The minimum distance from the start of the last match to the end of a block.
+     */
+    private static final int MF_LIMIT = 12;
+
+    /**
+     * The maximum match offset.
+     */
+    private static final int MAX_DISTANCE = 65535;
+
+    /**
+     * Determines how fast the compressor skips ahead when it finds no matches: the step grows by one every
+     * {@code 1 << SKIP_STRENGTH} misses.
+     */
+    private static final int SKIP_STRENGTH = 6;
+
+    /**
+     * The number of bits of the hash table index.
+     */
+    static final int HASH_LOG = 14;
+
+    /**
+     * The xxHash32 primes.
+     */
+    private static final int PRIME1 = 0x9E3779B1;
+    private static final int PRIME2 = 0x85EBCA77;
+    private static final int PRIME3 = 0xC2B2AE3D;
+    private static final int PRIME4 = 0x27D4EB2F;
+    private static final int PRIME5 = 0x165667B1;
+
+
+    /**
+     * Prevents instantiation.
+     */
+    private LZ4Block()
+    {
+    }
+
+    /**
+     * Returns the maximum compressed length of a block.
+     *
+     * @param length the uncompressed length
+     * @return the maximum compressed length
+     */
+    static int maxCompressedLength(int length)
+    {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses a block.
+     *
+     * @param src       the source buffer
+     * @param srcOff    the offset of the block in the source buffer
+     * @param srcLen    the length of the block
+     * @param dest      the destination buffer, with at least {@link #maxCompressedLength} bytes available
+     * @param destOff   the offset to write to in the destination buffer
+     * @param hashTable the hash table, of {@code 1 << HASH_LOG} entries. Its content is overwritten
+     * @return the compressed length
+     */
+    static int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int[] hashTable)
+    {
+        int end = srcOff + srcLen;
+        int anchor = srcOff;
+        int d = destOff;
+        if (srcLen > MF_LIMIT)
+        {
+            Arrays.fill(hashTable, -1);
+            int limit = end - MF_LIMIT;
+            int matchLimit = end - LAST_LITERALS;
+            int ip = srcOff;
+            int misses = 0;
+            while (ip < limit)
+            {
+                int sequence = readInt(src, ip);
+                int h = hash(sequence);
+                int ref = hashTable[h];
+                hashTable[h] = ip;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence)
+                {
+                    ip += 1 + (misses++ >>> SKIP_STRENGTH);
+                    continue;
+                }
+                misses = 0;
+
+                while (ip > anchor && ref > srcOff && src[ip - 1] == src[ref - 1])
+                {
+                    --ip;
+                    --ref;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength])
+                {
+                    ++matchLength;
+                }
+
+                d = writeSequence(src, anchor, ip - anchor, dest, d, ip - ref, matchLength);
+                ip += matchLength;
+                anchor = ip;
+                if (ip < limit)
+                {
+                    hashTable[hash(readInt(src, ip - 2))] = ip - 2;
+                }
+            }
+        }
+
+        // the last sequence only holds literals
+        int literals = end - anchor;
+        int tokenPos = d++;
+        if (literals >= 15)
+        {
+            dest[tokenPos] = (byte) 0xF0;
+            d = writeLength(literals - 15, dest, d);
+        }
+        else
+        {
+            dest[tokenPos] = (byte) (literals << 4);
+        }
+        System.arraycopy(src, anchor, dest, d, literals);
+        d += literals;
+        return d - destOff;
+    }
+
+    /**
+     * Decompresses a block.
+     *
+     * @param src     the source buffer
+     * @param srcOff  the offset of the compressed block in the source buffer
+     * @param srcLen  the compressed length
+     * @param dest    the destination buffer
+     * @param destOff the offset to write to in the destination buffer
+     * @param destLen the space available in the destination buffer
+     * @return the decompressed length
+     * @throws IOException if the block is corrupt, or doesn't fit in the destination buffer
+     */
+    static int decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen)
+            throws IOException
+    {
+        int s = srcOff;
+        int srcEnd = srcOff + srcLen;
+        int d = destOff;
+        int destEnd = destOff + destLen;
+        while (true)
+        {
+            if (s >= srcEnd)
+            {
+                throw new IOException("Corrupt LZ4 block: unexpected end of block");
+            }
+            int token = src[s++] & 0xFF;
+
+            int literals = token >>> 4;
+            if (literals == 15)
+            {
+                int b;
+                do
+                {
+                    if (s >= srcEnd)
+                    {
+                        throw new IOException("Corrupt LZ4 block: unexpected end of block");
+                    }
+                    b = src[s++] & 0xFF;
+                    literals += b;
+                }
+                while (b == 255);
+            }
+            if (literals > srcEnd - s || literals > destEnd - d)
+            {
+                throw new IOException("Corrupt LZ4 block: literals exceed block");
+            }
+            copy(src, s, dest, d, literals);
+            s += literals;
+            d += literals;
+            if (s == srcEnd)
+            {
+                break;
+            }
+
+            if (srcEnd - s < 2)
+            {
+                throw new IOException("Corrupt LZ4 block: unexpected end of block");
+            }
+            int offset = (src[s++] & 0xFF) | ((src[s++] & 0xFF) << 8);
+            if (offset == 0 || offset > d - destOff)
+            {
+                throw new IOException("Corrupt LZ4 block: invalid match offset " + offset);
+            }
+            int matchLength = token & 0x0F;
+            if (matchLength == 15)
+            {
+                int b;
+                do
+                {
+                    if (s >= srcEnd)
+                    {
+                        throw new IOException("Corrupt LZ4 block: unexpected end of block");
+                    }
+                    b = src[s++] & 0xFF;
+                    matchLength += b;
+                }
+                while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength > destEnd - d)
+            {
+                throw new IOException("Corrupt LZ4 block: match exceeds block");
+            }
+            int ref = d - offset;
+            if (offset >= matchLength)
+            {
+                copy(dest, ref, dest, d, matchLength);
+                d += matchLength;
+            }
+            else
+            {
+                // overlapping match, which repeats the last offset bytes
+                for (int i = 0; i < matchLength; ++i)
+                {
+                    dest[d++] = dest[ref++];
+                }
+            }
+        }
+        return d - destOff;
+    }
+
+    /**
+     * Computes the 32 bit xxHash of a buffer, as used for the LZ4 frame header checksum.
+     *
+     * @param buffer the buffer
+     * @param off    the offset to start at
+     * @param len    the number of bytes to hash
+     * @param seed   the seed
+     * @return the hash
+     */
+    static int xxHash32(byte[] buffer, int off, int len, int seed)
+    {
+        int p = off;
+        int end = off + len;
+        int h;
+        if (len >= 16)
+        {
+            int v1 = seed + PRIME1 + PRIME2;
+            int v2 = seed + PRIME2;
+            int v3 = seed;
+            int v4 = seed - PRIME1;
+            int limit = end - 16;
+            do
+            {
+                v1 = round(v1, readInt(buffer, p));
+                v2 = round(v2, readInt(buffer, p + 4));
+                v3 = round(v3, readInt(buffer, p + 8));
+                v4 = round(v4, readInt(buffer, p + 12));
+                p += 16;
+            }
+            while (p <= limit);
+            h = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) + Integer.rotateLeft(v3, 12)
+                    + Integer.rotateLeft(v4, 18);
+        }
+        else
+        {
+            h = seed + PRIME5;
+        }
+        h += len;
+        while (p + 4 <= end)
+        {
+            h += readInt(buffer, p) * PRIME3;
+            h = Integer.rotateLeft(h, 17) * PRIME4;
+            p += 4;
+        }
+        while (p < end)
+        {
+            h += (buffer[p] & 0xFF) * PRIME5;
+            h = Integer.rotateLeft(h, 11) * PRIME1;
+            ++p;
+        }
+        h ^= h >>> 15;
+        h *= PRIME2;
+        h ^= h >>> 13;
+        h *= PRIME3;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Reads a little-endian int.
+     *
+     * @param buffer the buffer
+     * @param off    the offset of the int
+     * @return the int
+     */
+    static int readInt(byte[] buffer, int off)
+    {
+        return (buffer[off] & 0xFF) | ((buffer[off + 1] & 0xFF) << 8) | ((buffer[off + 2] & 0xFF) << 16)
+                | ((buffer[off + 3] & 0xFF) << 24);
+    }
+
+    /**
+     * Writes a little-endian int.
+     *
+     * @param value  the int
+     * @param buffer the buffer
+     * @param off    the offset to write to
+     */
+    static void writeInt(int value, byte[] buffer, int off)
+    {
+        buffer[off] = (byte) value;
+        buffer[off + 1] = (byte) (value >>> 8);
+        buffer[off + 2] = (byte) (value >>> 16);
+        buffer[off + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * Writes a sequence of literals followed by a match.
+     *
+     * @param src         the source buffer
+     * @param anchor      the offset of the literals in the source buffer
+     * @param literals    the number of literals
+     * @param dest        the destination buffer
+     * @param d           the offset to write to in the destination buffer
+     * @param offset      the match offset
+     * @param matchLength the match length
+     * @return the offset following the sequence in the destination buffer
+     */
+    private static int writeSequence(byte[] src, int anchor, int literals, byte[] dest, int d, int offset,
+                                     int matchLength)
+    {
+        int tokenPos = d++;
+        int token;
+        if (literals >= 15)
+        {
+            token = 0xF0;
+            d = writeLength(literals - 15, dest, d);
+        }
+        else
+        {
+            token = literals << 4;
+        }
+        copy(src, anchor, dest, d, literals);
+        d += literals;
+
+        dest[d++] = (byte) offset;
+        dest[d++] = (byte) (offset >>> 8);
+        int length = matchLength - MIN_MATCH;
+        if (length >= 15)
+        {
+            token |= 0x0F;
+            d = writeLength(length - 15, dest, d);
+        }
+        else
+        {
+            token |= length;
+        }
+        dest[tokenPos] = (byte) token;
+        return d;
+    }
+
+    /**
+     * Writes the continuation bytes of a literal or match length.
+     *
+     * @param length the remaining length
+     * @param dest   the destination buffer
+     * @param d      the offset to write to
+     * @return the offset following the length
+     */
+    private static int writeLength(int length, byte[] dest, int d)
+    {
+        while (length >= 255)
+        {
+            dest[d++] = (byte) 255;
+            length -= 255;
+        }
+        dest[d++] = (byte) length;
+        return d;
+    }
+
+    /**
+     * Copies bytes between non-overlapping ranges. Short runs, which dominate typical data, are copied in a loop
+     * as this is faster than {@code System.arraycopy} for a few bytes.
+     *
+     * @param src     the source buffer
+     * @param srcOff  the offset to copy from
+     * @param dest    the destination buffer
+     * @param destOff the offset to copy to
+     * @param length  the number of bytes to copy
+     */
+    private static void copy(byte[] src, int srcOff, byte[] dest, int destOff, int length)
+    {
+        if (length <= 32)
+        {
+            for (int i = 0; i < length; ++i)
+            {
+                dest[destOff + i] = src[srcOff + i];
+            }
+        }
+        else
+        {
+            System.arraycopy(src, srcOff, dest, destOff, length);
+        }
+    }
+
+    /**
+     * Hashes a 4 byte sequence.
+     *
+     * @param sequence the sequence
+     * @return the hash table index
+     */
+    private static int hash(int sequence)
+    {
+        return (sequence * PRIME1) >>> (32 - HASH_LOG);
+    }
+
+    /**
+     * Performs an xxHash32 accumulator round.
+     *
+     * @param acc   the accumulator
+     * @param input the input
+     * @return the new accumulator
+     */
+    private static int round(int acc, int input)
+    {
+        acc += input * PRIME2;
+        acc = Integer.rotateLeft(acc, 13);
+        return acc * PRIME1;
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.util.compress;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that decompresses data in the LZ4 frame format.
+ * <p/>
+ * Frames with independent blocks of any maximum size are supported. Block and content checksums are skipped,
+ * not verified; the header checksum is verified. The stream ends at the end of the first frame.
+ */
+public class LZ4FrameInputStream extends InputStream
+{
+    /**
+     * The underlying stream.
+     */
+    private final InputStream in;
+
+    /**
+     * The maximum uncompressed size of a block.
+     */
+    private final int maxBlockSize;
+
+    /**
+     * Determines if each block is followed by a checksum.
+     */
+    private final boolean blockChecksum;
+
+    /**
+     * Determines if the frame ends with a content checksum.
+     */
+    private final boolean contentChecksum;
+
+    /**
+     * The compressed data of the current block.
+     */
+    private final byte[] compressed;
+
+    /**
+     * The decompressed data of the current block.
+     */
+    private final byte[] buffer;
+
+    /**
+     * The position of the next byte to return from the buffer.
+     */
+    private int pos;
+
+    /**
+     * The number of bytes in the buffer.
+     */
+    private int limit;
+
+    /**
+     * Determines if the end of the frame has been reached.
+     */
+    private boolean eof;
+
+
+    /**
+     * Constructs an {@code LZ4FrameInputStream}, reading the frame header.
+     *
+     * @param in the underlying stream
+     * @throws IOException if the header cannot be read, or is invalid or unsupported
+     */
+    public LZ4FrameInputStream(InputStream in) throws IOException
+    {
+        this.in = in;
+        byte[] header = new byte[15];
+        readFully(header, 0, 6);
+        if (LZ4Block.readInt(header, 0) != LZ4FrameOutputStream.MAGIC)
+        {
+            throw new IOException("Not an LZ4 frame");
+        }
+        int flags = header[4] & 0xFF;
+        int blockDescriptor = header[5] & 0xFF;
+        if ((flags >>> 6) != 1)
+        {
+            throw new IOException("Unsupported LZ4 frame version: " + (flags >>> 6));
+        }
+        if ((flags & 0x20) == 0)
+        {
+            throw new IOException("Unsupported LZ4 frame: linked blocks");
+        }
+        int sizeCode = (blockDescriptor >>> 4) & 0x07;
+        if (sizeCode < 4)
+        {
+            throw new IOException("Invalid LZ4 frame block size: " + sizeCode);
+        }
+        int length = 6;
+        if ((flags & 0x08) != 0)
+        {
+            // content size
+            readFully(header, length, 8);
+            length += 8;
+        }
+        if ((flags & 0x01) != 0)
+        {
+            // dictionary id
+            readFully(header, length, 4);
+            length += 4;
+        }
+        readFully(header, length, 1);
+        if ((byte) (LZ4Block.xxHash32(header, 4, length - 4, 0) >>> 8) != header[length])
+        {
+            throw new IOException("Corrupt LZ4 frame: header checksum mismatch");
+        }
+        maxBlockSize = 1 << (2 * sizeCode + 8);
+        blockChecksum = (flags & 0x10) != 0;
+        contentChecksum = (flags & 0x04) != 0;
+        compressed = new byte[maxBlockSize];
+        buffer = new byte[maxBlockSize];
+    }
+
+    /**
+     * Reads a byte.
+     *
+     * @return the byte, or {@code -1} if the end of the frame has been reached
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public int read() throws IOException
+    {
+        if (pos == limit && !nextBlock())
+        {
+            return -1;
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    /**
+     * Reads bytes.
+     *
+     * @param b   the buffer to read into
+     * @param off the offset to start at
+     * @param len the maximum number of bytes to read
+     * @return the number of bytes read, or {@code -1} if the end of the frame has been reached
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (len == 0)
+        {
+            return 0;
+        }
+        if (pos == limit && !nextBlock())
+        {
+            return -1;
+        }
+        int n = Math.min(len, limit - pos);
+        System.arraycopy(buffer, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    /**
+     * Returns the number of bytes that can be read without blocking.
+     *
+     * @return the number of decompressed bytes remaining in the current block
+     */
+    @Override
+    public int available()
+    {
+        return limit - pos;
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+
+    /**
+     * Reads and decompresses the next block.
+     *
+     * @return {@code true} if a block was read, {@code false} if the end of the frame was reached
+     * @throws IOException for any I/O error, or if the block is corrupt
+     */
+    private boolean nextBlock() throws IOException
+    {
+        pos = 0;
+        limit = 0;
+        while (limit == 0)
+        {
+            if (eof)
+            {
+                return false;
+            }
+            readFully(compressed, 0, 4);
+            int size = LZ4Block.readInt(compressed, 0);
+            if (size == 0)
+            {
+                if (contentChecksum)
+                {
+                    readFully(compressed, 0, 4);
+                }
+                eof = true;
+                return false;
+            }
+            boolean stored = (size & LZ4FrameOutputStream.UNCOMPRESSED) != 0;
+            size &= ~LZ4FrameOutputStream.UNCOMPRESSED;
+            if (size > maxBlockSize)
+            {
+                throw new IOException("Corrupt LZ4 frame: block size " + size + " exceeds maximum");
+            }
+            if (stored)
+            {
+                readFully(buffer, 0, size);
+                limit = size;
+            }
+            else
+            {
+                readFully(compressed, 0, size);
+                limit = LZ4Block.decompress(compressed, 0, size, buffer, 0, maxBlockSize);
+            }
+            if (blockChecksum)
+            {
+                readFully(compressed, 0, 4);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads exactly {@code len} bytes from the underlying stream.
+     *
+     * @param b   the buffer to read into
+     * @param off the offset to start at
+     * @param len the number of bytes to read
+     * @throws IOException for any I/O error
+     * @throws EOFException if the stream ends first
+     */
+    private void readFully(byte[] b, int off, int len) throws IOException
+    {
+        while (len > 0)
+        {
+            int n = in.read(b, off, len);
+            if (n < 0)
+            {
+                throw new EOFException("Unexpected end of LZ4 frame");
+            }
+            off += n;
+            len -= n;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.util.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that compresses data in the LZ4 frame format.
+ * <p/>
+ * Data is compressed in independent blocks of {@link #BLOCK_SIZE} bytes. Blocks that don't compress are stored
+ * as is. The frame has no content size or checksums, so it can be written in a single pass.
+ */
+public class LZ4FrameOutputStream extends OutputStream
+{
+    /**
+     * The frame magic number.
+     */
+    static final int MAGIC = 0x184D2204;
+
+    /**
+     * The uncompressed size of a block.
+     */
+    static final int BLOCK_SIZE = 64 << 10;
+
+    /**
+     * The frame descriptor flags: version 01, independent blocks.
+     */
+    private static final int FLAGS = 0x60;
+
+    /**
+     * The block descriptor: maximum block size of 64KB.
+     */
+    private static final int BLOCK_DESCRIPTOR = 0x40;
+
+    /**
+     * The flag marking a block stored uncompressed.
+     */
+    static final int UNCOMPRESSED = 0x80000000;
+
+    /**
+     * The underlying stream.
+     */
+    private final OutputStream out;
+
+    /**
+     * The uncompressed data of the current block.
+     */
+    private final byte[] buffer = new byte[BLOCK_SIZE];
+
+    /**
+     * The compressed block, preceded by its size.
+     */
+    private final byte[] compressed = new byte[4 + LZ4Block.maxCompressedLength(BLOCK_SIZE)];
+
+    /**
+     * The compressor hash table.
+     */
+    private final int[] hashTable = new int[1 << LZ4Block.HASH_LOG];
+
+    /**
+     * The number of bytes in the current block.
+     */
+    private int count;
+
+    /**
+     * Determines if the frame has been finished.
+     */
+    private boolean finished;
+
+
+    /**
+     * Constructs an {@code LZ4FrameOutputStream}, writing the frame header.
+     *
+     * @param out the underlying stream
+     * @throws IOException if the header cannot be written
+     */
+    public LZ4FrameOutputStream(OutputStream out) throws IOException
+    {
+        this.out = out;
+        byte[] header = new byte[7];
+        LZ4Block.writeInt(MAGIC, header, 0);
+        header[4] = (byte) FLAGS;
+        header[5] = (byte) BLOCK_DESCRIPTOR;
+        header[6] = (byte) (LZ4Block.xxHash32(header, 4, 2, 0) >>> 8);
+        out.write(header);
+    }
+
+    /**
+     * Writes a byte.
+     *
+     * @param b the byte
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public void write(int b) throws IOException
+    {
+        ensureOpen();
+        if (count == BLOCK_SIZE)
+        {
+            writeBlock();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    /**
+     * Writes bytes.
+     *
+     * @param b   the bytes
+     * @param off the offset to start at
+     * @param len the number of bytes to write
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        ensureOpen();
+        while (len > 0)
+        {
+            if (count == BLOCK_SIZE)
+            {
+                writeBlock();
+            }
+            int n = Math.min(len, BLOCK_SIZE - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Writes the current block and flushes the underlying stream.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        ensureOpen();
+        writeBlock();
+        out.flush();
+    }
+
+    /**
+     * Finishes the frame, without closing the underlying stream.
+     *
+     * @throws IOException for any I/O error
+     */
+    public void finish() throws IOException
+    {
+        if (!finished)
+        {
+            writeBlock();
+            LZ4Block.writeInt(0, compressed, 0);
+            out.write(compressed, 0, 4);
+            finished = true;
+        }
+    }
+
+    /**
+     * Finishes the frame and closes the underlying stream.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            finish();
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Compresses and writes the current block, if it holds any data.
+     *
+     * @throws IOException for any I/O error
+     */
+    private void writeBlock() throws IOException
+    {
+        if (count != 0)
+        {
+            int length = LZ4Block.compress(buffer, 0, count, compressed, 4, hashTable);
+            if (length < count)
+            {
+                LZ4Block.writeInt(length, compressed, 0);
+                out.write(compressed, 0, 4 + length);
+            }
+            else
+            {
+                LZ4Block.writeInt(count | UNCOMPRESSED, compressed, 0);
+                out.write(compressed, 0, 4);
+                out.write(buffer, 0, count);
+            }
+            count = 0;
+        }
+    }
+
+    /**
+     * Verifies that the frame hasn't been finished.
+     *
+     * @throws IOException if the frame has been finished
+     */
+    private void ensureOpen() throws IOException
+    {
+        if (finished)
+        {
+            throw new IOException("LZ4 frame already finished");
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * IzPack - Copyright 2001-2016 Julien Ponge, All Rights Reserved.
+ *
+ * http://izpack.org/
+ * http://izpack.codehaus.org/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.izforge.izpack.util.compress;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link LZ4FrameOutputStream} and {@link LZ4FrameInputStream} classes.
+ */
+public class LZ4FrameStreamTest
+{
+    /**
+     * Verifies that text, random data and empty data survive a round trip, including data spanning several
+     * blocks.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < 3 * LZ4FrameOutputStream.BLOCK_SIZE + 100; ++i)
+        {
+            text.append("Line ").append(i).append(" of some compressible text\n");
+        }
+        byte[] data = text.toString().getBytes("UTF-8");
+        byte[] compressed = compress(data);
+        assertTrue(compressed.length < data.length / 2);
+        assertArrayEquals(data, decompress(compressed));
+
+        byte[] random = new byte[LZ4FrameOutputStream.BLOCK_SIZE + 1000];
+        new Random(42).nextBytes(random);
+        compressed = compress(random);
+        assertTrue(compressed.length < random.length + 32);
+        assertArrayEquals(random, decompress(compressed));
+
+        assertArrayEquals(new byte[0], decompress(compress(new byte[0])));
+        assertArrayEquals(new byte[100], decompress(compress(new byte[100])));
+    }
+
+    /**
+     * Verifies that the frame header matches the LZ4 frame format, and that a frame written by hand is read.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testFormat() throws IOException
+    {
+        byte[] compressed = compress(new byte[0]);
+        assertArrayEquals(bytes(0x04, 0x22, 0x4D, 0x18, 0x60, 0x40, 0x82, 0, 0, 0, 0), compressed);
+
+        // "abc" followed by an overlapping match of 9 bytes, then an empty literal sequence
+        byte[] frame = bytes(0x04, 0x22, 0x4D, 0x18, 0x60, 0x40, 0x82,
+                             7, 0, 0, 0, 0x35, 'a', 'b', 'c', 3, 0, 0x00,
+                             0, 0, 0, 0);
+        assertEquals("abcabcabcabc", new String(decompress(frame), "UTF-8"));
+    }
+
+    /**
+     * Verifies that corrupt frames are rejected.
+     *
+     * @throws IOException for any I/O error
+     */
+    @Test
+    public void testCorrupt() throws IOException
+    {
+        try
+        {
+            decompress(bytes(0x04, 0x22, 0x4D, 0x18, 0x60, 0x40, 0x83, 0, 0, 0, 0));
+            fail("Expected header checksum mismatch");
+        }
+        catch (IOException expected)
+        {
+            // expected
+        }
+
+        try
+        {
+            // match offset before the start of the block
+            decompress(bytes(0x04, 0x22, 0x4D, 0x18, 0x60, 0x40, 0x82,
+                             7, 0, 0, 0, 0x35, 'a', 'b', 'c', 4, 0, 0x00,
+                             0, 0, 0, 0));
+            fail("Expected invalid match offset");
+        }
+        catch (IOException expected)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * Verifies the xxHash32 implementation against reference values.
+     *
+     * @throws IOException if UTF-8 isn't supported
+     */
+    @Test
+    public void testXXHash32() throws IOException
+    {
+        assertEquals(0x02CC5D05, LZ4Block.xxHash32(new byte[0], 0, 0, 0));
+        byte[] abc = "abc".getBytes("UTF-8");
+        assertEquals(0x32D153FF, LZ4Block.xxHash32(abc, 0, abc.length, 0));
+        byte[] text = "Nobody inspects the spammish repetition".getBytes("UTF-8");
+        assertEquals(0xE2293B2F, LZ4Block.xxHash32(text, 0, text.length, 0));
+    }
+
+    /**
+     * Compresses data.
+     *
+     * @param data the data
+     * @return the LZ4 frame
+     * @throws IOException for any I/O error
+     */
+    private static byte[] compress(byte[] data) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        LZ4FrameOutputStream out = new LZ4FrameOutputStream(bytes);
+        out.write(data, 0, data.length / 2);
+        for (int i = data.length / 2; i < data.length / 2 + 10 && i < data.length; ++i)
+        {
+            out.write(data[i]);
+        }
+        int written = Math.min(data.length, data.length / 2 + 10);
+        out.write(data, written, data.length - written);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompresses an LZ4 frame.
+     *
+     * @param frame the frame
+     * @return the decompressed data
+     * @throws IOException for any I/O error
+     */
+    private static byte[] decompress(byte[] frame) throws IOException
+    {
+        LZ4FrameInputStream in = new LZ4FrameInputStream(new ByteArrayInputStream(frame));
+        try
+        {
+            return IOUtils.toByteArray(in);
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * Converts ints to bytes.
+     *
+     * @param values the values
+     * @return the values as bytes
+     */
+    private static byte[] bytes(int... values)
+    {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; ++i)
+        {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+}